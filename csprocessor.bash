@@ -7,11 +7,11 @@ _csprocessor()
 	COMPREPLY=()
 	cur=`_get_cword`
 
-	commands='add-revision assemble build checkout create edit info list preview publish pull pull-snapshot push push-translation revisions search setup snapshot status sync-translation template validate'
+	commands='add-revision assemble build build-all checkout create edit info list preview publish pull pull-snapshot push push-translation revisions search setup snapshot status sync-translation template validate'
 
 	if [[ $COMP_CWORD -eq 1 ]] ; then
 		if [[ "$cur" == -* ]]; then
-			COMPREPLY=( $( compgen -W '--host --config --help --username' -- $cur ) )
+			COMPREPLY=( $( compgen -W '--host --config --help --username --daemon --ids-file --batch-concurrency --profile --profile-file --metrics-file' -- $cur ) )
 		else
 			COMPREPLY=( $( compgen -W "$commands" -- $cur ) )
 		fi
@@ -47,7 +47,7 @@ _csprocessor()
 
 		command=${COMP_WORDS[1]}
 
-        build_options='--hide-errors --show-contentspec --hide-injections --override --publican.cfg-override --injection-types --hide-bug-links --old-bug-links --force-bug-links --output --editor-links --lang --target-lang --show-report --fetch-pubsnum --revision --latest --draft --show-remarks --rev-message --flatten-topics --flatten --yes --format --skip-bug-link-validation --suggest-chunk-depth --fail-on-build-error --fail-on-build-warning --disable-ssl-cert --zanata-server --zanata-project --zanata-version'
+        build_options='--hide-errors --show-contentspec --hide-injections --override --publican.cfg-override --injection-types --hide-bug-links --old-bug-links --force-bug-links --output --editor-links --lang --target-lang --show-report --fetch-pubsnum --revision --latest --draft --show-remarks --rev-message --flatten-topics --flatten --yes --format --skip-bug-link-validation --suggest-chunk-depth --fail-on-build-error --fail-on-build-warning --disable-ssl-cert --zanata-server --zanata-project --zanata-version --profile --profile-file --metrics-file'
 
 		if [[ "$cur" == -* ]]; then
 			# possible options for the command
@@ -56,9 +56,9 @@ _csprocessor()
 					options='--date --email --firstname --rev-message --revnumber --surname'
 					;;
                 assemble)
-                    options="$build_options --no-build --hide-output --no-publican-build --publican-config"
+                    options="$build_options --no-build --save-zip --hide-output --no-publican-build --publican-config"
                     ;;
-                build)
+                build|build-all)
                     options=$build_options
                     ;;
                 checkout)
@@ -74,10 +74,10 @@ _csprocessor()
                     options='--limit'
                     ;;
                 preview)
-                    options="$build_options --no-build --hide-output --no-publican-build --publican-config --no-assemble"
+                    options="$build_options --no-build --save-zip --hide-output --no-publican-build --publican-config --no-assemble"
                     ;;
                 publish)
-                    options="$build_options --no-build --hide-output --no-publican-build --publican-config --no-assemble --pub-message"
+                    options="$build_options --no-build --save-zip --hide-output --no-publican-build --publican-config --no-assemble --pub-message"
                     ;;
                 pull)
                     options='--content-spec --topic --revision --output'
@@ -94,6 +94,9 @@ _csprocessor()
                 revisions)
                     options='--content-spec --topic'
                     ;;
+                search)
+                    options='--local'
+                    ;;
                 snapshot)
                     options='--max-topic-revision --latest --new --message --rev-history'
                     ;;
@@ -25,12 +25,15 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.ResourceBundle;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
@@ -38,9 +41,12 @@ import com.beust.jcommander.ParameterException;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.HierarchicalINIConfiguration;
 import org.apache.commons.configuration.SubnodeConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.apache.http.client.HttpClient;
 import org.apache.log4j.Logger;
 import org.jboss.pressgang.ccms.contentspec.client.commands.AddRevisionCommand;
 import org.jboss.pressgang.ccms.contentspec.client.commands.AssembleCommand;
+import org.jboss.pressgang.ccms.contentspec.client.commands.BuildAllCommand;
 import org.jboss.pressgang.ccms.contentspec.client.commands.BuildCommand;
 import org.jboss.pressgang.ccms.contentspec.client.commands.CheckoutCommand;
 import org.jboss.pressgang.ccms.contentspec.client.commands.CreateCommand;
@@ -61,16 +67,28 @@ import org.jboss.pressgang.ccms.contentspec.client.commands.SyncTranslationComma
 import org.jboss.pressgang.ccms.contentspec.client.commands.TemplateCommand;
 import org.jboss.pressgang.ccms.contentspec.client.commands.ValidateCommand;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommand;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.BatchCommand;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.MultiSpecCommand;
 import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ServerConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ZanataServerConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.ConfigConstants;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.jboss.pressgang.ccms.contentspec.client.exception.ClientExitException;
 import org.jboss.pressgang.ccms.contentspec.client.entities.ConfigDefaults;
+import org.jboss.pressgang.ccms.contentspec.client.entities.RESTConditionalRequestInterceptor;
+import org.jboss.pressgang.ccms.contentspec.client.entities.RESTConnectionPoolInterceptor;
+import org.jboss.pressgang.ccms.contentspec.client.entities.RESTMetricsInterceptor;
+import org.jboss.pressgang.ccms.contentspec.client.entities.RESTRevisionCacheInterceptor;
 import org.jboss.pressgang.ccms.contentspec.client.entities.RESTVersionDecorator;
+import org.jboss.pressgang.ccms.contentspec.client.utils.BatchRunner;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
+import org.jboss.pressgang.ccms.contentspec.client.utils.DiskEntityCache;
+import org.jboss.pressgang.ccms.contentspec.client.utils.ExitHandler;
 import org.jboss.pressgang.ccms.contentspec.client.utils.LoggingUtilities;
+import org.jboss.pressgang.ccms.contentspec.client.utils.Profiler;
 import org.jboss.pressgang.ccms.contentspec.interfaces.ShutdownAbleApp;
 import org.jboss.pressgang.ccms.provider.RESTProviderFactory;
 import org.jboss.pressgang.ccms.provider.exception.ProviderException;
@@ -93,6 +111,18 @@ public class Client implements BaseCommand, ShutdownAbleApp {
      */
     private HashMap<String, BaseCommand> commands = new HashMap<String, BaseCommand>();
 
+    private static final AtomicBoolean systemErrTied = new AtomicBoolean(false);
+    /**
+     * The provider factories that have been created by this process, so that every command run against a server with the same
+     * cache and http settings shares the same REST client and caches.
+     */
+    private static final Map<String, RESTProviderFactory> providerFactories = new HashMap<String, RESTProviderFactory>();
+    /**
+     * The pooled http clients that have been created by this process, so that connections are still reused once the provider
+     * factories have been cleared.
+     */
+    private static final Map<String, HttpClient> httpClients = new HashMap<String, HttpClient>();
+
     private RESTProviderFactory providerFactory = null;
 
     private BaseCommand command;
@@ -121,9 +151,38 @@ public class Client implements BaseCommand, ShutdownAbleApp {
     @Parameter(names = Constants.DISABLE_SSL_CERT_CHECK, descriptionKey = "DISABLE_SSL_CERT_CHECK")
     private Boolean disableSSLCert = false;
 
+    @Parameter(names = Constants.DAEMON_LONG_PARAM, descriptionKey = "DAEMON")
+    private Boolean daemon = false;
+
+    @Parameter(names = Constants.IDS_FILE_LONG_PARAM, descriptionKey = "IDS_FILE", metaVar = "<FILE>")
+    private String idsFile;
+
+    @Parameter(names = Constants.BATCH_CONCURRENCY_LONG_PARAM, descriptionKey = "BATCH_CONCURRENCY", metaVar = "<THREADS>")
+    private Integer batchConcurrency = null;
+
+    @Parameter(names = Constants.PROFILE_LONG_PARAM, descriptionKey = "PROFILE")
+    private Boolean profile = false;
+
+    @Parameter(names = Constants.PROFILE_FILE_LONG_PARAM, descriptionKey = "PROFILE_FILE", metaVar = "<FILE>")
+    private String profileFile;
+
+    @Parameter(names = Constants.METRICS_FILE_LONG_PARAM, descriptionKey = "METRICS_FILE", metaVar = "<FILE>")
+    private String metricsFile;
+
+    /**
+     * The content spec id/file the command should be run for, if the client is running a single content spec from a batch.
+     */
+    private String batchId = null;
+    /**
+     * If the client should use the provider factory shared by the process, or create its own because it is running a content spec
+     * from a batch at the same time as other content specs.
+     */
+    private boolean shareProviderFactory = true;
+
     private final AtomicBoolean isShuttingDown = new AtomicBoolean(false);
     protected final AtomicBoolean shutdown = new AtomicBoolean(false);
     protected final AtomicBoolean isProcessingCommand = new AtomicBoolean(false);
+    private final AtomicReference<Runnable> profileReport = new AtomicReference<Runnable>();
 
     public static void main(String[] args) {
         Client client = new Client();
@@ -144,8 +203,10 @@ public class Client implements BaseCommand, ShutdownAbleApp {
     public void setup() {
         System.setProperty("pressgang.rest.cache.timeout", "20");
 
-        /* Set stderr to log to log4j */
-        LoggingUtilities.tieSystemErrToLog(Logger.getLogger(Client.class));
+        /* Set stderr to log to log4j. This is only done once, as the daemon and batch runs setup a client for every command. */
+        if (systemErrTied.compareAndSet(false, true)) {
+            LoggingUtilities.tieSystemErrToLog(Logger.getLogger(Client.class));
+        }
 
         // Set the column width
         try {
@@ -186,7 +247,26 @@ public class Client implements BaseCommand, ShutdownAbleApp {
             command = commands.get(commandName);
         }
 
-        // Process the command
+        // Start recording where the time is spent if requested. Commands run for a batch are recorded by the client running the batch.
+        if (batchId == null) {
+            startProfiling();
+        }
+        try {
+            processCommand(args);
+        } finally {
+            finishProfiling();
+        }
+
+        // The command is finished so set the client as shutdown
+        setShutdown(true);
+    }
+
+    /**
+     * Process the command that was parsed from the command line arguments.
+     *
+     * @param args The array of arguments from the command line
+     */
+    protected void processCommand(final String[] args) {
         if (command.isShowHelp() || isShowHelp() || args.length == 0) {
             command.printHelp();
         } else if (command.isShowVersion() || isShowVersion()) {
@@ -195,54 +275,66 @@ public class Client implements BaseCommand, ShutdownAbleApp {
                     VersionUtilities.getAPIVersion(Constants.VERSION_PROPERTIES_FILENAME, Constants.VERSION_PROPERTY_NAME), false);
         } else if (command instanceof SetupCommand || command instanceof TemplateCommand) {
             command.process();
+        } else if (command == this && isDaemon()) {
+            startDaemon();
+        } else if (batchId == null && isBatch(command)) {
+            processBatch(args, (BatchCommand) command);
         } else {
-            // Print the version details
-            printVersionDetails(ClientUtilities.getMessage("BUILD_MSG"),
-                    VersionUtilities.getAPIVersion(Constants.VERSION_PROPERTIES_FILENAME, Constants.VERSION_PROPERTY_NAME), false);
+            if (batchId == null) {
+                // Print the version details
+                printVersionDetails(ClientUtilities.getMessage("BUILD_MSG"),
+                        VersionUtilities.getAPIVersion(Constants.VERSION_PROPERTIES_FILENAME, Constants.VERSION_PROPERTY_NAME), false);
+            } else {
+                // Only run the command for the content spec from the batch
+                try {
+                    ((BatchCommand) command).setBatchId(batchId);
+                } catch (NumberFormatException e) {
+                    printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, ClientUtilities.getMessage("ERROR_INVALID_BATCH_ID_MSG"), false);
+                }
+            }
 
             // Good point to check for a shutdown
             allowShutdownToContinueIfRequested();
 
             // Move the main parameters into the sub command
-            if (getConfigLocation() != null) {
-                command.setConfigLocation(getConfigLocation());
-            }
-
-            if (getServerUrl() != null) {
-                command.setServerUrl(getServerUrl());
-            }
-
-            if (getUsername() != null) {
-                command.setUsername(getUsername());
-            }
+            applyMainParameters();
 
             // Load the configuration options. If it fails then stop the program
-            if (!setConfigOptions(command.getConfigLocation())) {
-                shutdown(Constants.EXIT_CONFIG_ERROR);
-            }
-
-            // Good point to check for a shutdown
-            allowShutdownToContinueIfRequested();
-
-            // If we are loading from csprocessor.cfg then display a message
-            if (command.loadFromCSProcessorCfg()) {
-                JCommander.getConsole().println(ClientUtilities.getMessage("CSP_CONFIG_LOADING_MSG"));
+            final Profiler.Timer configTimer = Profiler.start(Profiler.CONFIG_LOAD);
+            try {
+                if (!setConfigOptions(command.getConfigLocation())) {
+                    shutdown(Constants.EXIT_CONFIG_ERROR);
+                }
 
-                // Load the csprocessor.cfg file from the current directory
-                try {
-                    if (csprocessorcfg.exists() && csprocessorcfg.isFile()) {
-                        ClientUtilities.readFromCsprocessorCfg(csprocessorcfg, cspConfig);
-                        if (cspConfig.getContentSpecId() == null) {
-                            printErrorAndShutdown(Constants.EXIT_CONFIG_ERROR, ClientUtilities.getMessage("ERROR_INVALID_CSPROCESSOR_CFG_MSG"), false);
+                // Good point to check for a shutdown
+                allowShutdownToContinueIfRequested();
+
+                // If we are loading from csprocessor.cfg then display a message
+                if (command.loadFromCSProcessorCfg()) {
+                    JCommander.getConsole().println(ClientUtilities.getMessage("CSP_CONFIG_LOADING_MSG"));
+
+                    // Load the csprocessor.cfg file from the current directory
+                    try {
+                        if (csprocessorcfg.exists() && csprocessorcfg.isFile()) {
+                            ClientUtilities.readFromCsprocessorCfg(csprocessorcfg, cspConfig);
+                            if (cspConfig.getContentSpecId() == null) {
+                                printErrorAndShutdown(Constants.EXIT_CONFIG_ERROR,
+                                        ClientUtilities.getMessage("ERROR_INVALID_CSPROCESSOR_CFG_MSG"), false);
+                            }
                         }
+                    } catch (ClientExitException e) {
+                        // The csprocessor.cfg was invalid and the exit was trapped, so make sure the command still stops
+                        throw e;
+                    } catch (Exception e) {
+                        // Do nothing if the csprocessor.cfg file couldn't be read
                     }
-                } catch (Exception e) {
-                    // Do nothing if the csprocessor.cfg file couldn't be read
                 }
-            }
 
-            // Apply the settings from the csprocessor.cfg, csprocessor.ini & command line.
-            applySettings();
+                // Apply the settings from the csprocessor.cfg, csprocessor.ini & command line.
+                applySettings();
+            } finally {
+                configTimer.stop();
+            }
 
             // Good point to check for a shutdown
             allowShutdownToContinueIfRequested();
@@ -250,19 +342,44 @@ public class Client implements BaseCommand, ShutdownAbleApp {
             // Check if an external connection is required by the command
             if (command.requiresExternalConnection()) {
                 isProcessingCommand.set(true);
+                // Configure the downloads and caches used for the server. Items from a batch share the ones configured for the batch.
+                if (batchId == null) {
+                    configureServerResources(command.getPressGangServerUrl());
+                }
+
                 // Check that the server Urls are valid
-                command.validateServerUrl();
+                final boolean serverVerified = ClientUtilities.isServerVerified(command.getPressGangServerUrl());
+                final Profiler.Timer serverCheckTimer = Profiler.start(Profiler.SERVER_CHECK);
+                try {
+                    command.validateServerUrl();
+                } finally {
+                    serverCheckTimer.stop();
+                }
                 final String uiServerURL = command.getServerUrl().replaceFirst("/TopicIndex.*", "/pressgang-ccms-ui/").replaceFirst(
                     "/pressgang-ccms.*", "/pressgang-ccms-ui/");
                 System.setProperty(CommonConstants.PRESS_GANG_UI_SYSTEM_PROPERTY, uiServerURL);
 
-                // Create the Provider Factory
-                providerFactory = RESTProviderFactory.create(command.getPressGangServerUrl());
-                providerFactory.getRESTManager().getProxyFactory().getProviderFactory().registerProvider(RESTVersionDecorator.class);
+                // Get the Provider Factory
+                providerFactory = getProviderFactory(command.getPressGangServerUrl());
+
+                // Check that the version is valid, unless it was checked by a recent command. In that case the first request the
+                // command makes will fail if the server has since become unavailable or been upgraded.
+                if (!serverVerified) {
+                    final Profiler.Timer versionCheckTimer = Profiler.start(Profiler.VERSION_CHECK);
+                    try {
+                        if (!doVersionCheck(providerFactory.getRESTManager().getRESTClient())) {
+                            printErrorAndShutdown(Constants.EXIT_UPGRADE_REQUIRED, ClientUtilities.getMessage("ERROR_APP_OUT_OF_DATE_MSG"),
+                                    false);
+                        }
+                    } finally {
+                        versionCheckTimer.stop();
+                    }
+                    ClientUtilities.setServerVerified(command.getPressGangServerUrl());
+                }
 
-                // Check that the version is valid
-                if (!doVersionCheck(providerFactory.getRESTManager().getRESTClient())) {
-                    printErrorAndShutdown(Constants.EXIT_UPGRADE_REQUIRED, ClientUtilities.getMessage("ERROR_APP_OUT_OF_DATE_MSG"), false);
+                // Use the same provider factory and caches for the version check and the command
+                if (command instanceof BaseCommandImpl) {
+                    ((BaseCommandImpl) command).setProviderFactory(providerFactory);
                 }
 
                 isProcessingCommand.set(false);
@@ -276,20 +393,186 @@ public class Client implements BaseCommand, ShutdownAbleApp {
 
             // Process the commands
             isProcessingCommand.set(true);
+            final Profiler.Timer commandTimer = Profiler.start(Profiler.COMMAND);
             try {
-                command.process();
+                if (command instanceof BuildCommand && ((BuildCommand) command).getWatch()) {
+                    ((BuildCommand) command).watch();
+                } else {
+                    command.process();
+                }
+            } catch (UpgradeException e) {
+                invalidateServerVerification();
+                printErrorAndShutdown(Constants.EXIT_UPGRADE_REQUIRED, ClientUtilities.getMessage("ERROR_APP_OUT_OF_DATE_MSG"), false);
             } catch (ProviderException e) {
+                invalidateServerVerification();
                 printError(ClientUtilities.getMessage("ERROR_INTERNAL_ERROR"), false);
                 JCommander.getConsole().println(ExceptionUtilities.getStackTrace(e));
+            } catch (ClientExitException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // The server may no longer be available, so make sure it's checked again by the next command
+                if (isConnectionFailure(e)) {
+                    invalidateServerVerification();
+                }
+                throw e;
+            } finally {
+                commandTimer.stop();
             }
             isProcessingCommand.set(false);
 
             // Add a newline just to separate the output
             JCommander.getConsole().println("");
         }
+    }
 
-        // The command is finished so set the client as shutdown
-        setShutdown(true);
+    /**
+     * Start recording where the time is spent and the REST calls made, if the command was asked to report on them. Only one
+     * command in the process can be recorded at a time, so a command run while another is being recorded isn't recorded.
+     */
+    protected void startProfiling() {
+        final boolean profiling = isProfile() || getProfileFile() != null || command.isProfile() || command.getProfileFile() != null;
+        final boolean metrics = getMetricsFile() != null || command.getMetricsFile() != null;
+        if (!profiling && !metrics) return;
+
+        if (Profiler.begin(profiling)) {
+            ClientUtilities.getRESTMetrics().reset();
+            profileReport.set(new Runnable() {
+                @Override
+                public void run() {
+                    reportProfile();
+                }
+            });
+            ExitHandler.addExitTask(profileReport.get());
+        } else {
+            printWarn(ClientUtilities.getMessage("WARN_PROFILE_IN_USE_MSG"));
+        }
+    }
+
+    /**
+     * Report where the time was spent and the REST calls made, if they were recorded for the command. This is run once the command
+     * has finished, or before the application exits if the command stops it.
+     */
+    protected void finishProfiling() {
+        final Runnable report = profileReport.getAndSet(null);
+        if (report != null) {
+            ExitHandler.removeExitTask(report);
+            report.run();
+        }
+    }
+
+    private void reportProfile() {
+        try {
+            Profiler.stopRunningTimers();
+            if (Profiler.isEnabled()) {
+                printProfile(command.getProfileFile() == null ? getProfileFile() : command.getProfileFile());
+            }
+            if (getMetricsFile() != null || command.getMetricsFile() != null) {
+                saveRESTMetrics(command.getMetricsFile() == null ? getMetricsFile() : command.getMetricsFile());
+            }
+        } finally {
+            Profiler.end();
+        }
+    }
+
+    /**
+     * Print a breakdown of where the time was spent running the command, and save it as JSON if a file was specified.
+     *
+     * @param profileFile The file to save the breakdown to, or null if it shouldn't be saved.
+     */
+    protected void printProfile(final String profileFile) {
+        JCommander.getConsole().println(ClientUtilities.getMessage("PROFILE_MSG"));
+        JCommander.getConsole().println(Profiler.formatTable());
+        if (!ClientUtilities.getRESTMetrics().getEndpoints().isEmpty()) {
+            JCommander.getConsole().println(ClientUtilities.getMessage("REST_METRICS_MSG"));
+            JCommander.getConsole().println(ClientUtilities.getRESTMetrics().formatTable());
+        }
+
+        if (profileFile != null) {
+            final File file = new File(ClientUtilities.fixFilePath(profileFile));
+            try {
+                Profiler.writeJSON(file);
+                JCommander.getConsole().println(ClientUtilities.getMessage("PROFILE_SAVED_MSG", file.getAbsolutePath()));
+            } catch (IOException e) {
+                printError(ClientUtilities.getMessage("ERROR_FAILED_SAVING_FILE_MSG", file.getAbsolutePath()), false);
+            }
+        }
+    }
+
+    /**
+     * Move the parameters passed to the client into the command being run.
+     */
+    protected void applyMainParameters() {
+        if (getConfigLocation() != null) {
+            command.setConfigLocation(getConfigLocation());
+        }
+
+        if (getServerUrl() != null) {
+            command.setServerUrl(getServerUrl());
+        }
+
+        if (getUsername() != null) {
+            command.setUsername(getUsername());
+        }
+
+        // Commands that schedule their own content specs need the batch options
+        if (command instanceof MultiSpecCommand) {
+            ((MultiSpecCommand) command).setIdsFile(getIdsFile());
+            ((MultiSpecCommand) command).setConcurrency(getBatchConcurrency());
+        }
+    }
+
+    /**
+     * Configure the topic downloads, user cache and server checks for a server. These are shared by the whole process, so they
+     * must not be reconfigured while the items of a batch are being run.
+     *
+     * @param serverUrl The URL of the server the command will be run against.
+     */
+    protected void configureServerResources(final String serverUrl) {
+        ClientUtilities.configureServerVerifications(clientConfig, serverUrl);
+        ClientUtilities.configureDownloads(clientConfig, serverUrl);
+        ClientUtilities.configureUserCache(clientConfig, serverUrl);
+    }
+
+    /**
+     * Remove the record of the commands server having been checked, so that the next command will check it again.
+     */
+    protected void invalidateServerVerification() {
+        if (command.requiresExternalConnection() && command.getPressGangServerUrl() != null) {
+            ClientUtilities.invalidateServerVerification(command.getPressGangServerUrl());
+        }
+    }
+
+    /**
+     * Check if an error was caused by a failure talking to the server, as opposed to a bug or bad input in the command.
+     *
+     * @param e The error to check.
+     * @return True if the error, or one of its causes, is a failed connection or request to the server.
+     */
+    protected static boolean isConnectionFailure(final Throwable e) {
+        Throwable cause = e;
+        while (cause != null) {
+            if (cause instanceof IOException || cause instanceof ClientResponseFailure || cause instanceof ProviderException) {
+                return true;
+            }
+            cause = cause.getCause() == cause ? null : cause.getCause();
+        }
+
+        return false;
+    }
+
+    /**
+     * Save the metrics for the REST calls made by the command, in a format that can be scraped or compared between runs.
+     *
+     * @param metricsFile The file to save the metrics to.
+     */
+    protected void saveRESTMetrics(final String metricsFile) {
+        final File file = new File(ClientUtilities.fixFilePath(metricsFile));
+        try {
+            FileUtils.writeStringToFile(file, ClientUtilities.getRESTMetrics().toPrometheusText(), "UTF-8");
+            JCommander.getConsole().println(ClientUtilities.getMessage("METRICS_SAVED_MSG", file.getAbsolutePath()));
+        } catch (IOException e) {
+            printError(ClientUtilities.getMessage("ERROR_FAILED_SAVING_FILE_MSG", file.getAbsolutePath()), false);
+        }
     }
 
     /**
@@ -304,6 +587,7 @@ public class Client implements BaseCommand, ShutdownAbleApp {
         final AddRevisionCommand addRevision = new AddRevisionCommand(parser, cspConfig, clientConfig);
         final AssembleCommand assemble = new AssembleCommand(parser, cspConfig, clientConfig);
         final BuildCommand build = new BuildCommand(parser, cspConfig, clientConfig);
+        final BuildAllCommand buildAll = new BuildAllCommand(parser, cspConfig, clientConfig);
         final CheckoutCommand checkout = new CheckoutCommand(parser, cspConfig, clientConfig);
         final CreateCommand create = new CreateCommand(parser, cspConfig, clientConfig);
 //        final ChecksumCommand checksum = new ChecksumCommand(parser, cspConfig, clientConfig);
@@ -334,6 +618,9 @@ public class Client implements BaseCommand, ShutdownAbleApp {
         parser.addCommand(build.getCommandName(), build);
         commands.put(build.getCommandName(), build);
 
+        parser.addCommand(buildAll.getCommandName(), buildAll);
+        commands.put(buildAll.getCommandName(), buildAll);
+
         parser.addCommand(checkout.getCommandName(), checkout);
         commands.put(checkout.getCommandName(), checkout);
 
@@ -534,6 +821,245 @@ public class Client implements BaseCommand, ShutdownAbleApp {
         }
     }
 
+    /**
+     * Get the Provider Factory used to connect to the PressGang REST API, creating it if this is the first time the server
+     * has been used by this process with the current cache and http settings. Clients running a content spec from a batch in
+     * parallel always get a new Provider Factory, which still shares the disk cache and pooled http client.
+     *
+     * @param serverUrl The URL of the PressGang REST API.
+     * @return The Provider Factory for the server.
+     */
+    protected RESTProviderFactory getProviderFactory(final String serverUrl) {
+        if (!shareProviderFactory) {
+            return createProviderFactory(serverUrl);
+        }
+
+        final String key = serverUrl + "|" + getEntityCacheKey() + "|" + getHttpClientKey();
+        synchronized (providerFactories) {
+            RESTProviderFactory providerFactory = providerFactories.get(key);
+            if (providerFactory == null) {
+                providerFactory = createProviderFactory(serverUrl);
+                providerFactories.put(key, providerFactory);
+            }
+            return providerFactory;
+        }
+    }
+
+    /**
+     * Remove the provider factories created by previous commands, so that the entities held in their caches aren't used by the
+     * next command. The pooled http clients are kept, so their open connections can still be reused.
+     */
+    public static void clearProviderFactories() {
+        synchronized (providerFactories) {
+            providerFactories.clear();
+        }
+    }
+
+    /**
+     * Get the pooled http client for the current http settings, creating it if this is the first time the settings have been
+     * used by this process.
+     *
+     * @return The http client to send REST requests with.
+     */
+    protected HttpClient getPooledHttpClient() {
+        final String key = getHttpClientKey();
+        synchronized (httpClients) {
+            HttpClient httpClient = httpClients.get(key);
+            if (httpClient == null) {
+                httpClient = ClientUtilities.createPooledHttpClient(clientConfig);
+                httpClients.put(key, httpClient);
+            }
+            return httpClient;
+        }
+    }
+
+    private String getEntityCacheKey() {
+        if (clientConfig.getCacheSize() != null && clientConfig.getCacheSize() > 0) {
+            return ClientUtilities.getEntityCacheDirectory(clientConfig).getAbsolutePath() + "|" + clientConfig.getCacheSize();
+        } else {
+            return "";
+        }
+    }
+
+    private String getHttpClientKey() {
+        return clientConfig.getHttpConnections() + "|" + clientConfig.getHttpConnectionsPerHost() + "|"
+                + clientConfig.getDownloadConnectionsPerHost() + "|" + clientConfig.getHttpKeepAlive() + "|"
+                + clientConfig.getHttpConnectTimeout() + "|" + clientConfig.getHttpSocketTimeout();
+    }
+
+    /**
+     * Create the Provider Factory used to connect to the PressGang REST API.
+     *
+     * @param serverUrl The URL of the PressGang REST API.
+     * @return The Provider Factory for the server.
+     */
+    protected RESTProviderFactory createProviderFactory(final String serverUrl) {
+        final RESTProviderFactory providerFactory = RESTProviderFactory.create(serverUrl);
+        providerFactory.getRESTManager().getProxyFactory().getProviderFactory().registerProvider(RESTVersionDecorator.class);
+        DiskEntityCache entityCache = null;
+        if (clientConfig.getCacheSize() != null && clientConfig.getCacheSize() > 0) {
+            entityCache = new DiskEntityCache(ClientUtilities.getEntityCacheDirectory(clientConfig),
+                    clientConfig.getCacheSize() * 1024L * 1024L);
+            providerFactory.getRESTManager().getProxyFactory().getProviderFactory().registerProviderInstance(
+                    new RESTRevisionCacheInterceptor(entityCache));
+        }
+        providerFactory.getRESTManager().getProxyFactory().getProviderFactory().registerProviderInstance(
+                new RESTConditionalRequestInterceptor(entityCache));
+        // Register the metrics inside the cache interceptors, so that only the calls that are sent to the server are recorded
+        providerFactory.getRESTManager().getProxyFactory().getProviderFactory().registerProviderInstance(
+                new RESTMetricsInterceptor(ClientUtilities.getRESTMetrics()));
+        // This has to be registered last, as it sends the request instead of passing it on to the next interceptor
+        providerFactory.getRESTManager().getProxyFactory().getProviderFactory().registerProviderInstance(
+                new RESTConnectionPoolInterceptor(getPooledHttpClient()));
+
+        return providerFactory;
+    }
+
+    /**
+     * Read and parse the csprocessor.ini configuration file.
+     *
+     * @param location The location of the csprocessor.ini file.
+     * @return The parsed configuration.
+     * @throws ConfigurationException Thrown if the file can't be read or parsed.
+     */
+    protected HierarchicalINIConfiguration createConfigReader(final String location) throws ConfigurationException {
+        return new HierarchicalINIConfiguration(location);
+    }
+
+    /**
+     * Check if a command should be run for a batch of content specs, instead of a single content spec.
+     *
+     * @param command The command to be run.
+     * @return True if the command should be run as a batch, otherwise false.
+     */
+    protected boolean isBatch(final BaseCommand command) {
+        if (command instanceof MultiSpecCommand) {
+            // The command runs its content specs itself, so that they can share work
+            return false;
+        } else if (command instanceof BatchCommand) {
+            final boolean isBatch = getIdsFile() != null || ((BatchCommand) command).getBatchIds().size() > 1;
+            if (isBatch && command instanceof BuildCommand && ((BuildCommand) command).getWatch()) {
+                // Watching never finishes, so it can't be done for a batch
+                printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, ClientUtilities.getMessage("ERROR_WATCH_REQUIRES_FILE_MSG"), false);
+            }
+            return isBatch;
+        } else if (getIdsFile() != null) {
+            printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, ClientUtilities.getMessage("ERROR_COMMAND_NOT_BATCHABLE_MSG"), false);
+        }
+
+        return false;
+    }
+
+    /**
+     * Run a command for each content spec in a batch, and then print a summary of the results. Each content spec is run by its
+     * own client, so that it gets its own exit status, but the clients share their provider factories and server checks instead of
+     * having to start a new JVM for each content spec.
+     *
+     * @param args         The command line arguments.
+     * @param batchCommand The command to be run for each content spec.
+     */
+    protected void processBatch(final String[] args, final BatchCommand batchCommand) {
+        // Print the version details
+        printVersionDetails(ClientUtilities.getMessage("BUILD_MSG"),
+                VersionUtilities.getAPIVersion(Constants.VERSION_PROPERTIES_FILENAME, Constants.VERSION_PROPERTY_NAME), false);
+
+        // Get the ids from the command line and the ids file
+        final List<String> ids = new ArrayList<String>(batchCommand.getBatchIds());
+        if (getIdsFile() != null) {
+            final File file = new File(ClientUtilities.fixFilePath(getIdsFile()));
+            try {
+                ids.addAll(ClientUtilities.readBatchIds(file));
+            } catch (IOException e) {
+                printErrorAndShutdown(Constants.EXIT_FILE_NOT_FOUND, ClientUtilities.getMessage("ERROR_UNABLE_TO_READ_IDS_FILE_MSG",
+                        file.getAbsolutePath()), false);
+            }
+        }
+
+        if (ids.isEmpty()) {
+            printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, ClientUtilities.getMessage("ERROR_NO_ID_CMD_LINE_MSG"), false);
+        }
+
+        if (getBatchConcurrency() != null && getBatchConcurrency() < 1) {
+            printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, ClientUtilities.getMessage("ERROR_INVALID_BATCH_CONCURRENCY_MSG"),
+                    false);
+        }
+
+        // Load the configuration once for the whole batch, so that the downloads and caches the batch items share can be configured
+        // before any of the items start running
+        applyMainParameters();
+        if (!setConfigOptions(command.getConfigLocation())) {
+            shutdown(Constants.EXIT_CONFIG_ERROR);
+        }
+        applySettings();
+        if (command.requiresExternalConnection()) {
+            configureServerResources(command.getPressGangServerUrl());
+        }
+
+        final BatchRunner batchRunner = new BatchRunner(getBatchConcurrency() == null ? 1 : getBatchConcurrency());
+        JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_STARTING_MSG", ids.size(), batchRunner.getConcurrency()));
+
+        final List<Integer> exitStatuses = batchRunner.runAll(ids, new BatchRunner.BatchTask() {
+            @Override
+            public int run(final String id) {
+                return processBatchItem(args, id, batchRunner.getConcurrency() > 1);
+            }
+        });
+
+        // Exit with the status of the first content spec that failed
+        final int exitStatus = BatchRunner.printSummary(ids, exitStatuses);
+        if (exitStatus != Constants.EXIT_SUCCESS) {
+            shutdown(exitStatus);
+        }
+    }
+
+    /**
+     * Run a command for a single content spec from a batch.
+     *
+     * @param args     The command line arguments.
+     * @param id       The content spec id/file to run the command for.
+     * @param parallel If the content spec is being run at the same time as other content specs from the batch.
+     * @return The exit status for the content spec.
+     */
+    protected int processBatchItem(final String[] args, final String id, final boolean parallel) {
+        // Don't start any more content specs if a shutdown has been requested
+        if (isAppShuttingDown()) {
+            return Constants.EXIT_SHUTDOWN_REQUEST;
+        }
+
+        JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_PROCESSING_MSG", id));
+        final Client client = createBatchClient(id, parallel);
+        client.setup();
+        client.processArgs(args);
+        return Constants.EXIT_SUCCESS;
+    }
+
+    /**
+     * Create a client to run a command for a single content spec from a batch, that shares its server checks with the rest of the
+     * batch. The provider factories are only shared when the content specs are run one at a time, as their caches aren't safe to
+     * use from more than one thread.
+     *
+     * @param id       The content spec id/file the client should run the command for.
+     * @param parallel If the content spec is being run at the same time as other content specs from the batch.
+     * @return A new client.
+     */
+    protected Client createBatchClient(final String id, final boolean parallel) {
+        final Client batchClient = new Client();
+        batchClient.batchId = id;
+        batchClient.shareProviderFactory = !parallel;
+        return batchClient;
+    }
+
+    /**
+     * Start a daemon in the current directory, that will run the commands forwarded to it by {@link DaemonClient}.
+     */
+    protected void startDaemon() {
+        try {
+            new ClientDaemon(new File("").getAbsoluteFile()).run();
+        } catch (IOException e) {
+            printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_STARTING_DAEMON_MSG"), false);
+        }
+    }
+
     /**
      * Sets the configuration options from the csprocessor.ini configuration file
      *
@@ -553,7 +1079,7 @@ public class Client implements BaseCommand, ShutdownAbleApp {
             JCommander.getConsole().println(ClientUtilities.getMessage("CONFIG_LOADING_MSG", location));
             // Initialise the configuration reader with the skynet.ini content
             try {
-                configReader = new HierarchicalINIConfiguration(fixedLocation);
+                configReader = createConfigReader(fixedLocation);
             } catch (ConfigurationException e) {
                 command.printError(ClientUtilities.getMessage("ERROR_INI_NOT_FOUND_MSG"), false);
                 return false;
@@ -661,6 +1187,21 @@ public class Client implements BaseCommand, ShutdownAbleApp {
             }
         }
 
+        // Read in the download settings
+        if (!readDownloadSettingsFromConfig(configReader)) {
+            return false;
+        }
+
+        // Read in the http connection settings
+        if (!readHttpSettingsFromConfig(configReader)) {
+            return false;
+        }
+
+        // Read in the local cache settings
+        if (!readCacheSettingsFromConfig(configReader)) {
+            return false;
+        }
+
         // Read in the editor settings
         readEditorSettingsFromConfig(configReader);
 
@@ -801,6 +1342,113 @@ public class Client implements BaseCommand, ShutdownAbleApp {
         return true;
     }
 
+    /**
+     * Read the topic download settings from a INI Configuration file.
+     *
+     * @param configReader The initialized configuration reader to read
+     *                     the download configuration from file.
+     * @return True if everything was read in correctly otherwise false.
+     */
+    protected boolean readDownloadSettingsFromConfig(final HierarchicalINIConfiguration configReader) {
+        if (!configReader.getRootNode().getChildren("download").isEmpty()) {
+            try {
+                // Load the number of topics to download at the same time
+                if (configReader.getProperty("download.threads") != null && !configReader.getProperty("download.threads").equals("")) {
+                    clientConfig.setDownloadThreads(Integer.parseInt(configReader.getProperty("download.threads").toString()));
+                }
+
+                // Load the maximum number of connections that can be open to a server at the same time
+                if (configReader.getProperty("download.host..connections") != null && !configReader.getProperty(
+                        "download.host..connections").equals("")) {
+                    clientConfig.setDownloadConnectionsPerHost(
+                            Integer.parseInt(configReader.getProperty("download.host..connections").toString()));
+                }
+            } catch (NumberFormatException e) {
+                command.printError(ClientUtilities.getMessage("ERROR_INVALID_DOWNLOAD_SETTINGS_MSG"), false);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Read the HTTP connection settings from a INI Configuration file.
+     *
+     * @param configReader The initialized configuration reader to read
+     *                     the http configuration from file.
+     * @return True if everything was read in correctly otherwise false.
+     */
+    protected boolean readHttpSettingsFromConfig(final HierarchicalINIConfiguration configReader) {
+        if (!configReader.getRootNode().getChildren("http").isEmpty()) {
+            try {
+                // Load the maximum number of connections that can be open at the same time
+                if (configReader.getProperty("http.connections") != null && !configReader.getProperty("http.connections").equals("")) {
+                    clientConfig.setHttpConnections(Integer.parseInt(configReader.getProperty("http.connections").toString()));
+                }
+
+                // Load the maximum number of connections that can be open to a server at the same time
+                if (configReader.getProperty("http.host..connections") != null && !configReader.getProperty(
+                        "http.host..connections").equals("")) {
+                    clientConfig.setHttpConnectionsPerHost(Integer.parseInt(configReader.getProperty("http.host..connections").toString()));
+                }
+
+                // Load how long to keep idle connections open for
+                if (configReader.getProperty("http.keepalive") != null && !configReader.getProperty("http.keepalive").equals("")) {
+                    clientConfig.setHttpKeepAlive(Integer.parseInt(configReader.getProperty("http.keepalive").toString()));
+                }
+
+                // Load the timeouts
+                if (configReader.getProperty("http.connect..timeout") != null && !configReader.getProperty("http.connect..timeout")
+                        .equals("")) {
+                    clientConfig.setHttpConnectTimeout(Integer.parseInt(configReader.getProperty("http.connect..timeout").toString()));
+                }
+                if (configReader.getProperty("http.socket..timeout") != null && !configReader.getProperty("http.socket..timeout").equals(
+                        "")) {
+                    clientConfig.setHttpSocketTimeout(Integer.parseInt(configReader.getProperty("http.socket..timeout").toString()));
+                }
+
+                // Load how long a server is trusted before it's checked again
+                if (configReader.getProperty("http.verify..ttl") != null && !configReader.getProperty("http.verify..ttl").equals("")) {
+                    clientConfig.setHttpVerifyTTL(Integer.parseInt(configReader.getProperty("http.verify..ttl").toString()));
+                }
+            } catch (NumberFormatException e) {
+                command.printError(ClientUtilities.getMessage("ERROR_INVALID_HTTP_SETTINGS_MSG"), false);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Read the local entity cache settings from a INI Configuration file.
+     *
+     * @param configReader The initialized configuration reader to read
+     *                     the cache configuration from file.
+     * @return True if everything was read in correctly otherwise false.
+     */
+    protected boolean readCacheSettingsFromConfig(final HierarchicalINIConfiguration configReader) {
+        if (!configReader.getRootNode().getChildren("cache").isEmpty()) {
+            // Load the cache location
+            if (configReader.getProperty("cache.location") != null && !configReader.getProperty("cache.location").equals("")) {
+                clientConfig.setCacheLocation(ClientUtilities.fixDirectoryPath(configReader.getProperty("cache.location").toString()));
+            }
+
+            // Load the maximum size of the cache
+            if (configReader.getProperty("cache.size") != null && !configReader.getProperty("cache.size").equals("")) {
+                try {
+                    clientConfig.setCacheSize(Integer.parseInt(configReader.getProperty("cache.size").toString()));
+                } catch (NumberFormatException e) {
+                    command.printError(ClientUtilities.getMessage("ERROR_INVALID_CACHE_SIZE_MSG"), false);
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
     protected boolean readEditorSettingsFromConfig(final HierarchicalINIConfiguration configReader) {
         if (!configReader.getRootNode().getChildren("editor").isEmpty()) {
             // Load the editor command
@@ -936,6 +1584,30 @@ public class Client implements BaseCommand, ShutdownAbleApp {
         this.showVersion = showVersion;
     }
 
+    public Boolean isDaemon() {
+        return daemon;
+    }
+
+    public void setDaemon(final Boolean daemon) {
+        this.daemon = daemon;
+    }
+
+    public String getIdsFile() {
+        return idsFile;
+    }
+
+    public void setIdsFile(final String idsFile) {
+        this.idsFile = idsFile;
+    }
+
+    public Integer getBatchConcurrency() {
+        return batchConcurrency;
+    }
+
+    public void setBatchConcurrency(final Integer batchConcurrency) {
+        this.batchConcurrency = batchConcurrency;
+    }
+
     @Override
     public Boolean getDisableSSLCert() {
         return disableSSLCert;
@@ -946,6 +1618,36 @@ public class Client implements BaseCommand, ShutdownAbleApp {
         this.disableSSLCert = disableSSLCert;
     }
 
+    @Override
+    public Boolean isProfile() {
+        return profile;
+    }
+
+    @Override
+    public void setProfile(final Boolean profile) {
+        this.profile = profile;
+    }
+
+    @Override
+    public String getProfileFile() {
+        return profileFile;
+    }
+
+    @Override
+    public void setProfileFile(final String profileFile) {
+        this.profileFile = profileFile;
+    }
+
+    @Override
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    @Override
+    public void setMetricsFile(final String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
     @Override
     public void printHelp() {
         parser.usage(false);
@@ -994,7 +1696,7 @@ public class Client implements BaseCommand, ShutdownAbleApp {
             command.shutdown(exitStatus);
         } else {
             shutdown.set(true);
-            System.exit(exitStatus);
+            ExitHandler.exit(exitStatus);
         }
     }
 
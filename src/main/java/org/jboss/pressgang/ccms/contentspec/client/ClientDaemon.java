@@ -0,0 +1,317 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.internal.Console;
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.HierarchicalINIConfiguration;
+import org.apache.commons.io.IOUtils;
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.jboss.pressgang.ccms.contentspec.client.exception.ClientExitException;
+import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
+import org.jboss.pressgang.ccms.contentspec.client.utils.ExitHandler;
+import org.jboss.pressgang.ccms.contentspec.client.utils.StreamConsole;
+import org.jboss.pressgang.ccms.utils.common.ExceptionUtilities;
+
+/**
+ * A long running csprocessor process that runs the commands forwarded to it by {@link DaemonClient}, so that each command
+ * doesn't have to pay for starting the JVM, parsing the configuration and checking the server. The daemon only runs commands for
+ * the directory it was started in, as relative paths and the csprocessor.cfg are resolved against that directory.
+ * <p/>
+ * Commands are run one at a time, as the console output is redirected to the client that sent the command.
+ */
+public class ClientDaemon {
+    static final String PORT_PROPERTY = "port";
+    static final String TOKEN_PROPERTY = "token";
+
+    static final byte OUTPUT_FRAME = 'O';
+    static final byte EXIT_FRAME = 'X';
+    static final byte REFUSED_FRAME = 'R';
+
+    private final File directory;
+    private final File daemonFile;
+    private final String token;
+    private final Map<String, HierarchicalINIConfiguration> configs = new HashMap<String, HierarchicalINIConfiguration>();
+    private final Map<String, Long> configLastModified = new HashMap<String, Long>();
+    private ServerSocket serverSocket;
+
+    /**
+     * @param directory The directory that the daemon will run commands for.
+     */
+    public ClientDaemon(final File directory) {
+        this.directory = directory;
+        daemonFile = new File(directory, Constants.DAEMON_FILENAME);
+        token = generateToken();
+    }
+
+    /**
+     * Start listening for commands, and run them until the daemon is stopped.
+     *
+     * @throws IOException Thrown if the daemon couldn't be started.
+     */
+    public void run() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getByName(null));
+        writeDaemonFile(serverSocket.getLocalPort());
+
+        final Thread shutdownHook = new Thread() {
+            @Override
+            public void run() {
+                daemonFile.delete();
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        JCommander.getConsole().println(ClientUtilities.getMessage("DAEMON_STARTED_MSG", directory.getAbsolutePath(),
+                serverSocket.getLocalPort()));
+
+        // Commands shouldn't be able to stop the daemon when they finish
+        ExitHandler.setTrapped(true);
+        try {
+            while (!serverSocket.isClosed()) {
+                final Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (IOException e) {
+                    // The daemon has been stopped
+                    break;
+                }
+
+                try {
+                    processRequest(socket);
+                } catch (IOException e) {
+                    // Do nothing as the client has gone away
+                } finally {
+                    closeQuietly(socket);
+                }
+            }
+        } finally {
+            ExitHandler.setTrapped(false);
+            daemonFile.delete();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Do nothing as the JVM is already shutting down
+            }
+        }
+    }
+
+    /**
+     * Stop listening for commands.
+     */
+    public void stop() {
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                // Do nothing
+            }
+        }
+    }
+
+    public File getDaemonFile() {
+        return daemonFile;
+    }
+
+    /**
+     * Read a command from a client, run it and then send the output and exit status back to the client.
+     *
+     * @param socket The socket connected to the client.
+     * @throws IOException Thrown if the client couldn't be read from or written to.
+     */
+    protected void processRequest(final Socket socket) throws IOException {
+        final DataInputStream in = new DataInputStream(socket.getInputStream());
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        final String requestToken = in.readUTF();
+        final String requestDirectory = in.readUTF();
+        final String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+
+        // Only run commands from the owner of the daemon, for the directory the daemon is running in
+        if (!token.equals(requestToken) || !new File(requestDirectory).getCanonicalFile().equals(directory.getCanonicalFile())) {
+            out.writeByte(REFUSED_FRAME);
+            out.writeInt(0);
+            out.flush();
+            return;
+        }
+
+        // Redirect the console to the client, and use anything the client sends after the command as the input. The JCommander
+        // console has to be replaced as well, as it prints to and reads from the daemon's terminal if it has one.
+        final PrintStream originalOut = System.out;
+        final InputStream originalIn = System.in;
+        final PrintStream output = new PrintStream(new BufferedOutputStream(new FrameOutputStream(out)), true,
+                Constants.FILE_ENCODING);
+        System.setOut(output);
+        System.setIn(in);
+        final Console originalConsole = StreamConsole.setConsole(new StreamConsole(output, in));
+
+        int exitStatus = 0;
+        try {
+            // Don't let entities cached by a previous command be used, as they may have been changed on the server since
+            Client.clearProviderFactories();
+
+            final Client client = createClient();
+            client.setup();
+            client.processArgs(args);
+        } catch (ClientExitException e) {
+            exitStatus = e.getExitStatus();
+        } catch (Throwable e) {
+            JCommander.getConsole().println(ExceptionUtilities.getStackTrace(e));
+            JCommander.getConsole().println(ClientUtilities.getMessage("ERROR_INTERNAL_ERROR"));
+            exitStatus = Constants.EXIT_FAILURE;
+        } finally {
+            output.flush();
+            StreamConsole.setConsole(originalConsole);
+            System.setOut(originalOut);
+            System.setIn(originalIn);
+        }
+
+        synchronized (out) {
+            out.writeByte(EXIT_FRAME);
+            out.writeInt(exitStatus);
+            out.flush();
+        }
+    }
+
+    /**
+     * Create a client to run a single command, that reuses the configuration and server checks from any previous commands.
+     *
+     * @return A new client.
+     */
+    protected Client createClient() {
+        return new Client() {
+            @Override
+            protected HierarchicalINIConfiguration createConfigReader(final String location) throws ConfigurationException {
+                final long lastModified = new File(location).lastModified();
+                synchronized (configs) {
+                    // Only reuse the configuration if the file hasn't been changed since it was read
+                    final Long configModified = configLastModified.get(location);
+                    if (configModified != null && configModified == lastModified) {
+                        return configs.get(location);
+                    }
+
+                    final HierarchicalINIConfiguration configReader = super.createConfigReader(location);
+                    configs.put(location, configReader);
+                    configLastModified.put(location, lastModified);
+                    return configReader;
+                }
+            }
+        };
+    }
+
+    /**
+     * Write the file used by clients to find the daemon. The file can only be read by the current user, as it contains the token
+     * needed to send commands to the daemon.
+     *
+     * @param port The port the daemon is listening on.
+     * @throws IOException Thrown if the file couldn't be written.
+     */
+    protected void writeDaemonFile(final int port) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(PORT_PROPERTY, Integer.toString(port));
+        properties.setProperty(TOKEN_PROPERTY, token);
+
+        daemonFile.createNewFile();
+        daemonFile.setReadable(false, false);
+        daemonFile.setReadable(true, true);
+        daemonFile.setWritable(false, false);
+        daemonFile.setWritable(true, true);
+
+        final OutputStream os = new FileOutputStream(daemonFile);
+        try {
+            properties.store(os, null);
+        } finally {
+            IOUtils.closeQuietly(os);
+        }
+    }
+
+    private static String generateToken() {
+        final byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        final StringBuilder retValue = new StringBuilder();
+        for (final byte b : bytes) {
+            retValue.append(String.format("%02x", b & 0xff));
+        }
+        return retValue.toString();
+    }
+
+    private static void closeQuietly(final Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Do nothing
+        }
+    }
+
+    /**
+     * Writes any output to the client as output frames.
+     */
+    private static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+
+        private FrameOutputStream(final DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) return;
+
+            synchronized (out) {
+                out.writeByte(OUTPUT_FRAME);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.ResourceBundle;
+
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+
+/**
+ * The entry point for the csprocessor jar. If a daemon (see {@link ClientDaemon}) is running in the current directory then the
+ * command is sent to the daemon, otherwise the command is run in this JVM as normal.
+ * <p/>
+ * This class is loaded before anything else, so apart from compile time constants (which are inlined, so the classes they are
+ * declared in are never loaded) it should only use classes from the JDK to keep startup fast.
+ */
+public class DaemonClient {
+    /**
+     * Commands and options that need to run locally, as they need a terminal or never finish.
+     */
+    private static final List<String> LOCAL_ARGS = Arrays.asList(Constants.DAEMON_LONG_PARAM, Constants.WATCH_LONG_PARAM,
+            Constants.EDIT_COMMAND_NAME);
+    private static final int CONNECT_TIMEOUT = 1000;
+
+    public static void main(String[] args) {
+        final Integer exitStatus = forward(new File("").getAbsoluteFile(), args, System.in, System.out);
+        if (exitStatus == null) {
+            Client.main(args);
+        } else {
+            System.out.flush();
+            System.exit(exitStatus);
+        }
+    }
+
+    /**
+     * Send a command to the daemon running in a directory.
+     *
+     * @param directory The directory the command is being run in.
+     * @param args      The command line arguments.
+     * @param in        The input to send to the daemon, as the command runs.
+     * @param out       The stream to write the commands output to.
+     * @return The exit status of the command, or null if the command wasn't run by a daemon.
+     */
+    static Integer forward(final File directory, final String[] args, final InputStream in, final OutputStream out) {
+        for (final String arg : args) {
+            if (LOCAL_ARGS.contains(arg)) return null;
+        }
+
+        final Properties daemonDetails = readDaemonFile(new File(directory, Constants.DAEMON_FILENAME));
+        if (daemonDetails == null) return null;
+
+        final Socket socket = new Socket();
+        try {
+            final int port = Integer.parseInt(daemonDetails.getProperty(ClientDaemon.PORT_PROPERTY));
+            socket.connect(new InetSocketAddress(InetAddress.getByName(null), port), CONNECT_TIMEOUT);
+        } catch (Exception e) {
+            // The daemon has gone away without cleaning up, so run the command locally
+            closeQuietly(socket);
+            return null;
+        }
+
+        try {
+            final DataOutputStream os = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            os.writeUTF(daemonDetails.getProperty(ClientDaemon.TOKEN_PROPERTY, ""));
+            os.writeUTF(directory.getAbsolutePath());
+            os.writeInt(args.length);
+            for (final String arg : args) {
+                os.writeUTF(arg);
+            }
+            os.flush();
+
+            startInputPump(in, socket.getOutputStream());
+
+            return readResponse(new DataInputStream(new BufferedInputStream(socket.getInputStream())), out);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Read the output from the daemon until it sends the exit status of the command.
+     *
+     * @return The exit status, or null if the daemon refused to run the command.
+     */
+    private static Integer readResponse(final DataInputStream is, final OutputStream out) throws IOException {
+        final byte[] buffer = new byte[8192];
+        try {
+            while (true) {
+                final byte type = is.readByte();
+                final int length = is.readInt();
+                if (type == ClientDaemon.OUTPUT_FRAME) {
+                    int remaining = length;
+                    while (remaining > 0) {
+                        final int read = is.read(buffer, 0, Math.min(buffer.length, remaining));
+                        if (read == -1) throw new EOFException();
+                        out.write(buffer, 0, read);
+                        remaining -= read;
+                    }
+                    out.flush();
+                } else if (type == ClientDaemon.EXIT_FRAME) {
+                    return length;
+                } else {
+                    return null;
+                }
+            }
+        } catch (EOFException e) {
+            // The daemon stopped part way through running the command, so it can't be run again locally
+            out.write((ResourceBundle.getBundle("messages").getString("ERROR_DAEMON_STOPPED_MSG") + "\n").getBytes(
+                    Constants.FILE_ENCODING));
+            out.flush();
+            return Constants.EXIT_FAILURE;
+        }
+    }
+
+    /**
+     * Send anything read from the input to the daemon, for commands that prompt the user.
+     */
+    private static void startInputPump(final InputStream in, final OutputStream os) {
+        final Thread pump = new Thread("csprocessor-daemon-input") {
+            @Override
+            public void run() {
+                final byte[] buffer = new byte[1024];
+                try {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        os.write(buffer, 0, read);
+                        os.flush();
+                    }
+                } catch (IOException e) {
+                    // Do nothing as the command has finished
+                }
+            }
+        };
+        pump.setDaemon(true);
+        pump.start();
+    }
+
+    private static Properties readDaemonFile(final File daemonFile) {
+        if (!daemonFile.isFile()) return null;
+
+        final Properties properties = new Properties();
+        InputStream is = null;
+        try {
+            is = new FileInputStream(daemonFile);
+            properties.load(is);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            if (is != null) {
+                try {
+                    is.close();
+                } catch (IOException e) {
+                    // Do nothing
+                }
+            }
+        }
+
+        return properties.getProperty(ClientDaemon.PORT_PROPERTY) == null ? null : properties;
+    }
+
+    private static void closeQuietly(final Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Do nothing
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.jboss.pressgang.ccms.contentspec.client;
 
+import org.jboss.pressgang.ccms.contentspec.client.utils.LongRunningRequest;
 import org.jboss.pressgang.ccms.contentspec.interfaces.ShutdownAbleApp;
 
 /**
@@ -46,6 +47,8 @@ public class ShutdownInterceptor extends Thread {
     public void run() {
         long shutdownTime = System.currentTimeMillis() + maxWaitTime;
         app.shutdown();
+        // Stop waiting on any requests to the server, so the app can shutdown straight away
+        LongRunningRequest.cancelAll();
         while (!app.isShutdown() && System.currentTimeMillis() <= shutdownTime) {
             try {
                 Thread.sleep(100);
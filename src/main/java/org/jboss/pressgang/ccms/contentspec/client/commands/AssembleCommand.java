@@ -23,17 +23,20 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import com.google.code.regexp.Matcher;
+import org.apache.commons.io.FileUtils;
 import org.jboss.pressgang.ccms.contentspec.ContentSpec;
 import org.jboss.pressgang.ccms.contentspec.builder.BuildType;
 import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
+import org.jboss.pressgang.ccms.contentspec.client.utils.Profiler;
 import org.jboss.pressgang.ccms.contentspec.constants.CSConstants;
 import org.jboss.pressgang.ccms.contentspec.utils.EntityUtilities;
 import org.jboss.pressgang.ccms.utils.common.DocBookUtilities;
@@ -57,6 +60,14 @@ public class AssembleCommand extends BuildCommand {
     @Parameter(names = Constants.PUBLICAN_CONFIG_LONG_PARAM, descriptionKey = "ASSEMBLE_PUBLICAN_CONFIG")
     private String publicanCfg = null;
 
+    @Parameter(names = Constants.SAVE_ZIP_LONG_PARAM, descriptionKey = "ASSEMBLE_SAVE_ZIP")
+    private Boolean saveZip = false;
+
+    @Parameter(names = Constants.INCREMENTAL_LONG_PARAM, descriptionKey = "ASSEMBLE_INCREMENTAL")
+    private Boolean incremental = false;
+
+    private byte[] buildArchive = null;
+
     private String buildFileDirectory = "";
     String buildFileName = null;
     String outputDirectory = "";
@@ -126,6 +137,31 @@ public class AssembleCommand extends BuildCommand {
         this.publicanCfg = publicanCfg;
     }
 
+    public Boolean getSaveZip() {
+        return saveZip;
+    }
+
+    public void setSaveZip(Boolean saveZip) {
+        this.saveZip = saveZip;
+    }
+
+    public Boolean getIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(Boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    @Override
+    protected void handleBuildOutput(final byte[] builderOutput, final String contentSpecTitle, final boolean buildingFromConfig) {
+        // Keep the build in memory so it can be assembled directly, and only save the zip file if it was asked for
+        buildArchive = builderOutput;
+        if (getSaveZip()) {
+            super.handleBuildOutput(builderOutput, contentSpecTitle, buildingFromConfig);
+        }
+    }
+
     @Override
     public void process() {
         boolean assembleFromConfig = loadFromCSProcessorCfg();
@@ -150,21 +186,42 @@ public class AssembleCommand extends BuildCommand {
         allowShutdownToContinueIfRequested();
 
         final File buildFile = new File(ClientUtilities.fixDirectoryPath(getBuildFileDirectory()) + getBuildFileName());
-        if (!buildFile.exists()) {
-            printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_UNABLE_TO_FIND_ZIP_MSG", getBuildFileName()), false);
+        if (buildArchive == null && !buildFile.exists()) {
+            if (getNoBuild()) {
+                // The zip file is only saved when asked for, so let the user know how to get one
+                printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_UNABLE_TO_FIND_SAVED_ZIP_MSG",
+                        getBuildFileName()), false);
+            } else {
+                printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_UNABLE_TO_FIND_ZIP_MSG", getBuildFileName()),
+                        false);
+            }
         }
 
         // Make sure the output directories exist
         final File buildOutputDirectory = new File(ClientUtilities.fixDirectoryPath(getOutputDirectory()));
         buildOutputDirectory.mkdirs();
 
-        // Ensure that the directory is empty
-        if (!FileUtilities.deleteDirContents(buildOutputDirectory)) {
-            printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_FAILED_TO_CLEAN_ASSEMBLY_MSG"), false);
+        // Extract the build, straight from memory if it was just built, otherwise from the zip file
+        final Profiler.Timer unzipTimer = Profiler.start(Profiler.UNZIP);
+        final boolean extracted;
+        if (getIncremental()) {
+            extracted = assembleIncrementally(buildFile, buildOutputDirectory);
+        } else {
+            // Ensure that the directory is empty
+            if (!FileUtilities.deleteDirContents(buildOutputDirectory)) {
+                printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_FAILED_TO_CLEAN_ASSEMBLY_MSG"), false);
+            }
+
+            if (buildArchive != null && !getSaveZip()) {
+                extracted = unzipBuildArchive();
+            } else {
+                extracted = ZipUtilities.unzipFileIntoDirectory(buildFile, getOutputDirectory());
+            }
         }
+        buildArchive = null;
+        unzipTimer.stop();
 
-        // Unzip the file
-        if (!ZipUtilities.unzipFileIntoDirectory(buildFile, getOutputDirectory())) {
+        if (!extracted) {
             printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_FAILED_TO_ASSEMBLE_MSG"), false);
         } else {
             JCommander.getConsole().println(ClientUtilities.getMessage("SUCCESSFUL_UNZIP_MSG", buildOutputDirectory.getAbsolutePath()));
@@ -182,14 +239,63 @@ public class AssembleCommand extends BuildCommand {
         // Run publican to assemble the book into the output format(s)
         if (!isNoPublicanBuild()) {
             if (getBuildType() == BuildType.JDOCBOOK) {
+                final Profiler.Timer timer = Profiler.start(Profiler.MAVEN);
                 runMaven(buildOutputDirectory);
+                timer.stop();
             } else {
+                final Profiler.Timer timer = Profiler.start(Profiler.PUBLICAN);
                 runPublican(contentSpec, buildOutputDirectory);
+                timer.stop();
             }
             JCommander.getConsole().println(ClientUtilities.getMessage("SUCCESSFUL_ASSEMBLE_MSG", buildOutputDirectory.getAbsolutePath()));
         }
     }
 
+    /**
+     * Extract the build that is held in memory into the output directory. The build is written to a temporary zip file, that
+     * is removed once it has been extracted, since it wasn't asked to be saved.
+     *
+     * @return True if the build was extracted successfully, otherwise false.
+     */
+    protected boolean unzipBuildArchive() {
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile("csprocessor", ".zip");
+            FileUtils.writeByteArrayToFile(tempFile, buildArchive);
+            return ZipUtilities.unzipFileIntoDirectory(tempFile, getOutputDirectory());
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Update the assembly directory so that it matches the build, by only rewriting the files that have changed and removing
+     * any files that are no longer part of the build. The publican tmp (or jDocbook target) directory is kept, so that
+     * anything it has cached can be reused.
+     *
+     * @param buildFile            The zip file to use, if the build isn't held in memory.
+     * @param buildOutputDirectory The directory to assemble the build in.
+     * @return True if the assembly directory was updated successfully, otherwise false.
+     */
+    protected boolean assembleIncrementally(final File buildFile, final File buildOutputDirectory) {
+        byte[] archive = buildArchive;
+        if (archive == null) {
+            try {
+                archive = FileUtils.readFileToByteArray(buildFile);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        final String preservedDirectory = getBuildType() == BuildType.JDOCBOOK ? Constants.JDOCBOOK_TARGET_DIRECTORY_NAME : Constants
+                .PUBLICAN_TMP_DIRECTORY_NAME;
+        return ClientUtilities.unzipIntoDirectoryIncrementally(archive, buildOutputDirectory, Arrays.asList(preservedDirectory));
+    }
+
     /**
      * Find the Build Directory and output files.
      *
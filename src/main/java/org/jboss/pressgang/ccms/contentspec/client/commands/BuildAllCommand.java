@@ -0,0 +1,310 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameters;
+import org.jboss.pressgang.ccms.contentspec.ContentSpec;
+import org.jboss.pressgang.ccms.contentspec.builder.ContentSpecBuilder;
+import org.jboss.pressgang.ccms.contentspec.builder.exception.BuildProcessingException;
+import org.jboss.pressgang.ccms.contentspec.builder.exception.BuilderCreationException;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.MultiSpecCommand;
+import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
+import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.jboss.pressgang.ccms.contentspec.client.processor.ClientContentSpecProcessor;
+import org.jboss.pressgang.ccms.contentspec.client.utils.BatchRunner;
+import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
+import org.jboss.pressgang.ccms.contentspec.processor.ContentSpecParser;
+import org.jboss.pressgang.ccms.contentspec.processor.ContentSpecProcessor;
+import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+import org.jboss.pressgang.ccms.provider.RESTTopicProvider;
+import org.jboss.pressgang.ccms.utils.common.ExceptionUtilities;
+import org.jboss.pressgang.ccms.zanata.ZanataDetails;
+
+/**
+ * Builds a set of content specs at once. The topics used by all of the content specs are downloaded once up front, so that
+ * topics shared between the content specs don't have to be downloaded for each one. The content specs are loaded, validated
+ * and built one after the other, as every step uses the commands provider factory and its caches aren't safe to use from more
+ * than one thread, so the --batch-concurrency option is ignored.
+ */
+@Parameters(resourceBundle = "commands", commandDescriptionKey = "BUILD_ALL")
+public class BuildAllCommand extends BuildCommand implements MultiSpecCommand {
+    private String idsFile = null;
+
+    private final Set<ContentSpecProcessor> activeProcessors = Collections.synchronizedSet(new HashSet<ContentSpecProcessor>());
+    private final Set<ContentSpecBuilder> activeBuilders = Collections.synchronizedSet(new HashSet<ContentSpecBuilder>());
+
+    public BuildAllCommand(final JCommander parser, final ContentSpecConfiguration cspConfig, final ClientConfiguration clientConfig) {
+        super(parser, cspConfig, clientConfig);
+    }
+
+    @Override
+    public String getCommandName() {
+        return Constants.BUILD_ALL_COMMAND_NAME;
+    }
+
+    public String getIdsFile() {
+        return idsFile;
+    }
+
+    @Override
+    public void setIdsFile(final String idsFile) {
+        this.idsFile = idsFile;
+    }
+
+    /**
+     * The content specs are always built one at a time, as they share the commands provider factory.
+     */
+    @Override
+    public void setConcurrency(final Integer concurrency) {
+    }
+
+    @Override
+    public void process() {
+        final long startTime = System.currentTimeMillis();
+
+        // Get the ids from the command line and the ids file
+        final List<String> ids = getAllIds();
+        if (ids.isEmpty()) {
+            printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, ClientUtilities.getMessage("ERROR_NO_ID_CMD_LINE_MSG"), false);
+        }
+
+        // Check to make sure the lang is valid
+        if (getLocale() != null && !ClientUtilities.validateLanguage(this, getServerSettings(), getLocale())) {
+            shutdown(Constants.EXIT_ARGUMENT_ERROR);
+        }
+
+        // Check the passed publican.cfg overrides
+        validatePublicanCfgOverride();
+
+        // Set the rest topic provider to expand translations by default
+        if (getLocale() != null) {
+            getProviderFactory().getProvider(RESTTopicProvider.class).setExpandTranslations(true);
+        }
+
+        // Each content spec gets its own file, so the output path has to be a directory
+        if (getOutputPath() != null && !getOutputPath().endsWith(File.separator)) {
+            setOutputPath(getOutputPath() + File.separator);
+        }
+
+        final BatchRunner batchRunner = new BatchRunner(1);
+        JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_STARTING_MSG", ids.size(), batchRunner.getConcurrency()));
+
+        // Load all the content specs
+        final Map<String, ContentSpec> contentSpecs = new HashMap<String, ContentSpec>();
+        final List<Integer> exitStatuses = batchRunner.runAll(ids, new BatchRunner.BatchTask() {
+            @Override
+            public int run(final String id) {
+                JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_LOADING_MSG", id));
+                contentSpecs.put(id, getContentSpec(id, true));
+                return Constants.EXIT_SUCCESS;
+            }
+        });
+
+        // Good point to check for a shutdown
+        allowShutdownToContinueIfRequested();
+
+        // Download the topics used by all of the content specs, so each topic is only downloaded once
+        final List<String> loadedIds = new ArrayList<String>();
+        final List<ContentSpec> loadedContentSpecs = new ArrayList<ContentSpec>();
+        for (final String id : ids) {
+            if (contentSpecs.containsKey(id)) {
+                loadedIds.add(id);
+                loadedContentSpecs.add(contentSpecs.get(id));
+            }
+        }
+        JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_DOWNLOADING_SHARED_TOPICS_MSG", loadedIds.size()));
+        ClientUtilities.downloadAllTopics(getProviderFactory(), loadedContentSpecs, null);
+
+        // Good point to check for a shutdown
+        allowShutdownToContinueIfRequested();
+
+        // Validate and build each content spec, one at a time
+        final List<Integer> buildExitStatuses = batchRunner.runAll(loadedIds, new BatchRunner.BatchTask() {
+            @Override
+            public int run(final String id) {
+                buildLoadedContentSpec(id, contentSpecs.get(id));
+                return Constants.EXIT_SUCCESS;
+            }
+        });
+        for (int i = 0; i < loadedIds.size(); i++) {
+            exitStatuses.set(ids.indexOf(loadedIds.get(i)), buildExitStatuses.get(i));
+        }
+
+        if (getExecutionTime()) {
+            JCommander.getConsole().println(ClientUtilities.getMessage("EXEC_TIME_MSG", System.currentTimeMillis() - startTime));
+        }
+
+        // Exit with the status of the first content spec that failed
+        final int exitStatus = BatchRunner.printSummary(ids, exitStatuses);
+        if (exitStatus != Constants.EXIT_SUCCESS) {
+            shutdown(exitStatus);
+        }
+    }
+
+    /**
+     * Gets all the content spec ids/files that should be built, from the command line and the ids file.
+     *
+     * @return The content spec ids/files to build, without any duplicates.
+     */
+    protected List<String> getAllIds() {
+        final List<String> ids = new ArrayList<String>();
+        final List<String> allIds = new ArrayList<String>(getIds());
+        if (getIdsFile() != null) {
+            final File file = new File(ClientUtilities.fixFilePath(getIdsFile()));
+            try {
+                allIds.addAll(ClientUtilities.readBatchIds(file));
+            } catch (IOException e) {
+                printErrorAndShutdown(Constants.EXIT_FILE_NOT_FOUND, ClientUtilities.getMessage("ERROR_UNABLE_TO_READ_IDS_FILE_MSG",
+                        file.getAbsolutePath()), false);
+            }
+        }
+
+        for (final String id : allIds) {
+            if (!ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+
+        return ids;
+    }
+
+    /**
+     * Validates and builds a content spec that has already been loaded, and then saves the build output. The topics for the
+     * content spec are expected to have already been downloaded.
+     *
+     * @param id          The content spec id/file that the content spec was loaded from.
+     * @param contentSpec The content spec to build.
+     */
+    protected void buildLoadedContentSpec(final String id, final ContentSpec contentSpec) {
+        final long startTime = System.currentTimeMillis();
+        JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_PROCESSING_MSG", id));
+
+        // Validate that the content spec is valid
+        JCommander.getConsole().println(ClientUtilities.getMessage("STARTING_VALIDATE_MSG"));
+        final ErrorLoggerManager loggerManager = new ErrorLoggerManager();
+        final ContentSpecProcessor csp = new ClientContentSpecProcessor(getProviderFactory(), loggerManager, getValidationOptions(),
+                false);
+        activeProcessors.add(csp);
+        final boolean success;
+        try {
+            success = csp.processContentSpec(contentSpec, getUsername(), ContentSpecParser.ParsingMode.EITHER);
+        } finally {
+            activeProcessors.remove(csp);
+        }
+
+        // Print the error/warning messages
+        JCommander.getConsole().println(loggerManager.generateLogs());
+
+        // Check that everything validated fine
+        if (!success) {
+            shutdown(Constants.EXIT_TOPIC_INVALID);
+        }
+
+        // Pull in the pubsnumber from koji if the option is set
+        if (getFetchPubsnum()) {
+            final Integer pubsnumber = getContentSpecPubsNumberFromKoji(contentSpec);
+            if (pubsnumber != null) {
+                contentSpec.setPubsNumber(pubsnumber);
+            }
+        }
+
+        // Good point to check for a shutdown
+        allowShutdownToContinueIfRequested();
+
+        JCommander.getConsole().println(ClientUtilities.getMessage("STARTING_BUILD_MSG"));
+
+        // Setup the zanata details incase some were overridden via the command line
+        final ZanataDetails zanataDetails = setupZanataOptions(getTranslationDetails(id));
+
+        // Build the Content Specification
+        final ContentSpecBuilder builder = new ContentSpecBuilder(getProviderFactory());
+        activeBuilders.add(builder);
+        byte[] builderOutput = null;
+        try {
+            builderOutput = runBuilder(builder, contentSpec, getUsername(), zanataDetails);
+        } catch (BuildProcessingException e) {
+            printErrorAndShutdown(Constants.EXIT_INTERNAL_SERVER_ERROR, ExceptionUtilities.getRootCause(e).getMessage(), false);
+        } catch (BuilderCreationException e) {
+            printErrorAndShutdown(Constants.EXIT_INTERNAL_SERVER_ERROR, ClientUtilities.getMessage("ERROR_INTERNAL_ERROR"), false);
+        } finally {
+            activeBuilders.remove(builder);
+        }
+
+        // Good point to check for a shutdown
+        allowShutdownToContinueIfRequested();
+
+        // Print the success/failure messages
+        checkBuildResults(builder, System.currentTimeMillis() - startTime);
+
+        // Save the build output
+        handleBuildOutput(builderOutput, contentSpec.getTitle(), false);
+    }
+
+    @Override
+    protected void saveBuildToFile(final byte[] buildZip, final File outputFile, final boolean buildingFromConfig) {
+        // Other content specs are still to be built, so don't stop to ask if an existing file should be overwritten
+        if (outputFile.exists() && !getAnswerYes()) {
+            printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_FILE_EXISTS_USE_YES_MSG",
+                    outputFile.getName()), false);
+        }
+
+        super.saveBuildToFile(buildZip, outputFile, buildingFromConfig);
+    }
+
+    @Override
+    public void watch() {
+        printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, ClientUtilities.getMessage("ERROR_WATCH_REQUIRES_FILE_MSG"), false);
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (activeProcessors) {
+            for (final ContentSpecProcessor csp : activeProcessors) {
+                csp.shutdown();
+            }
+        }
+
+        synchronized (activeBuilders) {
+            for (final ContentSpecBuilder builder : activeBuilders) {
+                builder.shutdown();
+            }
+        }
+
+        super.shutdown();
+    }
+
+    @Override
+    public boolean loadFromCSProcessorCfg() {
+        return false;
+    }
+}
@@ -22,6 +22,7 @@ package org.jboss.pressgang.ccms.contentspec.client.commands;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
@@ -29,6 +30,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.beust.jcommander.DynamicParameter;
 import com.beust.jcommander.JCommander;
@@ -38,6 +41,10 @@ import com.beust.jcommander.converters.CommaParameterSplitter;
 import com.beust.jcommander.internal.Maps;
 import com.google.common.collect.Lists;
 import com.redhat.j2koji.exceptions.KojiException;
+import org.apache.commons.io.filefilter.FileFilterUtils;
+import org.apache.commons.io.monitor.FileAlterationListenerAdaptor;
+import org.apache.commons.io.monitor.FileAlterationMonitor;
+import org.apache.commons.io.monitor.FileAlterationObserver;
 import org.jboss.pressgang.ccms.contentspec.ContentSpec;
 import org.jboss.pressgang.ccms.contentspec.builder.BuildType;
 import org.jboss.pressgang.ccms.contentspec.builder.ContentSpecBuilder;
@@ -45,6 +52,7 @@ import org.jboss.pressgang.ccms.contentspec.builder.exception.BuildProcessingExc
 import org.jboss.pressgang.ccms.contentspec.builder.exception.BuilderCreationException;
 import org.jboss.pressgang.ccms.contentspec.builder.structures.DocBookBuildingOptions;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.BatchCommand;
 import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ZanataServerConfiguration;
@@ -52,6 +60,9 @@ import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
 import org.jboss.pressgang.ccms.contentspec.client.converter.BuildTypeConverter;
 import org.jboss.pressgang.ccms.contentspec.client.processor.ClientContentSpecProcessor;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
+import org.jboss.pressgang.ccms.contentspec.client.utils.DownloadedTopics;
+import org.jboss.pressgang.ccms.contentspec.client.utils.LongRunningRequest;
+import org.jboss.pressgang.ccms.contentspec.client.utils.Profiler;
 import org.jboss.pressgang.ccms.contentspec.client.validator.BuildTypeValidator;
 import org.jboss.pressgang.ccms.contentspec.client.validator.OverrideValidator;
 import org.jboss.pressgang.ccms.contentspec.constants.CSConstants;
@@ -62,10 +73,10 @@ import org.jboss.pressgang.ccms.contentspec.processor.structures.ProcessingOptio
 import org.jboss.pressgang.ccms.contentspec.utils.CSTransformer;
 import org.jboss.pressgang.ccms.contentspec.utils.EntityUtilities;
 import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
-import org.jboss.pressgang.ccms.provider.ContentSpecProvider;
 import org.jboss.pressgang.ccms.provider.RESTProviderFactory;
 import org.jboss.pressgang.ccms.provider.RESTTopicProvider;
 import org.jboss.pressgang.ccms.provider.exception.NotFoundException;
+import org.jboss.pressgang.ccms.provider.exception.ProviderException;
 import org.jboss.pressgang.ccms.utils.common.DocBookUtilities;
 import org.jboss.pressgang.ccms.utils.common.ExceptionUtilities;
 import org.jboss.pressgang.ccms.utils.common.FileUtilities;
@@ -76,7 +87,9 @@ import org.jboss.pressgang.ccms.wrapper.TranslatedContentSpecWrapper;
 import org.jboss.pressgang.ccms.zanata.ZanataDetails;
 
 @Parameters(resourceBundle = "commands", commandDescriptionKey = "BUILD")
-public class BuildCommand extends BaseCommandImpl {
+public class BuildCommand extends BaseCommandImpl implements BatchCommand {
+    private static final long WATCH_CHECK_INTERVAL = 500L;
+
     @Parameter(metaVar = "[ID] or [FILE]")
     private List<String> ids = new ArrayList<String>();
 
@@ -185,8 +198,13 @@ public class BuildCommand extends BaseCommandImpl {
     @Parameter(names = "--skip-nested-section-validation", hidden = true)
     private Boolean skipNestedSectionValidation = false;
 
+    @Parameter(names = Constants.WATCH_LONG_PARAM, descriptionKey = "BUILD_WATCH")
+    private Boolean watch = false;
+
     private ContentSpecProcessor csp = null;
     private ContentSpecBuilder builder = null;
+    private final AtomicBoolean watchedBuildRunning = new AtomicBoolean(false);
+    private int watchedBuildCount = 0;
 
     public BuildCommand(final JCommander parser, final ContentSpecConfiguration cspConfig, final ClientConfiguration clientConfig) {
         super(parser, cspConfig, clientConfig);
@@ -253,6 +271,18 @@ public class BuildCommand extends BaseCommandImpl {
         this.ids = ids;
     }
 
+    @Override
+    public List<String> getBatchIds() {
+        return getIds();
+    }
+
+    @Override
+    public void setBatchId(final String id) {
+        final List<String> ids = new ArrayList<String>();
+        ids.add(id);
+        setIds(ids);
+    }
+
     public Boolean getExecutionTime() {
         return executionTime;
     }
@@ -493,6 +523,110 @@ public class BuildCommand extends BaseCommandImpl {
         this.skipNestedSectionValidation = skipNestedSectionValidation;
     }
 
+    public Boolean getWatch() {
+        return watch;
+    }
+
+    public void setWatch(Boolean watch) {
+        this.watch = watch;
+    }
+
+    /**
+     * Checks if the current build is a rebuild, caused by the content spec file changing while being watched.
+     *
+     * @return True if a previous build has been done while watching, otherwise false.
+     */
+    protected boolean isRebuild() {
+        return watchedBuildCount > 0;
+    }
+
+    /**
+     * Processes the command and then watches the content spec file for changes. Each time the file changes the command is
+     * processed again, reusing the same server connection and caches, until the application is stopped.
+     */
+    public void watch() {
+        // Watching only makes sense for a local file, as there is nothing to watch for a content spec on the server
+        if (getIds().size() != 1 || getIds().get(0).matches("^\\d+$")) {
+            printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, ClientUtilities.getMessage("ERROR_WATCH_REQUIRES_FILE_MSG"), false);
+        }
+
+        final File file = new File(ClientUtilities.fixFilePath(getIds().get(0))).getAbsoluteFile();
+        if (!file.isFile()) {
+            printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_NO_FILE_MSG"), false);
+        }
+
+        // Add a listener for any changes to the file
+        final Semaphore changes = new Semaphore(0);
+        final FileFilter fileFilter = FileFilterUtils.and(FileFilterUtils.fileFileFilter(), FileFilterUtils.nameFileFilter(file.getName()));
+        final FileAlterationObserver fileObserver = new FileAlterationObserver(file.getParentFile(), fileFilter);
+        fileObserver.addListener(new FileAlterationListenerAdaptor() {
+            @Override
+            public void onFileCreate(final File file) {
+                // Some editors save by replacing the file, so treat it the same as a change
+                changes.release();
+            }
+
+            @Override
+            public void onFileChange(final File file) {
+                changes.release();
+            }
+        });
+        final FileAlterationMonitor monitor = new FileAlterationMonitor(WATCH_CHECK_INTERVAL, fileObserver);
+        try {
+            monitor.start();
+        } catch (Exception e) {
+            printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_INTERNAL_ERROR"), false);
+        }
+
+        try {
+            while (true) {
+                processWatchedBuild();
+
+                // Good point to check for a shutdown
+                allowShutdownToContinueIfRequested();
+
+                JCommander.getConsole().println(ClientUtilities.getMessage("WATCHING_FOR_CHANGES_MSG", file.getName()));
+                changes.acquire();
+
+                // Wait a little so that a save that changes the file more than once only triggers one build
+                Thread.sleep(WATCH_CHECK_INTERVAL);
+                changes.drainPermits();
+
+                // Good point to check for a shutdown
+                allowShutdownToContinueIfRequested();
+
+                JCommander.getConsole().println("");
+                JCommander.getConsole().println(ClientUtilities.getMessage("FILE_CHANGED_REBUILDING_MSG", file.getName()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                monitor.stop();
+            } catch (Exception e) {
+                // Do nothing as the application is stopping
+            }
+        }
+    }
+
+    /**
+     * Process a single build while watching, making sure that any failures don't stop the application.
+     */
+    protected void processWatchedBuild() {
+        watchedBuildRunning.set(true);
+        try {
+            process();
+        } catch (WatchedBuildFailedException e) {
+            // Do nothing as the error has already been printed, so just wait for the next change
+        } catch (ProviderException e) {
+            printError(ClientUtilities.getMessage("ERROR_INTERNAL_ERROR"), false);
+            JCommander.getConsole().println(ExceptionUtilities.getStackTrace(e));
+        } finally {
+            watchedBuildRunning.set(false);
+            watchedBuildCount++;
+        }
+    }
+
     @Override
     public void process() {
         final long startTime = System.currentTimeMillis();
@@ -554,13 +688,26 @@ public class BuildCommand extends BaseCommandImpl {
         allowShutdownToContinueIfRequested();
 
         // Print the success/failure messages
-        long elapsedTime = System.currentTimeMillis() - startTime;
+        checkBuildResults(getBuilder(), System.currentTimeMillis() - startTime);
+
+        // Save the build output
+        handleBuildOutput(builderOutput, contentSpecTitle, buildingFromConfig);
+    }
+
+    /**
+     * Prints the success/failure messages for a build, and stops processing if the build has errors or warnings that should
+     * cause it to fail.
+     *
+     * @param builder     The builder that built the content spec.
+     * @param elapsedTime The time taken to process the content spec.
+     */
+    protected void checkBuildResults(final ContentSpecBuilder builder, final long elapsedTime) {
         final String resultMsg;
-        if (getFailOnError() && getBuilder().getNumErrors() > 0 || getFailOnWarning() && getBuilder().getNumWarnings() > 0) {
-            resultMsg = ClientUtilities.getMessage("ZIP_SAVED_FAIL_ERRORS_MSG", getBuilder().getNumErrors(), getBuilder().getNumWarnings());
+        if (getFailOnError() && builder.getNumErrors() > 0 || getFailOnWarning() && builder.getNumWarnings() > 0) {
+            resultMsg = ClientUtilities.getMessage("ZIP_SAVED_FAIL_ERRORS_MSG", builder.getNumErrors(), builder.getNumWarnings());
         } else {
-            resultMsg = ClientUtilities.getMessage("ZIP_SAVED_ERRORS_MSG", getBuilder().getNumErrors(),
-                    getBuilder().getNumWarnings()) + (getBuilder().getNumErrors() == 0 && getBuilder().getNumWarnings() == 0 ? " - Flawless " +
+            resultMsg = ClientUtilities.getMessage("ZIP_SAVED_ERRORS_MSG", builder.getNumErrors(),
+                    builder.getNumWarnings()) + (builder.getNumErrors() == 0 && builder.getNumWarnings() == 0 ? " - Flawless " +
                     "Victory!" : "");
         }
         JCommander.getConsole().println(resultMsg);
@@ -570,13 +717,22 @@ public class BuildCommand extends BaseCommandImpl {
         }
 
         // BZ# 1080302 - If the book has errors then fail the build if set to fail.
-        if (getFailOnWarning() && getBuilder().getNumWarnings() > 0) {
+        if (getFailOnWarning() && builder.getNumWarnings() > 0) {
             shutdown(Constants.EXIT_BOOK_HAS_ERRORS);
         }
-        if (getFailOnError() && getBuilder().getNumErrors() > 0) {
+        if (getFailOnError() && builder.getNumErrors() > 0) {
             shutdown(Constants.EXIT_BOOK_HAS_ERRORS);
         }
+    }
 
+    /**
+     * Handles the output from building a content spec, by saving it to the output file.
+     *
+     * @param builderOutput      The ZIP archive produced by the builder.
+     * @param contentSpecTitle   The title of the content spec that was built.
+     * @param buildingFromConfig If the build was built from a csprocessor.cfg config file or by an id.
+     */
+    protected void handleBuildOutput(final byte[] builderOutput, final String contentSpecTitle, final boolean buildingFromConfig) {
         // Get the filename for the spec, using it's title.
         String fileName = DocBookUtilities.escapeTitle(contentSpecTitle);
 
@@ -688,8 +844,10 @@ public class BuildCommand extends BaseCommandImpl {
 
         // Parse the content spec
         final ErrorLoggerManager loggerManager = new ErrorLoggerManager();
+        final Profiler.Timer timer = Profiler.start(Profiler.PARSE);
         final ContentSpec contentSpec = ClientUtilities.parseContentSpecString(getProviderFactory(), loggerManager, contentSpecString,
                 ContentSpecParser.ParsingMode.EITHER, processProcesses);
+        timer.stop();
 
         // Check that that content specification was parsed successfully
         if (contentSpec == null) {
@@ -742,10 +900,9 @@ public class BuildCommand extends BaseCommandImpl {
     protected CSTranslationDetailWrapper getTranslationDetails(final String fileOrId) {
         if (fileOrId.matches("^\\d+$")) {
             final Integer id = Integer.parseInt(fileOrId);
-            final ContentSpecProvider contentSpecProvider = getProviderFactory().getProvider(ContentSpecProvider.class);
 
             // Get the content spec and it's details
-            final ContentSpecWrapper contentSpecEntity = ClientUtilities.getContentSpecEntity(contentSpecProvider, id, getRevision());
+            final ContentSpecWrapper contentSpecEntity = lookupContentSpec(id, getRevision());
             return contentSpecEntity.getTranslationDetails();
         } else {
             return null;
@@ -785,17 +942,10 @@ public class BuildCommand extends BaseCommandImpl {
      * @return A ZIP archive as a byte array that is ready to be saved as a file.
      */
     protected byte[] buildContentSpec(final ContentSpec contentSpec, final String username, ZanataDetails zanataDetails) {
-        final String fixedUsername = username == null ? "Unknown" : username;
         byte[] builderOutput = null;
         try {
             setBuilder(new ContentSpecBuilder(getProviderFactory()));
-            BuildType buildType = getBuildType() == null ? BuildType.PUBLICAN : getBuildType();
-            if (getLocale() == null) {
-                builderOutput = getBuilder().buildBook(contentSpec, fixedUsername, getBuildOptions(), getOverrideFiles(), buildType);
-            } else {
-                builderOutput = getBuilder().buildTranslatedBook(contentSpec, fixedUsername, getBuildOptions(), getOverrideFiles(),
-                        zanataDetails, buildType);
-            }
+            builderOutput = runBuilder(getBuilder(), contentSpec, username, zanataDetails);
         } catch (BuildProcessingException e) {
             printErrorAndShutdown(Constants.EXIT_INTERNAL_SERVER_ERROR, ExceptionUtilities.getRootCause(e).getMessage(), false);
         } catch (BuilderCreationException e) {
@@ -805,6 +955,32 @@ public class BuildCommand extends BaseCommandImpl {
         return builderOutput;
     }
 
+    /**
+     * Builds a ContentSpec object using a specific builder.
+     *
+     * @param builder       The builder to build the content spec with.
+     * @param contentSpec   The content spec to build from.
+     * @param username      The user who requested the build.
+     * @param zanataDetails The zanata details to use for translated builds.
+     * @return A ZIP archive as a byte array that is ready to be saved as a file.
+     */
+    protected byte[] runBuilder(final ContentSpecBuilder builder, final ContentSpec contentSpec, final String username,
+            final ZanataDetails zanataDetails) throws BuildProcessingException, BuilderCreationException {
+        final String fixedUsername = username == null ? "Unknown" : username;
+        final BuildType buildType = getBuildType() == null ? BuildType.PUBLICAN : getBuildType();
+        final Profiler.Timer timer = Profiler.start(Profiler.BUILD);
+        try {
+            if (getLocale() == null) {
+                return builder.buildBook(contentSpec, fixedUsername, getBuildOptions(), getOverrideFiles(), buildType);
+            } else {
+                return builder.buildTranslatedBook(contentSpec, fixedUsername, getBuildOptions(), getOverrideFiles(), zanataDetails,
+                        buildType);
+            }
+        } finally {
+            timer.stop();
+        }
+    }
+
     /**
      * Validates that a content specification object and it's contents are valid.
      *
@@ -819,6 +995,35 @@ public class BuildCommand extends BaseCommandImpl {
         JCommander.getConsole().println(ClientUtilities.getMessage("STARTING_VALIDATE_MSG"));
 
         // Setup the processing options
+        final ProcessingOptions processingOptions = getValidationOptions();
+
+        // Set the rest topic provider to expand translations by default
+        if (getLocale() != null) {
+            getProviderFactory().getProvider(RESTTopicProvider.class).setExpandTranslations(true);
+        }
+
+        // Start downloading the topics straight away, so that they are downloaded while the content spec is validated
+        final ClientContentSpecProcessor processor = new ClientContentSpecProcessor(providerFactory, loggerManager, processingOptions);
+        final LongRunningRequest<DownloadedTopics> topicDownload = ClientUtilities.startDownloadingAllTopics(providerFactory, contentSpec,
+                null);
+        processor.setTopicDownload(topicDownload);
+
+        // Validate the Content Specification
+        setCsp(processor);
+        try {
+            return getCsp().processContentSpec(contentSpec, username, ContentSpecParser.ParsingMode.EITHER);
+        } finally {
+            // Stop the download if the validation finished before the topics were needed
+            topicDownload.cancel();
+        }
+    }
+
+    /**
+     * Get the options that should be used when validating a content spec before building.
+     *
+     * @return The Object that holds all the options used when validating.
+     */
+    protected ProcessingOptions getValidationOptions() {
         final ProcessingOptions processingOptions = new ProcessingOptions();
         processingOptions.setValidateOnly(true);
         processingOptions.setIgnoreChecksum(true);
@@ -837,14 +1042,7 @@ public class BuildCommand extends BaseCommandImpl {
             processingOptions.setValidateBugLinks(!getSkipBugLinkValidation());
         }
 
-        // Set the rest topic provider to expand translations by default
-        if (getLocale() != null) {
-            getProviderFactory().getProvider(RESTTopicProvider.class).setExpandTranslations(true);
-        }
-
-        // Validate the Content Specification
-        setCsp(new ClientContentSpecProcessor(providerFactory, loggerManager, processingOptions));
-        return getCsp().processContentSpec(contentSpec, username, ContentSpecParser.ParsingMode.EITHER);
+        return processingOptions;
     }
 
     /**
@@ -859,14 +1057,15 @@ public class BuildCommand extends BaseCommandImpl {
         final ContentSpec contentSpec;
         if (fileOrId.matches("^\\d+$")) {
             final Integer id = Integer.parseInt(fileOrId);
-            final ContentSpecProvider contentSpecProvider = getProviderFactory().getProvider(ContentSpecProvider.class);
 
             // Get the Content Spec from the server. If the locale is set then find the closest translated spec and load it from there.
             ContentSpecWrapper contentSpecEntity = null;
             try {
                 if (getLocale() != null) {
+                    final Profiler.Timer timer = Profiler.start(Profiler.SPEC_FETCH);
                     final TranslatedContentSpecWrapper translatedContentSpec = EntityUtilities.getClosestTranslatedContentSpecById(
                             getProviderFactory(), id, getRevision());
+                    timer.stop();
                     if (translatedContentSpec != null) {
                         contentSpecEntity = translatedContentSpec.getContentSpec();
                     } else {
@@ -874,7 +1073,7 @@ public class BuildCommand extends BaseCommandImpl {
                                 false);
                     }
                 } else {
-                    contentSpecEntity = ClientUtilities.getContentSpecEntity(contentSpecProvider, id, getRevision());
+                    contentSpecEntity = lookupContentSpec(id, getRevision());
                 }
             } catch (NotFoundException e) {
                 // Do nothing as this is handled below
@@ -900,8 +1099,7 @@ public class BuildCommand extends BaseCommandImpl {
             // If we are getting the latest translated content spec then we'll need to validate it and see if it matches the
             // latest untranslated content spec
             if (getRevision() == null) {
-                final ContentSpecWrapper latestContentSpecEntity = ClientUtilities.getContentSpecEntity(contentSpecProvider, id,
-                        getRevision());
+                final ContentSpecWrapper latestContentSpecEntity = lookupContentSpec(id, getRevision());
                 if (latestContentSpecEntity != null && !latestContentSpecEntity.getRevision().equals(contentSpecEntity.getRevision())) {
                     printWarn(ClientUtilities.getMessage("WARN_LATEST_TRANSLATION_IS_NOT_THE_LATEST"));
                     warningPrinted = true;
@@ -919,7 +1117,9 @@ public class BuildCommand extends BaseCommandImpl {
                 JCommander.getConsole().println("");
             }
 
+            final Profiler.Timer timer = Profiler.start(Profiler.PARSE);
             contentSpec = CSTransformer.transform(contentSpecEntity, getProviderFactory(), INCLUDE_CHECKSUMS);
+            timer.stop();
             contentSpec.setRevision(contentSpecEntity.getRevision());
         } else {
             // Get the content spec from the file
@@ -1018,7 +1218,7 @@ public class BuildCommand extends BaseCommandImpl {
         // Save the book to file
         try {
             if (answer.equalsIgnoreCase("y") || answer.equalsIgnoreCase("yes")) {
-                FileUtilities.saveFile(outputFile, buildZip);
+                writeBuildToFile(buildZip, outputFile);
                 JCommander.getConsole().println(ClientUtilities.getMessage("OUTPUT_SAVED_MSG", outputFile.getAbsolutePath()));
             } else {
                 shutdown(Constants.EXIT_FAILURE);
@@ -1028,6 +1228,55 @@ public class BuildCommand extends BaseCommandImpl {
         }
     }
 
+    /**
+     * Writes the build output to a temporary file alongside the output file and then renames it, so that an existing build
+     * is only replaced once the new build has been completely written. The existing build is moved aside while the new build is
+     * renamed into place, and is restored if that fails.
+     * <p/>
+     * This only makes the write atomic. The builder hands back the whole archive as a byte array, so the build is still held
+     * in memory while it is written.
+     *
+     * @param buildZip   The File Contents to be saved.
+     * @param outputFile The location/name of the output file.
+     * @throws IOException Thrown if the build could not be written or moved into place.
+     */
+    protected void writeBuildToFile(final byte[] buildZip, final File outputFile) throws IOException {
+        final File parentDir = outputFile.getAbsoluteFile().getParentFile();
+        final File tempFile = new File(parentDir, "." + outputFile.getName() + Constants.TEMP_FILE_EXTENSION);
+        final File backupFile = new File(parentDir, "." + outputFile.getName() + Constants.BACKUP_FILE_EXTENSION);
+        final Profiler.Timer timer = Profiler.start(Profiler.ZIP_WRITE);
+        try {
+            FileUtilities.saveFile(tempFile, buildZip);
+
+            // Move the existing build out of the way, so that it can be put back if the new build can't be moved into place
+            final boolean backedUp = outputFile.exists();
+            if (backedUp) {
+                if (backupFile.exists() && !backupFile.delete()) {
+                    throw new IOException("Unable to remove " + backupFile.getAbsolutePath());
+                } else if (!outputFile.renameTo(backupFile)) {
+                    throw new IOException("Unable to move " + outputFile.getAbsolutePath() + " to " + backupFile.getAbsolutePath());
+                }
+            }
+
+            if (!tempFile.renameTo(outputFile)) {
+                if (backedUp && !backupFile.renameTo(outputFile)) {
+                    throw new IOException("Unable to move " + tempFile.getAbsolutePath() + " to " + outputFile.getAbsolutePath()
+                            + ". The previous build has been left at " + backupFile.getAbsolutePath());
+                }
+                throw new IOException("Unable to move " + tempFile.getAbsolutePath() + " to " + outputFile.getAbsolutePath());
+            }
+
+            if (backedUp) {
+                backupFile.delete();
+            }
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+            timer.stop(0, buildZip.length);
+        }
+    }
+
     /**
      * Validates the passed publican.cfg overrides to check that they are valid.
      */
@@ -1054,6 +1303,16 @@ public class BuildCommand extends BaseCommandImpl {
         super.shutdown();
     }
 
+    @Override
+    public void shutdown(final int exitStatus) {
+        // A failed build shouldn't stop the application when watching, as the next change may fix the problem
+        if (watchedBuildRunning.get() && !isAppShuttingDown()) {
+            throw new WatchedBuildFailedException(exitStatus);
+        }
+
+        super.shutdown(exitStatus);
+    }
+
     @Override
     public boolean loadFromCSProcessorCfg() {
         return getIds().size() == 0;
@@ -1088,4 +1347,15 @@ public class BuildCommand extends BaseCommandImpl {
     public boolean requiresExternalConnection() {
         return true;
     }
+
+    /**
+     * Thrown to stop processing a build that failed while watching, instead of exiting the application.
+     */
+    private static class WatchedBuildFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private WatchedBuildFailedException(final int exitStatus) {
+            super("The build failed with exit status " + exitStatus);
+        }
+    }
 }
@@ -31,9 +31,8 @@ import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
-import org.jboss.pressgang.ccms.provider.ContentSpecProvider;
 import org.jboss.pressgang.ccms.utils.common.FileUtilities;
-import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
+import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
 import org.jboss.pressgang.ccms.zanata.ZanataDetails;
 
 @Parameters(resourceBundle = "commands", commandDescriptionKey = "CHECKOUT")
@@ -104,14 +103,12 @@ public class CheckoutCommand extends BaseCommandImpl {
 
     @Override
     public void process() {
-        final ContentSpecProvider contentSpecProvider = getProviderFactory().getProvider(ContentSpecProvider.class);
-
         // Check that an ID was entered
         ClientUtilities.validateIdsOrFiles(this, getIds(), false);
 
         // Get the content spec from the server
-        final String contentSpecString = ClientUtilities.getContentSpecAsString(contentSpecProvider, ids.get(0), null);
-        final ContentSpecWrapper contentSpecEntity = ClientUtilities.getContentSpecEntity(contentSpecProvider, ids.get(0), null);
+        final TextContentSpecWrapper contentSpecEntity = lookupContentSpecWithText(ids.get(0), null);
+        final String contentSpecString = contentSpecEntity == null ? null : contentSpecEntity.getText();
         if (contentSpecString == null || contentSpecEntity == null) {
             printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_NO_ID_FOUND_MSG"), false);
         }
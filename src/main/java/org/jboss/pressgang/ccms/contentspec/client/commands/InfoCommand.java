@@ -28,6 +28,7 @@ import com.beust.jcommander.Parameters;
 import org.jboss.pressgang.ccms.contentspec.ContentSpec;
 import org.jboss.pressgang.ccms.contentspec.SpecTopic;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.BatchCommand;
 import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
@@ -40,7 +41,7 @@ import org.jboss.pressgang.ccms.wrapper.TopicWrapper;
 import org.jboss.pressgang.ccms.wrapper.collection.CollectionWrapper;
 
 @Parameters(resourceBundle = "commands", commandDescriptionKey = "INFO")
-public class InfoCommand extends BaseCommandImpl {
+public class InfoCommand extends BaseCommandImpl implements BatchCommand {
     @Parameter(metaVar = "[ID]")
     private List<Integer> ids = new ArrayList<Integer>();
 
@@ -60,6 +61,22 @@ public class InfoCommand extends BaseCommandImpl {
         this.ids = ids;
     }
 
+    @Override
+    public List<String> getBatchIds() {
+        final List<String> batchIds = new ArrayList<String>();
+        for (final Integer id : getIds()) {
+            batchIds.add(id.toString());
+        }
+        return batchIds;
+    }
+
+    @Override
+    public void setBatchId(final String id) {
+        final List<Integer> ids = new ArrayList<Integer>();
+        ids.add(Integer.parseInt(id));
+        setIds(ids);
+    }
+
     @Override
     public void process() {
         final ContentSpecProvider contentSpecProvider = getProviderFactory().getProvider(ContentSpecProvider.class);
@@ -30,13 +30,14 @@ import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfigurati
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
 import org.jboss.pressgang.ccms.contentspec.entities.SpecList;
-import org.jboss.pressgang.ccms.provider.RESTTextContentSpecProvider;
-import org.jboss.pressgang.ccms.provider.TextContentSpecProvider;
-import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
-import org.jboss.pressgang.ccms.wrapper.collection.CollectionWrapper;
+import org.jboss.pressgang.ccms.rest.v1.collections.contentspec.RESTTextContentSpecCollectionV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.contentspec.RESTTextContentSpecV1;
+import org.jboss.pressgang.ccms.rest.v1.jaxrsinterfaces.RESTInterfaceV1;
 
 @Parameters(resourceBundle = "commands", commandDescriptionKey = "LIST")
 public class ListCommand extends BaseCommandImpl {
+    private static final String LIST_QUERY = "query;";
+
     @Parameter(names = {Constants.FORCE_LONG_PARAM, Constants.FORCE_SHORT_PARAM}, hidden = true)
     private Boolean force = false;
 
@@ -70,16 +71,17 @@ public class ListCommand extends BaseCommandImpl {
 
     @Override
     public void process() {
-        final TextContentSpecProvider contentSpecProvider = getProviderFactory().getProvider(TextContentSpecProvider.class);
-        ((RESTTextContentSpecProvider) contentSpecProvider).setExpandProperties(true);
-
-        // Get the content specs from the database
-        final CollectionWrapper<TextContentSpecWrapper> contentSpecs = contentSpecProvider.getTextContentSpecsWithQuery("query;");
-        int noSpecs = contentSpecs.size();
+        final RESTInterfaceV1 restClient = getProviderFactory().getRESTManager().getRESTClient();
 
         // Get the number of results to display
-        final Integer limit = getLimit() == null ? Constants.MAX_LIST_RESULT : (getLimit() > 0 ? getLimit() : 0);
-        final Integer numResults;
+        final int limit = getLimit() == null ? Constants.MAX_LIST_RESULT : (getLimit() > 0 ? getLimit() : 0);
+
+        // Get the first page of content specs from the database, which also includes how many content specs exist
+        final int firstPageSize = isForce() ? Constants.LIST_PAGE_SIZE : Math.min(limit, Constants.LIST_PAGE_SIZE);
+        RESTTextContentSpecCollectionV1 contentSpecs = ClientUtilities.getTextContentSpecPage(restClient, LIST_QUERY, 0, firstPageSize);
+        final int noSpecs = contentSpecs.getSize() == null ? 0 : contentSpecs.getSize();
+
+        final int numResults;
         if (limit > noSpecs) {
             numResults = noSpecs;
         } else if (!isForce()) {
@@ -98,15 +100,35 @@ public class ListCommand extends BaseCommandImpl {
         } else if (noSpecs == 0) {
             JCommander.getConsole().println(ClientUtilities.getMessage("NO_CS_FOUND_MSG"));
         } else {
-            // Get the sublist of results to display
-            final List<TextContentSpecWrapper> csList = contentSpecs.getItems().subList(0, numResults);
-
-            // Good point to check for a shutdown
-            allowShutdownToContinueIfRequested();
-
-            // Generate and then print the list of content specs
-            final SpecList specList = ClientUtilities.buildSpecList(csList, getProviderFactory(), getServerEntities());
-            JCommander.getConsole().println(ClientUtilities.generateContentSpecList(specList));
+            // Print each page as it is downloaded, using the column widths from the first page
+            String format = null;
+            int numPrinted = 0;
+            while (numPrinted < numResults) {
+                if (contentSpecs == null) {
+                    final int end = Math.min(numPrinted + Constants.LIST_PAGE_SIZE, numResults);
+                    contentSpecs = ClientUtilities.getTextContentSpecPage(restClient, LIST_QUERY, numPrinted, end);
+                }
+
+                // Only print up to the number of results requested
+                final List<RESTTextContentSpecV1> items = contentSpecs.returnItems();
+                if (items == null || items.isEmpty()) break;
+                final List<RESTTextContentSpecV1> csList = items.subList(0, Math.min(items.size(), numResults - numPrinted));
+
+                // Good point to check for a shutdown
+                allowShutdownToContinueIfRequested();
+
+                // Generate and then print the page of content specs
+                final SpecList specList = ClientUtilities.buildSpecListFromEntities(csList, getProviderFactory(), getServerEntities());
+                if (format == null) {
+                    format = ClientUtilities.getContentSpecListFormat(specList);
+                    JCommander.getConsole().print(ClientUtilities.generateContentSpecListHeader(format));
+                }
+                JCommander.getConsole().print(ClientUtilities.generateContentSpecListRows(format, specList));
+
+                numPrinted += csList.size();
+                contentSpecs = null;
+            }
+            JCommander.getConsole().println("");
         }
     }
 
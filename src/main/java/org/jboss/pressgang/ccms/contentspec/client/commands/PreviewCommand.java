@@ -90,12 +90,16 @@ public class PreviewCommand extends AssembleCommand {
         // Good point to check for a shutdown
         allowShutdownToContinueIfRequested();
 
-        // Open the file
-        try {
-            FileUtilities.openFile(previewFile);
-        } catch (Exception e) {
-            printErrorAndShutdown(Constants.EXIT_FAILURE,
-                    ClientUtilities.getMessage("ERROR_UNABLE_TO_OPEN_FILE_MSG", previewFile.getAbsolutePath()), false);
+        // Open the file, unless it's already been opened by an earlier build while watching
+        if (isRebuild()) {
+            JCommander.getConsole().println(ClientUtilities.getMessage("PREVIEW_UPDATED_MSG", previewFile.getAbsolutePath()));
+        } else {
+            try {
+                FileUtilities.openFile(previewFile);
+            } catch (Exception e) {
+                printErrorAndShutdown(Constants.EXIT_FAILURE,
+                        ClientUtilities.getMessage("ERROR_UNABLE_TO_OPEN_FILE_MSG", previewFile.getAbsolutePath()), false);
+            }
         }
     }
 
@@ -26,18 +26,18 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.BatchCommand;
 import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
-import org.jboss.pressgang.ccms.provider.ContentSpecProvider;
 import org.jboss.pressgang.ccms.provider.TopicProvider;
 import org.jboss.pressgang.ccms.utils.common.DocBookUtilities;
-import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
+import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
 import org.jboss.pressgang.ccms.wrapper.TopicWrapper;
 
 @Parameters(resourceBundle = "commands", commandDescriptionKey = "PULL")
-public class PullCommand extends BaseCommandImpl {
+public class PullCommand extends BaseCommandImpl implements BatchCommand {
     @Parameter(metaVar = "[ID]")
     private List<Integer> ids = new ArrayList<Integer>();
 
@@ -94,6 +94,22 @@ public class PullCommand extends BaseCommandImpl {
         this.ids = ids;
     }
 
+    @Override
+    public List<String> getBatchIds() {
+        final List<String> batchIds = new ArrayList<String>();
+        for (final Integer id : getIds()) {
+            batchIds.add(id.toString());
+        }
+        return batchIds;
+    }
+
+    @Override
+    public void setBatchId(final String id) {
+        final List<Integer> ids = new ArrayList<Integer>();
+        ids.add(Integer.parseInt(id));
+        setIds(ids);
+    }
+
     public String getOutputPath() {
         return outputPath;
     }
@@ -108,7 +124,6 @@ public class PullCommand extends BaseCommandImpl {
 
     @Override
     public void process() {
-        final ContentSpecProvider contentSpecProvider = getProviderFactory().getProvider(ContentSpecProvider.class);
         boolean pullForConfig = false;
 
         // Initialise the basic data and perform basic input checks
@@ -146,9 +161,8 @@ public class PullCommand extends BaseCommandImpl {
             }
             // Content Specification
         } else {
-            final ContentSpecWrapper contentSpecEntity = ClientUtilities.getContentSpecEntity(contentSpecProvider, getIds().get(0),
-                    getRevision());
-            final String contentSpecString = ClientUtilities.getContentSpecAsString(contentSpecProvider, getIds().get(0), getRevision());
+            final TextContentSpecWrapper contentSpecEntity = lookupContentSpecWithText(getIds().get(0), getRevision());
+            final String contentSpecString = contentSpecEntity == null ? null : contentSpecEntity.getText();
             if (contentSpecEntity == null || contentSpecString == null) {
                 printErrorAndShutdown(Constants.EXIT_FAILURE,
                         ClientUtilities.getMessage(getRevision() == null ? "ERROR_NO_ID_FOUND_MSG" : "ERROR_NO_REV_ID_FOUND_MSG"), false);
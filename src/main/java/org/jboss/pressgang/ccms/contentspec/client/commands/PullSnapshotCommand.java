@@ -31,6 +31,7 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.BatchCommand;
 import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
@@ -41,7 +42,7 @@ import org.jboss.pressgang.ccms.rest.v1.jaxrsinterfaces.RESTInterfaceV1;
 import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
 
 @Parameters(resourceBundle = "commands", commandDescriptionKey = "PULL_SNAPSHOT")
-public class PullSnapshotCommand extends BaseCommandImpl {
+public class PullSnapshotCommand extends BaseCommandImpl implements BatchCommand {
     @Parameter(metaVar = "[ID]")
     private List<Integer> ids = new ArrayList<Integer>();
 
@@ -74,6 +75,22 @@ public class PullSnapshotCommand extends BaseCommandImpl {
         this.ids = ids;
     }
 
+    @Override
+    public List<String> getBatchIds() {
+        final List<String> batchIds = new ArrayList<String>();
+        for (final Integer id : getIds()) {
+            batchIds.add(id.toString());
+        }
+        return batchIds;
+    }
+
+    @Override
+    public void setBatchId(final String id) {
+        final List<Integer> ids = new ArrayList<Integer>();
+        ids.add(Integer.parseInt(id));
+        setIds(ids);
+    }
+
     public Integer getRevision() {
         return revision;
     }
@@ -19,29 +19,25 @@
 
 package org.jboss.pressgang.ccms.contentspec.client.commands;
 
-import static com.google.common.base.Strings.isNullOrEmpty;
-
-import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
-import org.codehaus.jackson.map.ObjectMapper;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.MultiSpecCommand;
 import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.jboss.pressgang.ccms.contentspec.client.utils.AsyncProcessScheduler;
+import org.jboss.pressgang.ccms.contentspec.client.utils.AsyncProcessWaiter;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
 import org.jboss.pressgang.ccms.provider.ContentSpecProvider;
 import org.jboss.pressgang.ccms.provider.RESTProviderFactory;
 import org.jboss.pressgang.ccms.provider.exception.BadRequestException;
 import org.jboss.pressgang.ccms.rest.v1.elements.RESTProcessInformationV1;
 import org.jboss.pressgang.ccms.rest.v1.elements.enums.RESTProcessStatusV1;
-import org.jboss.pressgang.ccms.rest.v1.expansion.ExpandDataDetails;
-import org.jboss.pressgang.ccms.rest.v1.expansion.ExpandDataTrunk;
 import org.jboss.pressgang.ccms.rest.v1.jaxrsinterfaces.RESTInterfaceV1;
 import org.jboss.pressgang.ccms.utils.common.ExceptionUtilities;
 import org.jboss.pressgang.ccms.wrapper.CSTranslationDetailWrapper;
@@ -49,7 +45,7 @@ import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
 import org.jboss.pressgang.ccms.zanata.ZanataDetails;
 
 @Parameters(resourceBundle = "commands", commandDescriptionKey = "PUSH_TRANSLATION")
-public class PushTranslationCommand extends BaseCommandImpl {
+public class PushTranslationCommand extends BaseCommandImpl implements MultiSpecCommand {
 
     @Parameter(metaVar = "[ID]")
     private List<Integer> ids = new ArrayList<Integer>();
@@ -66,6 +62,9 @@ public class PushTranslationCommand extends BaseCommandImpl {
     @Parameter(names = Constants.NO_WAIT_LONG_PARAM, descriptionKey = "PUSH_NO_WAIT")
     private Boolean noWait = false;
 
+    private String idsFile = null;
+    private Integer concurrency = null;
+
     public PushTranslationCommand(final JCommander parser, final ContentSpecConfiguration cspConfig,
             final ClientConfiguration clientConfig) {
         super(parser, cspConfig, clientConfig);
@@ -116,6 +115,24 @@ public class PushTranslationCommand extends BaseCommandImpl {
         this.noWait = noWait;
     }
 
+    public String getIdsFile() {
+        return idsFile;
+    }
+
+    @Override
+    public void setIdsFile(final String idsFile) {
+        this.idsFile = idsFile;
+    }
+
+    public Integer getConcurrency() {
+        return concurrency;
+    }
+
+    @Override
+    public void setConcurrency(final Integer concurrency) {
+        this.concurrency = concurrency;
+    }
+
     protected boolean isValid(final ZanataDetails zanataDetails) {
         // Check that we even have some zanata details.
         if (zanataDetails == null) return false;
@@ -131,7 +148,11 @@ public class PushTranslationCommand extends BaseCommandImpl {
 
     @Override
     public void process() {
-        final ContentSpecProvider contentSpecProvider = getProviderFactory().getProvider(ContentSpecProvider.class);
+        // Multiple content specs are pushed together, so that they can share a single process monitor
+        if (getIds().size() > 1 || getIdsFile() != null) {
+            processMultiple();
+            return;
+        }
 
         // Load the ids and validate that one and only one exists
         ClientUtilities.prepareAndValidateIds(this, getCspConfig(), getIds());
@@ -139,30 +160,107 @@ public class PushTranslationCommand extends BaseCommandImpl {
         // Good point to check for a shutdown
         allowShutdownToContinueIfRequested();
 
-        final ContentSpecWrapper contentSpecEntity = ClientUtilities.getContentSpecEntity(contentSpecProvider, ids.get(0), null);
+        final ContentSpecWrapper contentSpecEntity = getContentSpecEntity(ids.get(0), true);
+        final ZanataDetails zanataDetails = getZanataDetails(contentSpecEntity, true);
+
+        // Start the push operation
+        pushToZanata(getProviderFactory(), contentSpecEntity, zanataDetails.getUsername(), zanataDetails.getToken());
+    }
+
+    /**
+     * Pushes multiple content specs to zanata, limiting how many push processes are running on the server at the same time.
+     */
+    protected void processMultiple() {
+        final List<Integer> allIds = ClientUtilities.getMultiSpecIds(this, getIds(), getIdsFile());
+        if (getConcurrency() != null && getConcurrency() < 1) {
+            printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, ClientUtilities.getMessage("ERROR_INVALID_BATCH_CONCURRENCY_MSG"),
+                    false);
+        }
+
+        final RESTInterfaceV1 restClient = getProviderFactory().getRESTManager().getRESTClient();
+        final AsyncProcessScheduler scheduler = new AsyncProcessScheduler(restClient,
+                getConcurrency() == null ? Constants.DEFAULT_MAX_ASYNC_PROCESSES : getConcurrency());
+        JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_STARTING_MSG", allIds.size(), scheduler.getMaxInFlight()));
+
+        int exitStatus = Constants.EXIT_SUCCESS;
+        try {
+            exitStatus = scheduler.runAll(allIds, !getNoWait(), ClientUtilities.getMessage("WAITING_FOR_TRANSLATION_PUSH_TO_COMPLETE"),
+                    new AsyncProcessScheduler.SpecProcessStarter() {
+                        @Override
+                        public RESTProcessInformationV1 start(final Integer id) {
+                            // Only report errors, so that the rest of the content specs are still pushed
+                            final ContentSpecWrapper contentSpecEntity = getContentSpecEntity(id, false);
+                            if (contentSpecEntity == null) return null;
+
+                            final ZanataDetails zanataDetails = getZanataDetails(contentSpecEntity, false);
+                            if (zanataDetails == null) return null;
+
+                            return startPushToZanata(restClient, contentSpecEntity, zanataDetails.getUsername(),
+                                    zanataDetails.getToken(), false);
+                        }
+                    });
+        } catch (InterruptedException e) {
+            JCommander.getConsole().println(ExceptionUtilities.getStackTrace(e));
+            shutdown(Constants.EXIT_FAILURE);
+        }
+
+        // Exit with the status of the first content spec that failed
+        if (exitStatus != Constants.EXIT_SUCCESS) {
+            shutdown(exitStatus);
+        }
+    }
+
+    /**
+     * Loads a content spec and checks that it can be pushed.
+     *
+     * @param id       The id of the content spec to load.
+     * @param shutdown Whether the application should be shut down if the content spec can't be pushed.
+     * @return The content spec entity, or null if it can't be pushed.
+     */
+    protected ContentSpecWrapper getContentSpecEntity(final Integer id, final boolean shutdown) {
+        final ContentSpecProvider contentSpecProvider = getProviderFactory().getProvider(ContentSpecProvider.class);
+
+        final ContentSpecWrapper contentSpecEntity = ClientUtilities.getContentSpecEntity(contentSpecProvider, id, null);
         if (contentSpecEntity == null) {
-            printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_NO_ID_FOUND_MSG"), false);
+            printErrorAndShutdownIfRequired(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_NO_ID_FOUND_MSG"), shutdown);
+            return null;
         }
 
         // Check that the content spec isn't a failed one
         if (contentSpecEntity.getFailed() != null) {
-            printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_INVALID_CONTENT_SPEC_MSG"), false);
+            printErrorAndShutdownIfRequired(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_INVALID_CONTENT_SPEC_MSG"),
+                    shutdown);
+            return null;
         }
 
         // Good point to check for a shutdown
         allowShutdownToContinueIfRequested();
 
+        return contentSpecEntity;
+    }
+
+    /**
+     * Gets the zanata details for a content spec, and checks that the content spec can be pushed to zanata.
+     *
+     * @param contentSpecEntity The content spec to be pushed.
+     * @param shutdown          Whether the application should be shut down if the content spec can't be pushed.
+     * @return The zanata details to use when pushing the content spec, or null if it can't be pushed.
+     */
+    protected ZanataDetails getZanataDetails(final ContentSpecWrapper contentSpecEntity, final boolean shutdown) {
         // Get the translation details for the content spec
         final CSTranslationDetailWrapper translationDetails = contentSpecEntity.getTranslationDetails();
         if (translationDetails == null || translationDetails.getTranslationServer() == null) {
-            printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_TRANSLATION_DETAILS_NOT_CONFIGURED_MSG"), false);
+            printErrorAndShutdownIfRequired(Constants.EXIT_FAILURE,
+                    ClientUtilities.getMessage("ERROR_TRANSLATION_DETAILS_NOT_CONFIGURED_MSG"), shutdown);
+            return null;
         }
 
         // Get the Zanata Details and check that they are valid
         final ZanataDetails zanataDetails = ClientUtilities.generateZanataDetails(translationDetails, getClientConfig());
         if (!isValid(zanataDetails)) {
-            printErrorAndShutdown(Constants.EXIT_CONFIG_ERROR, ClientUtilities.getMessage("ERROR_NO_ZANATA_SERVER_SETUP_MSG",
-                    zanataDetails.getServer()), false);
+            printErrorAndShutdownIfRequired(Constants.EXIT_CONFIG_ERROR, ClientUtilities.getMessage("ERROR_NO_ZANATA_SERVER_SETUP_MSG",
+                    zanataDetails.getServer()), shutdown);
+            return null;
         }
 
         // Good point to check for a shutdown
@@ -170,19 +268,20 @@ public class PushTranslationCommand extends BaseCommandImpl {
 
         // Check that the content spec is frozen
         if (!getAllowUnfrozenPush() && !contentSpecEntity.hasTag(getServerEntities().getFrozenTagId())) {
-            printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_PUSH_TRANSLATION_UNFROZEN_MSG"), false);
+            printErrorAndShutdownIfRequired(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_PUSH_TRANSLATION_UNFROZEN_MSG"),
+                    shutdown);
+            return null;
         }
 
         // Good point to check for a shutdown
         allowShutdownToContinueIfRequested();
 
-        // Start the push operation
-        pushToZanata(getProviderFactory(), contentSpecEntity, zanataDetails.getUsername(), zanataDetails.getToken());
+        return zanataDetails;
     }
 
     @Override
     public boolean loadFromCSProcessorCfg() {
-        return ids.size() == 0;
+        return ids.size() == 0 && getIdsFile() == null;
     }
 
     /**
@@ -198,56 +297,23 @@ public class PushTranslationCommand extends BaseCommandImpl {
         final RESTInterfaceV1 restClient = providerFactory.getRESTManager().getRESTClient();
 
         // Start the process on the server
-        RESTProcessInformationV1 processInformation = null;
-        try {
-            processInformation = restClient
-                    .pushContentSpecForTranslation(contentSpecEntity.getId(), "", "", contentSpecOnly, disableCopyTrans, allowUnfrozenPush,
-                            username, apikey);
-            JCommander.getConsole().println(ClientUtilities.getMessage("STARTING_TO_PUSH_TO_ZANATA_MSG"));
-            JCommander.getConsole().println(ClientUtilities.getMessage("PROCESS_UUID_MSG", processInformation.getId()));
-        } catch (BadRequestException e) {
-            printErrorAndShutdown(Constants.EXIT_FAILURE, e.getMessage(), false);
-        }
+        RESTProcessInformationV1 processInformation = startPushToZanata(restClient, contentSpecEntity, username, apikey, true);
 
         // If the user doesn't want to wait just return
         if (noWait) {
             return;
         }
 
-        // Get the expansion for the logs
-        String expand = "";
+        // Wait until the process has finished executing on the server, printing the logs as they come in
         try {
-            final ObjectMapper mapper = new ObjectMapper();
-            final ExpandDataTrunk expandDataTrunk = new ExpandDataTrunk();
-            expandDataTrunk.setBranches(Arrays.asList(new ExpandDataTrunk(new ExpandDataDetails(RESTProcessInformationV1.LOGS_NAME))));
-            expand = mapper.writeValueAsString(expandDataTrunk);
-        } catch (IOException e) {
+            final AsyncProcessWaiter processWaiter = new AsyncProcessWaiter(restClient);
+            processInformation = processWaiter.waitFor(processInformation, new AsyncProcessWaiter.ConsoleProcessListener(
+                    ClientUtilities.getMessage("WAITING_FOR_TRANSLATION_PUSH_TO_COMPLETE"), false));
+        } catch (InterruptedException e) {
             JCommander.getConsole().println(ExceptionUtilities.getStackTrace(e));
             shutdown(Constants.EXIT_FAILURE);
         }
 
-        // Wait until the process has finished executing on the server
-        while (!(processInformation.getStatus() == RESTProcessStatusV1.COMPLETED || processInformation.getStatus() == RESTProcessStatusV1
-                .FAILED || processInformation.getStatus() == RESTProcessStatusV1.CANCELLED)) {
-            JCommander.getConsole().println(ClientUtilities.getMessage("WAITING_FOR_TRANSLATION_PUSH_TO_COMPLETE"));
-            try {
-                // Wait for a few secs before checking the status again
-                Thread.sleep(Constants.ASYNC_STATUS_INTERVAL);
-            } catch (Exception e) {
-                JCommander.getConsole().println(ExceptionUtilities.getStackTrace(e));
-                shutdown(Constants.EXIT_FAILURE);
-            }
-
-            // Get the latest process information
-            processInformation = restClient.getJSONProcess(processInformation.getId(), expand);
-        }
-
-        if (!isNullOrEmpty(processInformation.getLogs())) {
-            // Print the log information
-            JCommander.getConsole().println("");
-            JCommander.getConsole().println(processInformation.getLogs());
-        }
-
         // Print the success/failue messages
         if (processInformation.getStatus() == RESTProcessStatusV1.FAILED) {
             printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_ZANATA_PUSH_FAILED_MSG"), false);
@@ -260,6 +326,32 @@ public class PushTranslationCommand extends BaseCommandImpl {
         }
     }
 
+    /**
+     * Starts the process to push a content spec and its topics to zanata on the server.
+     *
+     * @param restClient        The client to use to start the process.
+     * @param contentSpecEntity The content spec to be pushed.
+     * @param username          The zanata username.
+     * @param apikey            The zanata api key.
+     * @param shutdown          Whether the application should be shut down if the process can't be started.
+     * @return The information about the process that was started, or null if it couldn't be started.
+     */
+    protected RESTProcessInformationV1 startPushToZanata(final RESTInterfaceV1 restClient, final ContentSpecWrapper contentSpecEntity,
+            final String username, final String apikey, final boolean shutdown) {
+        RESTProcessInformationV1 processInformation = null;
+        try {
+            processInformation = restClient
+                    .pushContentSpecForTranslation(contentSpecEntity.getId(), "", "", contentSpecOnly, disableCopyTrans, allowUnfrozenPush,
+                            username, apikey);
+            JCommander.getConsole().println(ClientUtilities.getMessage("STARTING_TO_PUSH_TO_ZANATA_MSG"));
+            JCommander.getConsole().println(ClientUtilities.getMessage("PROCESS_UUID_MSG", processInformation.getId()));
+        } catch (BadRequestException e) {
+            printErrorAndShutdownIfRequired(Constants.EXIT_FAILURE, e.getMessage(), shutdown);
+        }
+
+        return processInformation;
+    }
+
     @Override
     public boolean requiresExternalConnection() {
         return true;
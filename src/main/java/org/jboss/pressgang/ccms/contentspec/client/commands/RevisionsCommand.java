@@ -26,6 +26,7 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.BatchCommand;
 import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
@@ -38,7 +39,7 @@ import org.jboss.pressgang.ccms.provider.TopicProvider;
 import org.jboss.pressgang.ccms.provider.exception.NotFoundException;
 
 @Parameters(resourceBundle = "commands", commandDescriptionKey = "REVISIONS")
-public class RevisionsCommand extends BaseCommandImpl {
+public class RevisionsCommand extends BaseCommandImpl implements BatchCommand {
     @Parameter(metaVar = "[ID]")
     private List<Integer> ids = new ArrayList<Integer>();
 
@@ -73,6 +74,22 @@ public class RevisionsCommand extends BaseCommandImpl {
         this.ids = ids;
     }
 
+    @Override
+    public List<String> getBatchIds() {
+        final List<String> batchIds = new ArrayList<String>();
+        for (final Integer id : getIds()) {
+            batchIds.add(id.toString());
+        }
+        return batchIds;
+    }
+
+    @Override
+    public void setBatchId(final String id) {
+        final List<Integer> ids = new ArrayList<Integer>();
+        ids.add(Integer.parseInt(id));
+        setIds(ids);
+    }
+
     public Boolean isUseTopic() {
         return topic;
     }
@@ -19,9 +19,13 @@
 
 package org.jboss.pressgang.ccms.contentspec.client.commands;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
@@ -31,10 +35,16 @@ import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
+import org.jboss.pressgang.ccms.contentspec.client.utils.SpecSearchIndex;
+import org.jboss.pressgang.ccms.contentspec.entities.Spec;
+import org.jboss.pressgang.ccms.contentspec.entities.SpecList;
 import org.jboss.pressgang.ccms.contentspec.sort.EntityWrapperIDComparator;
 import org.jboss.pressgang.ccms.provider.RESTTextContentSpecProvider;
 import org.jboss.pressgang.ccms.provider.TextContentSpecProvider;
+import org.jboss.pressgang.ccms.rest.v1.collections.contentspec.RESTTextContentSpecCollectionV1;
 import org.jboss.pressgang.ccms.rest.v1.constants.CommonFilterConstants;
+import org.jboss.pressgang.ccms.rest.v1.entities.contentspec.RESTTextContentSpecV1;
+import org.jboss.pressgang.ccms.rest.v1.jaxrsinterfaces.RESTInterfaceV1;
 import org.jboss.pressgang.ccms.rest.v1.query.RESTContentSpecQueryBuilderV1;
 import org.jboss.pressgang.ccms.utils.common.StringUtilities;
 import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
@@ -42,12 +52,19 @@ import org.jboss.pressgang.ccms.wrapper.collection.CollectionWrapper;
 
 @Parameters(resourceBundle = "commands", commandDescriptionKey = "SEARCH")
 public class SearchCommand extends BaseCommandImpl {
+    private static final String ALL_CONTENT_SPECS_QUERY = "query;";
+    private static final String EDITED_AFTER_QUERY = "query;startEditDate=%s;";
+    private static final String EDIT_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+
     @Parameter(metaVar = "[QUERY]")
     private List<String> queries = new ArrayList<String>();
 
     @Parameter(names = {Constants.CONTENT_SPEC_LONG_PARAM, Constants.CONTENT_SPEC_SHORT_PARAM})
     private Boolean useContentSpec;
 
+    @Parameter(names = Constants.LOCAL_LONG_PARAM, descriptionKey = "SEARCH_LOCAL")
+    private Boolean local = false;
+
     public SearchCommand(final JCommander parser, final ContentSpecConfiguration cspConfig, final ClientConfiguration clientConfig) {
         super(parser, cspConfig, clientConfig);
     }
@@ -73,6 +90,14 @@ public class SearchCommand extends BaseCommandImpl {
         this.useContentSpec = useContentSpec;
     }
 
+    public Boolean isLocal() {
+        return local;
+    }
+
+    public void setLocal(final Boolean local) {
+        this.local = local;
+    }
+
     @Override
     public void process() {
         final TextContentSpecProvider contentSpecProvider = getProviderFactory().getProvider(TextContentSpecProvider.class);
@@ -82,6 +107,15 @@ public class SearchCommand extends BaseCommandImpl {
         // Good point to check for a shutdown
         allowShutdownToContinueIfRequested();
 
+        // Search the local index if requested, unless it's out of date and can't be updated
+        if (isLocal()) {
+            final SpecSearchIndex searchIndex = getSearchIndex();
+            if (searchIndex != null) {
+                printLocalResults(searchIndex.search(searchText));
+                return;
+            }
+        }
+
         // Create the query
         final RESTContentSpecQueryBuilderV1 queryBuilder = new RESTContentSpecQueryBuilderV1();
         queryBuilder.setQueryLogic(CommonFilterConstants.OR_LOGIC);
@@ -113,6 +147,116 @@ public class SearchCommand extends BaseCommandImpl {
         }
     }
 
+    /**
+     * Gets the local search index, refreshing it from the server if it is out of date. Only the content specs that have
+     * changed since the last refresh are downloaded, unless the index doesn't exist or is old enough that it needs to be
+     * completely rebuilt (to remove deleted content specs).
+     *
+     * @return The search index, or null if the local cache has been disabled or the index is out of date and couldn't be
+     *         refreshed.
+     */
+    protected SpecSearchIndex getSearchIndex() {
+        // The index is saved in the local cache, so it can't be used if the cache has been disabled
+        final Integer cacheSize = getClientConfig().getCacheSize();
+        if (cacheSize == null || cacheSize <= 0) {
+            JCommander.getConsole().println(ClientUtilities.getMessage("WARN_SEARCH_INDEX_DISABLED_MSG"));
+            return null;
+        }
+
+        final SpecSearchIndex searchIndex = new SpecSearchIndex(ClientUtilities.getServerCacheFile(getClientConfig(),
+                getPressGangServerUrl(), Constants.SEARCH_INDEX_FILENAME_PREFIX));
+        final boolean loaded = searchIndex.load();
+        final long now = System.currentTimeMillis();
+
+        // If the index was refreshed recently, then it can be used as is
+        if (loaded && now - searchIndex.getLastRefresh() < Constants.SEARCH_INDEX_REFRESH_INTERVAL) {
+            return searchIndex;
+        }
+
+        try {
+            if (!loaded || now - searchIndex.getLastFullRefresh() > Constants.SEARCH_INDEX_MAX_AGE) {
+                JCommander.getConsole().println(ClientUtilities.getMessage("BUILDING_SEARCH_INDEX_MSG"));
+                searchIndex.clear();
+                refreshSearchIndex(searchIndex, ALL_CONTENT_SPECS_QUERY);
+                searchIndex.setLastFullRefresh(now);
+            } else {
+                // Overlap with the last refresh a little, in case the clocks on the client and server differ
+                JCommander.getConsole().println(ClientUtilities.getMessage("UPDATING_SEARCH_INDEX_MSG"));
+                final SimpleDateFormat dateFormatter = new SimpleDateFormat(EDIT_DATE_FORMAT);
+                dateFormatter.setTimeZone(TimeZone.getTimeZone("UTC"));
+                final Date editedAfter = new Date(searchIndex.getLastRefresh() - Constants.SEARCH_INDEX_REFRESH_OVERLAP);
+                refreshSearchIndex(searchIndex, String.format(EDITED_AFTER_QUERY, dateFormatter.format(editedAfter)));
+            }
+        } catch (RuntimeException e) {
+            // The REST client reports connection and server errors as runtime exceptions
+            JCommander.getConsole().println(ClientUtilities.getMessage("WARN_SEARCH_INDEX_STALE_MSG"));
+            return null;
+        }
+
+        searchIndex.setLastRefresh(now);
+        searchIndex.save();
+
+        return searchIndex;
+    }
+
+    /**
+     * Add the content specs that match a query to the search index, downloading them a page at a time.
+     *
+     * @param searchIndex The search index to update.
+     * @param query       The query to find the content specs to add.
+     */
+    protected void refreshSearchIndex(final SpecSearchIndex searchIndex, final String query) {
+        final RESTInterfaceV1 restClient = getProviderFactory().getRESTManager().getRESTClient();
+        final Integer addedByPropertyTagId = getServerEntities().getAddedByPropertyTagId();
+
+        int start = 0;
+        int total = Constants.LIST_PAGE_SIZE;
+        while (start < total) {
+            final RESTTextContentSpecCollectionV1 contentSpecs = ClientUtilities.getTextContentSpecPage(restClient, query, start,
+                    start + Constants.LIST_PAGE_SIZE);
+            total = contentSpecs.getSize() == null ? 0 : contentSpecs.getSize();
+
+            final List<RESTTextContentSpecV1> items = contentSpecs.returnItems();
+            if (items == null || items.isEmpty()) break;
+            for (final RESTTextContentSpecV1 contentSpec : items) {
+                searchIndex.update(new SpecSearchIndex.Entry(contentSpec.getId(), contentSpec.getTitle(), contentSpec.getProduct(),
+                        contentSpec.getVersion(), ClientUtilities.getPropertyValue(contentSpec, addedByPropertyTagId),
+                        contentSpec.getLastModified()));
+            }
+            start += items.size();
+
+            // Good point to check for a shutdown
+            allowShutdownToContinueIfRequested();
+        }
+    }
+
+    /**
+     * Print the results of a search of the local index.
+     *
+     * @param results The content specs that matched the search.
+     */
+    protected void printLocalResults(final List<SpecSearchIndex.Entry> results) {
+        if (results.isEmpty()) {
+            JCommander.getConsole().println(ClientUtilities.getMessage("NO_CS_FOUND_MSG"));
+            return;
+        }
+
+        // Resolve the creators in one go
+        final List<String> addedBy = new ArrayList<String>();
+        for (final SpecSearchIndex.Entry result : results) {
+            addedBy.add(result.getAddedBy());
+        }
+        final Map<String, String> usernames = ClientUtilities.resolveUsernames(getProviderFactory(), addedBy);
+
+        final List<Spec> specs = new ArrayList<Spec>();
+        for (final SpecSearchIndex.Entry result : results) {
+            specs.add(new Spec(result.getId(), result.getTitle(), result.getProduct(), result.getVersion(),
+                    result.getAddedBy() == null ? null : usernames.get(result.getAddedBy()), result.getLastModified()));
+        }
+
+        JCommander.getConsole().println(ClientUtilities.generateContentSpecList(new SpecList(specs, specs.size())));
+    }
+
     @Override
     public boolean loadFromCSProcessorCfg() {
         /*
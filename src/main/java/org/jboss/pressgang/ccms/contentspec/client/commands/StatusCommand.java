@@ -30,17 +30,17 @@ import com.beust.jcommander.Parameters;
 import com.google.code.regexp.Pattern;
 import org.apache.commons.io.FileUtils;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
+import org.jboss.pressgang.ccms.contentspec.client.commands.base.BatchCommand;
 import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
 import org.jboss.pressgang.ccms.contentspec.utils.ContentSpecUtilities;
-import org.jboss.pressgang.ccms.provider.ContentSpecProvider;
 import org.jboss.pressgang.ccms.utils.common.HashUtilities;
-import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
+import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
 
 @Parameters(resourceBundle = "commands", commandDescriptionKey = "STATUS")
-public class StatusCommand extends BaseCommandImpl {
+public class StatusCommand extends BaseCommandImpl implements BatchCommand {
     private static final Pattern ID_PATTERN = Pattern.compile("ID[ ]*=[ ]*(?<ID>[0-9]+)");
 
     @Parameter(metaVar = "[ID] or [FILE]")
@@ -63,9 +63,19 @@ public class StatusCommand extends BaseCommandImpl {
     }
 
     @Override
-    public void process() {
-        final ContentSpecProvider contentSpecProvider = getProviderFactory().getProvider(ContentSpecProvider.class);
+    public List<String> getBatchIds() {
+        return getIds();
+    }
 
+    @Override
+    public void setBatchId(final String id) {
+        final List<String> ids = new ArrayList<String>();
+        ids.add(id);
+        setIds(ids);
+    }
+
+    @Override
+    public void process() {
         // Initialise the basic data and perform basic checks
         ClientUtilities.prepareAndValidateStringIds(this, getCspConfig(), getIds());
 
@@ -75,13 +85,13 @@ public class StatusCommand extends BaseCommandImpl {
         // Get the content specification from the server
         final String id = ids.get(0);
         final String fileName;
-        ContentSpecWrapper contentSpec = null;
+        TextContentSpecWrapper contentSpec = null;
         String contentSpecString = null;
         if (id.matches("^\\d+$")) {
             final Integer intId = Integer.parseInt(id);
-            contentSpec = ClientUtilities.getContentSpecEntity(contentSpecProvider, intId, null);
-            // Get the string version of the content spec from the server
-            contentSpecString = ClientUtilities.getContentSpecAsString(contentSpecProvider, intId, null);
+            // Get the content spec and the string version of the content spec from the server
+            contentSpec = lookupContentSpecWithText(intId, null);
+            contentSpecString = contentSpec == null ? null : contentSpec.getText();
             if (contentSpec == null || contentSpecString == null) {
                 printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_NO_ID_FOUND_MSG"), false);
             }
@@ -126,8 +136,8 @@ public class StatusCommand extends BaseCommandImpl {
             if (intId == null) {
                 printErrorAndShutdown(Constants.EXIT_FAILURE, ClientUtilities.getMessage("ERROR_UNABLE_TO_DETERMINE_ID_FROM_FILE_MSG"), false);
             } else {
-                contentSpec = ClientUtilities.getContentSpecEntity(contentSpecProvider, intId, null);
-                contentSpecString = ClientUtilities.getContentSpecAsString(contentSpecProvider, intId, null);
+                contentSpec = lookupContentSpecWithText(intId, null);
+                contentSpecString = contentSpec == null ? null : contentSpec.getText();
             }
         }
 
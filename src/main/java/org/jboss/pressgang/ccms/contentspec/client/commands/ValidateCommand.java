@@ -34,6 +34,8 @@ import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
 import org.jboss.pressgang.ccms.contentspec.client.converter.FileConverter;
 import org.jboss.pressgang.ccms.contentspec.client.processor.ClientContentSpecProcessor;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
+import org.jboss.pressgang.ccms.contentspec.client.utils.DownloadedTopics;
+import org.jboss.pressgang.ccms.contentspec.client.utils.LongRunningRequest;
 import org.jboss.pressgang.ccms.contentspec.processor.ContentSpecParser;
 import org.jboss.pressgang.ccms.contentspec.processor.ContentSpecProcessor;
 import org.jboss.pressgang.ccms.contentspec.processor.structures.ProcessingOptions;
@@ -198,9 +200,20 @@ public class ValidateCommand extends BaseCommandImpl {
         processingOptions.setValidateOnly(true);
         processingOptions.setStrictTitles(strictTitles);
 
+        // Start downloading the topics straight away, so that they are downloaded while the content spec is validated
+        final ClientContentSpecProcessor processor = new ClientContentSpecProcessor(providerFactory, loggerManager, processingOptions);
+        final LongRunningRequest<DownloadedTopics> topicDownload = ClientUtilities.startDownloadingAllTopics(providerFactory, contentSpec,
+                null);
+        processor.setTopicDownload(topicDownload);
+
         // Process the content spec to see if it's valid
-        setProcessor(new ClientContentSpecProcessor(providerFactory, loggerManager, processingOptions));
-        return getProcessor().processContentSpec(contentSpec, username, ContentSpecParser.ParsingMode.EITHER);
+        setProcessor(processor);
+        try {
+            return getProcessor().processContentSpec(contentSpec, username, ContentSpecParser.ParsingMode.EITHER);
+        } finally {
+            // Stop the download if the validation finished before the topics were needed
+            topicDownload.cancel();
+        }
     }
 
     @Override
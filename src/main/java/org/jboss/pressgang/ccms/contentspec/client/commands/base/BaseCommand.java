@@ -48,6 +48,18 @@ public interface BaseCommand extends ShutdownAbleApp {
 
     void setDisableSSLCert(Boolean disableSSLCert);
 
+    Boolean isProfile();
+
+    void setProfile(Boolean profile);
+
+    String getProfileFile();
+
+    void setProfileFile(String profileFile);
+
+    String getMetricsFile();
+
+    void setMetricsFile(String metricsFile);
+
     boolean isAppShuttingDown();
 
     void setAppShuttingDown(boolean shuttingDown);
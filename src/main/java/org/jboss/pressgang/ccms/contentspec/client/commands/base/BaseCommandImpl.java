@@ -19,6 +19,9 @@
 
 package org.jboss.pressgang.ccms.contentspec.client.commands.base;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.beust.jcommander.JCommander;
@@ -27,10 +30,16 @@ import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
+import org.jboss.pressgang.ccms.contentspec.client.utils.ExitHandler;
+import org.jboss.pressgang.ccms.contentspec.client.utils.Profiler;
+import org.jboss.pressgang.ccms.provider.ContentSpecProvider;
 import org.jboss.pressgang.ccms.provider.RESTProviderFactory;
 import org.jboss.pressgang.ccms.provider.ServerSettingsProvider;
+import org.jboss.pressgang.ccms.provider.TextContentSpecProvider;
+import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
 import org.jboss.pressgang.ccms.wrapper.ServerEntitiesWrapper;
 import org.jboss.pressgang.ccms.wrapper.ServerSettingsWrapper;
+import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
 
 public abstract class BaseCommandImpl implements BaseCommand {
     protected static final boolean INCLUDE_CHECKSUMS = false;
@@ -40,6 +49,10 @@ public abstract class BaseCommandImpl implements BaseCommand {
     private final ClientConfiguration clientConfig;
     private RESTProviderFactory providerFactory = null;
     private ServerSettingsWrapper serverSettings = null;
+    private final Map<String, ContentSpecWrapper> contentSpecEntities = Collections.synchronizedMap(
+            new HashMap<String, ContentSpecWrapper>());
+    private final Map<String, TextContentSpecWrapper> textContentSpecEntities = Collections.synchronizedMap(
+            new HashMap<String, TextContentSpecWrapper>());
 
     @Parameter(names = {Constants.SERVER_LONG_PARAM, Constants.SERVER_SHORT_PARAM}, hidden = true)
     private String serverUrl;
@@ -62,6 +75,15 @@ public abstract class BaseCommandImpl implements BaseCommand {
     @Parameter(names = Constants.DISABLE_SSL_CERT_CHECK, descriptionKey = "DISABLE_SSL_CERT_CHECK")
     private Boolean disableSSLCert = false;
 
+    @Parameter(names = Constants.PROFILE_LONG_PARAM, descriptionKey = "PROFILE")
+    private Boolean profile = false;
+
+    @Parameter(names = Constants.PROFILE_FILE_LONG_PARAM, descriptionKey = "PROFILE_FILE", metaVar = "<FILE>")
+    private String profileFile;
+
+    @Parameter(names = Constants.METRICS_FILE_LONG_PARAM, descriptionKey = "METRICS_FILE", metaVar = "<FILE>")
+    private String metricsFile;
+
     protected final AtomicBoolean isShuttingDown = new AtomicBoolean(false);
     protected final AtomicBoolean shutdown = new AtomicBoolean(false);
 
@@ -82,6 +104,10 @@ public abstract class BaseCommandImpl implements BaseCommand {
         return providerFactory;
     }
 
+    public void setProviderFactory(final RESTProviderFactory providerFactory) {
+        this.providerFactory = providerFactory;
+    }
+
     public ServerSettingsWrapper getServerSettings() {
         if (serverSettings == null) {
             serverSettings = getProviderFactory().getProvider(ServerSettingsProvider.class).getServerSettings();
@@ -93,6 +119,58 @@ public abstract class BaseCommandImpl implements BaseCommand {
         return getServerSettings().getEntities();
     }
 
+    /**
+     * Get a content spec from the server. Each content spec is only fetched once while the command runs, so it can be looked
+     * up wherever it's needed without costing another request.
+     *
+     * @param id       The id of the content spec.
+     * @param revision The revision of the content spec, or null for the latest revision.
+     * @return The content spec, or null if it couldn't be found.
+     */
+    protected ContentSpecWrapper lookupContentSpec(final Integer id, final Integer revision) {
+        final String key = getContentSpecKey(id, revision);
+        ContentSpecWrapper contentSpecEntity = contentSpecEntities.get(key);
+        if (contentSpecEntity == null) {
+            final Profiler.Timer timer = Profiler.start(Profiler.SPEC_FETCH);
+            contentSpecEntity = ClientUtilities.getContentSpecEntity(getProviderFactory().getProvider(ContentSpecProvider.class), id,
+                    revision);
+            timer.stop();
+            if (contentSpecEntity != null) {
+                contentSpecEntities.put(key, contentSpecEntity);
+                contentSpecEntities.put(getContentSpecKey(id, contentSpecEntity.getRevision()), contentSpecEntity);
+            }
+        }
+        return contentSpecEntity;
+    }
+
+    /**
+     * Get a content spec with its text from the server. The text is fetched in the same request as the content spec, so it
+     * always matches the revision of the content spec. Each content spec is only fetched once while the command runs.
+     *
+     * @param id       The id of the content spec.
+     * @param revision The revision of the content spec, or null for the latest revision.
+     * @return The content spec with its text, or null if it couldn't be found.
+     */
+    protected TextContentSpecWrapper lookupContentSpecWithText(final Integer id, final Integer revision) {
+        final String key = getContentSpecKey(id, revision);
+        TextContentSpecWrapper contentSpecEntity = textContentSpecEntities.get(key);
+        if (contentSpecEntity == null) {
+            final Profiler.Timer timer = Profiler.start(Profiler.SPEC_FETCH);
+            contentSpecEntity = ClientUtilities.getTextContentSpecEntity(getProviderFactory().getProvider(TextContentSpecProvider.class),
+                    id, revision);
+            timer.stop();
+            if (contentSpecEntity != null) {
+                textContentSpecEntities.put(key, contentSpecEntity);
+                textContentSpecEntities.put(getContentSpecKey(id, contentSpecEntity.getRevision()), contentSpecEntity);
+            }
+        }
+        return contentSpecEntity;
+    }
+
+    private static String getContentSpecKey(final Integer id, final Integer revision) {
+        return id + "-" + (revision == null ? "latest" : revision);
+    }
+
     protected ContentSpecConfiguration getCspConfig() {
         return cspConfig;
     }
@@ -183,6 +261,36 @@ public abstract class BaseCommandImpl implements BaseCommand {
         this.disableSSLCert = disableSSLCert;
     }
 
+    @Override
+    public Boolean isProfile() {
+        return profile;
+    }
+
+    @Override
+    public void setProfile(final Boolean profile) {
+        this.profile = profile;
+    }
+
+    @Override
+    public String getProfileFile() {
+        return profileFile;
+    }
+
+    @Override
+    public void setProfileFile(final String profileFile) {
+        this.profileFile = profileFile;
+    }
+
+    @Override
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    @Override
+    public void setMetricsFile(final String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
     @Override
     public boolean isAppShuttingDown() {
         return isShuttingDown.get();
@@ -207,6 +315,22 @@ public abstract class BaseCommandImpl implements BaseCommand {
         shutdown(exitStatus);
     }
 
+    /**
+     * Prints an error message, and then shuts down the application if required. Otherwise the caller is left to handle the
+     * error, so that it can carry on with any other work it has.
+     *
+     * @param exitStatus The exit status to shut down with.
+     * @param errorMsg   The error message to be displayed.
+     * @param shutdown   Whether the application should be shut down.
+     */
+    protected void printErrorAndShutdownIfRequired(final int exitStatus, final String errorMsg, final boolean shutdown) {
+        if (shutdown) {
+            printErrorAndShutdown(exitStatus, errorMsg, false);
+        } else {
+            printError(errorMsg, false);
+        }
+    }
+
     /**
      * Prints an error message and then displays the main help screen
      *
@@ -266,7 +390,7 @@ public abstract class BaseCommandImpl implements BaseCommand {
     @Override
     public void shutdown(final int exitStatus) {
         shutdown.set(true);
-        System.exit(exitStatus);
+        ExitHandler.exit(exitStatus);
     }
 
     /**
@@ -278,8 +402,9 @@ public abstract class BaseCommandImpl implements BaseCommand {
         // Print the server url
         JCommander.getConsole().println(ClientUtilities.getMessage("WEBSERVICE_MSG", getServerUrl()));
 
-        // Test that the server address is valid
-        if (!ClientUtilities.validateServerExists(getServerUrl(), getDisableSSLCert())) {
+        // Test that the server address is valid, unless it was checked by a recent command
+        if (!ClientUtilities.isServerVerified(getPressGangServerUrl()) && !ClientUtilities.validateServerExists(getServerUrl(),
+                getDisableSSLCert())) {
             // Print a line to separate content
             JCommander.getConsole().println("");
 
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.commands.base;
+
+import java.util.List;
+
+/**
+ * A command that can be run for a batch of content specs in a single invocation, by running the command once for each
+ * content spec.
+ */
+public interface BatchCommand extends BaseCommand {
+    /**
+     * Get the content spec ids or files that were specified on the command line.
+     *
+     * @return The list of ids/files as strings.
+     */
+    List<String> getBatchIds();
+
+    /**
+     * Set the single content spec id or file that the command should be run for.
+     *
+     * @param id The id/file to run the command for.
+     */
+    void setBatchId(String id);
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.commands.base;
+
+/**
+ * A command that handles multiple content specs itself, instead of being run once for each content spec like a
+ * {@link BatchCommand}, so that it can share work between the content specs.
+ */
+public interface MultiSpecCommand extends BaseCommand {
+    /**
+     * Set the file that contains additional content spec ids/files to process.
+     *
+     * @param idsFile The path to the file, or null if no file was specified.
+     */
+    void setIdsFile(String idsFile);
+
+    /**
+     * Set how many content specs can be processed at the same time.
+     *
+     * @param concurrency The maximum number of content specs, or null to use the commands default.
+     */
+    void setConcurrency(Integer concurrency);
+}
@@ -22,6 +22,7 @@ package org.jboss.pressgang.ccms.contentspec.client.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
 import org.jboss.pressgang.ccms.contentspec.client.entities.ConfigDefaults;
 
 public class ClientConfiguration {
@@ -46,6 +47,19 @@ public class ClientConfiguration {
 
     private String installPath = null;
 
+    private Integer downloadThreads = Constants.DEFAULT_DOWNLOAD_THREADS;
+    private Integer downloadConnectionsPerHost = Constants.DEFAULT_DOWNLOAD_CONNECTIONS_PER_HOST;
+
+    private Integer httpConnections = Constants.DEFAULT_HTTP_CONNECTIONS;
+    private Integer httpConnectionsPerHost = Constants.DEFAULT_HTTP_CONNECTIONS_PER_HOST;
+    private Integer httpKeepAlive = Constants.DEFAULT_HTTP_KEEP_ALIVE;
+    private Integer httpConnectTimeout = Constants.DEFAULT_HTTP_CONNECT_TIMEOUT;
+    private Integer httpSocketTimeout = Constants.DEFAULT_HTTP_SOCKET_TIMEOUT;
+    private Integer httpVerifyTTL = Constants.DEFAULT_HTTP_VERIFY_TTL;
+
+    private String cacheLocation = null;
+    private Integer cacheSize = Constants.DEFAULT_CACHE_SIZE;
+
     public Map<String, ServerConfiguration> getServers() {
         return servers;
     }
@@ -157,4 +171,100 @@ public class ClientConfiguration {
     public void setEditorRequiresTerminal(Boolean editorRequiresTerminal) {
         this.editorRequiresTerminal = editorRequiresTerminal;
     }
+
+    public Integer getDownloadThreads() {
+        return downloadThreads;
+    }
+
+    public void setDownloadThreads(Integer downloadThreads) {
+        this.downloadThreads = downloadThreads;
+    }
+
+    public Integer getDownloadConnectionsPerHost() {
+        return downloadConnectionsPerHost;
+    }
+
+    public void setDownloadConnectionsPerHost(Integer downloadConnectionsPerHost) {
+        this.downloadConnectionsPerHost = downloadConnectionsPerHost;
+    }
+
+    public Integer getHttpConnections() {
+        return httpConnections;
+    }
+
+    public void setHttpConnections(Integer httpConnections) {
+        this.httpConnections = httpConnections;
+    }
+
+    public Integer getHttpConnectionsPerHost() {
+        return httpConnectionsPerHost;
+    }
+
+    public void setHttpConnectionsPerHost(Integer httpConnectionsPerHost) {
+        this.httpConnectionsPerHost = httpConnectionsPerHost;
+    }
+
+    /**
+     * @return The number of seconds an idle connection is kept open for, if the server doesn't say how long to keep it.
+     */
+    public Integer getHttpKeepAlive() {
+        return httpKeepAlive;
+    }
+
+    public void setHttpKeepAlive(Integer httpKeepAlive) {
+        this.httpKeepAlive = httpKeepAlive;
+    }
+
+    /**
+     * @return The number of seconds to wait for a connection to be established. A timeout of 0 waits forever.
+     */
+    public Integer getHttpConnectTimeout() {
+        return httpConnectTimeout;
+    }
+
+    public void setHttpConnectTimeout(Integer httpConnectTimeout) {
+        this.httpConnectTimeout = httpConnectTimeout;
+    }
+
+    /**
+     * @return The number of seconds to wait for data from the server. A timeout of 0 waits forever.
+     */
+    public Integer getHttpSocketTimeout() {
+        return httpSocketTimeout;
+    }
+
+    public void setHttpSocketTimeout(Integer httpSocketTimeout) {
+        this.httpSocketTimeout = httpSocketTimeout;
+    }
+
+    /**
+     * @return The number of seconds a server is trusted to exist and support the client, before it has to be checked again.
+     *         A value of 0 checks the server for every command.
+     */
+    public Integer getHttpVerifyTTL() {
+        return httpVerifyTTL;
+    }
+
+    public void setHttpVerifyTTL(Integer httpVerifyTTL) {
+        this.httpVerifyTTL = httpVerifyTTL;
+    }
+
+    public String getCacheLocation() {
+        return cacheLocation;
+    }
+
+    public void setCacheLocation(String cacheLocation) {
+        this.cacheLocation = cacheLocation;
+    }
+
+    /**
+     * @return The maximum size of the local entity cache in megabytes. A size of 0 disables the cache.
+     */
+    public Integer getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(Integer cacheSize) {
+        this.cacheSize = cacheSize;
+    }
 }
@@ -58,5 +58,28 @@ public class ConfigConstants {
             // Create the default translation options
             "[publish]\n" +
             "koji.huburl=" + Constants.DEFAULT_KOJIHUB_URL + "\n" +
-            "command=" + Constants.DEFAULT_PUBLISH_COMMAND + "\n\n";
+            "command=" + Constants.DEFAULT_PUBLISH_COMMAND + "\n\n" +
+
+            // Create the topic download options
+            "[download]\n" +
+            "threads=" + Constants.DEFAULT_DOWNLOAD_THREADS + "\n" +
+            "host.connections=" + Constants.DEFAULT_DOWNLOAD_CONNECTIONS_PER_HOST + "\n\n" +
+
+            // Create the HTTP connection options
+            "[http]\n" +
+            "connections=" + Constants.DEFAULT_HTTP_CONNECTIONS + "\n" +
+            "host.connections=" + Constants.DEFAULT_HTTP_CONNECTIONS_PER_HOST + "\n" +
+            "# The timeouts are in seconds\n" +
+            "keepalive=" + Constants.DEFAULT_HTTP_KEEP_ALIVE + "\n" +
+            "connect.timeout=" + Constants.DEFAULT_HTTP_CONNECT_TIMEOUT + "\n" +
+            "socket.timeout=" + Constants.DEFAULT_HTTP_SOCKET_TIMEOUT + "\n" +
+            "# How long to trust that a server is available and supports this client, before checking it again. Set to 0 to always check\n" +
+            "verify.ttl=" + Constants.DEFAULT_HTTP_VERIFY_TTL + "\n\n" +
+
+            // Create the local cache options
+            "[cache]\n" +
+            "# The location defaults to a " + Constants.CACHE_DIRECTORY_NAME + " directory in the root directory\n" +
+            "location=\n" +
+            "# The maximum size of the cache in MB. Set to 0 to disable the cache\n" +
+            "size=" + Constants.DEFAULT_CACHE_SIZE + "\n\n";
 }
@@ -42,11 +42,43 @@ public class Constants {
     public static final String DEFAULT_PUBLICAN_FORMAT = "html-single";
     public static final String DEFAULT_JDOCBOOK_OPTIONS = "clean compile";
     public static final String DEFAULT_JDOCBOOK_FORMAT = "html_single";
+    public static final String PUBLICAN_TMP_DIRECTORY_NAME = "tmp";
+    public static final String JDOCBOOK_TARGET_DIRECTORY_NAME = "target";
     public static final String DEFAULT_SNAPSHOT_LOCATION = "snapshots";
     public static final String FILENAME_EXTENSION = "contentspec";
+    public static final String TEMP_FILE_EXTENSION = ".tmp";
+    public static final String BACKUP_FILE_EXTENSION = ".bak";
+    public static final String DAEMON_FILENAME = ".csprocessor-daemon";
     public static final String DEFAULT_CONFIG_PUBLICAN_BUILD_POSTFIX = "-publican";
     public static final String DEFAULT_CONFIG_JDOCBOOK_BUILD_POSTFIX = "-jDocbook";
+    public static final int ASYNC_STATUS_INITIAL_INTERVAL = 1000;
     public static final int ASYNC_STATUS_INTERVAL = 15000;
+    public static final int DEFAULT_MAX_ASYNC_PROCESSES = 4;
+    public static final long LONG_RUNNING_REQUEST_CHECK_INTERVAL = 1000L;
+    public static final long LONG_RUNNING_REQUEST_MESSAGE_INTERVAL = 10000L;
+    public static final int DEFAULT_DOWNLOAD_THREADS = 4;
+    public static final int DEFAULT_DOWNLOAD_CONNECTIONS_PER_HOST = 4;
+    public static final int DOWNLOAD_CHUNK_SIZE = 500;
+    public static final int MIN_DOWNLOAD_CHUNK_SIZE = 25;
+    public static final int MAX_DOWNLOAD_CHUNK_SIZE = 1000;
+    public static final long DOWNLOAD_CHUNK_TARGET_TIME = 15 * 1000;
+    public static final int DOWNLOAD_CHUNK_MAX_ATTEMPTS = 3;
+    public static final int DEFAULT_HTTP_CONNECTIONS = 20;
+    public static final int DEFAULT_HTTP_CONNECTIONS_PER_HOST = 8;
+    public static final int DEFAULT_HTTP_KEEP_ALIVE = 30;
+    public static final int DEFAULT_HTTP_CONNECT_TIMEOUT = 30;
+    public static final int DEFAULT_HTTP_SOCKET_TIMEOUT = 300;
+    public static final int DEFAULT_HTTP_VERIFY_TTL = 600;
+    public static final String CACHE_DIRECTORY_NAME = ".csprocessor-cache";
+    public static final int DEFAULT_CACHE_SIZE = 256;
+    public static final String USER_CACHE_FILENAME_PREFIX = "users-";
+    public static final long USER_CACHE_MAX_AGE = 7L * 24L * 60L * 60L * 1000L;
+    public static final int USER_CACHE_MAX_ENTRIES = 1000;
+    public static final String SERVER_VERIFICATION_FILENAME_PREFIX = "servers-";
+    public static final String SEARCH_INDEX_FILENAME_PREFIX = "search-index-";
+    public static final long SEARCH_INDEX_REFRESH_INTERVAL = 10L * 60L * 1000L;
+    public static final long SEARCH_INDEX_MAX_AGE = 24L * 60L * 60L * 1000L;
+    public static final long SEARCH_INDEX_REFRESH_OVERLAP = 60L * 1000L;
 
     // Version Constants
     public static final String VERSION_PROPERTIES_FILENAME = "version.properties";
@@ -67,11 +99,13 @@ public class Constants {
 
     // Server based settings
     public static final Integer MAX_LIST_RESULT = 50;
+    public static final int LIST_PAGE_SIZE = 100;
 
     // Command Name Constants
     public static final String ADD_REVISION_COMMAND_NAME = "add-revision";
     public static final String ASSEMBLE_COMMAND_NAME = "assemble";
     public static final String BUILD_COMMAND_NAME = "build";
+    public static final String BUILD_ALL_COMMAND_NAME = "build-all";
     public static final String CHECKOUT_COMMAND_NAME = "checkout";
     public static final String CREATE_COMMAND_NAME = "create";
     public static final String CHECKSUM_COMMAND_NAME = "checksum";
@@ -162,6 +196,8 @@ public class Constants {
 
     public static final String LIMIT_LONG_PARAM = "--limit";
 
+    public static final String LOCAL_LONG_PARAM = "--local";
+
     public static final String HIDE_OUTPUT_LONG_PARAM = "--hide-output";
 
     public static final String NO_CREATE_CSPROCESSOR_CFG_LONG_PARAM = "--no-csprocessor-cfg";
@@ -261,6 +297,21 @@ public class Constants {
 
     public static final String NO_WAIT_LONG_PARAM = "--no-wait";
 
+    public static final String SAVE_ZIP_LONG_PARAM = "--save-zip";
+
+    public static final String INCREMENTAL_LONG_PARAM = "--incremental";
+
+    public static final String WATCH_LONG_PARAM = "--watch";
+
+    public static final String DAEMON_LONG_PARAM = "--daemon";
+
+    public static final String IDS_FILE_LONG_PARAM = "--ids-file";
+    public static final String BATCH_CONCURRENCY_LONG_PARAM = "--batch-concurrency";
+
+    public static final String PROFILE_LONG_PARAM = "--profile";
+    public static final String PROFILE_FILE_LONG_PARAM = "--profile-file";
+    public static final String METRICS_FILE_LONG_PARAM = "--metrics-file";
+
     // Exit statuses
     public static final int EXIT_SUCCESS = 0;
     public static final int EXIT_FAILURE = -1;
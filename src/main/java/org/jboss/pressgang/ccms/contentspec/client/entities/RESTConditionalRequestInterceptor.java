@@ -0,0 +1,145 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.entities;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.jboss.pressgang.ccms.contentspec.client.utils.DiskEntityCache;
+import org.jboss.resteasy.annotations.interception.ClientInterceptor;
+import org.jboss.resteasy.client.ClientRequest;
+import org.jboss.resteasy.client.ClientResponse;
+import org.jboss.resteasy.client.core.BaseClientResponse;
+import org.jboss.resteasy.spi.interception.ClientExecutionContext;
+import org.jboss.resteasy.spi.interception.ClientExecutionInterceptor;
+
+/**
+ * Asks the server to compress responses, and revalidates entities that have been stored in a local {@link DiskEntityCache}
+ * using the ETag and Last-Modified headers the server returned them with. If the entity hasn't changed the server only has to
+ * send a "304 Not Modified" response, and the cached entity is returned instead.
+ */
+@Provider
+@ClientInterceptor
+public class RESTConditionalRequestInterceptor implements ClientExecutionInterceptor {
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String KEY_PREFIX = "conditional-";
+    private static final String[] CACHED_HEADERS = {HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED};
+
+    private final DiskEntityCache cache;
+
+    /**
+     * @param cache The cache to store entities in, or null if responses should only be compressed.
+     */
+    public RESTConditionalRequestInterceptor(final DiskEntityCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public ClientResponse execute(ClientExecutionContext ctx) throws Exception {
+        final ClientRequest request = ctx.getRequest();
+        if (!"GET".equals(request.getHttpMethod())) {
+            return ctx.proceed();
+        }
+
+        request.getHeadersAsObjects().putSingle(HttpHeaders.ACCEPT_ENCODING, GZIP_ENCODING);
+
+        // Revalidate the cached copy of the entity, if there is one
+        final String key = KEY_PREFIX + request.getUri();
+        final DiskEntityCache.Entry entry = cache == null ? null : cache.get(key);
+        if (entry != null) {
+            final String eTag = entry.getHeaders().get(HttpHeaders.ETAG);
+            final String lastModified = entry.getHeaders().get(HttpHeaders.LAST_MODIFIED);
+            if (eTag != null) {
+                request.getHeadersAsObjects().putSingle(HttpHeaders.IF_NONE_MATCH, eTag);
+            }
+            if (lastModified != null) {
+                request.getHeadersAsObjects().putSingle(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+
+        final ClientResponse response = ctx.proceed();
+        if (response.getStatus() == 304 && entry != null) {
+            response.releaseConnection();
+            return RESTRevisionCacheInterceptor.buildCachedResponse(request, entry.getContent(), entry.getHeaders());
+        } else if (!(response instanceof BaseClientResponse)) {
+            return response;
+        }
+
+        // Any response can be compressed, including errors, but only successful responses should be cached
+        final MultivaluedMap<String, String> headers = response.getHeaders();
+        final boolean compressed = GZIP_ENCODING.equalsIgnoreCase(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        final boolean cacheable = cache != null && response.getStatus() == 200 && (headers.getFirst(HttpHeaders.ETAG) != null
+                || headers.getFirst(HttpHeaders.LAST_MODIFIED) != null);
+        if (!compressed && !cacheable) {
+            return response;
+        }
+
+        // Read and decompress the response, so the other interceptors and the caller only ever see the uncompressed content
+        final BaseClientResponse baseResponse = (BaseClientResponse) response;
+        final byte[] content = readContent(baseResponse.getStreamFactory().getInputStream(), compressed);
+        baseResponse.setStreamFactory(new RESTRevisionCacheInterceptor.CachedStreamFactory(content));
+        if (compressed) {
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+        }
+
+        if (cacheable) {
+            final Map<String, String> cachedHeaders = new HashMap<String, String>();
+            for (final String header : CACHED_HEADERS) {
+                final String value = headers.getFirst(header);
+                if (value != null) {
+                    cachedHeaders.put(header, value);
+                }
+            }
+            cache.put(key, content, cachedHeaders);
+        }
+
+        return response;
+    }
+
+    private static byte[] readContent(final InputStream inputStream, final boolean compressed) throws IOException {
+        final byte[] content;
+        try {
+            content = IOUtils.toByteArray(inputStream);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+
+        // Responses without a body, like a 304 or 204, can still have a Content-Encoding header
+        if (!compressed || content.length == 0) {
+            return content;
+        }
+
+        final InputStream is = new GZIPInputStream(new ByteArrayInputStream(content));
+        try {
+            return IOUtils.toByteArray(is);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.entities;
+
+import javax.ws.rs.ext.Provider;
+
+import org.apache.http.client.HttpClient;
+import org.jboss.resteasy.annotations.interception.ClientInterceptor;
+import org.jboss.resteasy.client.ClientResponse;
+import org.jboss.resteasy.client.core.executors.ApacheHttpClient4Executor;
+import org.jboss.resteasy.spi.interception.ClientExecutionContext;
+import org.jboss.resteasy.spi.interception.ClientExecutionInterceptor;
+
+/**
+ * Sends requests using a HTTP client with a pooled, keep-alive connection manager, instead of the default executor which opens
+ * a new connection for each request. This interceptor doesn't pass the request on, so it must be registered after any other
+ * client interceptors.
+ */
+@Provider
+@ClientInterceptor
+public class RESTConnectionPoolInterceptor implements ClientExecutionInterceptor {
+    private final ApacheHttpClient4Executor executor;
+
+    public RESTConnectionPoolInterceptor(final HttpClient httpClient) {
+        executor = new ApacheHttpClient4Executor(httpClient);
+    }
+
+    @Override
+    public ClientResponse execute(ClientExecutionContext ctx) throws Exception {
+        return executor.execute(ctx.getRequest());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.entities;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.Provider;
+import java.net.URI;
+
+import org.jboss.pressgang.ccms.contentspec.client.utils.RESTMetrics;
+import org.jboss.resteasy.annotations.interception.ClientInterceptor;
+import org.jboss.resteasy.client.ClientRequest;
+import org.jboss.resteasy.client.ClientResponse;
+import org.jboss.resteasy.spi.interception.ClientExecutionContext;
+import org.jboss.resteasy.spi.interception.ClientExecutionInterceptor;
+
+/**
+ * Records the method, path, status, size and duration of every REST call in a {@link RESTMetrics} instance. It is registered
+ * after the cache interceptors, so calls that are answered from the local cache aren't recorded, and a revalidated entity is
+ * recorded with the 304 status the server sent.
+ */
+@Provider
+@ClientInterceptor
+public class RESTMetricsInterceptor implements ClientExecutionInterceptor {
+    private final RESTMetrics metrics;
+
+    public RESTMetricsInterceptor(final RESTMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClientResponse execute(ClientExecutionContext ctx) throws Exception {
+        final ClientRequest request = ctx.getRequest();
+        final long startTime = System.nanoTime();
+        int status = -1;
+        long bytes = -1;
+        try {
+            final ClientResponse response = ctx.proceed();
+            status = response.getStatus();
+            bytes = getResponseSize(response);
+            return response;
+        } finally {
+            metrics.record(request.getHttpMethod(), getPath(request), status, bytes, (System.nanoTime() - startTime) / 1000000L);
+        }
+    }
+
+    protected String getPath(final ClientRequest request) {
+        try {
+            return new URI(request.getUri()).getRawPath();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the size of a responses body without reading it, from the Content-Length header.
+     *
+     * @return The size in bytes, or -1 if it isn't known.
+     */
+    protected long getResponseSize(final ClientResponse response) {
+        final Object contentLength = response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength != null) {
+            try {
+                return Long.parseLong(contentLength.toString());
+            } catch (NumberFormatException e) {
+                // Do nothing as the size just isn't known
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.entities;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.Provider;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.code.regexp.Matcher;
+import com.google.code.regexp.Pattern;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.jboss.pressgang.ccms.contentspec.client.utils.DiskEntityCache;
+import org.jboss.resteasy.annotations.interception.ClientInterceptor;
+import org.jboss.resteasy.client.ClientRequest;
+import org.jboss.resteasy.client.ClientResponse;
+import org.jboss.resteasy.client.core.BaseClientResponse;
+import org.jboss.resteasy.spi.interception.ClientExecutionContext;
+import org.jboss.resteasy.spi.interception.ClientExecutionInterceptor;
+import org.jboss.resteasy.util.CaseInsensitiveMap;
+
+/**
+ * Serves revisions of topics and content specs from a local {@link DiskEntityCache}, as a revision never changes once it
+ * has been created. Requests for the latest version of an entity are always sent to the server.
+ */
+@Provider
+@ClientInterceptor
+public class RESTRevisionCacheInterceptor implements ClientExecutionInterceptor {
+    private static final Pattern REVISION_PATH_PATTERN = Pattern.compile(
+            "/(?<Type>topic|contentspec|textcontentspec)/get/(?<Format>json|text|xml)/(?<Id>\\d+)/r/(?<Revision>\\d+)$");
+    private static final String[] CACHED_HEADERS = {HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING};
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final DiskEntityCache cache;
+
+    public RESTRevisionCacheInterceptor(final DiskEntityCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public ClientResponse execute(ClientExecutionContext ctx) throws Exception {
+        final ClientRequest request = ctx.getRequest();
+        if (!"GET".equals(request.getHttpMethod())) {
+            return ctx.proceed();
+        }
+
+        final URI uri = new URI(request.getUri());
+        final Matcher matcher = REVISION_PATH_PATTERN.matcher(uri.getPath());
+        if (!matcher.find()) {
+            return ctx.proceed();
+        }
+
+        // The key includes the server, as the cache directory can be shared by more than one server, and the query string, as
+        // different expansions return different content
+        final String key = uri.getScheme() + "://" + uri.getRawAuthority() + "/" + matcher.group("Type") + "-" + matcher.group("Id") + "-" + matcher.group("Revision") + "-" + matcher.group(
+                "Format") + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+
+        final DiskEntityCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            return createCachedResponse(request, entry.getContent(), entry.getHeaders());
+        }
+
+        final ClientResponse response = ctx.proceed();
+        if (response.getStatus() != 200 || !(response instanceof BaseClientResponse)) {
+            return response;
+        }
+
+        // Read the response so it can be cached, and then make sure the response can still be read by the caller
+        final BaseClientResponse baseResponse = (BaseClientResponse) response;
+        final InputStream is = baseResponse.getStreamFactory().getInputStream();
+        final byte[] content;
+        try {
+            content = IOUtils.toByteArray(is);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        baseResponse.setStreamFactory(new CachedStreamFactory(content));
+
+        if (isCacheable(matcher.group("Format"), matcher.group("Revision"), content, response.getHeaders())) {
+            final Map<String, String> headers = new HashMap<String, String>();
+            for (final String header : CACHED_HEADERS) {
+                final Object value = response.getHeaders().getFirst(header);
+                headers.put(header, value == null ? null : value.toString());
+            }
+            cache.put(key, content, headers);
+        }
+
+        return response;
+    }
+
+    /**
+     * Checks that the content returned is really the revision that was asked for. If a revision is requested that is
+     * newer than the entities latest revision, the server returns the closest revision which may change in the future.
+     * Only JSON content includes the revision it is for, so the text and XML formats are never cached.
+     */
+    protected boolean isCacheable(final String format, final String revision, final byte[] content,
+            final MultivaluedMap<String, String> headers) {
+        if (!"json".equals(format)) {
+            return false;
+        } else if (headers.getFirst(HttpHeaders.CONTENT_ENCODING) != null) {
+            // Can't check the revision of encoded content
+            return false;
+        }
+
+        try {
+            final JsonNode node = MAPPER.readTree(new ByteArrayInputStream(content));
+            final JsonNode revisionNode = node == null ? null : node.get("revision");
+            return revisionNode != null && revision.equals(revisionNode.asText());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    protected ClientResponse createCachedResponse(final ClientRequest request, final byte[] content, final Map<String, String> headers) {
+        return buildCachedResponse(request, content, headers);
+    }
+
+    /**
+     * Build a successful response for some content that has been stored locally.
+     */
+    static ClientResponse buildCachedResponse(final ClientRequest request, final byte[] content, final Map<String, String> headers) {
+        final BaseClientResponse response = new BaseClientResponse(new CachedStreamFactory(content), request.getExecutor());
+        final MultivaluedMap<String, String> responseHeaders = new CaseInsensitiveMap<String>();
+        for (final Map.Entry<String, String> header : headers.entrySet()) {
+            responseHeaders.add(header.getKey(), header.getValue());
+        }
+
+        response.setStatus(200);
+        response.setHeaders(responseHeaders);
+        response.setProviderFactory(request.getProviderFactory());
+        return response;
+    }
+
+    static class CachedStreamFactory implements BaseClientResponse.BaseClientResponseStreamFactory {
+        private final byte[] content;
+
+        CachedStreamFactory(final byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public void performReleaseConnection() {
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.exception;
+
+/**
+ * Thrown instead of exiting the JVM when the client is running commands inside a long running process, such as the daemon.
+ */
+public class ClientExitException extends RuntimeException {
+    private static final long serialVersionUID = -3893710389462547186L;
+
+    private final int exitStatus;
+
+    public ClientExitException(final int exitStatus) {
+        super("The command exited with status " + exitStatus);
+        this.exitStatus = exitStatus;
+    }
+
+    public int getExitStatus() {
+        return exitStatus;
+    }
+}
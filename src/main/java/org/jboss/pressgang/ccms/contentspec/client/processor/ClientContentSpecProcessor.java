@@ -20,6 +20,9 @@
 package org.jboss.pressgang.ccms.contentspec.client.processor;
 
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
+import org.jboss.pressgang.ccms.contentspec.client.utils.DownloadedTopics;
+import org.jboss.pressgang.ccms.contentspec.client.utils.LongRunningRequest;
+import org.jboss.pressgang.ccms.contentspec.client.utils.Profiler;
 import org.jboss.pressgang.ccms.contentspec.processor.ContentSpecProcessor;
 import org.jboss.pressgang.ccms.contentspec.processor.structures.ProcessingOptions;
 import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
@@ -27,6 +30,8 @@ import org.jboss.pressgang.ccms.provider.RESTProviderFactory;
 
 public class ClientContentSpecProcessor extends ContentSpecProcessor {
     private final RESTProviderFactory factory;
+    private final boolean downloadTopics;
+    private LongRunningRequest<DownloadedTopics> topicDownload = null;
 
     /**
      * Constructor
@@ -37,15 +42,60 @@ public class ClientContentSpecProcessor extends ContentSpecProcessor {
      */
     public ClientContentSpecProcessor(final RESTProviderFactory factory, final ErrorLoggerManager loggerManager,
             final ProcessingOptions processingOptions) {
+        this(factory, loggerManager, processingOptions, true);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param factory           A DBManager object that manages the REST connection and the functions to read/write to the REST Interface.
+     * @param loggerManager
+     * @param processingOptions The set of options to use when processing.
+     * @param downloadTopics    If the topics should be downloaded in bulk before validating, or false if they have already been
+     *                          downloaded.
+     */
+    public ClientContentSpecProcessor(final RESTProviderFactory factory, final ErrorLoggerManager loggerManager,
+            final ProcessingOptions processingOptions, final boolean downloadTopics) {
         super(factory, loggerManager, processingOptions);
         this.factory = factory;
+        this.downloadTopics = downloadTopics;
+    }
+
+    /**
+     * Set a download of the topics that was started before processing, so that the topics can be downloaded while the first
+     * validation pass is run. The second validation pass waits for the download to finish and adds the downloaded topics to the
+     * entity cache, instead of downloading the topics itself.
+     *
+     * @param topicDownload The running download of the topics used by the content spec.
+     */
+    public void setTopicDownload(final LongRunningRequest<DownloadedTopics> topicDownload) {
+        this.topicDownload = topicDownload;
+    }
+
+    @Override
+    protected boolean doFirstValidationPass(final ProcessorData processorData) {
+        final Profiler.Timer timer = Profiler.start(Profiler.FIRST_VALIDATION_PASS);
+        try {
+            return super.doFirstValidationPass(processorData);
+        } finally {
+            timer.stop();
+        }
     }
 
     @Override
     protected boolean doSecondValidationPass(final ProcessorData processorData) {
         // Attempt to download all the topic data in one request
-        ClientUtilities.downloadAllTopics(factory, processorData.getContentSpec(), null);
+        if (topicDownload != null) {
+            topicDownload.waitFor().addToCache(factory);
+        } else if (downloadTopics) {
+            ClientUtilities.downloadAllTopics(factory, processorData.getContentSpec(), null);
+        }
 
-        return super.doSecondValidationPass(processorData);
+        final Profiler.Timer timer = Profiler.start(Profiler.SECOND_VALIDATION_PASS);
+        try {
+            return super.doSecondValidationPass(processorData);
+        } finally {
+            timer.stop();
+        }
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.beust.jcommander.JCommander;
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.jboss.pressgang.ccms.contentspec.client.exception.ClientExitException;
+import org.jboss.pressgang.ccms.rest.v1.elements.RESTProcessInformationV1;
+import org.jboss.pressgang.ccms.rest.v1.elements.enums.RESTProcessStatusV1;
+import org.jboss.pressgang.ccms.rest.v1.jaxrsinterfaces.RESTInterfaceV1;
+import org.jboss.pressgang.ccms.utils.common.ExceptionUtilities;
+
+/**
+ * Starts an asynchronous process on the server for each content spec in a set, limiting how many are running on the server at
+ * the same time, and then waits for all of them using a single {@link AsyncProcessWaiter}. A content spec that fails to start
+ * doesn't stop the rest of the content specs.
+ */
+public class AsyncProcessScheduler {
+    private final RESTInterfaceV1 restClient;
+    private final int maxInFlight;
+
+    /**
+     * Starts the process on the server for a single content spec.
+     */
+    public static interface SpecProcessStarter {
+        /**
+         * Start the process for a content spec. Implementations shouldn't stop the application if the process can't be started,
+         * and should instead print the reason and return null, so that the rest of the content specs can still be started.
+         *
+         * @param id The id of the content spec to start the process for.
+         * @return The information about the process that was started, or null if it couldn't be started.
+         */
+        RESTProcessInformationV1 start(Integer id);
+    }
+
+    /**
+     * @param restClient  The client to use to check the processes.
+     * @param maxInFlight The maximum number of processes that can be running on the server at the same time.
+     */
+    public AsyncProcessScheduler(final RESTInterfaceV1 restClient, final int maxInFlight) {
+        this.restClient = restClient;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Start a process for each content spec, and wait for the processes to finish if required. A summary of the results is
+     * printed at the end.
+     *
+     * @param ids            The ids of the content specs to start processes for.
+     * @param wait           If the processes should be waited on, or false to return once they have all been started.
+     * @param waitingMessage The message to print while waiting for the processes.
+     * @param starter        The starter that starts the process for a single content spec.
+     * @return The exit status of the first content spec that failed, or {@link Constants#EXIT_SUCCESS} if none failed.
+     * @throws InterruptedException Thrown if the current thread is interrupted while waiting.
+     */
+    public int runAll(final List<Integer> ids, final boolean wait, final String waitingMessage,
+            final SpecProcessStarter starter) throws InterruptedException {
+        final List<AsyncProcessWaiter.ProcessStarter> starters = new ArrayList<AsyncProcessWaiter.ProcessStarter>();
+        for (final Integer id : ids) {
+            starters.add(new AsyncProcessWaiter.ProcessStarter() {
+                @Override
+                public RESTProcessInformationV1 start() {
+                    return startProcess(starter, id);
+                }
+            });
+        }
+
+        final List<RESTProcessInformationV1> processes;
+        if (wait) {
+            processes = new AsyncProcessWaiter(restClient).runAll(starters, maxInFlight,
+                    new AsyncProcessWaiter.ConsoleProcessListener(waitingMessage, ids.size() > 1));
+        } else {
+            processes = new ArrayList<RESTProcessInformationV1>();
+            for (final AsyncProcessWaiter.ProcessStarter processStarter : starters) {
+                processes.add(processStarter.start());
+            }
+        }
+
+        // Work out the results of each content spec
+        final List<String> stringIds = new ArrayList<String>();
+        final List<Integer> exitStatuses = new ArrayList<Integer>();
+        for (int i = 0; i < ids.size(); i++) {
+            final RESTProcessInformationV1 process = processes.get(i);
+            stringIds.add(ids.get(i).toString());
+            if (process == null) {
+                exitStatuses.add(Constants.EXIT_FAILURE);
+            } else if (wait && process.getStatus() != RESTProcessStatusV1.COMPLETED) {
+                exitStatuses.add(Constants.EXIT_FAILURE);
+            } else {
+                exitStatuses.add(Constants.EXIT_SUCCESS);
+            }
+        }
+
+        JCommander.getConsole().println("");
+        return BatchRunner.printSummary(stringIds, exitStatuses);
+    }
+
+    protected RESTProcessInformationV1 startProcess(final SpecProcessStarter starter, final Integer id) {
+        JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_PROCESSING_MSG", id));
+        try {
+            return starter.start(id);
+        } catch (ClientExitException e) {
+            // The application is shutting down, so don't start anything else
+            throw e;
+        } catch (RuntimeException e) {
+            // A content spec that fails to start shouldn't stop the rest of the content specs
+            JCommander.getConsole().println(ExceptionUtilities.getStackTrace(e));
+            JCommander.getConsole().println(ClientUtilities.getMessage("ERROR_INTERNAL_ERROR"));
+            return null;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.beust.jcommander.JCommander;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.jboss.pressgang.ccms.rest.v1.elements.RESTProcessInformationV1;
+import org.jboss.pressgang.ccms.rest.v1.elements.enums.RESTProcessStatusV1;
+import org.jboss.pressgang.ccms.rest.v1.expansion.ExpandDataDetails;
+import org.jboss.pressgang.ccms.rest.v1.expansion.ExpandDataTrunk;
+import org.jboss.pressgang.ccms.rest.v1.jaxrsinterfaces.RESTInterfaceV1;
+
+/**
+ * Waits for one or more asynchronous processes on the server to finish. The processes are checked quickly at first, so short
+ * processes finish without any delay, and then less often the longer they take. Any new log messages are passed on as soon as
+ * they are seen, instead of only once the process has finished.
+ */
+public class AsyncProcessWaiter {
+    private final RESTInterfaceV1 restClient;
+    private final long initialInterval;
+    private final long maxInterval;
+    private String expand = null;
+
+    /**
+     * A listener that is notified about the progress of the processes being waited on.
+     */
+    public static interface ProcessListener {
+        /**
+         * @param processInformation The process that has new log messages.
+         * @param logs               The new log messages.
+         */
+        void onLogs(RESTProcessInformationV1 processInformation, String logs);
+
+        /**
+         * Called each time the processes have been checked and some are still running.
+         *
+         * @param runningProcesses The processes that are still running.
+         */
+        void onWaiting(List<RESTProcessInformationV1> runningProcesses);
+    }
+
+    /**
+     * Starts a process on the server.
+     */
+    public static interface ProcessStarter {
+        /**
+         * @return The information about the process that was started, or null if the process couldn't be started.
+         */
+        RESTProcessInformationV1 start();
+    }
+
+    public AsyncProcessWaiter(final RESTInterfaceV1 restClient) {
+        this(restClient, Constants.ASYNC_STATUS_INITIAL_INTERVAL, Constants.ASYNC_STATUS_INTERVAL);
+    }
+
+    /**
+     * @param restClient      The client to use to check the processes.
+     * @param initialInterval The time in milliseconds to wait before checking the processes the first time.
+     * @param maxInterval     The maximum time in milliseconds to wait between checks.
+     */
+    public AsyncProcessWaiter(final RESTInterfaceV1 restClient, final long initialInterval, final long maxInterval) {
+        this.restClient = restClient;
+        this.initialInterval = Math.max(1, initialInterval);
+        this.maxInterval = Math.max(this.initialInterval, maxInterval);
+    }
+
+    /**
+     * Checks if a process has finished executing on the server.
+     *
+     * @param processInformation The process to check.
+     * @return True if the process has completed, failed or been cancelled, otherwise false.
+     */
+    public static boolean isFinished(final RESTProcessInformationV1 processInformation) {
+        final RESTProcessStatusV1 status = processInformation.getStatus();
+        return status == RESTProcessStatusV1.COMPLETED || status == RESTProcessStatusV1.FAILED || status == RESTProcessStatusV1.CANCELLED;
+    }
+
+    /**
+     * Wait for a process to finish executing on the server.
+     *
+     * @param processInformation The process that was started.
+     * @param listener           The listener to notify about the processes progress, or null if no notifications are required.
+     * @return The final information about the process.
+     * @throws InterruptedException Thrown if the current thread is interrupted while waiting.
+     */
+    public RESTProcessInformationV1 waitFor(final RESTProcessInformationV1 processInformation,
+            final ProcessListener listener) throws InterruptedException {
+        return waitForAll(Arrays.asList(processInformation), listener).get(processInformation.getId());
+    }
+
+    /**
+     * Wait for a set of processes to finish executing on the server.
+     *
+     * @param processes The processes that were started.
+     * @param listener  The listener to notify about the processes progress, or null if no notifications are required.
+     * @return The final information about each process, mapped by its id and in the same order the processes were passed.
+     * @throws InterruptedException Thrown if the current thread is interrupted while waiting.
+     */
+    public Map<String, RESTProcessInformationV1> waitForAll(final List<RESTProcessInformationV1> processes,
+            final ProcessListener listener) throws InterruptedException {
+        final Map<String, RESTProcessInformationV1> retValue = new LinkedHashMap<String, RESTProcessInformationV1>();
+        final List<ProcessStarter> starters = new ArrayList<ProcessStarter>();
+        for (final RESTProcessInformationV1 process : processes) {
+            retValue.put(process.getId(), process);
+            starters.add(new ProcessStarter() {
+                @Override
+                public RESTProcessInformationV1 start() {
+                    return process;
+                }
+            });
+        }
+
+        for (final RESTProcessInformationV1 process : runAll(starters, Integer.MAX_VALUE, listener)) {
+            retValue.put(process.getId(), process);
+        }
+
+        return retValue;
+    }
+
+    /**
+     * Start a set of processes on the server and wait for them to finish, limiting how many processes can be running on the
+     * server at the same time. When a process finishes, the next process is started.
+     *
+     * @param starters    The starters for each process.
+     * @param maxInFlight The maximum number of processes that can be running at the same time.
+     * @param listener    The listener to notify about the processes progress, or null if no notifications are required.
+     * @return The final information about each process, in the same order as the starters. A process that couldn't be started
+     *         will be null.
+     * @throws InterruptedException Thrown if the current thread is interrupted while waiting.
+     */
+    public List<RESTProcessInformationV1> runAll(final List<? extends ProcessStarter> starters, final int maxInFlight,
+            final ProcessListener listener) throws InterruptedException {
+        final List<RESTProcessInformationV1> retValue = new ArrayList<RESTProcessInformationV1>();
+        final Map<String, Integer> running = new LinkedHashMap<String, Integer>();
+        final Map<String, String> printedLogs = new HashMap<String, String>();
+        final int fixedMaxInFlight = Math.max(1, maxInFlight);
+
+        int nextStarter = 0;
+        long interval = initialInterval;
+        while (nextStarter < starters.size() || !running.isEmpty()) {
+            // Start as many processes as are allowed
+            boolean started = false;
+            while (nextStarter < starters.size() && running.size() < fixedMaxInFlight) {
+                final RESTProcessInformationV1 process = starters.get(nextStarter).start();
+                retValue.add(process);
+                if (process != null && !isFinished(process)) {
+                    running.put(process.getId(), nextStarter);
+                    started = true;
+                }
+                nextStarter++;
+            }
+
+            if (running.isEmpty()) continue;
+
+            // A new process is likely to finish quickly, so check it quickly
+            if (started) {
+                interval = initialInterval;
+            }
+
+            if (listener != null) {
+                final List<RESTProcessInformationV1> runningProcesses = new ArrayList<RESTProcessInformationV1>();
+                for (final Integer index : running.values()) {
+                    runningProcesses.add(retValue.get(index));
+                }
+                listener.onWaiting(Collections.unmodifiableList(runningProcesses));
+            }
+
+            // Wait a little before checking the status again
+            Thread.sleep(interval);
+
+            // Get the latest process information
+            boolean progressed = false;
+            for (final Map.Entry<String, Integer> entry : new ArrayList<Map.Entry<String, Integer>>(running.entrySet())) {
+                final String id = entry.getKey();
+                final RESTProcessInformationV1 process = restClient.getJSONProcess(id, getExpand());
+                retValue.set(entry.getValue(), process);
+                if (isFinished(process)) {
+                    running.remove(id);
+                    progressed = true;
+                }
+
+                final String newLogs = getNewLogs(printedLogs.get(id), process.getLogs());
+                if (!isNullOrEmpty(newLogs)) {
+                    printedLogs.put(id, process.getLogs());
+                    progressed = true;
+                    if (listener != null) {
+                        listener.onLogs(process, newLogs);
+                    }
+                }
+            }
+
+            // Only back off when nothing has happened, as a process that is logging is likely to be finishing soon
+            if (!progressed) {
+                interval = Math.min(interval * 2, maxInterval);
+            }
+        }
+
+        return retValue;
+    }
+
+    /**
+     * Gets the log messages that haven't been seen before.
+     *
+     * @param previousLogs The logs that have already been seen.
+     * @param logs         The latest logs.
+     * @return The new log messages.
+     */
+    protected static String getNewLogs(final String previousLogs, final String logs) {
+        if (isNullOrEmpty(logs)) {
+            return null;
+        } else if (isNullOrEmpty(previousLogs)) {
+            return logs;
+        } else if (logs.startsWith(previousLogs)) {
+            return logs.substring(previousLogs.length());
+        } else {
+            // The logs have been rewritten, so pass them all on again
+            return logs;
+        }
+    }
+
+    /**
+     * Gets the expansion string that includes the logs for a process.
+     */
+    protected String getExpand() {
+        if (expand == null) {
+            try {
+                final ObjectMapper mapper = new ObjectMapper();
+                final ExpandDataTrunk expandDataTrunk = new ExpandDataTrunk();
+                expandDataTrunk.setBranches(
+                        Arrays.asList(new ExpandDataTrunk(new ExpandDataDetails(RESTProcessInformationV1.LOGS_NAME))));
+                expand = mapper.writeValueAsString(expandDataTrunk);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        return expand;
+    }
+
+    /**
+     * A listener that prints the progress of the processes to the console.
+     */
+    public static class ConsoleProcessListener implements ProcessListener {
+        private final String waitingMessage;
+        private final boolean prefixLogs;
+        private long lastOutputTime = 0L;
+
+        /**
+         * @param waitingMessage The message to print while the processes are running.
+         * @param prefixLogs     If the log messages should be prefixed with the process id, when waiting on multiple processes.
+         */
+        public ConsoleProcessListener(final String waitingMessage, final boolean prefixLogs) {
+            this.waitingMessage = waitingMessage;
+            this.prefixLogs = prefixLogs;
+        }
+
+        @Override
+        public void onLogs(final RESTProcessInformationV1 processInformation, final String logs) {
+            final String trimmedLogs = logs.endsWith("\n") ? logs.substring(0, logs.length() - 1) : logs;
+            if (prefixLogs) {
+                for (final String line : trimmedLogs.split("\n")) {
+                    JCommander.getConsole().println("[" + processInformation.getId() + "] " + line);
+                }
+            } else {
+                JCommander.getConsole().println(trimmedLogs);
+            }
+            lastOutputTime = System.currentTimeMillis();
+        }
+
+        @Override
+        public void onWaiting(final List<RESTProcessInformationV1> runningProcesses) {
+            // Don't flood the console with waiting messages while the processes are being checked quickly
+            if (System.currentTimeMillis() - lastOutputTime >= Constants.ASYNC_STATUS_INTERVAL) {
+                JCommander.getConsole().println(waitingMessage);
+                lastOutputTime = System.currentTimeMillis();
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.internal.Console;
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.jboss.pressgang.ccms.contentspec.client.exception.ClientExitException;
+import org.jboss.pressgang.ccms.utils.common.ExceptionUtilities;
+
+/**
+ * Runs a task for each content spec in a batch, making sure that a content spec that fails doesn't stop the rest of the batch.
+ * When the tasks are run in parallel, the output for each content spec is printed together once the task has finished.
+ */
+public class BatchRunner {
+    private final int concurrency;
+
+    /**
+     * A task to be run for a single content spec in a batch.
+     */
+    public static interface BatchTask {
+        /**
+         * @param id The content spec id/file to run the task for.
+         * @return The exit status for the content spec.
+         */
+        int run(String id);
+    }
+
+    /**
+     * @param concurrency The maximum number of content specs to run at the same time.
+     */
+    public BatchRunner(final int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Run a task for each content spec in a batch.
+     *
+     * @param ids  The content spec ids/files to run the task for.
+     * @param task The task to run.
+     * @return The exit status for each content spec, in the same order as the ids.
+     */
+    public List<Integer> runAll(final List<String> ids, final BatchTask task) {
+        // When running in parallel, capture each content specs output so it can be printed together
+        final CapturingConsole capturingConsole = concurrency > 1 ? new CapturingConsole(JCommander.getConsole()) : null;
+        final Console originalConsole = capturingConsole == null ? null : StreamConsole.setConsole(capturingConsole);
+
+        // A content spec finishing or failing shouldn't stop the rest of the batch
+        final boolean wasTrapped = ExitHandler.isTrapped();
+        ExitHandler.setTrapped(true);
+        try {
+            final List<Callable<Integer>> requests = new ArrayList<Callable<Integer>>();
+            for (final String id : ids) {
+                requests.add(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        if (capturingConsole != null) {
+                            capturingConsole.startCapture();
+                        }
+                        try {
+                            return runTask(task, id);
+                        } finally {
+                            if (capturingConsole != null) {
+                                capturingConsole.stopCapture();
+                            }
+                        }
+                    }
+                });
+            }
+
+            return new ParallelFetcher(concurrency, concurrency).fetchAll(null, requests, null);
+        } finally {
+            ExitHandler.setTrapped(wasTrapped);
+            if (capturingConsole != null) {
+                StreamConsole.setConsole(originalConsole);
+            }
+        }
+    }
+
+    protected int runTask(final BatchTask task, final String id) {
+        try {
+            return task.run(id);
+        } catch (ClientExitException e) {
+            return e.getExitStatus();
+        } catch (Throwable e) {
+            JCommander.getConsole().println(ExceptionUtilities.getStackTrace(e));
+            JCommander.getConsole().println(ClientUtilities.getMessage("ERROR_INTERNAL_ERROR"));
+            return Constants.EXIT_FAILURE;
+        }
+    }
+
+    /**
+     * Print a summary of the results from running a batch.
+     *
+     * @param ids          The content spec ids/files that were run.
+     * @param exitStatuses The exit status for each content spec.
+     * @return The exit status of the first content spec that failed, or {@link Constants#EXIT_SUCCESS} if none failed.
+     */
+    public static int printSummary(final List<String> ids, final List<Integer> exitStatuses) {
+        int exitStatus = Constants.EXIT_SUCCESS;
+        JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_SUMMARY_MSG"));
+        for (int i = 0; i < ids.size(); i++) {
+            final int itemExitStatus = exitStatuses.get(i);
+            if (itemExitStatus == Constants.EXIT_SUCCESS) {
+                JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_ITEM_SUCCEEDED_MSG", ids.get(i)));
+            } else {
+                JCommander.getConsole().println(ClientUtilities.getMessage("BATCH_ITEM_FAILED_MSG", ids.get(i), itemExitStatus));
+                if (exitStatus == Constants.EXIT_SUCCESS) {
+                    exitStatus = itemExitStatus;
+                }
+            }
+        }
+
+        return exitStatus;
+    }
+}
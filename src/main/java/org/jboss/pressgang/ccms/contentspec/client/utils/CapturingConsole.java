@@ -0,0 +1,94 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import com.beust.jcommander.internal.Console;
+
+/**
+ * A console that captures anything printed by a thread that has started capturing, and passes anything printed by other threads
+ * through to the underlying console. This allows the output from commands run in parallel to be kept together.
+ */
+public class CapturingConsole implements Console {
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private final Console console;
+    private final ThreadLocal<StringBuilder> capturedOutput = new ThreadLocal<StringBuilder>();
+
+    /**
+     * @param console The console to pass output through to.
+     */
+    public CapturingConsole(final Console console) {
+        this.console = console;
+    }
+
+    /**
+     * Start capturing anything printed by the current thread.
+     */
+    public void startCapture() {
+        capturedOutput.set(new StringBuilder());
+    }
+
+    /**
+     * Stop capturing anything printed by the current thread, and print the captured output to the underlying console in one go.
+     */
+    public void stopCapture() {
+        final StringBuilder captured = capturedOutput.get();
+        capturedOutput.remove();
+        if (captured != null && captured.length() > 0) {
+            synchronized (console) {
+                console.print(captured.toString());
+            }
+        }
+    }
+
+    @Override
+    public void print(final String msg) {
+        final StringBuilder captured = capturedOutput.get();
+        if (captured == null) {
+            synchronized (console) {
+                console.print(msg);
+            }
+        } else {
+            captured.append(msg);
+        }
+    }
+
+    @Override
+    public void println(final String msg) {
+        final StringBuilder captured = capturedOutput.get();
+        if (captured == null) {
+            synchronized (console) {
+                console.println(msg);
+            }
+        } else {
+            captured.append(msg).append(LINE_SEPARATOR);
+        }
+    }
+
+    @Override
+    public String readLine() {
+        return console.readLine();
+    }
+
+    public char[] readPassword(final boolean echoInput) {
+        return console.readPassword(echoInput);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Downloads a large set of items in chunks, where each chunk is sent as a single request and several chunks are sent at the
+ * same time. The size of the chunks adapts to how long the server takes to respond, so that chunks of large items don't time
+ * out and chunks of small items aren't needlessly split into lots of requests. A chunk that fails is split in half and retried,
+ * without having to download the rest of the items again.
+ *
+ * @param <T> The type used to identify the items to download.
+ */
+public class ChunkedDownloader<T> {
+    private final ParallelFetcher fetcher;
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long targetChunkTime;
+    private final int maxAttempts;
+    private int chunkSize;
+
+    /**
+     * Downloads a single chunk of items.
+     *
+     * @param <T> The type used to identify the items to download.
+     */
+    public static interface ChunkRequest<T> {
+        void download(List<T> items);
+    }
+
+    private static class Chunk<T> {
+        private final List<T> items;
+        private final int attempts;
+
+        private Chunk(final List<T> items, final int attempts) {
+            this.items = items;
+            this.attempts = attempts;
+        }
+    }
+
+    private static class ChunkResult<T> {
+        private final Chunk<T> chunk;
+        private final long elapsedTime;
+        private final RuntimeException failure;
+
+        private ChunkResult(final Chunk<T> chunk, final long elapsedTime, final RuntimeException failure) {
+            this.chunk = chunk;
+            this.elapsedTime = elapsedTime;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * @param fetcher          The fetcher used to send the chunks at the same time.
+     * @param initialChunkSize The number of items to send in each chunk, until the server's response times are known.
+     * @param minChunkSize     The smallest number of items to send in a chunk.
+     * @param maxChunkSize     The largest number of items to send in a chunk.
+     * @param targetChunkTime  The time in milliseconds that a chunk should take to download.
+     * @param maxAttempts      The maximum number of times to try and download an item before giving up.
+     */
+    public ChunkedDownloader(final ParallelFetcher fetcher, final int initialChunkSize, final int minChunkSize, final int maxChunkSize,
+            final long targetChunkTime, final int maxAttempts) {
+        this.fetcher = fetcher;
+        this.minChunkSize = Math.max(1, minChunkSize);
+        this.maxChunkSize = Math.max(this.minChunkSize, maxChunkSize);
+        this.targetChunkTime = targetChunkTime;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        chunkSize = clampChunkSize(initialChunkSize);
+    }
+
+    /**
+     * @return The number of items that will be sent in the next chunk.
+     */
+    public synchronized int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Download a set of items in chunks.
+     *
+     * @param host    The host the chunks will be sent to, or null if the chunks shouldn't be limited per host.
+     * @param items   The items to download.
+     * @param request The request that downloads a single chunk.
+     * @throws RuntimeException Thrown if a chunk still fails to download after the maximum number of attempts.
+     */
+    public void downloadAll(final String host, final List<T> items, final ChunkRequest<T> request) {
+        final LinkedList<Chunk<T>> retries = new LinkedList<Chunk<T>>();
+        int start = 0;
+        while (start < items.size() || !retries.isEmpty()) {
+            // Send as many chunks as can be downloaded at the same time, retrying any failed chunks first
+            final List<Callable<ChunkResult<T>>> requests = new ArrayList<Callable<ChunkResult<T>>>();
+            final int size = getChunkSize();
+            while (requests.size() < fetcher.getConcurrency() && (start < items.size() || !retries.isEmpty())) {
+                final Chunk<T> chunk;
+                if (!retries.isEmpty()) {
+                    chunk = retries.removeFirst();
+                } else {
+                    final int end = Math.min(start + size, items.size());
+                    chunk = new Chunk<T>(items.subList(start, end), 0);
+                    start = end;
+                }
+                requests.add(createRequest(chunk, request));
+            }
+
+            final List<ChunkResult<T>> results = fetcher.fetchAll(host, requests, null);
+            for (final ChunkResult<T> result : results) {
+                if (result.failure != null) {
+                    final Chunk<T> chunk = result.chunk;
+                    if (chunk.attempts + 1 >= maxAttempts) {
+                        throw result.failure;
+                    }
+
+                    // Split the chunk in case it failed because it was too large
+                    final int half = (chunk.items.size() + 1) / 2;
+                    retries.add(new Chunk<T>(chunk.items.subList(0, half), chunk.attempts + 1));
+                    if (half < chunk.items.size()) {
+                        retries.add(new Chunk<T>(chunk.items.subList(half, chunk.items.size()), chunk.attempts + 1));
+                    }
+                }
+            }
+
+            adjustChunkSize(results);
+        }
+    }
+
+    /**
+     * Adjust the chunk size, so that a chunk would have taken about the target time to download based on the average time it
+     * took to download each item. If any chunks failed then the chunk size is halved.
+     */
+    private synchronized void adjustChunkSize(final List<ChunkResult<T>> results) {
+        long elapsedTime = 0;
+        int downloadedItems = 0;
+        for (final ChunkResult<T> result : results) {
+            if (result.failure != null) {
+                chunkSize = clampChunkSize(chunkSize / 2);
+                return;
+            }
+            elapsedTime += result.elapsedTime;
+            downloadedItems += result.chunk.items.size();
+        }
+
+        if (downloadedItems == 0) return;
+
+        // Only grow slowly, as a few quick chunks might not be representative
+        final double timePerItem = Math.max(1.0, (double) elapsedTime / downloadedItems);
+        final int idealChunkSize = (int) (targetChunkTime / timePerItem);
+        chunkSize = clampChunkSize(Math.min(idealChunkSize, chunkSize * 2));
+    }
+
+    private int clampChunkSize(final int size) {
+        return Math.max(minChunkSize, Math.min(maxChunkSize, size));
+    }
+
+    private Callable<ChunkResult<T>> createRequest(final Chunk<T> chunk, final ChunkRequest<T> request) {
+        return new Callable<ChunkResult<T>>() {
+            @Override
+            public ChunkResult<T> call() throws Exception {
+                final long startTime = System.currentTimeMillis();
+                try {
+                    request.download(chunk.items);
+                    return new ChunkResult<T>(chunk, System.currentTimeMillis() - startTime, null);
+                } catch (RuntimeException e) {
+                    return new ChunkResult<T>(chunk, System.currentTimeMillis() - startTime, e);
+                }
+            }
+        };
+    }
+}
@@ -26,32 +26,46 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.internal.Console;
@@ -63,6 +77,19 @@ import com.redhat.j2koji.exceptions.KojiException;
 import com.redhat.j2koji.rpc.search.KojiBuildSearch;
 import org.jboss.pressgang.ccms.contentspec.ContentSpec;
 import org.jboss.pressgang.ccms.contentspec.SpecTopic;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.codehaus.jackson.map.ObjectMapper;
 import org.jboss.pressgang.ccms.contentspec.builder.utils.DocBookBuildUtilities;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommand;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
@@ -70,29 +97,41 @@ import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ZanataServerConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.jboss.pressgang.ccms.contentspec.client.exception.ClientExitException;
 import org.jboss.pressgang.ccms.contentspec.entities.Spec;
 import org.jboss.pressgang.ccms.contentspec.entities.SpecList;
-import org.jboss.pressgang.ccms.contentspec.interfaces.ShutdownAbleApp;
 import org.jboss.pressgang.ccms.contentspec.processor.ContentSpecParser;
 import org.jboss.pressgang.ccms.contentspec.processor.structures.ParserResults;
 import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
 import org.jboss.pressgang.ccms.provider.ContentSpecProvider;
 import org.jboss.pressgang.ccms.provider.DataProviderFactory;
 import org.jboss.pressgang.ccms.provider.LogMessageProvider;
+import org.jboss.pressgang.ccms.provider.RESTProviderFactory;
+import org.jboss.pressgang.ccms.provider.TextContentSpecProvider;
 import org.jboss.pressgang.ccms.provider.TopicProvider;
 import org.jboss.pressgang.ccms.provider.UserProvider;
 import org.jboss.pressgang.ccms.provider.exception.NotFoundException;
+import org.jboss.pressgang.ccms.rest.v1.collections.RESTTopicCollectionV1;
+import org.jboss.pressgang.ccms.rest.v1.collections.contentspec.RESTTextContentSpecCollectionV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTAssignedPropertyTagV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTopicV1;
 import org.jboss.pressgang.ccms.rest.v1.entities.base.RESTLogDetailsV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.contentspec.RESTTextContentSpecV1;
+import org.jboss.pressgang.ccms.rest.v1.expansion.ExpandDataDetails;
+import org.jboss.pressgang.ccms.rest.v1.expansion.ExpandDataTrunk;
+import org.jboss.pressgang.ccms.rest.v1.jaxrsinterfaces.RESTInterfaceV1;
 import org.jboss.pressgang.ccms.rest.v1.query.RESTTopicQueryBuilderV1;
 import org.jboss.pressgang.ccms.utils.common.CollectionUtilities;
 import org.jboss.pressgang.ccms.utils.common.DocBookUtilities;
 import org.jboss.pressgang.ccms.utils.common.ExceptionUtilities;
 import org.jboss.pressgang.ccms.utils.common.FileUtilities;
+import org.jboss.pressgang.ccms.utils.common.VersionUtilities;
 import org.jboss.pressgang.ccms.utils.structures.Pair;
 import org.jboss.pressgang.ccms.wrapper.CSTranslationDetailWrapper;
 import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
 import org.jboss.pressgang.ccms.wrapper.LocaleWrapper;
 import org.jboss.pressgang.ccms.wrapper.LogMessageWrapper;
+import org.jboss.pressgang.ccms.wrapper.PropertyTagInContentSpecWrapper;
 import org.jboss.pressgang.ccms.wrapper.ServerEntitiesWrapper;
 import org.jboss.pressgang.ccms.wrapper.ServerSettingsWrapper;
 import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
@@ -101,11 +140,23 @@ import org.jboss.pressgang.ccms.wrapper.UserWrapper;
 import org.jboss.pressgang.ccms.wrapper.base.BaseContentSpecWrapper;
 import org.jboss.pressgang.ccms.wrapper.collection.CollectionWrapper;
 import org.jboss.pressgang.ccms.zanata.ZanataDetails;
+import org.jboss.resteasy.specimpl.PathSegmentImpl;
 
 public class ClientUtilities {
-    private static int MAX_DOWNLOAD_SIZE = 500;
+    private static final String TEXT_CONTENT_SPECS_EXPANSION_NAME = "textContentSpecs";
+    private static final String TOPICS_EXPANSION_NAME = "topics";
     private static final ResourceBundle MESSAGES = ResourceBundle.getBundle("messages");
 
+    private static ParallelFetcher downloadFetcher = new ParallelFetcher(Constants.DEFAULT_DOWNLOAD_THREADS,
+            Constants.DEFAULT_DOWNLOAD_CONNECTIONS_PER_HOST);
+    private static String downloadHost = null;
+    private static ChunkedDownloader<Integer> topicDownloader = createTopicDownloader(downloadFetcher);
+    private static UserCache userCache = new UserCache(null, Constants.USER_CACHE_MAX_AGE, Constants.USER_CACHE_MAX_ENTRIES);
+    private static ServerVerificationCache serverVerifications = new ServerVerificationCache(null, 0);
+    private static final RESTMetrics restMetrics = new RESTMetrics();
+    private static final String CLIENT_VERSION = VersionUtilities.getAPIVersion(Constants.VERSION_PROPERTIES_FILENAME,
+            Constants.VERSION_PROPERTY_NAME);
+
     /**
      * Gets a message from the properties and formats the message with any additional args.
      *
@@ -336,7 +387,7 @@ public class ClientUtilities {
      * @param serverUrl   The server URL that the content specification exists on.
      * @return The generated contents of the csprocessor.cfg file.
      */
-    public static String generateCsprocessorCfg(final ContentSpecWrapper contentSpec, final String serverUrl) {
+    public static String generateCsprocessorCfg(final BaseContentSpecWrapper<?> contentSpec, final String serverUrl) {
         final StringBuilder output = new StringBuilder();
         output.append("# SPEC_TITLE=");
         if (contentSpec.getTitle() != null) {
@@ -381,35 +432,18 @@ public class ClientUtilities {
     public static Integer runCommand(final String command, final String[] envVariables, final File dir, final Console console,
             boolean displayOutput, boolean allowInput) throws IOException {
         try {
-            final Process p = runCommand(command, envVariables, dir);
-
-            // Create a separate thread to read the stderr stream
-            final InputStreamHandler stdErr = new InputStreamHandler(p.getErrorStream(), console, true);
-            final InputStreamHandler stdInPipe = new InputStreamHandler(System.in, p.getOutputStream());
+            // Merge stderr into stdout, so that a single pump can read both and the output is printed in the right order
+            final Process p = runCommand(command, envVariables, dir, true);
 
             // Pipe stdin to the process
+            final StreamPump stdInPipe = new StreamPump(System.in, p.getOutputStream());
             if (allowInput) {
                 stdInPipe.start();
             }
 
             // Get the output of the command
             if (displayOutput) {
-                stdErr.start();
-
-                final BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()));
-
-                String line;
-                try {
-                    while ((line = br.readLine()) != null) {
-                        synchronized (console) {
-                            console.println(line);
-                        }
-                    }
-                } catch (Exception e) {
-                    // Do nothing
-                    JCommander.getConsole().println(e.getMessage());
-                    e.printStackTrace();
-                }
+                new StreamPump(p.getInputStream(), console).run();
             }
 
             // Wait for the process to finish
@@ -418,11 +452,6 @@ public class ClientUtilities {
             // Ensure that the stdin reader gets shutdown
             stdInPipe.shutdown();
 
-            // Wait for the output to be printed
-            while (stdErr.isAlive()) {
-                Thread.sleep(100);
-            }
-
             return p.exitValue();
         } catch (InterruptedException e) {
             e.printStackTrace();
@@ -440,24 +469,41 @@ public class ClientUtilities {
      * @throws IOException
      */
     public static Process runCommand(final String command, final String[] envVariables, final File dir) throws IOException {
-        String[] fixedEnvVariables = envVariables == null ? null : envVariables.clone();
-        final Map<String, String> env = System.getenv();
-        final List<String> envVars = new ArrayList<String>();
-        for (final Entry<String, String> entry : env.entrySet()) {
-            final String key = entry.getKey();
-            if (!key.equals("XML_CATALOG_FILES")) envVars.add(key + "=" + entry.getValue());
-        }
+        return runCommand(command, envVariables, dir, false);
+    }
+
+    /**
+     * Runs a command.
+     *
+     * @param command             The command to be run.
+     * @param envVariables        An array of environment variables to be used.
+     * @param dir                 The directory to run the command from.
+     * @param redirectErrorStream Whether the stderr stream should be merged into the stdout stream.
+     * @return The running process.
+     * @throws IOException
+     */
+    public static Process runCommand(final String command, final String[] envVariables, final File dir,
+            final boolean redirectErrorStream) throws IOException {
+        final ProcessBuilder processBuilder = new ProcessBuilder(splitCommandArguments(command));
+        final Map<String, String> env = processBuilder.environment();
+        env.remove("XML_CATALOG_FILES");
         if (envVariables != null) {
-            Collections.addAll(envVars, envVariables);
+            for (final String envVariable : envVariables) {
+                final int index = envVariable.indexOf('=');
+                if (index == -1) {
+                    env.put(envVariable, "");
+                } else {
+                    env.put(envVariable.substring(0, index), envVariable.substring(index + 1));
+                }
+            }
         }
-        fixedEnvVariables = envVars.toArray(new String[envVars.size()]);
 
         if (dir != null) {
             if (!dir.isDirectory()) throw new IOException();
-            return Runtime.getRuntime().exec(splitCommandArguments(command), fixedEnvVariables, dir);
-        } else {
-            return Runtime.getRuntime().exec(splitCommandArguments(command), fixedEnvVariables);
+            processBuilder.directory(dir);
         }
+
+        return processBuilder.redirectErrorStream(redirectErrorStream).start();
     }
 
     /**
@@ -498,20 +544,149 @@ public class ClientUtilities {
      */
     public static SpecList buildSpecList(final List<TextContentSpecWrapper> specList, final DataProviderFactory providerFactory,
             final ServerEntitiesWrapper serverEntities) {
-        final List<Spec> specs = new ArrayList<Spec>();
+        // Resolve all the creators up front, so that each user is only looked up once
+        final List<String> addedBy = new ArrayList<String>();
         for (final TextContentSpecWrapper cs : specList) {
-            UserWrapper creator = null;
-            if (cs.getProperty(serverEntities.getAddedByPropertyTagId()) != null) {
-                final CollectionWrapper<UserWrapper> users = providerFactory.getProvider(UserProvider.class).getUsersByName(
-                        cs.getProperty(serverEntities.getAddedByPropertyTagId()).getValue());
-                if (users != null && users.size() == 1) {
-                    creator = users.getItems().get(0);
+            final PropertyTagInContentSpecWrapper addedByProperty = cs.getProperty(serverEntities.getAddedByPropertyTagId());
+            addedBy.add(addedByProperty == null ? null : addedByProperty.getValue());
+        }
+        final Map<String, String> usernames = resolveUsernames(providerFactory, addedBy);
+
+        final List<Spec> specs = new ArrayList<Spec>();
+        for (int i = 0; i < specList.size(); i++) {
+            final TextContentSpecWrapper cs = specList.get(i);
+            final String creator = addedBy.get(i) == null ? null : usernames.get(addedBy.get(i));
+            specs.add(new Spec(cs.getId(), cs.getTitle(), cs.getProduct(), cs.getVersion(), creator, cs.getLastModified()));
+        }
+        return new SpecList(specs, specs.size());
+    }
+
+    /**
+     * Builds a Content Specification list for a list of content specification REST entities.
+     */
+    public static SpecList buildSpecListFromEntities(final List<RESTTextContentSpecV1> specList,
+            final DataProviderFactory providerFactory, final ServerEntitiesWrapper serverEntities) {
+        // Resolve all the creators up front, so that each user is only looked up once
+        final List<String> addedBy = new ArrayList<String>();
+        for (final RESTTextContentSpecV1 cs : specList) {
+            addedBy.add(getPropertyValue(cs, serverEntities.getAddedByPropertyTagId()));
+        }
+        final Map<String, String> usernames = resolveUsernames(providerFactory, addedBy);
+
+        final List<Spec> specs = new ArrayList<Spec>();
+        for (int i = 0; i < specList.size(); i++) {
+            final RESTTextContentSpecV1 cs = specList.get(i);
+            final String creator = addedBy.get(i) == null ? null : usernames.get(addedBy.get(i));
+            specs.add(new Spec(cs.getId(), cs.getTitle(), cs.getProduct(), cs.getVersion(), creator, cs.getLastModified()));
+        }
+        return new SpecList(specs, specs.size());
+    }
+
+    /**
+     * Resolve a set of names from the "Added By" property to the usernames of the users they belong to. Names that have
+     * been resolved before are taken from the user cache, and the remaining names are looked up in parallel.
+     *
+     * @param providerFactory The provider factory to create providers to lookup the users.
+     * @param names           The names to resolve.
+     * @return A map of names to usernames. Names that couldn't be resolved won't be in the map.
+     */
+    public static Map<String, String> resolveUsernames(final DataProviderFactory providerFactory, final Collection<String> names) {
+        final Map<String, String> retValue = new HashMap<String, String>();
+
+        // Get any usernames that are already known
+        final List<String> unresolvedNames = new ArrayList<String>();
+        for (final String name : new LinkedHashSet<String>(names)) {
+            if (name == null) continue;
+
+            final String username = userCache.get(name);
+            if (username == null) {
+                unresolvedNames.add(name);
+            } else {
+                retValue.put(name, username);
+            }
+        }
+
+        if (unresolvedNames.isEmpty()) return retValue;
+
+        // Lookup the remaining users
+        final UserProvider userProvider = providerFactory.getProvider(UserProvider.class);
+        final List<Callable<String>> requests = new ArrayList<Callable<String>>();
+        for (final String name : unresolvedNames) {
+            requests.add(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    final CollectionWrapper<UserWrapper> users = userProvider.getUsersByName(name);
+                    if (users != null && users.size() == 1) {
+                        return users.getItems().get(0).getUsername();
+                    } else {
+                        return null;
+                    }
                 }
+            });
+        }
+
+        final List<String> usernames = downloadFetcher.fetchAll(downloadHost, requests, null);
+        final Map<String, String> resolvedUsernames = new HashMap<String, String>();
+        for (int i = 0; i < unresolvedNames.size(); i++) {
+            if (usernames.get(i) != null) {
+                resolvedUsernames.put(unresolvedNames.get(i), usernames.get(i));
             }
-            specs.add(new Spec(cs.getId(), cs.getTitle(), cs.getProduct(), cs.getVersion(), creator != null ? creator.getUsername() : null,
-                    cs.getLastModified()));
         }
-        return new SpecList(specs, specs.size());
+        userCache.putAll(resolvedUsernames);
+        retValue.putAll(resolvedUsernames);
+
+        return retValue;
+    }
+
+    /**
+     * Gets the value of a property assigned to a content spec.
+     *
+     * @param contentSpec   The content spec, which must have its properties expanded.
+     * @param propertyTagId The id of the property tag.
+     * @return The value of the property, or null if the content spec doesn't have the property.
+     */
+    public static String getPropertyValue(final RESTTextContentSpecV1 contentSpec, final Integer propertyTagId) {
+        if (contentSpec.getProperties() == null || contentSpec.getProperties().returnItems() == null) return null;
+
+        for (final RESTAssignedPropertyTagV1 property : contentSpec.getProperties().returnItems()) {
+            if (property.getId() != null && property.getId().equals(propertyTagId)) {
+                return property.getValue();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets a single page of the content specs that match a query, along with their properties. Only the requested page is
+     * downloaded, however the size of the returned collection is the total number of content specs that match the query.
+     *
+     * @param restClient The client to use to query the server.
+     * @param query      The query to find the content specs.
+     * @param start      The index of the first content spec to get.
+     * @param end        The index after the last content spec to get.
+     * @return The collection of content specs in the page.
+     */
+    public static RESTTextContentSpecCollectionV1 getTextContentSpecPage(final RESTInterfaceV1 restClient, final String query,
+            final int start, final int end) {
+        final ExpandDataDetails contentSpecsDetails = new ExpandDataDetails(TEXT_CONTENT_SPECS_EXPANSION_NAME);
+        contentSpecsDetails.setStart(start);
+        contentSpecsDetails.setEnd(end);
+
+        final ExpandDataTrunk contentSpecsTrunk = new ExpandDataTrunk(contentSpecsDetails);
+        contentSpecsTrunk.setBranches(Arrays.asList(new ExpandDataTrunk(new ExpandDataDetails(RESTTextContentSpecV1.PROPERTIES_NAME))));
+
+        final ExpandDataTrunk expand = new ExpandDataTrunk();
+        expand.setBranches(Arrays.asList(contentSpecsTrunk));
+
+        final String expandString;
+        try {
+            expandString = new ObjectMapper().writeValueAsString(expand);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return restClient.getJSONTextContentSpecsWithQuery(new PathSegmentImpl(query, false), expandString);
     }
 
     /**
@@ -521,6 +696,21 @@ public class ClientUtilities {
      * @return The generated response output.
      */
     public static String generateContentSpecList(final SpecList contentSpecs) {
+        if (contentSpecs != null && contentSpecs.getSpecs() != null && !contentSpecs.getSpecs().isEmpty()) {
+            final String format = getContentSpecListFormat(contentSpecs);
+            return generateContentSpecListHeader(format) + generateContentSpecListRows(format, contentSpecs);
+        }
+        return "";
+    }
+
+    /**
+     * Generates the format used to print each row of a content specification list, so that the columns line up with the
+     * widest value in each column.
+     *
+     * @param contentSpecs The SpecList that contains the processed Content Specifications
+     * @return The format for each row of the list.
+     */
+    public static String getContentSpecListFormat(final SpecList contentSpecs) {
         final LinkedHashMap<String, Integer> sizes = new LinkedHashMap<String, Integer>();
         // Create the initial sizes incase they never increase
         sizes.put("ID", 2);
@@ -531,7 +721,7 @@ public class ClientUtilities {
         sizes.put("VERSION", 7);
         sizes.put("CREATED BY", 10);
         sizes.put("LAST MODIFIED", 13);
-        if (contentSpecs != null && contentSpecs.getSpecs() != null && !contentSpecs.getSpecs().isEmpty()) {
+        if (contentSpecs != null && contentSpecs.getSpecs() != null) {
             for (final Spec spec : contentSpecs.getSpecs()) {
                 if (spec.getId().toString().length() > sizes.get("ID")) {
                     sizes.put("ID", spec.getId().toString().length());
@@ -553,23 +743,43 @@ public class ClientUtilities {
                     sizes.put("CREATED BY", spec.getCreator().length());
                 }
             }
+        }
+
+        return "%" + (sizes.get("ID") + 2) + "s%" + (sizes.get("TITLE") + 2) + "s%" + (sizes.get(
+                "PRODUCT") + 2) + "s%" + (sizes.get("VERSION") + 2) + "s%" + (sizes.get("CREATED BY") + 2) + "s%" + (sizes.get(
+                "LAST MODIFIED") + 2) + "s";
+    }
 
-            final String format = "%" + (sizes.get("ID") + 2) + "s%" + (sizes.get("TITLE") + 2) + "s%" + (sizes.get(
-                    "PRODUCT") + 2) + "s%" + (sizes.get("VERSION") + 2) + "s%" + (sizes.get("CREATED BY") + 2) + "s%" + (sizes.get(
-                    "LAST MODIFIED") + 2) + "s";
+    /**
+     * Generates the header for a content specification list.
+     *
+     * @param format The format generated by {@link #getContentSpecListFormat(SpecList)}.
+     * @return The header line for the list.
+     */
+    public static String generateContentSpecListHeader(final String format) {
+        return String.format(format, "ID", "TITLE", "PRODUCT", "VERSION", "CREATED BY", "LAST MODIFIED") + "\n";
+    }
 
+    /**
+     * Generates the rows for a content specification list, without a header. This allows a list to be printed a page at a
+     * time, by using the same format for each page.
+     *
+     * @param format       The format generated by {@link #getContentSpecListFormat(SpecList)}.
+     * @param contentSpecs The SpecList that contains the processed Content Specifications
+     * @return The rows of the list.
+     */
+    public static String generateContentSpecListRows(final String format, final SpecList contentSpecs) {
+        final StringBuilder output = new StringBuilder();
+        if (contentSpecs != null && contentSpecs.getSpecs() != null) {
             final SimpleDateFormat dateFormatter = new SimpleDateFormat("dd MMM yyyy");
-            final StringBuilder output = new StringBuilder(
-                    String.format(format, "ID", "TITLE", "PRODUCT", "VERSION", "CREATED BY", "LAST MODIFIED") + "\n");
             for (final Spec spec : contentSpecs.getSpecs()) {
                 output.append(
                         String.format(format, spec.getId().toString(), escapeForList(spec.getTitle()), escapeForList(spec.getProduct()),
                                 escapeForList(spec.getVersion()), spec.getCreator() == null ? "Unknown" : spec.getCreator(),
                                 spec.getLastModified() == null ? "Unknown" : dateFormatter.format(spec.getLastModified())) + "\n");
             }
-            return output.toString();
         }
-        return "";
+        return output.toString();
     }
 
     private static String escapeForList(final String input) {
@@ -825,6 +1035,68 @@ public class ClientUtilities {
         }
     }
 
+    /**
+     * Reads a list of content spec ids or files from a file, for a batch of content specs. Each id/file should be on its own line,
+     * and blank lines or lines starting with "#" are ignored.
+     *
+     * @param file The file to read the ids from.
+     * @return The list of ids/files in the order they appear in the file.
+     * @throws IOException Thrown if the file can't be read.
+     */
+    public static List<String> readBatchIds(final File file) throws IOException {
+        final List<String> ids = new ArrayList<String>();
+        for (final String line : FileUtils.readLines(file, Constants.FILE_ENCODING)) {
+            final String id = line.trim();
+            if (!id.isEmpty() && !id.startsWith("#")) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Gets the content spec ids for a command that processes multiple content specs, from the command line and an ids file.
+     *
+     * @param command The command that is processing the content specs.
+     * @param ids     The ids that were specified on the command line.
+     * @param idsFile The path to a file that contains more ids, or null if no file was specified.
+     * @return The ids in the order they were specified, without any duplicates.
+     */
+    public static List<Integer> getMultiSpecIds(final BaseCommand command, final List<Integer> ids, final String idsFile) {
+        final List<Integer> retValue = new ArrayList<Integer>();
+        final List<String> allIds = new ArrayList<String>();
+        for (final Integer id : ids) {
+            allIds.add(id.toString());
+        }
+
+        if (idsFile != null) {
+            final File file = new File(fixFilePath(idsFile));
+            try {
+                allIds.addAll(readBatchIds(file));
+            } catch (IOException e) {
+                command.printErrorAndShutdown(Constants.EXIT_FILE_NOT_FOUND, getMessage("ERROR_UNABLE_TO_READ_IDS_FILE_MSG",
+                        file.getAbsolutePath()), false);
+            }
+        }
+
+        for (final String id : allIds) {
+            try {
+                final Integer intId = Integer.parseInt(id);
+                if (!retValue.contains(intId)) {
+                    retValue.add(intId);
+                }
+            } catch (NumberFormatException e) {
+                command.printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, getMessage("ERROR_INVALID_BATCH_ID_MSG"), false);
+            }
+        }
+
+        if (retValue.isEmpty()) {
+            command.printErrorAndShutdown(Constants.EXIT_ARGUMENT_ERROR, getMessage("ERROR_NO_ID_CMD_LINE_MSG"), false);
+        }
+
+        return retValue;
+    }
+
     /**
      * Creates the Content Spec Project directory and adds the csprocessor.cfg and Content Spec file to the directory.
      *
@@ -836,7 +1108,8 @@ public class ClientUtilities {
      * @param zanataDetails     The Connection details for zanata.
      */
     public static void createContentSpecProject(final BaseCommandImpl command, final ContentSpecConfiguration cspConfig,
-            final File directory, final String contentSpecString, final ContentSpecWrapper contentSpec, ZanataDetails zanataDetails) {
+            final File directory, final String contentSpecString, final BaseContentSpecWrapper<?> contentSpec,
+            ZanataDetails zanataDetails) {
         // If the output directory exists and force is enabled delete the directory contents
         if (directory.exists() && directory.isDirectory()) {
             // TODO Check that the directory was successfully deleted
@@ -924,6 +1197,136 @@ public class ClientUtilities {
         }
     }
 
+    /**
+     * Updates a directory so that it matches a ZIP archive that is held in memory. Only files that have changed (compared by
+     * their hash) are rewritten and any files that are no longer in the archive are deleted, so that anything that is built
+     * from the directory can skip the files that haven't changed.
+     *
+     * @param archive        The ZIP archive to extract.
+     * @param directory      The directory to extract the archive into.
+     * @param preservedPaths The paths, relative to the directory, that shouldn't be deleted.
+     * @return True if the archive was extracted successfully, otherwise false.
+     */
+    public static boolean unzipIntoDirectoryIncrementally(final byte[] archive, final File directory,
+            final Collection<String> preservedPaths) {
+        final String rootPath;
+        try {
+            rootPath = directory.getCanonicalPath() + File.separator;
+        } catch (IOException e) {
+            return false;
+        }
+
+        final Set<String> extractedPaths = new HashSet<String>();
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive));
+        try {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                final File file = new File(directory, entry.getName());
+                final String path = file.getCanonicalPath();
+
+                // Make sure the entry can't be written outside of the directory
+                if (!path.startsWith(rootPath)) {
+                    return false;
+                }
+
+                // Keep track of the entry and its parent directories, as the archive may not contain entries for the directories
+                File parent = file.getCanonicalFile();
+                while (parent.getPath().startsWith(rootPath) && extractedPaths.add(parent.getPath())) {
+                    parent = parent.getParentFile();
+                }
+
+                if (entry.isDirectory()) {
+                    file.mkdirs();
+                } else {
+                    final byte[] content = IOUtils.toByteArray(zis);
+                    if (file.isFile() && file.length() == content.length && Arrays.equals(hash(content),
+                            hash(file))) {
+                        // The file hasn't changed, so leave it alone
+                        continue;
+                    }
+
+                    file.getParentFile().mkdirs();
+                    final OutputStream os = new FileOutputStream(file);
+                    try {
+                        os.write(content);
+                    } finally {
+                        IOUtils.closeQuietly(os);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        } finally {
+            IOUtils.closeQuietly(zis);
+        }
+
+        final Set<String> preserved = new HashSet<String>();
+        for (final String preservedPath : preservedPaths) {
+            preserved.add(rootPath + preservedPath);
+        }
+        return deleteUnextractedFiles(directory, extractedPaths, preserved);
+    }
+
+    /**
+     * Delete any files and directories in a directory that weren't extracted from an archive.
+     *
+     * @param directory      The directory to clean.
+     * @param extractedPaths The canonical paths of all the files and directories that were extracted.
+     * @param preservedPaths The canonical paths of any files or directories that should be kept.
+     * @return True if all the files that weren't extracted were deleted, otherwise false.
+     */
+    private static boolean deleteUnextractedFiles(final File directory, final Set<String> extractedPaths, final Set<String> preservedPaths) {
+        final File[] files = directory.listFiles();
+        if (files == null) return true;
+
+        boolean success = true;
+        for (final File file : files) {
+            final String path;
+            try {
+                path = file.getCanonicalPath();
+            } catch (IOException e) {
+                return false;
+            }
+
+            if (preservedPaths.contains(path)) {
+                continue;
+            } else if (!extractedPaths.contains(path)) {
+                success &= FileUtils.deleteQuietly(file);
+            } else if (file.isDirectory()) {
+                success &= deleteUnextractedFiles(file, extractedPaths, preservedPaths);
+            }
+        }
+
+        return success;
+    }
+
+    private static byte[] hash(final byte[] content) {
+        return getMessageDigest().digest(content);
+    }
+
+    private static byte[] hash(final File file) throws IOException {
+        final MessageDigest digest = getMessageDigest();
+        final InputStream is = new FileInputStream(file);
+        try {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest getMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static LogMessageWrapper createLogDetails(final DataProviderFactory providerFactory, final UserWrapper user,
             final String message, final boolean isRevisionHistoryMessage) {
         return createLogDetails(providerFactory, user.getUsername(), message, isRevisionHistoryMessage);
@@ -999,36 +1402,39 @@ public class ClientUtilities {
     }
 
     /**
-     * Saves the content specification to the server using the provided task.
+     * Runs a request that may take a while to complete, printing a waiting message every 10 seconds until the server responds.
      *
-     * @param command The command the save event is occurring for.
-     * @param task    The Task to be executed that will save the content spec to the server.
-     * @return The result from saving the content spec to the server.
+     * @param command The command the request is being made for.
+     * @param task    The Task to be executed that will send the request to the server.
+     * @return The result from the request.
      */
     public static <T> T runLongRunningRequest(final BaseCommand command, final FutureTask<T> task) {
-        // Run the task in a separate thread and output a waiting message every 10 seconds
-        final Thread thread = new Thread(task);
-        thread.start();
-        int count = 0;
-        while (!task.isDone()) {
-            // Sleep for 2 seconds
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                // Do nothing here as it's fine if this gets interrupted
-            }
-            count++;
-
-            if (count % 10 == 0) {
-                JCommander.getConsole().println("Waiting for a response from the server...");
-            }
-        }
+        final LongRunningRequest<T> request = LongRunningRequest.submit(task);
 
         // Get the response from the task
         T retValue = null;
         try {
-            retValue = task.get();
+            long nextWaitingMessage = Constants.LONG_RUNNING_REQUEST_MESSAGE_INTERVAL;
+            while (true) {
+                try {
+                    retValue = request.get(Constants.LONG_RUNNING_REQUEST_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    final long elapsedTime = request.getElapsedTime();
+                    if (command.isAppShuttingDown()) {
+                        request.cancel();
+                        waitForShutdown(command);
+                    } else if (elapsedTime >= nextWaitingMessage) {
+                        JCommander.getConsole().println(getMessage("WAITING_FOR_RESPONSE_MSG", elapsedTime / 1000));
+                        nextWaitingMessage += Constants.LONG_RUNNING_REQUEST_MESSAGE_INTERVAL;
+                    }
+                }
+            }
+        } catch (CancellationException e) {
+            // The request is only cancelled when the application is shutting down
+            waitForShutdown(command);
         } catch (InterruptedException e) {
+            request.cancel();
             JCommander.getConsole().println(ExceptionUtilities.getStackTrace(e));
             command.shutdown(Constants.EXIT_FAILURE);
         } catch (ExecutionException e) {
@@ -1036,9 +1442,35 @@ public class ClientUtilities {
             command.shutdown(Constants.EXIT_FAILURE);
         }
 
+        if (request.getElapsedTime() >= Constants.LONG_RUNNING_REQUEST_MESSAGE_INTERVAL) {
+            JCommander.getConsole().println(getMessage("RESPONSE_RECEIVED_MSG", request.getElapsedTime() / 1000));
+        }
+
         return retValue;
     }
 
+    /**
+     * Stops the current thread from doing anything else, while the application shuts down. If exits are being trapped (ie by the
+     * daemon or a batch) then nothing else will shut the application down, so the command is stopped instead.
+     *
+     * @param command The command that is being shutdown.
+     */
+    protected static void waitForShutdown(final BaseCommand command) {
+        command.setShutdown(true);
+        if (ExitHandler.isTrapped()) {
+            throw new ClientExitException(Constants.EXIT_SHUTDOWN_REQUEST);
+        }
+
+        while (true) {
+            // Just loop until the application shuts down
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                // Do nothing as this should only get interrupted when the app fully shuts down.
+            }
+        }
+    }
+
     public static ContentSpecWrapper getContentSpecEntity(ContentSpecProvider contentSpecProvider, Integer id, Integer revision) {
         ContentSpecWrapper contentSpec = null;
         try {
@@ -1049,6 +1481,17 @@ public class ClientUtilities {
         return contentSpec;
     }
 
+    public static TextContentSpecWrapper getTextContentSpecEntity(TextContentSpecProvider textContentSpecProvider, Integer id,
+            Integer revision) {
+        TextContentSpecWrapper contentSpec = null;
+        try {
+            contentSpec = textContentSpecProvider.getTextContentSpec(id, revision);
+        } catch (NotFoundException e) {
+            // Do nothing as we handle this below.
+        }
+        return contentSpec;
+    }
+
     public static TopicWrapper getTopicEntity(TopicProvider topicProvider, Integer id, Integer revision) {
         TopicWrapper topic = null;
         try {
@@ -1106,70 +1549,449 @@ public class ClientUtilities {
      */
     public static void downloadAllTopics(final DataProviderFactory providerFactory, final ContentSpec contentSpec,
             final Integer maxRevision) {
-        final TopicProvider topicProvider = providerFactory.getProvider(TopicProvider.class);
-        final List<SpecTopic> specTopics = contentSpec.getSpecTopics();
+        downloadAllTopics(providerFactory, Arrays.asList(contentSpec), maxRevision);
+    }
+
+    /**
+     * Download all the topics that are to be used during processing from a set of parsed Content Specifications. Topics that are
+     * used by more than one Content Specification are only downloaded once.
+     */
+    public static void downloadAllTopics(final DataProviderFactory providerFactory, final List<ContentSpec> contentSpecs,
+            final Integer maxRevision) {
         final List<Integer> topicIds = new ArrayList<Integer>();
         final List<Pair<Integer, Integer>> revisionTopicIds = new ArrayList<Pair<Integer, Integer>>();
+        collectTopicIds(contentSpecs, topicIds, revisionTopicIds);
+        downloadTopics(providerFactory, topicIds, revisionTopicIds, maxRevision);
+    }
 
-        // populate the topicIds and revisionTopicIds
-        for (final SpecTopic specTopic : specTopics) {
-            if (specTopic.getRevision() == null) {
-                topicIds.add(specTopic.getDBId());
-            } else {
-                revisionTopicIds.add(new Pair<Integer, Integer>(specTopic.getDBId(), specTopic.getRevision()));
+    /**
+     * Start downloading all the topics that are used by a parsed Content Specification in the background, so that other work
+     * (eg. validating the content spec) can be done while the topics are being downloaded. The topics used are found before this
+     * method returns, so the content spec can safely be changed while the topics are downloaded. The downloaded topics aren't
+     * added to the entity cache, as the provider factory is still being used by the calling thread, so they have to be added
+     * using {@link DownloadedTopics#addToCache(RESTProviderFactory)} once the download has finished.
+     *
+     * @param providerFactory The provider factory to download the topics with.
+     * @param contentSpec     The content spec to download the topics for.
+     * @param maxRevision     The maximum revision of the topics to download, or null to download the latest revisions.
+     * @return The running download, which can be waited on to get the downloaded topics.
+     */
+    public static LongRunningRequest<DownloadedTopics> startDownloadingAllTopics(final RESTProviderFactory providerFactory,
+            final ContentSpec contentSpec, final Integer maxRevision) {
+        final List<Integer> topicIds = new ArrayList<Integer>();
+        final List<Pair<Integer, Integer>> revisionTopicIds = new ArrayList<Pair<Integer, Integer>>();
+        collectTopicIds(Arrays.asList(contentSpec), topicIds, revisionTopicIds);
+        final RESTInterfaceV1 restClient = providerFactory.getRESTManager().getRESTClient();
+
+        return LongRunningRequest.submit(new FutureTask<DownloadedTopics>(new Callable<DownloadedTopics>() {
+            @Override
+            public DownloadedTopics call() throws Exception {
+                return fetchTopics(restClient, topicIds, revisionTopicIds, maxRevision);
+            }
+        }));
+    }
+
+    /**
+     * Find the unique topics used by a set of parsed Content Specifications.
+     *
+     * @param contentSpecs     The content specs to find the topics for.
+     * @param topicIds         The list to add the ids of the topics that use the latest revision to.
+     * @param revisionTopicIds The list to add the ids and revisions of the topics that use a specific revision to.
+     */
+    private static void collectTopicIds(final List<ContentSpec> contentSpecs, final List<Integer> topicIds,
+            final List<Pair<Integer, Integer>> revisionTopicIds) {
+        final Set<String> addedTopics = new HashSet<String>();
+        for (final ContentSpec contentSpec : contentSpecs) {
+            for (final SpecTopic specTopic : contentSpec.getSpecTopics()) {
+                if (!addedTopics.add(specTopic.getDBId() + "-" + specTopic.getRevision())) {
+                    continue;
+                } else if (specTopic.getRevision() == null) {
+                    topicIds.add(specTopic.getDBId());
+                } else {
+                    revisionTopicIds.add(new Pair<Integer, Integer>(specTopic.getDBId(), specTopic.getRevision()));
+                }
             }
         }
+    }
 
-        // Check if a maximum revision was specified for processing
+    /**
+     * Download a set of topics in bulk, so that they are cached by the topic provider.
+     */
+    private static void downloadTopics(final DataProviderFactory providerFactory, final List<Integer> topicIds,
+            final List<Pair<Integer, Integer>> revisionTopicIds, final Integer maxRevision) {
+        if (providerFactory instanceof RESTProviderFactory) {
+            final RESTProviderFactory restProviderFactory = (RESTProviderFactory) providerFactory;
+            fetchTopics(restProviderFactory.getRESTManager().getRESTClient(), topicIds, revisionTopicIds, maxRevision).addToCache(
+                    restProviderFactory);
+            return;
+        }
+
+        final Profiler.Timer timer = Profiler.start(Profiler.TOPIC_DOWNLOAD);
+        final List<Pair<Integer, Integer>> allRevisionTopicIds = getRevisionTopicIds(topicIds, revisionTopicIds, maxRevision);
         if (maxRevision == null && !topicIds.isEmpty()) {
-            // Download the list of topics in one go to reduce I/O overhead
+            // The provider can't be filled directly, so download the topics in one request through the provider instead
             JCommander.getConsole().println(getMessage("ATTEMPTING_TO_DOWNLOAD_TOPICS_MSG"));
             final RESTTopicQueryBuilderV1 queryBuilder = new RESTTopicQueryBuilderV1();
-            if (topicIds.size() > MAX_DOWNLOAD_SIZE) {
-                int start = 0;
-                while (start < topicIds.size()) {
-                    final List<Integer> subList = topicIds.subList(start, Math.min(start + MAX_DOWNLOAD_SIZE, topicIds.size()));
-                    queryBuilder.setTopicIds(subList);
-                    topicProvider.getTopicsWithQuery(queryBuilder.getQuery());
-
-                    start += MAX_DOWNLOAD_SIZE;
+            queryBuilder.setTopicIds(topicIds);
+            providerFactory.getProvider(TopicProvider.class).getTopicsWithQuery(queryBuilder.getQuery());
+        }
+        if (!allRevisionTopicIds.isEmpty()) {
+            downloadRevisionTopics(providerFactory, allRevisionTopicIds);
+        }
+        timer.stop(allRevisionTopicIds.size() + (maxRevision == null ? topicIds.size() : 0), 0);
+    }
+
+    /**
+     * Download a set of topics using the REST client, without adding them to the entity cache. The chunks and revisions are
+     * downloaded in parallel, so this doesn't use the topic provider.
+     *
+     * @param restClient       The REST client to download the topics with.
+     * @param topicIds         The ids of the topics that use the latest revision.
+     * @param revisionTopicIds The ids and revisions of the topics that use a specific revision.
+     * @param maxRevision      The maximum revision of the topics to download, or null to download the latest revisions.
+     * @return The downloaded topics.
+     */
+    private static DownloadedTopics fetchTopics(final RESTInterfaceV1 restClient, final List<Integer> topicIds,
+            final List<Pair<Integer, Integer>> revisionTopicIds, final Integer maxRevision) {
+        final Profiler.Timer timer = Profiler.start(Profiler.TOPIC_DOWNLOAD);
+        final DownloadedTopics downloadedTopics = new DownloadedTopics();
+        final List<Pair<Integer, Integer>> allRevisionTopicIds = getRevisionTopicIds(topicIds, revisionTopicIds, maxRevision);
+
+        // Check if a maximum revision was specified for processing
+        if (maxRevision == null && !topicIds.isEmpty()) {
+            // Download the list of topics in chunks to reduce I/O overhead
+            JCommander.getConsole().println(getMessage("ATTEMPTING_TO_DOWNLOAD_TOPICS_MSG"));
+            fetchLatestTopics(restClient, topicIds, downloadedTopics);
+        }
+        if (!allRevisionTopicIds.isEmpty()) {
+            JCommander.getConsole().println(getMessage("ATTEMPTING_TO_DOWNLOAD_REV_TOPICS_MSG"));
+            fetchRevisionTopics(restClient, allRevisionTopicIds, downloadedTopics);
+        }
+
+        timer.stop(allRevisionTopicIds.size() + (maxRevision == null ? topicIds.size() : 0), 0);
+        return downloadedTopics;
+    }
+
+    /**
+     * Get the topics that need to be downloaded at a specific revision. If a maximum revision is set, then the topics that
+     * would otherwise use the latest revision are downloaded at the maximum revision instead.
+     */
+    private static List<Pair<Integer, Integer>> getRevisionTopicIds(final List<Integer> topicIds,
+            final List<Pair<Integer, Integer>> revisionTopicIds, final Integer maxRevision) {
+        final List<Pair<Integer, Integer>> allRevisionTopicIds = new ArrayList<Pair<Integer, Integer>>(revisionTopicIds);
+        if (maxRevision != null) {
+            for (final Integer topicId : topicIds) {
+                allRevisionTopicIds.add(new Pair<Integer, Integer>(topicId, maxRevision));
+            }
+        }
+        return allRevisionTopicIds;
+    }
+
+    /**
+     * Download the latest revision of a set of topics in chunks. The chunks are downloaded in parallel using the REST client.
+     *
+     * @param restClient       The REST client to download the topics with.
+     * @param topicIds         The ids of the topics to download.
+     * @param downloadedTopics The downloaded topics to add the topics to.
+     */
+    private static void fetchLatestTopics(final RESTInterfaceV1 restClient, final List<Integer> topicIds,
+            final DownloadedTopics downloadedTopics) {
+        final String expandString = getTopicsExpandString();
+        topicDownloader.downloadAll(downloadHost, topicIds, new ChunkedDownloader.ChunkRequest<Integer>() {
+            @Override
+            public void download(final List<Integer> chunk) {
+                final Profiler.Timer requestTimer = Profiler.start(Profiler.TOPIC_DOWNLOAD_REQUEST);
+                final RESTTopicQueryBuilderV1 queryBuilder = new RESTTopicQueryBuilderV1();
+                queryBuilder.setTopicIds(chunk);
+                final RESTTopicCollectionV1 topics = restClient.getJSONTopicsWithQuery(new PathSegmentImpl(queryBuilder.getQuery(), false),
+                        expandString);
+                final List<RESTTopicV1> items = topics == null ? null : topics.returnItems();
+                if (items != null) {
+                    downloadedTopics.addLatestTopics(items);
+                }
+                if (Profiler.isEnabled()) {
+                    long size = 0;
+                    if (items != null) {
+                        for (final RESTTopicV1 topic : items) {
+                            size += getTopicSize(topic == null ? null : topic.getXml());
+                        }
+                    }
+                    requestTimer.stop(chunk.size(), size);
                 }
-            } else {
-                queryBuilder.setTopicIds(topicIds);
-                topicProvider.getTopicsWithQuery(queryBuilder.getQuery());
             }
-        } else if (!topicIds.isEmpty()) {
-            // Add to the list of referenced topic ids
-            for (final Integer topicId : topicIds) {
-                revisionTopicIds.add(new Pair<Integer, Integer>(topicId, maxRevision));
+        });
+    }
+
+    /**
+     * Get the expansion used to download a collection of topics.
+     */
+    private static String getTopicsExpandString() {
+        final ExpandDataTrunk expand = new ExpandDataTrunk();
+        expand.setBranches(Arrays.asList(new ExpandDataTrunk(new ExpandDataDetails(TOPICS_EXPANSION_NAME))));
+
+        try {
+            return new ObjectMapper().writeValueAsString(expand);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the size of a topics XML in bytes, for use when profiling.
+     */
+    private static long getTopicSize(final String xml) {
+        if (xml == null) {
+            return 0;
+        } else {
+            try {
+                return xml.getBytes("UTF-8").length;
+            } catch (UnsupportedEncodingException e) {
+                return xml.length();
             }
         }
+    }
 
-        if (!revisionTopicIds.isEmpty()) {
-            downloadRevisionTopics(topicProvider, revisionTopicIds);
+    /**
+     * Get the metrics for the REST calls made by the client.
+     */
+    public static RESTMetrics getRESTMetrics() {
+        return restMetrics;
+    }
+
+    /**
+     * Configure how topics are downloaded from the server, based on the settings from the csprocessor.ini file. The downloader is
+     * only replaced when the download settings change, so the chunk size it has learned is kept between commands.
+     *
+     * @param clientConfig The client configuration containing the download settings.
+     * @param serverUrl    The URL of the server that topics will be downloaded from.
+     */
+    public static synchronized void configureDownloads(final ClientConfiguration clientConfig, final String serverUrl) {
+        final ParallelFetcher fetcher = new ParallelFetcher(clientConfig.getDownloadThreads(),
+                clientConfig.getDownloadConnectionsPerHost());
+        if (fetcher.getConcurrency() != downloadFetcher.getConcurrency()
+                || fetcher.getMaxConnectionsPerHost() != downloadFetcher.getMaxConnectionsPerHost()) {
+            downloadFetcher = fetcher;
+            topicDownloader = createTopicDownloader(downloadFetcher);
+        }
+
+        try {
+            downloadHost = new URL(serverUrl).getAuthority();
+        } catch (MalformedURLException e) {
+            downloadHost = serverUrl;
         }
     }
 
+    private static ChunkedDownloader<Integer> createTopicDownloader(final ParallelFetcher fetcher) {
+        return new ChunkedDownloader<Integer>(fetcher, Constants.DOWNLOAD_CHUNK_SIZE, Constants.MIN_DOWNLOAD_CHUNK_SIZE,
+                Constants.MAX_DOWNLOAD_CHUNK_SIZE, Constants.DOWNLOAD_CHUNK_TARGET_TIME, Constants.DOWNLOAD_CHUNK_MAX_ATTEMPTS);
+    }
+
     /**
-     * Download the Topics from the REST API that specify a revision.
+     * Create a HTTP client that keeps connections open and shares them between requests, based on the settings from the
+     * csprocessor.ini file. The number of connections to a single server is never less than the number of topics that can be
+     * downloaded from a server at the same time, so the downloads don't have to wait for a connection. Waiting for a free
+     * connection is limited to the socket timeout, so a response that is never released fails later requests instead of
+     * hanging them forever.
      *
+     * @param clientConfig The client configuration containing the http and download settings.
+     * @return A HTTP client that can be used by multiple threads at the same time.
+     */
+    public static HttpClient createPooledHttpClient(final ClientConfiguration clientConfig) {
+        final int connectionsPerHost = Math.max(1, Math.max(clientConfig.getHttpConnectionsPerHost(),
+                clientConfig.getDownloadConnectionsPerHost()));
+        final ThreadSafeClientConnManager connectionManager = new ThreadSafeClientConnManager();
+        connectionManager.setMaxTotal(Math.max(connectionsPerHost, clientConfig.getHttpConnections()));
+        connectionManager.setDefaultMaxPerRoute(connectionsPerHost);
+
+        final HttpParams params = new BasicHttpParams();
+        HttpConnectionParams.setConnectionTimeout(params, clientConfig.getHttpConnectTimeout() * 1000);
+        HttpConnectionParams.setSoTimeout(params, clientConfig.getHttpSocketTimeout() * 1000);
+        HttpConnectionParams.setStaleCheckingEnabled(params, true);
+        ConnManagerParams.setTimeout(params, clientConfig.getHttpSocketTimeout() * 1000L);
+
+        final long keepAlive = clientConfig.getHttpKeepAlive() * 1000L;
+        final DefaultHttpClient httpClient = new DefaultHttpClient(connectionManager, params);
+        httpClient.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+                // Use the servers keep alive time if it sent one
+                final long duration = super.getKeepAliveDuration(response, context);
+                return duration > 0 ? duration : keepAlive;
+            }
+        });
+
+        return httpClient;
+    }
+
+    /**
+     * Configure the cache used to resolve the users that created content specs. If the local cache has been disabled then
+     * the users are only cached in memory, otherwise they are also saved to the cache directory.
+     *
+     * @param clientConfig The client configuration containing the cache settings.
+     * @param serverUrl    The URL of the server that the users belong to.
+     */
+    public static void configureUserCache(final ClientConfiguration clientConfig, final String serverUrl) {
+        File file = null;
+        if (clientConfig.getCacheSize() != null && clientConfig.getCacheSize() > 0) {
+            file = getServerCacheFile(clientConfig, serverUrl, Constants.USER_CACHE_FILENAME_PREFIX);
+        }
+
+        userCache = new UserCache(file, Constants.USER_CACHE_MAX_AGE, Constants.USER_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * Configure the record of servers that have recently been checked. If the local cache has been disabled then the record is
+     * only kept in memory, otherwise it is also saved to the cache directory so it can be used by the next command.
+     *
+     * @param clientConfig The client configuration containing the http and cache settings.
+     * @param serverUrl    The URL of the server that will be checked.
+     */
+    public static void configureServerVerifications(final ClientConfiguration clientConfig, final String serverUrl) {
+        File file = null;
+        if (clientConfig.getCacheSize() != null && clientConfig.getCacheSize() > 0) {
+            file = getServerCacheFile(clientConfig, serverUrl, Constants.SERVER_VERIFICATION_FILENAME_PREFIX);
+        }
+
+        final long maxAge = clientConfig.getHttpVerifyTTL() == null ? 0 : clientConfig.getHttpVerifyTTL() * 1000L;
+        serverVerifications = new ServerVerificationCache(file, maxAge);
+    }
+
+    /**
+     * Check if a server has recently been checked to exist and support this version of the client.
+     *
+     * @param serverUrl The URL of the server.
+     * @return True if the server doesn't need to be checked again, otherwise false.
+     */
+    public static boolean isServerVerified(final String serverUrl) {
+        return serverVerifications.isVerified(serverUrl, CLIENT_VERSION);
+    }
+
+    /**
+     * Record that a server exists and supports this version of the client.
+     *
+     * @param serverUrl The URL of the server.
+     */
+    public static void setServerVerified(final String serverUrl) {
+        serverVerifications.setVerified(serverUrl, CLIENT_VERSION);
+    }
+
+    /**
+     * Remove the record of a server having been checked, so that it will be checked again by the next command.
+     *
+     * @param serverUrl The URL of the server.
+     */
+    public static void invalidateServerVerification(final String serverUrl) {
+        serverVerifications.invalidate(serverUrl);
+    }
+
+    /**
+     * Get a file in the cache directory that holds data for a single server.
+     *
+     * @param clientConfig The client configuration containing the cache settings.
+     * @param serverUrl    The URL of the server the data belongs to.
+     * @param prefix       The prefix for the file name, that describes the data in the file.
+     * @return The file for the server.
+     */
+    public static File getServerCacheFile(final ClientConfiguration clientConfig, final String serverUrl, final String prefix) {
+        String host;
+        try {
+            host = new URL(serverUrl).getAuthority();
+        } catch (MalformedURLException e) {
+            host = serverUrl;
+        }
+
+        return new File(getEntityCacheDirectory(clientConfig), prefix + host.replaceAll("[^\\w.-]", "_") + ".properties");
+    }
+
+    /**
+     * Get the directory that the local entity cache should be stored in. If no location has been configured, then the
+     * cache is stored in the root directory, or the users home directory if no root directory has been set.
+     *
+     * @param clientConfig The client configuration containing the cache settings.
+     * @return The directory to store the cache in.
+     */
+    public static File getEntityCacheDirectory(final ClientConfiguration clientConfig) {
+        if (!isNullOrEmpty(clientConfig.getCacheLocation())) {
+            return new File(clientConfig.getCacheLocation());
+        } else if (!isNullOrEmpty(clientConfig.getRootDirectory())) {
+            return new File(clientConfig.getRootDirectory() + Constants.CACHE_DIRECTORY_NAME);
+        } else {
+            return new File(Constants.HOME_LOCATION + File.separator + Constants.CACHE_DIRECTORY_NAME);
+        }
+    }
+
+    /**
+     * Download the Topics from the REST API that specify a revision, so that they are cached by the topic provider. The
+     * topic providers entity cache isn't safe to update from more than one thread, so the topics are downloaded in parallel
+     * using the REST client and then added to the cache from the calling thread.
+     *
+     * @param providerFactory            The provider factory whose topic provider should cache the topics.
      * @param referencedRevisionTopicIds The Set of topic ids and revision to download.
      */
-    public static void downloadRevisionTopics(final TopicProvider topicProvider,
+    public static void downloadRevisionTopics(final DataProviderFactory providerFactory,
             final List<Pair<Integer, Integer>> referencedRevisionTopicIds) {
         JCommander.getConsole().println(getMessage("ATTEMPTING_TO_DOWNLOAD_REV_TOPICS_MSG"));
 
-        final int showPercent = 10;
-        final float total = referencedRevisionTopicIds.size();
-        float current = 0;
-        int lastPercent = 0;
+        if (!(providerFactory instanceof RESTProviderFactory)) {
+            // The provider can't be filled directly, so download the topics one at a time through the provider instead
+            final TopicProvider topicProvider = providerFactory.getProvider(TopicProvider.class);
+            final RevisionDownloadListener<TopicWrapper> listener = new RevisionDownloadListener<TopicWrapper>();
+            int completed = 0;
+            for (final Pair<Integer, Integer> topicToRevision : referencedRevisionTopicIds) {
+                final TopicWrapper topic = topicProvider.getTopic(topicToRevision.getFirst(), topicToRevision.getSecond());
+                listener.onFetched(topic, ++completed, referencedRevisionTopicIds.size());
+            }
+            return;
+        }
+
+        final RESTProviderFactory restProviderFactory = (RESTProviderFactory) providerFactory;
+        final DownloadedTopics downloadedTopics = new DownloadedTopics();
+        fetchRevisionTopics(restProviderFactory.getRESTManager().getRESTClient(), referencedRevisionTopicIds, downloadedTopics);
+        downloadedTopics.addToCache(restProviderFactory);
+    }
 
+    /**
+     * Download the Topics from the REST API that specify a revision. The topics are downloaded in parallel using the REST client.
+     *
+     * @param restClient                 The REST client to download the topics with.
+     * @param referencedRevisionTopicIds The Set of topic ids and revision to download.
+     * @param downloadedTopics           The downloaded topics to add the topics to.
+     */
+    private static void fetchRevisionTopics(final RESTInterfaceV1 restClient,
+            final List<Pair<Integer, Integer>> referencedRevisionTopicIds, final DownloadedTopics downloadedTopics) {
+        final List<Callable<RESTTopicV1>> requests = new ArrayList<Callable<RESTTopicV1>>();
         for (final Pair<Integer, Integer> topicToRevision : referencedRevisionTopicIds) {
-            // If we want to update the revisions then we should get the latest topic and not the revision
-            topicProvider.getTopic(topicToRevision.getFirst(), topicToRevision.getSecond());
+            requests.add(new Callable<RESTTopicV1>() {
+                @Override
+                public RESTTopicV1 call() throws Exception {
+                    final Profiler.Timer requestTimer = Profiler.start(Profiler.TOPIC_DOWNLOAD_REQUEST);
+                    final RESTTopicV1 topic = restClient.getJSONTopicRevision(topicToRevision.getFirst(), topicToRevision.getSecond(),
+                            "");
+                    if (Profiler.isEnabled()) {
+                        requestTimer.stop(1, getTopicSize(topic == null ? null : topic.getXml()));
+                    }
+                    return topic;
+                }
+            });
+        }
+
+        final List<RESTTopicV1> topics = downloadFetcher.fetchAll(downloadHost, requests, new RevisionDownloadListener<RESTTopicV1>());
+        // The results are in the same order as the requests, so each topic can be cached under the revision that was requested
+        for (int i = 0; i < topics.size(); i++) {
+            downloadedTopics.addRevisionTopic(topics.get(i), referencedRevisionTopicIds.get(i).getSecond());
+        }
+    }
+
+    /**
+     * Prints the progress of downloading the topics that specify a revision.
+     */
+    private static class RevisionDownloadListener<T> implements ParallelFetcher.FetchListener<T> {
+        private final int showPercent = 10;
+        private int lastPercent = 0;
 
-            ++current;
-            final int percent = Math.round(current / total * 100);
+        @Override
+        public void onFetched(final T result, final int completed, final int total) {
+            final int percent = Math.round((float) completed / total * 100);
             if (percent - lastPercent >= showPercent) {
                 lastPercent = percent;
                 JCommander.getConsole().println("\t" + getMessage("DOWNLOADING_REV_TOPICS_MSG", percent));
@@ -1251,122 +2073,4 @@ public class ClientUtilities {
 
         return zanataDetails;
     }
-
-    private static class InputStreamHandler extends Thread implements ShutdownAbleApp {
-        private final InputStream stream;
-        private final StringBuffer buffer;
-        private final Console console;
-        private final OutputStream outStream;
-        private final boolean readEntireLine;
-
-        private final AtomicBoolean shutdown = new AtomicBoolean(false);
-        private final AtomicBoolean isShuttingDown = new AtomicBoolean(false);
-
-        public InputStreamHandler(final InputStream stream, final StringBuffer buffer) {
-            this(stream, buffer, false);
-        }
-
-        public InputStreamHandler(final InputStream stream, final StringBuffer buffer, final boolean readLine) {
-            this.stream = stream;
-            this.buffer = buffer;
-            console = null;
-            outStream = null;
-            readEntireLine = readLine;
-        }
-
-        public InputStreamHandler(final InputStream stream, final Console console) {
-            this(stream, console, false);
-        }
-
-        public InputStreamHandler(final InputStream stream, final Console console, final boolean readLine) {
-            this.stream = stream;
-            buffer = null;
-            this.console = console;
-            outStream = null;
-            readEntireLine = readLine;
-        }
-
-        public InputStreamHandler(final InputStream stream, final OutputStream outStream) {
-            this(stream, outStream, false);
-        }
-
-        public InputStreamHandler(final InputStream stream, final OutputStream outStream, final boolean readLine) {
-            this.stream = stream;
-            buffer = null;
-            console = null;
-            this.outStream = outStream;
-            readEntireLine = readLine;
-        }
-
-        @Override
-        public void run() {
-            if (readEntireLine) {
-                runReadLine();
-            } else {
-                runRead();
-            }
-        }
-
-        protected void runReadLine() {
-            String line;
-            try {
-                final BufferedReader br = new BufferedReader(new InputStreamReader(stream));
-
-                while ((line = br.readLine()) != null && !isShuttingDown.get()) {
-                    if (buffer != null) {
-                        buffer.append(line).append("\n");
-                    } else if (outStream != null) {
-                        outStream.write(line.getBytes());
-                        outStream.write("\n".getBytes());
-                        outStream.flush();
-                    } else {
-                        synchronized (console) {
-                            console.println(line);
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                // Do nothing
-                JCommander.getConsole().println(e.getMessage());
-                e.printStackTrace();
-            }
-        }
-
-        protected void runRead() {
-            try {
-                while (!isShuttingDown.get()) {
-                    if (stream.available() > 0) {
-                        final char c = (char) stream.read();
-                        if (buffer != null) {
-                            buffer.append(c);
-                        } else if (outStream != null) {
-                            outStream.write(c);
-                            outStream.flush();
-                        } else {
-                            synchronized (console) {
-                                console.print(c + "");
-                            }
-                        }
-                    } else {
-                        // Add a small sleep to stop excess resource consumption
-                        Thread.sleep(100);
-                    }
-                }
-            } catch (Exception e) {
-                // Do nothing
-                JCommander.getConsole().println(e.getMessage());
-                e.printStackTrace();
-            }
-        }
-
-        @Override
-        public void shutdown() {
-            this.isShuttingDown.set(true);
-        }
-
-        @Override
-        public boolean isShutdown() {
-            return shutdown.get();
-        }
-    }
-}
\ No newline at end of file
+}
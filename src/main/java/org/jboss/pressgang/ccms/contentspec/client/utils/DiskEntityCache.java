@@ -0,0 +1,273 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A content addressed cache, stored on disk, for entities that never change once they have been created (eg. topic and
+ * content spec revisions). Each key maps to an index file, which references the content by its SHA-1 hash, so
+ * identical content is only ever stored once. Content is evicted on a least recently used basis when the size of the
+ * cache exceeds its budget.
+ */
+public class DiskEntityCache {
+    private static final String INDEX_DIRECTORY_NAME = "index";
+    private static final String OBJECTS_DIRECTORY_NAME = "objects";
+    private static final String CONTENT_PROPERTY = "content";
+    private static final String HEADER_PROPERTY_PREFIX = "header.";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final File indexDirectory;
+    private final File objectsDirectory;
+    private final long maxSize;
+    private long currentSize = -1;
+
+    /**
+     * A cached entity, along with the headers it was returned with.
+     */
+    public static class Entry {
+        private final byte[] content;
+        private final Map<String, String> headers;
+
+        public Entry(final byte[] content, final Map<String, String> headers) {
+            this.content = content;
+            this.headers = headers;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+    }
+
+    /**
+     * @param directory The directory to store the cache in.
+     * @param maxSize   The maximum size in bytes that the cached content can take up on disk.
+     */
+    public DiskEntityCache(final File directory, final long maxSize) {
+        indexDirectory = new File(directory, INDEX_DIRECTORY_NAME);
+        objectsDirectory = new File(directory, OBJECTS_DIRECTORY_NAME);
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get an entity from the cache.
+     *
+     * @param key The unique key for the entity.
+     * @return The cached entity, or null if the entity hasn't been cached or has been evicted.
+     */
+    public synchronized Entry get(final String key) {
+        final File indexFile = getIndexFile(key);
+        if (!indexFile.exists()) return null;
+
+        try {
+            final Properties index = readProperties(indexFile);
+            final String contentHash = index.getProperty(CONTENT_PROPERTY);
+            final File contentFile = contentHash == null ? null : getObjectFile(contentHash);
+            if (contentFile == null || !contentFile.exists()) {
+                // The content has been evicted, so the index is no longer any use
+                indexFile.delete();
+                return null;
+            }
+
+            final byte[] content = FileUtils.readFileToByteArray(contentFile);
+            final Map<String, String> headers = new HashMap<String, String>();
+            for (final String name : index.stringPropertyNames()) {
+                if (name.startsWith(HEADER_PROPERTY_PREFIX)) {
+                    headers.put(name.substring(HEADER_PROPERTY_PREFIX.length()), index.getProperty(name));
+                }
+            }
+
+            // Mark the content as recently used
+            contentFile.setLastModified(System.currentTimeMillis());
+
+            return new Entry(content, headers);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Add an entity to the cache. Failures to write to the cache are ignored, as the entity can always be fetched again.
+     *
+     * @param key     The unique key for the entity.
+     * @param content The entities content.
+     * @param headers Any headers that should be returned with the entity.
+     */
+    public synchronized void put(final String key, final byte[] content, final Map<String, String> headers) {
+        if (content.length > maxSize) return;
+
+        try {
+            final String contentHash = hash(content);
+            final File contentFile = getObjectFile(contentHash);
+            if (contentFile.exists()) {
+                contentFile.setLastModified(System.currentTimeMillis());
+            } else {
+                evict(content.length);
+                writeAtomically(contentFile, content);
+                currentSize += content.length;
+            }
+
+            final Properties index = new Properties();
+            index.setProperty(CONTENT_PROPERTY, contentHash);
+            if (headers != null) {
+                for (final Map.Entry<String, String> header : headers.entrySet()) {
+                    if (header.getValue() != null) {
+                        index.setProperty(HEADER_PROPERTY_PREFIX + header.getKey(), header.getValue());
+                    }
+                }
+            }
+            writeProperties(getIndexFile(key), index);
+        } catch (IOException e) {
+            // Do nothing as the cache is only an optimisation
+        }
+    }
+
+    /**
+     * Remove the least recently used content from the cache until there is enough room for some new content.
+     *
+     * @param requiredSpace The amount of space required for the new content.
+     */
+    protected void evict(final long requiredSpace) {
+        final File[] files = objectsDirectory.listFiles();
+        if (files == null) {
+            currentSize = 0;
+            return;
+        }
+
+        if (currentSize < 0) {
+            currentSize = 0;
+            for (final File file : files) {
+                currentSize += file.length();
+            }
+        }
+
+        if (currentSize + requiredSpace <= maxSize) return;
+
+        // Sort the content so the least recently used is first
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(final File file1, final File file2) {
+                final long lastModified1 = file1.lastModified();
+                final long lastModified2 = file2.lastModified();
+                return lastModified1 < lastModified2 ? -1 : (lastModified1 == lastModified2 ? 0 : 1);
+            }
+        });
+
+        for (final File file : files) {
+            if (currentSize + requiredSpace <= maxSize) break;
+
+            final long length = file.length();
+            if (file.delete()) {
+                currentSize -= length;
+            }
+        }
+    }
+
+    protected File getIndexFile(final String key) {
+        try {
+            return new File(indexDirectory, hash(key.getBytes("UTF-8")));
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    protected File getObjectFile(final String contentHash) {
+        return new File(objectsDirectory, contentHash);
+    }
+
+    private static Properties readProperties(final File file) throws IOException {
+        final Properties properties = new Properties();
+        final InputStream is = new FileInputStream(file);
+        try {
+            properties.load(is);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        return properties;
+    }
+
+    private static void writeProperties(final File file, final Properties properties) throws IOException {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        properties.store(os, null);
+        writeAtomically(file, os.toByteArray());
+    }
+
+    /**
+     * Write a file by first writing to a temporary file and then renaming it, so that other processes using the cache
+     * never see a partially written file.
+     */
+    static void writeAtomically(final File file, final byte[] content) throws IOException {
+        file.getParentFile().mkdirs();
+        final File tempFile = new File(file.getParentFile(), file.getName() + "." + Thread.currentThread().getId() + TEMP_FILE_SUFFIX);
+        final OutputStream os = new FileOutputStream(tempFile);
+        try {
+            os.write(content);
+        } finally {
+            IOUtils.closeQuietly(os);
+        }
+
+        if (!tempFile.renameTo(file)) {
+            // The rename can fail if the file already exists on some platforms, so remove it and try again
+            file.delete();
+            if (!tempFile.renameTo(file)) {
+                tempFile.delete();
+                throw new IOException("Unable to write " + file.getAbsolutePath());
+            }
+        }
+    }
+
+    private static String hash(final byte[] content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+            final StringBuilder retValue = new StringBuilder();
+            for (final byte b : digest) {
+                retValue.append(String.format("%02x", b & 0xff));
+            }
+            return retValue.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jboss.pressgang.ccms.provider.RESTProviderFactory;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTopicV1;
+import org.jboss.pressgang.ccms.utils.structures.Pair;
+
+/**
+ * The topics that have been downloaded from the server, but haven't been added to a topic providers entity cache yet. The
+ * entity cache isn't safe to update from more than one thread, so topics can be downloaded on another thread and then added to
+ * the cache from the thread that uses the provider.
+ */
+public class DownloadedTopics {
+    private final List<RESTTopicV1> latestTopics = Collections.synchronizedList(new ArrayList<RESTTopicV1>());
+    private final List<Pair<RESTTopicV1, Integer>> revisionTopics = Collections.synchronizedList(
+            new ArrayList<Pair<RESTTopicV1, Integer>>());
+
+    /**
+     * Add topics that were downloaded at their latest revision.
+     *
+     * @param topics The downloaded topics.
+     */
+    public void addLatestTopics(final List<RESTTopicV1> topics) {
+        for (final RESTTopicV1 topic : topics) {
+            if (topic != null) {
+                latestTopics.add(topic);
+            }
+        }
+    }
+
+    /**
+     * Add a topic that was downloaded at a specific revision.
+     *
+     * @param topic    The downloaded topic.
+     * @param revision The revision that was requested for the topic.
+     */
+    public void addRevisionTopic(final RESTTopicV1 topic, final Integer revision) {
+        if (topic != null) {
+            revisionTopics.add(new Pair<RESTTopicV1, Integer>(topic, revision));
+        }
+    }
+
+    /**
+     * Add the downloaded topics to the entity cache of a provider factory. This should be called from the thread that uses the
+     * provider factory.
+     *
+     * @param providerFactory The provider factory whose topic provider should cache the topics.
+     */
+    public void addToCache(final RESTProviderFactory providerFactory) {
+        synchronized (latestTopics) {
+            for (final RESTTopicV1 topic : latestTopics) {
+                providerFactory.getRESTManager().getRESTEntityCache().add(topic);
+            }
+        }
+        synchronized (revisionTopics) {
+            for (final Pair<RESTTopicV1, Integer> topicToRevision : revisionTopics) {
+                providerFactory.getRESTManager().getRESTEntityCache().add(topicToRevision.getFirst(), topicToRevision.getSecond());
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.jboss.pressgang.ccms.contentspec.client.exception.ClientExitException;
+
+/**
+ * Handles exiting the application, so that a long running process (ie the daemon) can stop a command from exiting the JVM.
+ */
+public final class ExitHandler {
+    private static volatile boolean trapped = false;
+    private static final List<Runnable> exitTasks = new CopyOnWriteArrayList<Runnable>();
+
+    private ExitHandler() {
+    }
+
+    public static boolean isTrapped() {
+        return trapped;
+    }
+
+    /**
+     * Sets whether calls to {@link #exit(int)} should throw a {@link ClientExitException}, instead of exiting the JVM.
+     *
+     * @param trapped True if exits should be trapped, otherwise false.
+     */
+    public static void setTrapped(final boolean trapped) {
+        ExitHandler.trapped = trapped;
+    }
+
+    /**
+     * Add a task to be run before the JVM is exited, such as reporting on the command that is exiting. The task isn't run when
+     * exits are trapped, as the caller that trapped the exit is left to clean up instead.
+     *
+     * @param task The task to run before exiting.
+     */
+    public static void addExitTask(final Runnable task) {
+        exitTasks.add(task);
+    }
+
+    public static void removeExitTask(final Runnable task) {
+        exitTasks.remove(task);
+    }
+
+    /**
+     * Exits the application with an exit status, unless exits are being trapped.
+     *
+     * @param exitStatus The exit status to exit with.
+     */
+    public static void exit(final int exitStatus) {
+        if (trapped) {
+            throw new ClientExitException(exitStatus);
+        } else {
+            for (final Runnable task : exitTasks) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // Do nothing as the application is exiting anyway
+                }
+            }
+            System.exit(exitStatus);
+        }
+    }
+}
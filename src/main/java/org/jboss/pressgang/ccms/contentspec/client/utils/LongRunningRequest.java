@@ -0,0 +1,155 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A request to the server that may take a while to complete (eg. saving a content spec), which is run on a shared executor so
+ * the caller can wait for the result with a timeout instead of polling. Requests that are still running can be cancelled when
+ * the application is shutting down.
+ *
+ * @param <T> The type of result returned by the request.
+ */
+public class LongRunningRequest<T> {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger(0);
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new RequestThreadFactory());
+    private static final Set<LongRunningRequest<?>> ACTIVE_REQUESTS = Collections.synchronizedSet(new HashSet<LongRunningRequest<?>>());
+
+    private final FutureTask<T> task;
+    private final long startTime;
+    private volatile long endTime = -1;
+
+    private LongRunningRequest(final FutureTask<T> task) {
+        this.task = task;
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Start running a request.
+     *
+     * @param task The task that sends the request to the server.
+     * @param <T>  The type of result returned by the request.
+     * @return The running request.
+     */
+    public static <T> LongRunningRequest<T> submit(final FutureTask<T> task) {
+        final LongRunningRequest<T> request = new LongRunningRequest<T>(task);
+        ACTIVE_REQUESTS.add(request);
+        EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                request.run();
+            }
+        });
+        return request;
+    }
+
+    /**
+     * Cancel all the requests that are still running, so that anything waiting on them is released.
+     */
+    public static void cancelAll() {
+        synchronized (ACTIVE_REQUESTS) {
+            for (final LongRunningRequest<?> request : ACTIVE_REQUESTS) {
+                request.task.cancel(true);
+            }
+        }
+    }
+
+    protected void run() {
+        try {
+            task.run();
+        } finally {
+            endTime = System.currentTimeMillis();
+            ACTIVE_REQUESTS.remove(this);
+        }
+    }
+
+    /**
+     * Wait for the request to complete.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return The result of the request.
+     * @throws ExecutionException   Thrown if the request failed.
+     * @throws InterruptedException Thrown if the current thread was interrupted while waiting.
+     * @throws TimeoutException     Thrown if the request didn't complete in time.
+     * @throws java.util.concurrent.CancellationException Thrown if the request was cancelled.
+     */
+    public T get(final long timeout, final TimeUnit unit) throws ExecutionException, InterruptedException, TimeoutException {
+        return task.get(timeout, unit);
+    }
+
+    /**
+     * Wait for the request to complete, passing on any failure from the request.
+     *
+     * @return The result of the request.
+     * @throws java.util.concurrent.CancellationException Thrown if the request was cancelled.
+     */
+    public T waitFor() {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new RuntimeException(e.getCause());
+            }
+        } catch (InterruptedException e) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    public boolean cancel() {
+        return task.cancel(true);
+    }
+
+    public boolean isDone() {
+        return task.isDone();
+    }
+
+    /**
+     * @return The time in milliseconds the request took to complete, or has been running for if it hasn't completed yet.
+     */
+    public long getElapsedTime() {
+        return (endTime == -1 ? System.currentTimeMillis() : endTime) - startTime;
+    }
+
+    private static class RequestThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "csprocessor-request-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded engine for running a set of fetch requests in parallel. The number of requests in flight is limited both
+ * overall and for each host the requests are sent to, so that a large download doesn't swamp the server.
+ */
+public class ParallelFetcher {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger(0);
+
+    private final int concurrency;
+    private final int maxConnectionsPerHost;
+    private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<String, Semaphore>();
+
+    /**
+     * A listener that is notified, on the calling thread, each time a fetch request completes.
+     *
+     * @param <T> The type of result returned by the fetch requests.
+     */
+    public static interface FetchListener<T> {
+        void onFetched(T result, int completed, int total);
+    }
+
+    /**
+     * @param concurrency           The maximum number of requests to run at the same time. A value of 1 or less will run the
+     *                              requests sequentially on the calling thread.
+     * @param maxConnectionsPerHost The maximum number of requests that can be sent to a single host at the same time.
+     */
+    public ParallelFetcher(final int concurrency, final int maxConnectionsPerHost) {
+        this.concurrency = Math.max(1, concurrency);
+        this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * Run a set of fetch requests against a host, returning the results in the order the requests were passed.
+     *
+     * @param host     The host the requests will be sent to, or null if the requests shouldn't be limited per host.
+     * @param requests The requests to be run.
+     * @param listener A listener to be notified as each request completes, or null if no notifications are required.
+     * @param <T>      The type of result returned by the fetch requests.
+     * @return The results of the requests.
+     */
+    public <T> List<T> fetchAll(final String host, final List<? extends Callable<T>> requests, final FetchListener<T> listener) {
+        final int total = requests.size();
+        final List<T> results = new ArrayList<T>(total);
+        for (int i = 0; i < total; i++) {
+            results.add(null);
+        }
+
+        final int threads = Math.min(concurrency, total);
+        if (threads <= 1) {
+            // Nothing to gain by using another thread, so just do the requests in order
+            int completed = 0;
+            for (int i = 0; i < total; i++) {
+                final T result = call(requests.get(i));
+                results.set(i, result);
+                if (listener != null) {
+                    listener.onFetched(result, ++completed, total);
+                }
+            }
+        } else {
+            final Semaphore permits = host == null ? null : getHostPermits(host);
+            final ExecutorService executor = Executors.newFixedThreadPool(threads, new FetcherThreadFactory());
+            try {
+                final CompletionService<IndexedResult<T>> completionService = new ExecutorCompletionService<IndexedResult<T>>(executor);
+                for (int i = 0; i < total; i++) {
+                    completionService.submit(new PermittedRequest<T>(i, requests.get(i), permits));
+                }
+
+                for (int completed = 1; completed <= total; completed++) {
+                    final IndexedResult<T> result = waitForResult(completionService.take());
+                    results.set(result.index, result.value);
+                    if (listener != null) {
+                        listener.onFetched(result.value, completed, total);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        return results;
+    }
+
+    protected Semaphore getHostPermits(final String host) {
+        final Semaphore permits = new Semaphore(maxConnectionsPerHost, true);
+        final Semaphore existingPermits = hostPermits.putIfAbsent(host, permits);
+        return existingPermits == null ? permits : existingPermits;
+    }
+
+    private static <T> T call(final Callable<T> request) {
+        try {
+            return request.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static <T> T waitForResult(final Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    private static class IndexedResult<T> {
+        private final int index;
+        private final T value;
+
+        private IndexedResult(final int index, final T value) {
+            this.index = index;
+            this.value = value;
+        }
+    }
+
+    private static class PermittedRequest<T> implements Callable<IndexedResult<T>> {
+        private final int index;
+        private final Callable<T> request;
+        private final Semaphore permits;
+
+        private PermittedRequest(final int index, final Callable<T> request, final Semaphore permits) {
+            this.index = index;
+            this.request = request;
+            this.permits = permits;
+        }
+
+        @Override
+        public IndexedResult<T> call() throws Exception {
+            if (permits != null) {
+                permits.acquire();
+            }
+            try {
+                return new IndexedResult<T>(index, request.call());
+            } finally {
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        }
+    }
+
+    private static class FetcherThreadFactory implements ThreadFactory {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "csprocessor-fetcher-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
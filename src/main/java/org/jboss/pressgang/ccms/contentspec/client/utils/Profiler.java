@@ -0,0 +1,329 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.codehaus.jackson.map.ObjectMapper;
+
+/**
+ * Records how long each phase of a command takes, so the time spent by slow commands can be broken down. Nothing is recorded
+ * unless profiling has been enabled, so the timers can be left in the hot paths. The recording is shared by the whole process,
+ * so only one command can be profiled at a time (see {@link #begin(boolean)}).
+ */
+public final class Profiler {
+    public static final String CONFIG_LOAD = "Config load";
+    public static final String SERVER_CHECK = "Server check";
+    public static final String VERSION_CHECK = "Version check";
+    public static final String COMMAND = "Command";
+    public static final String SPEC_FETCH = "Content spec fetch";
+    public static final String PARSE = "Parse";
+    public static final String FIRST_VALIDATION_PASS = "Validation (first pass)";
+    public static final String SECOND_VALIDATION_PASS = "Validation (second pass)";
+    public static final String TOPIC_DOWNLOAD = "Topic download";
+    public static final String TOPIC_DOWNLOAD_REQUEST = "Topic download request";
+    public static final String BUILD = "Build";
+    public static final String ZIP_WRITE = "Zip write";
+    public static final String UNZIP = "Unzip";
+    public static final String PUBLICAN = "Publican run";
+    public static final String MAVEN = "Maven run";
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<String, Phase> phases = new LinkedHashMap<String, Phase>();
+    private static final Set<Timer> runningTimers = Collections.synchronizedSet(new HashSet<Timer>());
+    private static final AtomicBoolean inUse = new AtomicBoolean(false);
+    private static volatile boolean enabled = false;
+
+    private Profiler() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(final boolean enabled) {
+        Profiler.enabled = enabled;
+    }
+
+    /**
+     * Start recording a command, unless another command is already being recorded.
+     *
+     * @param enabled Whether the time spent in each phase should be recorded.
+     * @return True if the recording was started, or false if another command is already being recorded.
+     */
+    public static boolean begin(final boolean enabled) {
+        if (!inUse.compareAndSet(false, true)) return false;
+
+        reset();
+        setEnabled(enabled);
+        return true;
+    }
+
+    /**
+     * Stop recording the command that was started with {@link #begin(boolean)}, so that another command can be recorded.
+     */
+    public static void end() {
+        setEnabled(false);
+        runningTimers.clear();
+        inUse.set(false);
+    }
+
+    /**
+     * Stop any timers that are still running, so that the phases they are timing are included in what has been recorded (eg.
+     * when the command is exiting part way through a phase).
+     */
+    public static void stopRunningTimers() {
+        final List<Timer> timers;
+        synchronized (runningTimers) {
+            timers = new ArrayList<Timer>(runningTimers);
+        }
+        for (final Timer timer : timers) {
+            timer.stop();
+        }
+    }
+
+    /**
+     * Remove everything that has been recorded so far.
+     */
+    public static void reset() {
+        synchronized (phases) {
+            phases.clear();
+        }
+    }
+
+    /**
+     * Start timing a phase. The phase is recorded when the returned timer is stopped.
+     *
+     * @param phase The name of the phase being timed.
+     * @return The running timer.
+     */
+    public static Timer start(final String phase) {
+        if (!enabled) return new Timer(phase, -1);
+
+        final Timer timer = new Timer(phase, System.nanoTime());
+        runningTimers.add(timer);
+        return timer;
+    }
+
+    /**
+     * Record a single run of a phase.
+     *
+     * @param phase    The name of the phase that was run.
+     * @param duration The time the phase took in nanoseconds.
+     * @param items    The number of items (eg. topics) processed by the phase.
+     * @param bytes    The number of bytes processed by the phase.
+     */
+    public static void record(final String phase, final long duration, final long items, final long bytes) {
+        if (!enabled) return;
+
+        synchronized (phases) {
+            Phase existingPhase = phases.get(phase);
+            if (existingPhase == null) {
+                existingPhase = new Phase(phase);
+                phases.put(phase, existingPhase);
+            }
+            existingPhase.add(duration, items, bytes);
+        }
+    }
+
+    /**
+     * Get everything that has been recorded, in the order that each phase was first run.
+     */
+    public static List<Phase> getPhases() {
+        synchronized (phases) {
+            final List<Phase> retValue = new ArrayList<Phase>();
+            for (final Phase phase : phases.values()) {
+                retValue.add(phase.copy());
+            }
+            return retValue;
+        }
+    }
+
+    /**
+     * Format everything that has been recorded as a table that can be printed to the console.
+     */
+    public static String formatTable() {
+        final String format = "%-26s %6s %10s %10s %10s %10s %10s %10s %8s %12s%n";
+        final StringBuilder retValue = new StringBuilder(String.format(format, "Phase", "Calls", "Total(ms)", "Mean(ms)", "p50(ms)",
+                "p90(ms)", "p99(ms)", "Max(ms)", "Items", "Bytes"));
+        for (final Phase phase : getPhases()) {
+            retValue.append(String.format(format, phase.getName(), phase.getCount(), toMillis(phase.getTotalTime()),
+                    toMillis(phase.getTotalTime() / phase.getCount()), toMillis(phase.getPercentile(50)),
+                    toMillis(phase.getPercentile(90)), toMillis(phase.getPercentile(99)), toMillis(phase.getMaxTime()),
+                    phase.getItems(), phase.getBytes()));
+        }
+        return retValue.toString();
+    }
+
+    /**
+     * Write everything that has been recorded to a file as JSON.
+     *
+     * @param file The file to write to.
+     * @throws IOException Thrown if the file can't be written.
+     */
+    public static void writeJSON(final File file) throws IOException {
+        final List<Map<String, Object>> json = new ArrayList<Map<String, Object>>();
+        for (final Phase phase : getPhases()) {
+            final Map<String, Object> jsonPhase = new LinkedHashMap<String, Object>();
+            jsonPhase.put("name", phase.getName());
+            jsonPhase.put("calls", phase.getCount());
+            jsonPhase.put("totalMs", toMillis(phase.getTotalTime()));
+            jsonPhase.put("meanMs", toMillis(phase.getTotalTime() / phase.getCount()));
+            jsonPhase.put("p50Ms", toMillis(phase.getPercentile(50)));
+            jsonPhase.put("p90Ms", toMillis(phase.getPercentile(90)));
+            jsonPhase.put("p99Ms", toMillis(phase.getPercentile(99)));
+            jsonPhase.put("minMs", toMillis(phase.getMinTime()));
+            jsonPhase.put("maxMs", toMillis(phase.getMaxTime()));
+            jsonPhase.put("items", phase.getItems());
+            jsonPhase.put("bytes", phase.getBytes());
+            json.add(jsonPhase);
+        }
+
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        MAPPER.writeValue(file, Collections.singletonMap("phases", json));
+    }
+
+    private static long toMillis(final long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * A running timer for a phase.
+     */
+    public static class Timer {
+        private final String phase;
+        private final long startTime;
+        private final AtomicBoolean stopped = new AtomicBoolean(false);
+
+        private Timer(final String phase, final long startTime) {
+            this.phase = phase;
+            this.startTime = startTime;
+        }
+
+        public void stop() {
+            stop(0, 0);
+        }
+
+        /**
+         * Stop the timer and record the phase. Stopping a timer that has already been stopped does nothing.
+         *
+         * @param items The number of items (eg. topics) processed by the phase.
+         * @param bytes The number of bytes processed by the phase.
+         */
+        public void stop(final long items, final long bytes) {
+            if (startTime >= 0 && stopped.compareAndSet(false, true)) {
+                runningTimers.remove(this);
+                record(phase, System.nanoTime() - startTime, items, bytes);
+            }
+        }
+    }
+
+    /**
+     * The times recorded for a single phase.
+     */
+    public static class Phase {
+        private final String name;
+        private final List<Long> durations;
+        private long totalTime = 0;
+        private long items = 0;
+        private long bytes = 0;
+
+        private Phase(final String name) {
+            this(name, new ArrayList<Long>());
+        }
+
+        private Phase(final String name, final List<Long> durations) {
+            this.name = name;
+            this.durations = durations;
+        }
+
+        private void add(final long duration, final long items, final long bytes) {
+            durations.add(duration);
+            totalTime += duration;
+            this.items += items;
+            this.bytes += bytes;
+        }
+
+        private Phase copy() {
+            final Phase retValue = new Phase(name, new ArrayList<Long>(durations));
+            retValue.totalTime = totalTime;
+            retValue.items = items;
+            retValue.bytes = bytes;
+            return retValue;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return durations.size();
+        }
+
+        public long getTotalTime() {
+            return totalTime;
+        }
+
+        public long getMinTime() {
+            return durations.isEmpty() ? 0 : Collections.min(durations);
+        }
+
+        public long getMaxTime() {
+            return durations.isEmpty() ? 0 : Collections.max(durations);
+        }
+
+        /**
+         * Get a percentile of the time a single run of the phase took, using the nearest rank.
+         *
+         * @param percentile The percentile to get, between 0 and 100.
+         * @return The time in nanoseconds.
+         */
+        public long getPercentile(final double percentile) {
+            if (durations.isEmpty()) return 0;
+
+            final List<Long> sortedDurations = new ArrayList<Long>(durations);
+            Collections.sort(sortedDurations);
+            final int rank = (int) Math.ceil(percentile / 100.0 * sortedDurations.size());
+            return sortedDurations.get(Math.min(sortedDurations.size() - 1, Math.max(0, rank - 1)));
+        }
+
+        public long getItems() {
+            return items;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+}
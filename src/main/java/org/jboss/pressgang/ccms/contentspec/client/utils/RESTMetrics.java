@@ -0,0 +1,296 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * Records the REST calls made to the server, grouped by the HTTP method and path template of each endpoint. The latency of
+ * each endpoint is kept in a fixed set of histogram buckets, so recording a call only updates a few atomic counters and can
+ * be left on for every command.
+ */
+public class RESTMetrics {
+    /**
+     * The upper bounds of the latency buckets in milliseconds. Anything slower is counted in an extra overflow bucket.
+     */
+    static final long[] BUCKET_BOUNDS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+    private static final String METRIC_PREFIX = "csprocessor_rest_";
+    // Numeric path segments are ids or revisions, except for the REST API version
+    private static final Pattern ID_SEGMENT_PATTERN = Pattern.compile("(?<!/rest)/\\d+(?=/|$)");
+    private static final Pattern MATRIX_PARAM_PATTERN = Pattern.compile(";[^/]*");
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<String, Endpoint>();
+
+    /**
+     * Convert the path of a request into a template, by removing the query string and matrix parameters and replacing any ids
+     * or revisions, so that requests for different entities from the same endpoint are grouped together. This means calls
+     * made once per entity, instead of once for a whole collection, show up as a single endpoint with a high call count.
+     *
+     * @param path The path of the request.
+     * @return The path template for the request.
+     */
+    public static String getPathTemplate(final String path) {
+        if (path == null || path.isEmpty()) return "/";
+
+        final int queryIndex = path.indexOf('?');
+        final String fixedPath = queryIndex == -1 ? path : path.substring(0, queryIndex);
+        return ID_SEGMENT_PATTERN.matcher(MATRIX_PARAM_PATTERN.matcher(fixedPath).replaceAll("")).replaceAll("/{id}");
+    }
+
+    /**
+     * Record a single REST call.
+     *
+     * @param method   The HTTP method of the call.
+     * @param path     The path of the call, which will be converted to a template.
+     * @param status   The HTTP status returned, or -1 if no response was received.
+     * @param bytes    The size of the response body in bytes, or -1 if it isn't known.
+     * @param duration The time the call took in milliseconds.
+     */
+    public void record(final String method, final String path, final int status, final long bytes, final long duration) {
+        final String template = getPathTemplate(path);
+        final String key = method + " " + template;
+        Endpoint endpoint = endpoints.get(key);
+        if (endpoint == null) {
+            final Endpoint newEndpoint = new Endpoint(method, template);
+            endpoint = endpoints.putIfAbsent(key, newEndpoint);
+            if (endpoint == null) {
+                endpoint = newEndpoint;
+            }
+        }
+        endpoint.add(status, bytes, duration);
+    }
+
+    /**
+     * Remove everything that has been recorded so far.
+     */
+    public void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * Get the endpoints that have been called, with the endpoints that were called the most first.
+     */
+    public List<Endpoint> getEndpoints() {
+        final List<Endpoint> retValue = new ArrayList<Endpoint>(endpoints.values());
+        Collections.sort(retValue, new Comparator<Endpoint>() {
+            @Override
+            public int compare(final Endpoint endpoint1, final Endpoint endpoint2) {
+                final long count1 = endpoint1.getCount();
+                final long count2 = endpoint2.getCount();
+                if (count1 != count2) {
+                    return count1 > count2 ? -1 : 1;
+                } else {
+                    return endpoint1.getPath().compareTo(endpoint2.getPath());
+                }
+            }
+        });
+        return retValue;
+    }
+
+    /**
+     * Format the endpoints that have been called as a table that can be printed to the console.
+     */
+    public String formatTable() {
+        final String format = "%-6s %-60s %6s %6s %10s %10s %10s %12s%n";
+        final StringBuilder retValue = new StringBuilder(String.format(format, "Method", "Path", "Calls", "Errors", "p50(ms)",
+                "p90(ms)", "p99(ms)", "Bytes"));
+        for (final Endpoint endpoint : getEndpoints()) {
+            retValue.append(String.format(format, endpoint.getMethod(), endpoint.getPath(), endpoint.getCount(),
+                    endpoint.getErrorCount(), formatBound(endpoint.getPercentile(50)), formatBound(endpoint.getPercentile(90)),
+                    formatBound(endpoint.getPercentile(99)), endpoint.getBytes()));
+        }
+        return retValue.toString();
+    }
+
+    /**
+     * Export the endpoints that have been called in the Prometheus text format, so that they can be scraped or compared
+     * between runs.
+     */
+    public String toPrometheusText() {
+        final StringBuilder retValue = new StringBuilder();
+        final List<Endpoint> endpoints = getEndpoints();
+
+        retValue.append("# HELP ").append(METRIC_PREFIX).append("requests_total The number of REST calls made.\n");
+        retValue.append("# TYPE ").append(METRIC_PREFIX).append("requests_total counter\n");
+        for (final Endpoint endpoint : endpoints) {
+            for (final Map.Entry<Integer, AtomicLong> status : endpoint.getStatusCounts().entrySet()) {
+                retValue.append(METRIC_PREFIX).append("requests_total{").append(getLabels(endpoint)).append(",status=\"").append(
+                        status.getKey()).append("\"} ").append(status.getValue().get()).append("\n");
+            }
+        }
+
+        retValue.append("# HELP ").append(METRIC_PREFIX).append("response_bytes_total The size of the REST responses received.\n");
+        retValue.append("# TYPE ").append(METRIC_PREFIX).append("response_bytes_total counter\n");
+        for (final Endpoint endpoint : endpoints) {
+            retValue.append(METRIC_PREFIX).append("response_bytes_total{").append(getLabels(endpoint)).append("} ").append(
+                    endpoint.getBytes()).append("\n");
+        }
+
+        retValue.append("# HELP ").append(METRIC_PREFIX).append("request_duration_seconds The time taken by REST calls.\n");
+        retValue.append("# TYPE ").append(METRIC_PREFIX).append("request_duration_seconds histogram\n");
+        for (final Endpoint endpoint : endpoints) {
+            final String labels = getLabels(endpoint);
+            long cumulativeCount = 0;
+            for (int i = 0; i <= BUCKET_BOUNDS.length; i++) {
+                cumulativeCount += endpoint.getBucketCount(i);
+                final String bound = i == BUCKET_BOUNDS.length ? "+Inf" : Double.toString(BUCKET_BOUNDS[i] / 1000.0);
+                retValue.append(METRIC_PREFIX).append("request_duration_seconds_bucket{").append(labels).append(",le=\"").append(
+                        bound).append("\"} ").append(cumulativeCount).append("\n");
+            }
+            retValue.append(METRIC_PREFIX).append("request_duration_seconds_sum{").append(labels).append("} ").append(
+                    endpoint.getTotalTime() / 1000.0).append("\n");
+            retValue.append(METRIC_PREFIX).append("request_duration_seconds_count{").append(labels).append("} ").append(
+                    cumulativeCount).append("\n");
+        }
+
+        return retValue.toString();
+    }
+
+    private static String getLabels(final Endpoint endpoint) {
+        return "method=\"" + escapeLabel(endpoint.getMethod()) + "\",path=\"" + escapeLabel(endpoint.getPath()) + "\"";
+    }
+
+    private static String escapeLabel(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String formatBound(final long bound) {
+        return bound < 0 ? ">" + BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1] : ("<=" + bound);
+    }
+
+    /**
+     * The calls made to a single endpoint.
+     */
+    public static class Endpoint {
+        private final String method;
+        private final String path;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+        private final ConcurrentMap<Integer, AtomicLong> statusCounts = new ConcurrentHashMap<Integer, AtomicLong>();
+        private final AtomicLong count = new AtomicLong(0);
+        private final AtomicLong errorCount = new AtomicLong(0);
+        private final AtomicLong bytes = new AtomicLong(0);
+        private final AtomicLong totalTime = new AtomicLong(0);
+
+        private Endpoint(final String method, final String path) {
+            this.method = method;
+            this.path = path;
+        }
+
+        private void add(final int status, final long bytes, final long duration) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS.length && duration > BUCKET_BOUNDS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+
+            AtomicLong statusCount = statusCounts.get(status);
+            if (statusCount == null) {
+                final AtomicLong newStatusCount = new AtomicLong(0);
+                statusCount = statusCounts.putIfAbsent(status, newStatusCount);
+                if (statusCount == null) {
+                    statusCount = newStatusCount;
+                }
+            }
+            statusCount.incrementAndGet();
+
+            count.incrementAndGet();
+            if (status < 200 || status >= 400) {
+                errorCount.incrementAndGet();
+            }
+            if (bytes > 0) {
+                this.bytes.addAndGet(bytes);
+            }
+            totalTime.addAndGet(duration);
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        /**
+         * Get the number of calls that failed, either because no response was received or the response wasn't successful.
+         */
+        public long getErrorCount() {
+            return errorCount.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+
+        /**
+         * Get the total time taken by the calls in milliseconds.
+         */
+        public long getTotalTime() {
+            return totalTime.get();
+        }
+
+        public Map<Integer, AtomicLong> getStatusCounts() {
+            return Collections.unmodifiableMap(statusCounts);
+        }
+
+        long getBucketCount(final int bucket) {
+            return buckets.get(bucket);
+        }
+
+        /**
+         * Get the upper bound of the bucket that a percentile of the calls fall into.
+         *
+         * @param percentile The percentile to get, between 0 and 100.
+         * @return The upper bound of the bucket in milliseconds, or -1 if the percentile is slower than the largest bucket.
+         */
+        public long getPercentile(final double percentile) {
+            long total = 0;
+            for (int i = 0; i <= BUCKET_BOUNDS.length; i++) {
+                total += buckets.get(i);
+            }
+            if (total == 0) return 0;
+
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+            long cumulativeCount = 0;
+            for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+                cumulativeCount += buckets.get(i);
+                if (cumulativeCount >= rank) {
+                    return BUCKET_BOUNDS[i];
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A record of the servers that have recently been checked to exist and accept this version of the client, so that commands
+ * run shortly after each other don't have to check the server again. The record is kept in memory and, if a file is
+ * provided, persisted between runs. Each server is keyed by its URL and the client version, so an upgraded client always
+ * checks the server again.
+ */
+public class ServerVerificationCache {
+    private static final String SEPARATOR = "@";
+
+    private final File file;
+    private final long maxAge;
+    private final Properties verifications = new Properties();
+    private boolean loaded = false;
+
+    /**
+     * @param file   The file to persist the record to, or null if it should only be kept in memory.
+     * @param maxAge The maximum age in milliseconds of a verification before the server has to be checked again.
+     */
+    public ServerVerificationCache(final File file, final long maxAge) {
+        this.file = file;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Check if a server has been verified recently.
+     *
+     * @param serverUrl     The URL of the server.
+     * @param clientVersion The version of the client the server was verified for.
+     * @return True if the server was verified within the maximum age, otherwise false.
+     */
+    public synchronized boolean isVerified(final String serverUrl, final String clientVersion) {
+        if (maxAge <= 0) return false;
+        load();
+
+        final String timestamp = verifications.getProperty(getKey(serverUrl, clientVersion));
+        if (timestamp == null) return false;
+
+        try {
+            final long age = System.currentTimeMillis() - Long.parseLong(timestamp);
+            return age >= 0 && age <= maxAge;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Record that a server exists and accepts a version of the client.
+     *
+     * @param serverUrl     The URL of the server.
+     * @param clientVersion The version of the client the server was verified for.
+     */
+    public synchronized void setVerified(final String serverUrl, final String clientVersion) {
+        if (maxAge <= 0) return;
+        load();
+
+        verifications.setProperty(getKey(serverUrl, clientVersion), Long.toString(System.currentTimeMillis()));
+        save();
+    }
+
+    /**
+     * Remove any record of a server being verified, so that it is checked again the next time it is used.
+     *
+     * @param serverUrl The URL of the server.
+     */
+    public synchronized void invalidate(final String serverUrl) {
+        load();
+
+        boolean changed = false;
+        for (final String key : verifications.stringPropertyNames()) {
+            if (key.endsWith(SEPARATOR + serverUrl)) {
+                verifications.remove(key);
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            save();
+        }
+    }
+
+    private static String getKey(final String serverUrl, final String clientVersion) {
+        return clientVersion + SEPARATOR + serverUrl;
+    }
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+
+        if (file == null || !file.exists()) return;
+
+        InputStream is = null;
+        try {
+            is = new FileInputStream(file);
+            verifications.load(is);
+        } catch (IOException e) {
+            // Do nothing as the servers will just be checked again
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    private void save() {
+        if (file == null) return;
+
+        try {
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            verifications.store(os, null);
+            DiskEntityCache.writeAtomically(file, os.toByteArray());
+        } catch (IOException e) {
+            // Do nothing as the servers will just be checked again
+        }
+    }
+}
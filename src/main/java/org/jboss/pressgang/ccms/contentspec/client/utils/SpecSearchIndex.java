@@ -0,0 +1,369 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A local inverted index of content spec metadata (title, product, version and creator), so that searches can be answered
+ * without querying the server. Each word in the metadata is indexed, and searches match words by prefix. Results are
+ * ranked by which fields the search words matched, and if the words matched exactly.
+ */
+public class SpecSearchIndex {
+    private static final String LAST_REFRESH_PROPERTY = "lastRefresh";
+    private static final String LAST_FULL_REFRESH_PROPERTY = "lastFullRefresh";
+    private static final String FORMAT_PROPERTY = "format";
+    private static final String FORMAT = "2";
+    private static final String SPEC_PROPERTY_PREFIX = "spec.";
+    private static final String TITLE_PROPERTY = ".title";
+    private static final String PRODUCT_PROPERTY = ".product";
+    private static final String VERSION_PROPERTY = ".version";
+    private static final String ADDED_BY_PROPERTY = ".addedBy";
+    private static final String LAST_MODIFIED_PROPERTY = ".lastModified";
+
+    private static final int TITLE_WEIGHT = 4;
+    private static final int PRODUCT_WEIGHT = 2;
+    private static final int VERSION_WEIGHT = 2;
+    private static final int CREATOR_WEIGHT = 1;
+    private static final int EXACT_MATCH_MULTIPLIER = 2;
+
+    private final File file;
+    private final Map<Integer, Entry> entries = new HashMap<Integer, Entry>();
+    private final TreeMap<String, Map<Integer, Integer>> index = new TreeMap<String, Map<Integer, Integer>>();
+    private long lastRefresh = 0L;
+    private long lastFullRefresh = 0L;
+
+    /**
+     * The metadata for a single content spec in the index.
+     */
+    public static class Entry {
+        private final Integer id;
+        private final String title;
+        private final String product;
+        private final String version;
+        private final String addedBy;
+        private final Date lastModified;
+
+        public Entry(final Integer id, final String title, final String product, final String version, final String addedBy,
+                final Date lastModified) {
+            this.id = id;
+            this.title = title;
+            this.product = product;
+            this.version = version;
+            this.addedBy = addedBy;
+            this.lastModified = lastModified;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getProduct() {
+            return product;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getAddedBy() {
+            return addedBy;
+        }
+
+        public Date getLastModified() {
+            return lastModified;
+        }
+    }
+
+    /**
+     * @param file The file the index is saved to, or null if the index should only be kept in memory.
+     */
+    public SpecSearchIndex(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return The time the index was last brought up to date with the server.
+     */
+    public long getLastRefresh() {
+        return lastRefresh;
+    }
+
+    public void setLastRefresh(final long lastRefresh) {
+        this.lastRefresh = lastRefresh;
+    }
+
+    /**
+     * @return The time the index was last completely rebuilt from the server.
+     */
+    public long getLastFullRefresh() {
+        return lastFullRefresh;
+    }
+
+    public void setLastFullRefresh(final long lastFullRefresh) {
+        this.lastFullRefresh = lastFullRefresh;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove all the content specs from the index.
+     */
+    public void clear() {
+        entries.clear();
+        index.clear();
+    }
+
+    /**
+     * Add a content spec to the index, replacing any older metadata for the content spec.
+     *
+     * @param entry The metadata for the content spec.
+     */
+    public void update(final Entry entry) {
+        final Entry existingEntry = entries.put(entry.getId(), entry);
+        if (existingEntry != null) {
+            removeFromIndex(existingEntry);
+        }
+
+        addToIndex(entry.getId(), entry.getTitle(), TITLE_WEIGHT);
+        addToIndex(entry.getId(), entry.getProduct(), PRODUCT_WEIGHT);
+        addToIndex(entry.getId(), entry.getVersion(), VERSION_WEIGHT);
+        addToIndex(entry.getId(), entry.getAddedBy(), CREATOR_WEIGHT);
+    }
+
+    /**
+     * Search the index for the content specs that match every word in some search text.
+     *
+     * @param searchText The text to search for.
+     * @return The matching content specs, with the best matches first.
+     */
+    public List<Entry> search(final String searchText) {
+        final Set<String> searchTokens = tokenize(searchText);
+        if (searchTokens.isEmpty()) return new ArrayList<Entry>();
+
+        Map<Integer, Integer> scores = null;
+        for (final String searchToken : searchTokens) {
+            // Find every content spec that has a word starting with the search word
+            final Map<Integer, Integer> tokenScores = new HashMap<Integer, Integer>();
+            final SortedMap<String, Map<Integer, Integer>> matches = index.subMap(searchToken, searchToken + Character.MAX_VALUE);
+            for (final Map.Entry<String, Map<Integer, Integer>> match : matches.entrySet()) {
+                final int multiplier = match.getKey().equals(searchToken) ? EXACT_MATCH_MULTIPLIER : 1;
+                for (final Map.Entry<Integer, Integer> weight : match.getValue().entrySet()) {
+                    final Integer score = tokenScores.get(weight.getKey());
+                    tokenScores.put(weight.getKey(), (score == null ? 0 : score) + weight.getValue() * multiplier);
+                }
+            }
+
+            // Only keep the content specs that matched all of the search words
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                final Map<Integer, Integer> combinedScores = new HashMap<Integer, Integer>();
+                for (final Map.Entry<Integer, Integer> score : scores.entrySet()) {
+                    if (tokenScores.containsKey(score.getKey())) {
+                        combinedScores.put(score.getKey(), score.getValue() + tokenScores.get(score.getKey()));
+                    }
+                }
+                scores = combinedScores;
+            }
+
+            if (scores.isEmpty()) break;
+        }
+
+        final Map<Integer, Integer> finalScores = scores;
+        final List<Integer> ids = new ArrayList<Integer>(finalScores.keySet());
+        Collections.sort(ids, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer id1, final Integer id2) {
+                final int scoreCompare = finalScores.get(id2).compareTo(finalScores.get(id1));
+                return scoreCompare == 0 ? id1.compareTo(id2) : scoreCompare;
+            }
+        });
+
+        final List<Entry> retValue = new ArrayList<Entry>();
+        for (final Integer id : ids) {
+            retValue.add(entries.get(id));
+        }
+        return retValue;
+    }
+
+    /**
+     * Load the index from its file.
+     *
+     * @return True if the index was loaded, otherwise false if it doesn't exist or couldn't be read.
+     */
+    public boolean load() {
+        if (file == null || !file.exists()) return false;
+
+        final Properties properties = new Properties();
+        InputStream is = null;
+        try {
+            is = new FileInputStream(file);
+            properties.load(is);
+        } catch (IOException e) {
+            return false;
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+
+        // Indexes saved in an older format have to be rebuilt
+        if (!FORMAT.equals(properties.getProperty(FORMAT_PROPERTY))) return false;
+
+        clear();
+        try {
+            lastRefresh = Long.parseLong(properties.getProperty(LAST_REFRESH_PROPERTY, "0"));
+            lastFullRefresh = Long.parseLong(properties.getProperty(LAST_FULL_REFRESH_PROPERTY, "0"));
+            for (final String name : properties.stringPropertyNames()) {
+                if (name.startsWith(SPEC_PROPERTY_PREFIX) && name.endsWith(TITLE_PROPERTY)) {
+                    final String prefix = name.substring(0, name.length() - TITLE_PROPERTY.length());
+                    final Integer id = Integer.parseInt(prefix.substring(SPEC_PROPERTY_PREFIX.length()));
+                    final String lastModified = getRequiredProperty(properties, prefix + LAST_MODIFIED_PROPERTY);
+                    update(new Entry(id, emptyToNull(getRequiredProperty(properties, name)),
+                            emptyToNull(getRequiredProperty(properties, prefix + PRODUCT_PROPERTY)),
+                            emptyToNull(getRequiredProperty(properties, prefix + VERSION_PROPERTY)),
+                            emptyToNull(getRequiredProperty(properties, prefix + ADDED_BY_PROPERTY)),
+                            lastModified.isEmpty() ? null : new Date(Long.parseLong(lastModified))));
+                }
+            }
+        } catch (RuntimeException e) {
+            // The index is corrupt, so it will need to be rebuilt
+            clear();
+            lastRefresh = 0L;
+            lastFullRefresh = 0L;
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Save the index to its file. Failures to save the index are ignored, as it can always be rebuilt.
+     */
+    public void save() {
+        if (file == null) return;
+
+        final Properties properties = new Properties();
+        properties.setProperty(FORMAT_PROPERTY, FORMAT);
+        properties.setProperty(LAST_REFRESH_PROPERTY, Long.toString(lastRefresh));
+        properties.setProperty(LAST_FULL_REFRESH_PROPERTY, Long.toString(lastFullRefresh));
+        for (final Entry entry : entries.values()) {
+            // Each field is stored separately, so the properties format takes care of escaping any special characters
+            final String prefix = SPEC_PROPERTY_PREFIX + entry.getId();
+            properties.setProperty(prefix + TITLE_PROPERTY, nullToEmpty(entry.getTitle()));
+            properties.setProperty(prefix + PRODUCT_PROPERTY, nullToEmpty(entry.getProduct()));
+            properties.setProperty(prefix + VERSION_PROPERTY, nullToEmpty(entry.getVersion()));
+            properties.setProperty(prefix + ADDED_BY_PROPERTY, nullToEmpty(entry.getAddedBy()));
+            properties.setProperty(prefix + LAST_MODIFIED_PROPERTY,
+                    entry.getLastModified() == null ? "" : Long.toString(entry.getLastModified().getTime()));
+        }
+
+        try {
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            properties.store(os, null);
+            DiskEntityCache.writeAtomically(file, os.toByteArray());
+        } catch (IOException e) {
+            // Do nothing as the index is only an optimisation
+        }
+    }
+
+    /**
+     * Split some text into the lower case words that are used in the index.
+     */
+    protected static Set<String> tokenize(final String text) {
+        final Set<String> tokens = new LinkedHashSet<String>();
+        if (text == null) return tokens;
+
+        for (final String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void addToIndex(final Integer id, final String text, final int weight) {
+        for (final String token : tokenize(text)) {
+            Map<Integer, Integer> weights = index.get(token);
+            if (weights == null) {
+                weights = new HashMap<Integer, Integer>();
+                index.put(token, weights);
+            }
+            final Integer existingWeight = weights.get(id);
+            weights.put(id, (existingWeight == null ? 0 : existingWeight) + weight);
+        }
+    }
+
+    private void removeFromIndex(final Entry entry) {
+        final Set<String> tokens = new LinkedHashSet<String>();
+        tokens.addAll(tokenize(entry.getTitle()));
+        tokens.addAll(tokenize(entry.getProduct()));
+        tokens.addAll(tokenize(entry.getVersion()));
+        tokens.addAll(tokenize(entry.getAddedBy()));
+        for (final String token : tokens) {
+            final Map<Integer, Integer> weights = index.get(token);
+            if (weights != null) {
+                weights.remove(entry.getId());
+                if (weights.isEmpty()) {
+                    index.remove(token);
+                }
+            }
+        }
+    }
+
+    private static String nullToEmpty(final String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String getRequiredProperty(final Properties properties, final String name) {
+        final String value = properties.getProperty(name);
+        if (value == null) {
+            throw new IllegalStateException("The " + name + " property is missing");
+        }
+        return value;
+    }
+
+    private static String emptyToNull(final String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Field;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.internal.Console;
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+
+/**
+ * A console that prints to and reads from a set of streams, instead of the terminal the JVM was started from. This is used to
+ * send the output of a command somewhere else (eg. to the client that sent a command to the daemon), as JCommander caches the
+ * terminal's console the first time it is used.
+ */
+public class StreamConsole implements Console {
+    private final PrintStream out;
+    private final InputStream in;
+
+    /**
+     * @param out The stream to print to.
+     * @param in  The stream to read input from.
+     */
+    public StreamConsole(final PrintStream out, final InputStream in) {
+        this.out = out;
+        this.in = in;
+    }
+
+    @Override
+    public void print(final String msg) {
+        out.print(msg);
+        out.flush();
+    }
+
+    @Override
+    public void println(final String msg) {
+        out.println(msg);
+        out.flush();
+    }
+
+    @Override
+    public String readLine() {
+        // Read a byte at a time, so that nothing after the line is consumed from the input
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try {
+            int b;
+            while ((b = in.read()) != -1 && b != '\n') {
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            if (b == -1 && line.size() == 0) return null;
+            return line.toString(Constants.FILE_ENCODING);
+        } catch (UnsupportedEncodingException e) {
+            return line.toString();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public char[] readPassword(final boolean echoInput) {
+        final String line = readLine();
+        return line == null ? null : line.toCharArray();
+    }
+
+    /**
+     * Replace the console that is returned by {@link JCommander#getConsole()}.
+     *
+     * @param console The console to use, or null to let JCommander find the terminal's console again.
+     * @return The console that was being used, or null if JCommander hadn't found one yet.
+     */
+    public static synchronized Console setConsole(final Console console) {
+        try {
+            final Field field = JCommander.class.getDeclaredField("m_console");
+            field.setAccessible(true);
+            final Console existingConsole = (Console) field.get(null);
+            field.set(null, console);
+            return existingConsole;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("The JCommander console can't be replaced", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("The JCommander console can't be replaced", e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.internal.Console;
+import org.jboss.pressgang.ccms.contentspec.interfaces.ShutdownAbleApp;
+
+/**
+ * Pumps the data from an input stream to either a console or another output stream, reading the data in blocks instead of
+ * one character at a time.
+ * <p/>
+ * When pumping to a console, complete lines are printed together. A partial line is printed once no more data is
+ * available (eg. a prompt), or once it gets too long, so that output is never held back indefinitely.
+ * <p/>
+ * When pumping to another output stream, the input stream is polled for data so that the pump can be shutdown without
+ * having to wait for a blocking read to finish (eg. when pumping stdin).
+ */
+public class StreamPump extends Thread implements ShutdownAbleApp {
+    protected static final int BUFFER_SIZE = 8192;
+    protected static final int MAX_LINE_LENGTH = 8192;
+    protected static final long MIN_POLL_INTERVAL = 5L;
+    protected static final long MAX_POLL_INTERVAL = 100L;
+
+    private final InputStream stream;
+    private final Console console;
+    private final OutputStream outStream;
+
+    private final AtomicBoolean shutdown = new AtomicBoolean(false);
+    private final AtomicBoolean isShuttingDown = new AtomicBoolean(false);
+
+    public StreamPump(final InputStream stream, final Console console) {
+        super("csprocessor-stream-pump");
+        this.stream = stream;
+        this.console = console;
+        outStream = null;
+        setDaemon(true);
+    }
+
+    public StreamPump(final InputStream stream, final OutputStream outStream) {
+        super("csprocessor-stream-pump");
+        this.stream = stream;
+        console = null;
+        this.outStream = outStream;
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        try {
+            if (console != null) {
+                pumpToConsole();
+            } else {
+                pumpToStream();
+            }
+        } catch (Exception e) {
+            // Do nothing
+            JCommander.getConsole().println(e.getMessage());
+            e.printStackTrace();
+        } finally {
+            shutdown.set(true);
+        }
+    }
+
+    /**
+     * Reads blocks of data from the input stream and prints them to the console a line at a time, until the end of the
+     * stream is reached.
+     *
+     * @throws IOException Thrown if the input stream can't be read.
+     */
+    protected void pumpToConsole() throws IOException {
+        final Reader reader = new InputStreamReader(stream);
+        final char[] buffer = new char[BUFFER_SIZE];
+        final StringBuilder line = new StringBuilder();
+
+        int read;
+        while ((read = reader.read(buffer)) != -1 && !isShuttingDown.get()) {
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    line.append(buffer, lineStart, i - lineStart);
+                    printLine(line);
+                    lineStart = i + 1;
+                }
+            }
+            line.append(buffer, lineStart, read - lineStart);
+
+            // Don't hold back a partial line if nothing else is coming yet, or if it's too long
+            if (line.length() > 0 && (line.length() >= MAX_LINE_LENGTH || !reader.ready())) {
+                printPartialLine(line);
+            }
+        }
+
+        if (line.length() > 0) {
+            printPartialLine(line);
+        }
+    }
+
+    /**
+     * Polls the input stream for data and copies any that is available to the output stream, until the pump is shutdown or
+     * the end of the stream is reached.
+     *
+     * @throws IOException          Thrown if the input stream can't be read or the output stream can't be written to.
+     * @throws InterruptedException Thrown if the pump is interrupted while waiting for data.
+     */
+    protected void pumpToStream() throws IOException, InterruptedException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long pollInterval = MIN_POLL_INTERVAL;
+
+        while (!isShuttingDown.get()) {
+            final int available = stream.available();
+            if (available > 0) {
+                final int read = stream.read(buffer, 0, Math.min(available, buffer.length));
+                if (read == -1) break;
+
+                outStream.write(buffer, 0, read);
+                outStream.flush();
+                pollInterval = MIN_POLL_INTERVAL;
+            } else {
+                // Back off while there is nothing to read, to stop excess resource consumption
+                Thread.sleep(pollInterval);
+                pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL);
+            }
+        }
+    }
+
+    private void printLine(final StringBuilder line) {
+        // Remove the carriage return from windows line endings
+        if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+
+        synchronized (console) {
+            console.println(line.toString());
+        }
+        line.setLength(0);
+    }
+
+    private void printPartialLine(final StringBuilder line) {
+        synchronized (console) {
+            console.print(line.toString());
+        }
+        line.setLength(0);
+    }
+
+    @Override
+    public void shutdown() {
+        isShuttingDown.set(true);
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown.get();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A small cache of the usernames that have been resolved from the "Added By" property of content specs, so that listing
+ * content specs doesn't need to look up the same users every time. The cache is kept in memory and, if a file is
+ * provided, persisted between runs. Entries expire after a maximum age, so that renamed or removed users are eventually
+ * picked up.
+ */
+public class UserCache {
+    private static final String SEPARATOR = ":";
+
+    private final File file;
+    private final long maxAge;
+    private final int maxEntries;
+    private final Map<String, CachedUsername> usernames = new HashMap<String, CachedUsername>();
+    private boolean loaded = false;
+
+    private static class CachedUsername {
+        private final String username;
+        private final long timestamp;
+
+        private CachedUsername(final String username, final long timestamp) {
+            this.username = username;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * @param file       The file to persist the cache to, or null if the cache should only be kept in memory.
+     * @param maxAge     The maximum age in milliseconds of an entry before it has to be resolved again.
+     * @param maxEntries The maximum number of usernames to keep in the cache.
+     */
+    public UserCache(final File file, final long maxAge, final int maxEntries) {
+        this.file = file;
+        this.maxAge = maxAge;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Get the username for a name that was previously resolved.
+     *
+     * @param name The name used in the "Added By" property.
+     * @return The username, or null if the name hasn't been resolved or the entry has expired.
+     */
+    public synchronized String get(final String name) {
+        load();
+
+        final CachedUsername cachedUsername = usernames.get(name);
+        if (cachedUsername == null) {
+            return null;
+        } else if (isExpired(cachedUsername)) {
+            usernames.remove(name);
+            return null;
+        } else {
+            return cachedUsername.username;
+        }
+    }
+
+    /**
+     * Add a set of resolved usernames to the cache, and persist the cache if it has a file.
+     *
+     * @param resolvedUsernames The map of names to the usernames they resolved to.
+     */
+    public synchronized void putAll(final Map<String, String> resolvedUsernames) {
+        if (resolvedUsernames.isEmpty()) return;
+        load();
+
+        final long now = System.currentTimeMillis();
+        for (final Map.Entry<String, String> entry : resolvedUsernames.entrySet()) {
+            usernames.put(entry.getKey(), new CachedUsername(entry.getValue(), now));
+        }
+
+        evict();
+        save();
+    }
+
+    private boolean isExpired(final CachedUsername cachedUsername) {
+        return System.currentTimeMillis() - cachedUsername.timestamp > maxAge;
+    }
+
+    /**
+     * Remove the oldest entries from the cache until it is back under the maximum number of entries.
+     */
+    protected void evict() {
+        if (usernames.size() <= maxEntries) return;
+
+        final List<Map.Entry<String, CachedUsername>> entries = new ArrayList<Map.Entry<String, CachedUsername>>(usernames.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, CachedUsername>>() {
+            @Override
+            public int compare(final Map.Entry<String, CachedUsername> entry1, final Map.Entry<String, CachedUsername> entry2) {
+                final long timestamp1 = entry1.getValue().timestamp;
+                final long timestamp2 = entry2.getValue().timestamp;
+                return timestamp1 < timestamp2 ? -1 : (timestamp1 == timestamp2 ? 0 : 1);
+            }
+        });
+
+        for (int i = 0; i < entries.size() - maxEntries; i++) {
+            usernames.remove(entries.get(i).getKey());
+        }
+    }
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+
+        if (file == null || !file.exists()) return;
+
+        final Properties properties = new Properties();
+        InputStream is = null;
+        try {
+            is = new FileInputStream(file);
+            properties.load(is);
+        } catch (IOException e) {
+            // Do nothing as the cache is only an optimisation
+            return;
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+
+        for (final String name : properties.stringPropertyNames()) {
+            final String value = properties.getProperty(name);
+            final int index = value.indexOf(SEPARATOR);
+            if (index == -1) continue;
+
+            try {
+                final CachedUsername cachedUsername = new CachedUsername(value.substring(index + 1),
+                        Long.parseLong(value.substring(0, index)));
+                if (!isExpired(cachedUsername)) {
+                    usernames.put(name, cachedUsername);
+                }
+            } catch (NumberFormatException e) {
+                // Ignore the corrupt entry
+            }
+        }
+    }
+
+    private void save() {
+        if (file == null) return;
+
+        final Properties properties = new Properties();
+        for (final Map.Entry<String, CachedUsername> entry : usernames.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().timestamp + SEPARATOR + entry.getValue().username);
+        }
+
+        try {
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            properties.store(os, null);
+            DiskEntityCache.writeAtomically(file, os.toByteArray());
+        } catch (IOException e) {
+            // Do nothing as the cache is only an optimisation
+        }
+    }
+}
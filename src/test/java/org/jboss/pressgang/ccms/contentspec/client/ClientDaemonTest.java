@@ -0,0 +1,124 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.internal.Console;
+import org.apache.commons.io.FileUtils;
+import org.jboss.pressgang.ccms.contentspec.client.utils.StreamConsole;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+public class ClientDaemonTest extends BaseUnitTest {
+    @Mock Console terminalConsole;
+
+    File directory;
+    ClientDaemon daemon;
+    Thread daemonThread;
+    Console originalConsole;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = new File(FileUtils.toFile(ClassLoader.getSystemResource("")), "client-daemon");
+        FileUtils.deleteDirectory(directory);
+        directory.mkdirs();
+
+        // Act like the daemon was started from a terminal
+        originalConsole = StreamConsole.setConsole(terminalConsole);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        if (daemon != null) {
+            daemon.stop();
+            daemonThread.join(5000);
+        }
+        StreamConsole.setConsole(originalConsole);
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void shouldSendConsoleOutputToClientAndReadPromptAnswersFromClient() throws Exception {
+        // Given a daemon running a command that prompts for an answer
+        daemon = new ClientDaemon(directory) {
+            @Override
+            protected Client createClient() {
+                return new Client() {
+                    @Override
+                    public void setup() {
+                    }
+
+                    @Override
+                    public void processArgs(final String[] args) {
+                        JCommander.getConsole().print("Overwrite? ");
+                        final String answer = JCommander.getConsole().readLine();
+                        JCommander.getConsole().println("Answered " + answer + " for " + args[0]);
+                    }
+                };
+            }
+        };
+        startDaemon();
+
+        // When forwarding the command with the answer as the input
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Integer exitStatus = DaemonClient.forward(directory, new String[]{"build"}, new ByteArrayInputStream("yes\n".getBytes(
+                "UTF-8")), out);
+
+        // Then the command should have finished successfully
+        assertThat(exitStatus, is(0));
+        // and the prompt and output should have been sent to the client
+        assertThat(out.toString("UTF-8"), containsString("Overwrite? Answered yes for build"));
+        // and nothing from the command should have been written to the daemon's terminal
+        verify(terminalConsole, never()).print(anyString());
+    }
+
+    private void startDaemon() {
+        daemonThread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    daemon.run();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        daemonThread.start();
+
+        // Wait for the daemon to say it has started, as the daemon file has been written by then
+        verify(terminalConsole, timeout(5000)).println(anyString());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DaemonClientTest extends BaseUnitTest {
+    File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = new File(FileUtils.toFile(ClassLoader.getSystemResource("")), "daemon-client");
+        FileUtils.deleteDirectory(directory);
+        directory.mkdirs();
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void shouldRunLocallyWhenNoDaemonIsRunning() {
+        // Given a directory without a daemon running in it
+
+        // When forwarding a command
+        final Integer exitStatus = DaemonClient.forward(directory, new String[]{"status"}, new ByteArrayInputStream(new byte[0]),
+                new ByteArrayOutputStream());
+
+        // Then the command should not have been run by a daemon
+        assertThat(exitStatus, nullValue());
+    }
+
+    @Test
+    public void shouldRunLocallyWhenTheDaemonHasGoneAway() throws IOException {
+        // Given a directory with a daemon file for a daemon that is no longer running
+        FileUtils.writeStringToFile(new File(directory, Constants.DAEMON_FILENAME), "port=1\ntoken=abc\n");
+
+        // When forwarding a command
+        final Integer exitStatus = DaemonClient.forward(directory, new String[]{"status"}, new ByteArrayInputStream(new byte[0]),
+                new ByteArrayOutputStream());
+
+        // Then the command should not have been run by a daemon
+        assertThat(exitStatus, nullValue());
+    }
+
+    @Test
+    public void shouldRunWatchedBuildsLocally() throws IOException {
+        // Given a directory with a daemon file
+        FileUtils.writeStringToFile(new File(directory, Constants.DAEMON_FILENAME), "port=1\ntoken=abc\n");
+
+        // When forwarding a build that watches for changes
+        final Integer exitStatus = DaemonClient.forward(directory, new String[]{"build", Constants.WATCH_LONG_PARAM},
+                new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream());
+
+        // Then the command should not have been run by a daemon
+        assertThat(exitStatus, nullValue());
+    }
+}
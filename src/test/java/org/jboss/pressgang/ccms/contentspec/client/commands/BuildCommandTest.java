@@ -22,6 +22,7 @@ package org.jboss.pressgang.ccms.contentspec.client.commands;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -188,6 +189,41 @@ public class BuildCommandTest extends BaseCommandTest {
         }
     }
 
+    @Test
+    public void shouldFailToWatchWhenBuildingFromAnId() {
+        // Given a command with an id
+        command.setIds(Arrays.asList(id.toString()));
+        // and the content spec should be watched
+        command.setWatch(true);
+
+        // When it is watched
+        try {
+            command.watch();
+            // Then an error is printed and the program is shut down
+            fail(SYSTEM_EXIT_ERROR);
+        } catch (CheckExitCalled e) {
+            assertThat(e.getStatus(), is(5));
+        }
+
+        // Then the command should be shutdown and an error message printed
+        assertThat(getStdOutLogs(), containsString("The --watch option can only be used when building from a Content Specification file."));
+    }
+
+    @Test
+    public void shouldNotShutdownWhenWatchedBuildFails() {
+        final String dummySpecFile = bookDir.getAbsolutePath() + File.separator + DUMMY_SPEC_FILE;
+        // Given a command with a file that doesn't exist
+        command.setIds(Arrays.asList(dummySpecFile));
+
+        // When it is processed as a watched build
+        command.processWatchedBuild();
+
+        // Then an error message should be printed
+        assertThat(getStdOutLogs(), containsString("The specified file was empty!"));
+        // and the next build should be treated as a rebuild
+        assertTrue(command.isRebuild());
+    }
+
     @Test
     public void shouldFailWhenContentSpecFileDoesntExist() {
         final String dummySpecFile = bookDir.getAbsolutePath() + File.separator + DUMMY_SPEC_FILE;
@@ -290,6 +326,23 @@ public class BuildCommandTest extends BaseCommandTest {
         assertNotNull(contentSpec);
     }
 
+    @Test
+    public void shouldOnlyFetchLatestContentSpecOnce() {
+        // Given a content spec exists
+        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getChildren()).willReturn(contentSpecChildren);
+        given(contentSpecChildren.isEmpty()).willReturn(false);
+        // and the transform works
+        PowerMockito.mockStatic(CSTransformer.class);
+        when(CSTransformer.transform(eq(contentSpecWrapper), eq(providerFactory), anyBoolean())).thenReturn(contentSpec);
+
+        // When getting the latest content spec
+        command.getContentSpec(id.toString(), true);
+
+        // Then the content spec should only have been requested from the server once
+        verify(contentSpecProvider, times(1)).getContentSpec(anyInt(), anyInt());
+    }
+
     @Test
     public void shouldReturnContentSpecWhenUsingFileAndParses() {
         final String emptyFile = rootTestDirectory + File.separator + "EmptyFile.txt";
@@ -950,52 +1003,70 @@ public class BuildCommandTest extends BaseCommandTest {
 
     @Test
     public void shouldOverwriteOutputFileIfExistsWhenNotBuildingFromCsprocessorcfg() throws IOException {
-        // Given a mocked file
-        File mockFile = mock(File.class);
+        // Given an output file
+        final File outputFile = new File(bookDir, BOOK_TITLE + ".zip");
         // and the file exists
-        given(mockFile.exists()).willReturn(true);
+        FileUtils.writeByteArrayToFile(outputFile, new byte[]{1, 2, 3});
         // and we want to overwrite the file
         setStdInput("y\n");
-        // and we don't actually want to save anything
-        PowerMockito.mockStatic(FileUtilities.class);
-        PowerMockito.doNothing().when(FileUtilities.class);
-        FileUtilities.saveFile(any(File.class), any(byte[].class));
         // and we are loading from the csprocessor.cfg
         boolean loadFromCsprocessorCfg = false;
 
         // When saving the output
-        command.saveBuildToFile(new byte[0], mockFile, loadFromCsprocessorCfg);
+        command.saveBuildToFile(new byte[]{4, 5}, outputFile, loadFromCsprocessorCfg);
 
-        // Then the save file method should have been called
-        PowerMockito.verifyStatic(times(1));
-        FileUtilities.saveFile(eq(mockFile), any(byte[].class));
+        // Then the file should have been overwritten
+        assertArrayEquals(new byte[]{4, 5}, FileUtils.readFileToByteArray(outputFile));
+        // and the temporary and backup files should have been removed
+        assertFalse(new File(bookDir, "." + outputFile.getName() + ".tmp").exists());
+        assertFalse(new File(bookDir, "." + outputFile.getName() + ".bak").exists());
         assertThat(getStdOutLogs(), containsString("already exists! Overwrite existing file (y/n)? "));
         assertThat(getStdOutLogs(), containsString("Output saved to: "));
     }
 
     @Test
     public void shouldOverwriteOutputFileIfExistsAndNotAskWhenBuildingFromCsprocessorcfg() throws IOException {
-        // Given a mocked file
-        File mockFile = mock(File.class);
+        // Given an output file
+        final File outputFile = new File(bookDir, BOOK_TITLE + ".zip");
         // and the file exists
-        given(mockFile.exists()).willReturn(true);
-        // and we don't actually want to save anything
-        PowerMockito.mockStatic(FileUtilities.class);
-        PowerMockito.doNothing().when(FileUtilities.class);
-        FileUtilities.saveFile(any(File.class), any(byte[].class));
+        FileUtils.writeByteArrayToFile(outputFile, new byte[]{1, 2, 3});
         // and we are loading from the csprocessor.cfg
         boolean loadFromCsprocessorCfg = true;
 
         // When saving the output
-        command.saveBuildToFile(new byte[0], mockFile, loadFromCsprocessorCfg);
+        command.saveBuildToFile(new byte[]{4, 5}, outputFile, loadFromCsprocessorCfg);
 
-        // Then the save file method should have been called and the overwrite question should not be asked
-        PowerMockito.verifyStatic(times(1));
-        FileUtilities.saveFile(eq(mockFile), any(byte[].class));
+        // Then the file should have been overwritten and the overwrite question should not be asked
+        assertArrayEquals(new byte[]{4, 5}, FileUtils.readFileToByteArray(outputFile));
         assertThat(getStdOutLogs(), not(containsString("already exists! Overwrite existing file (y/n)? ")));
         assertThat(getStdOutLogs(), containsString("Output saved to: "));
     }
 
+    @Test
+    public void shouldKeepExistingOutputFileWhenSavingFails() throws IOException {
+        // Given an output file
+        final File outputFile = new File(bookDir, BOOK_TITLE + ".zip");
+        // and the file exists
+        FileUtils.writeByteArrayToFile(outputFile, new byte[]{1, 2, 3});
+        // and saving will fail
+        PowerMockito.mockStatic(FileUtilities.class);
+        PowerMockito.doThrow(new IOException()).when(FileUtilities.class);
+        FileUtilities.saveFile(any(File.class), any(byte[].class));
+
+        // When saving the output
+        try {
+            command.saveBuildToFile(new byte[]{4, 5}, outputFile, true);
+            // Then an error is printed and the program is shut down
+            fail(SYSTEM_EXIT_ERROR);
+        } catch (CheckExitCalled e) {
+            assertThat(e.getStatus(), is(-1));
+        }
+
+        // Then the existing file should not have been changed
+        assertArrayEquals(new byte[]{1, 2, 3}, FileUtils.readFileToByteArray(outputFile));
+        assertThat(getStdOutLogs(), containsString("An error occurred while trying to save the file."));
+    }
+
     @Test
     public void shouldReturnCorrectOutputFileWithNoOutputPath() {
         // Given a filename
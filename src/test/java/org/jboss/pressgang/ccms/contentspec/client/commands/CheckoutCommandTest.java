@@ -48,7 +48,7 @@ import org.jboss.pressgang.ccms.provider.ContentSpecProvider;
 import org.jboss.pressgang.ccms.provider.RESTProviderFactory;
 import org.jboss.pressgang.ccms.utils.common.DocBookUtilities;
 import org.jboss.pressgang.ccms.utils.common.FileUtilities;
-import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
+import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
 import org.jboss.pressgang.ccms.zanata.ZanataDetails;
 import org.junit.After;
 import org.junit.Before;
@@ -71,7 +71,7 @@ public class CheckoutCommandTest extends BaseCommandTest {
     @Arbitrary String randomString;
     @Arbitrary Integer randomNumber;
 
-    @Mock ContentSpecWrapper contentSpecWrapper;
+    @Mock TextContentSpecWrapper contentSpecWrapper;
     @Mock ContentSpec contentSpec;
 
     CheckoutCommand command;
@@ -128,8 +128,7 @@ public class CheckoutCommandTest extends BaseCommandTest {
         // Given a command called with an an ID
         command.setIds(Arrays.asList(id));
         // And no matching content spec
-        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(null);
-        given(contentSpecProvider.getContentSpecAsString(anyInt(), anyInt())).willReturn(null);
+        given(textContentSpecProvider.getTextContentSpec(anyInt(), anyInt())).willReturn(null);
 
         // When it is processed
         try {
@@ -149,8 +148,8 @@ public class CheckoutCommandTest extends BaseCommandTest {
         // Given a command called with an an ID
         command.setIds(Arrays.asList(id));
         // And no matching content spec
-        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
-        given(contentSpecProvider.getContentSpecAsString(anyInt(), anyInt())).willReturn("");
+        given(textContentSpecProvider.getTextContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn("");
         // and the title of the book is empty so that the root directory is used
         given(contentSpecWrapper.getTitle()).willReturn(BOOK_TITLE);
 
@@ -175,8 +174,8 @@ public class CheckoutCommandTest extends BaseCommandTest {
         // and a new folder should be created
         command.setForce(true);
         // And a matching content spec
-        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
-        given(contentSpecProvider.getContentSpecAsString(anyInt(), anyInt())).willReturn("");
+        given(textContentSpecProvider.getTextContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn("");
         // and the title of the book is empty so that the root directory is used
         given(contentSpecWrapper.getTitle()).willReturn(BOOK_TITLE);
         // and we want to shutdown the command after the directory has been deleted
@@ -207,15 +206,15 @@ public class CheckoutCommandTest extends BaseCommandTest {
         // and a new folder should be created
         command.setForce(true);
         // And a matching content spec
-        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
-        given(contentSpecProvider.getContentSpecAsString(anyInt(), anyInt())).willReturn(randomString);
+        given(textContentSpecProvider.getTextContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn(randomString);
         // and the title of the book is empty so that the root directory is used
         given(contentSpecWrapper.getTitle()).willReturn(BOOK_TITLE);
         given(contentSpecWrapper.getId()).willReturn(id);
         // and the ClientUtilities create method is mocked
         PowerMockito.mockStatic(ClientUtilities.class);
         // and the helper method to get the content spec works
-        TestUtil.setUpContentSpecHelper(contentSpecProvider);
+        TestUtil.setUpTextContentSpecHelper(textContentSpecProvider);
 
         // When the command is processing
         command.process();
@@ -33,23 +33,26 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import javax.ws.rs.core.PathSegment;
+import java.util.ArrayList;
 import java.util.List;
 
 import net.sf.ipsedixit.annotation.Arbitrary;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
 import org.jboss.pressgang.ccms.contentspec.entities.SpecList;
+import org.jboss.pressgang.ccms.rest.RESTManager;
+import org.jboss.pressgang.ccms.rest.v1.collections.contentspec.RESTTextContentSpecCollectionV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.contentspec.RESTTextContentSpecV1;
+import org.jboss.pressgang.ccms.rest.v1.jaxrsinterfaces.RESTInterfaceV1;
 import org.jboss.pressgang.ccms.wrapper.ServerEntitiesWrapper;
-import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
-import org.jboss.pressgang.ccms.wrapper.collection.CollectionWrapper;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.ExpectedSystemExit;
 import org.junit.contrib.java.lang.system.internal.CheckExitCalled;
-import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 
@@ -60,21 +63,29 @@ public class ListCommandTest extends BaseCommandTest {
     @Arbitrary Integer randomNumber;
     @Arbitrary String randomString;
 
+    @Mock RESTManager restManager;
+    @Mock RESTInterfaceV1 restClient;
+    @Mock RESTTextContentSpecCollectionV1 contentSpecCollection;
+    @Mock RESTTextContentSpecCollectionV1 secondContentSpecCollection;
+    @Mock RESTTextContentSpecV1 contentSpec;
+
     ListCommand command;
 
     @Before
     public void setUp() {
         bindStdOut();
         command = new ListCommand(parser, cspConfig, clientConfig);
+
+        when(providerFactory.getRESTManager()).thenReturn(restManager);
+        when(restManager.getRESTClient()).thenReturn(restClient);
     }
 
     @Test
     public void shouldShutdownWhenNumSpecsOverLimit() {
-        final CollectionWrapper<TextContentSpecWrapper> contentSpecCollection = mock(CollectionWrapper.class);
         // Given a command that will return a collection of content specs
-        given(textContentSpecProvider.getTextContentSpecsWithQuery(anyString())).willReturn(contentSpecCollection);
+        given(restClient.getJSONTextContentSpecsWithQuery(any(PathSegment.class), anyString())).willReturn(contentSpecCollection);
         // and there are too many content specs
-        given(contentSpecCollection.size()).willReturn(51);
+        given(contentSpecCollection.getSize()).willReturn(51);
         // and we aren't forcing the list
         command.setForce(false);
 
@@ -95,11 +106,10 @@ public class ListCommandTest extends BaseCommandTest {
 
     @Test
     public void shouldPrintNoSpecsWhenListIsEmpty() {
-        final CollectionWrapper<TextContentSpecWrapper> contentSpecCollection = mock(CollectionWrapper.class);
         // Given a command that will return a collection of content specs
-        given(textContentSpecProvider.getTextContentSpecsWithQuery(anyString())).willReturn(contentSpecCollection);
+        given(restClient.getJSONTextContentSpecsWithQuery(any(PathSegment.class), anyString())).willReturn(contentSpecCollection);
         // and there are no content specs
-        given(contentSpecCollection.size()).willReturn(0);
+        given(contentSpecCollection.getSize()).willReturn(0);
         // and we aren't forcing the list
         command.setForce(false);
 
@@ -112,99 +122,79 @@ public class ListCommandTest extends BaseCommandTest {
 
     @Test
     public void shouldPrintSpecListWhenListExists() {
-        final CollectionWrapper<TextContentSpecWrapper> contentSpecCollection = mock(CollectionWrapper.class);
-        final List<TextContentSpecWrapper> contentSpecs = mock(List.class);
         final SpecList specList = mock(SpecList.class);
-        // Given a command that will return a collection of content specs
-        given(textContentSpecProvider.getTextContentSpecsWithQuery(anyString())).willReturn(contentSpecCollection);
+        // Given a command that will return a page of content specs
+        PowerMockito.mockStatic(ClientUtilities.class);
+        when(ClientUtilities.getTextContentSpecPage(eq(restClient), anyString(), anyInt(), anyInt())).thenReturn(contentSpecCollection);
         // and there are some content specs
-        given(contentSpecCollection.size()).willReturn(5);
-        // and the collection contains items
-        given(contentSpecCollection.getItems()).willReturn(contentSpecs);
-        given(contentSpecs.subList(anyInt(), anyInt())).willReturn(contentSpecs);
+        given(contentSpecCollection.getSize()).willReturn(5);
+        given(contentSpecCollection.returnItems()).willReturn(createContentSpecs(5));
         // and we want to mock the Client Utilities methods
-        PowerMockito.mockStatic(ClientUtilities.class);
-        when(ClientUtilities.buildSpecList(anyList(), eq(providerFactory), any(ServerEntitiesWrapper.class))).thenReturn(specList);
-        when(ClientUtilities.generateContentSpecList(eq(specList))).thenReturn(randomString);
+        when(ClientUtilities.buildSpecListFromEntities(anyList(), eq(providerFactory), any(ServerEntitiesWrapper.class))).thenReturn(
+                specList);
+        when(ClientUtilities.getContentSpecListFormat(eq(specList))).thenReturn("%s");
+        when(ClientUtilities.generateContentSpecListHeader(anyString())).thenReturn("");
+        when(ClientUtilities.generateContentSpecListRows(anyString(), eq(specList))).thenReturn(randomString);
 
         // When the command is processing
-        final ArgumentCaptor<Integer> numResults = ArgumentCaptor.forClass(Integer.class);
         command.process();
 
-        // Then the output should contain the random string and the ClientUtilities methods should have been called
-        verify(contentSpecs, times(1)).subList(anyInt(), numResults.capture());
-        assertThat(numResults.getValue(), is(5));
+        // Then only the first page should have been downloaded
         PowerMockito.verifyStatic(times(1));
-        ClientUtilities.buildSpecList(anyList(), eq(providerFactory), any(ServerEntitiesWrapper.class));
+        ClientUtilities.getTextContentSpecPage(eq(restClient), anyString(), anyInt(), anyInt());
+        // and the list should have been built and printed
         PowerMockito.verifyStatic(times(1));
-        ClientUtilities.generateContentSpecList(eq(specList));
+        ClientUtilities.buildSpecListFromEntities(anyList(), eq(providerFactory), any(ServerEntitiesWrapper.class));
         assertThat(getStdOutLogs(), containsString(randomString));
     }
 
     @Test
-    public void shouldPrintSpecListWhenSizeIsGreaterThanLimitAndForce() {
-        final CollectionWrapper<TextContentSpecWrapper> contentSpecCollection = mock(CollectionWrapper.class);
-        final List<TextContentSpecWrapper> contentSpecs = mock(List.class);
-        // Given a command that will return a collection of content specs
-        given(textContentSpecProvider.getTextContentSpecsWithQuery(anyString())).willReturn(contentSpecCollection);
-        // and there are too many content spec
-        given(contentSpecCollection.size()).willReturn(51);
-        // and force is on
-        command.setForce(true);
-        // and we want to mock the getItems and sublist output
-        given(contentSpecCollection.getItems()).willReturn(contentSpecs);
-        given(contentSpecs.subList(anyInt(), anyInt())).willReturn(contentSpecs);
-        // and the the test should stop if the build spec list method is called
+    public void shouldOnlyDownloadTheLimitWhenLimitSpecified() {
+        // Given a command that will return a page of content specs
         PowerMockito.mockStatic(ClientUtilities.class);
-        PowerMockito.doThrow(new CheckExitCalled(-2)).when(ClientUtilities.class);
-        ClientUtilities.buildSpecList(anyList(), eq(providerFactory), any(ServerEntitiesWrapper.class));
+        when(ClientUtilities.getTextContentSpecPage(eq(restClient), anyString(), anyInt(), anyInt())).thenReturn(contentSpecCollection);
+        // and the limit is specified
+        final int limit = Math.abs(randomNumber % 50) + 1;
+        command.setLimit(limit);
+        // and there are more content specs than the limit
+        given(contentSpecCollection.getSize()).willReturn(3000);
+        given(contentSpecCollection.returnItems()).willReturn(createContentSpecs(limit));
 
         // When the command is processing
-        final ArgumentCaptor<Integer> numResults = ArgumentCaptor.forClass(Integer.class);
-        try {
-            command.process();
-            // Then the program is shut down due to the above throw condition
-            fail(SYSTEM_EXIT_ERROR);
-        } catch (CheckExitCalled e) {
-            assertThat(e.getStatus(), is(-2));
-        }
+        command.process();
 
-        // Then check that the right number of results to display is passed
-        verify(contentSpecs, times(1)).subList(anyInt(), numResults.capture());
-        assertThat(numResults.getValue(), is(51));
+        // Then only the content specs up to the limit should have been downloaded
+        PowerMockito.verifyStatic(times(1));
+        ClientUtilities.getTextContentSpecPage(eq(restClient), anyString(), eq(0), eq(limit));
+        PowerMockito.verifyStatic(times(1));
+        ClientUtilities.buildSpecListFromEntities(anyList(), eq(providerFactory), any(ServerEntitiesWrapper.class));
     }
 
     @Test
-    public void shouldPrintSpecListWhenSizeIsGreaterThanLimitAndLimitSpecified() {
-        final CollectionWrapper<TextContentSpecWrapper> contentSpecCollection = mock(CollectionWrapper.class);
-        final List<TextContentSpecWrapper> contentSpecs = mock(List.class);
-        // Given a command that will return a collection of content specs
-        given(textContentSpecProvider.getTextContentSpecsWithQuery(anyString())).willReturn(contentSpecCollection);
-        // and the limit is specified
-        command.setLimit(randomNumber);
-        // and there are more content specs than the limit
-        given(contentSpecCollection.size()).willReturn(50 + randomNumber);
-        // and we want to mock the getItems and sublist output
-        given(contentSpecCollection.getItems()).willReturn(contentSpecs);
-        given(contentSpecs.subList(anyInt(), anyInt())).willReturn(contentSpecs);
-        // and the the test should stop if the build spec list method is called
+    public void shouldDownloadEachPageWhenSizeIsGreaterThanLimitAndForce() {
+        // Given a command that will return two pages of content specs
         PowerMockito.mockStatic(ClientUtilities.class);
-        PowerMockito.doThrow(new CheckExitCalled(-2)).when(ClientUtilities.class);
-        ClientUtilities.buildSpecList(anyList(), eq(providerFactory), any(ServerEntitiesWrapper.class));
+        when(ClientUtilities.getTextContentSpecPage(eq(restClient), anyString(), eq(0), anyInt())).thenReturn(contentSpecCollection);
+        when(ClientUtilities.getTextContentSpecPage(eq(restClient), anyString(), eq(100), anyInt())).thenReturn(
+                secondContentSpecCollection);
+        // and there are too many content specs for one page
+        given(contentSpecCollection.getSize()).willReturn(151);
+        given(contentSpecCollection.returnItems()).willReturn(createContentSpecs(100));
+        given(secondContentSpecCollection.returnItems()).willReturn(createContentSpecs(51));
+        // and force is on
+        command.setForce(true);
 
         // When the command is processing
-        final ArgumentCaptor<Integer> numResults = ArgumentCaptor.forClass(Integer.class);
-        try {
-            command.process();
-            // Then the program is shut down due to the above throw condition
-            fail(SYSTEM_EXIT_ERROR);
-        } catch (CheckExitCalled e) {
-            assertThat(e.getStatus(), is(-2));
-        }
+        command.process();
 
-        // Then check that the right number of results to display is passed
-        verify(contentSpecs, times(1)).subList(anyInt(), numResults.capture());
-        assertThat(numResults.getValue(), is(randomNumber));
+        // Then each page should have been downloaded
+        PowerMockito.verifyStatic(times(1));
+        ClientUtilities.getTextContentSpecPage(eq(restClient), anyString(), eq(0), eq(100));
+        PowerMockito.verifyStatic(times(1));
+        ClientUtilities.getTextContentSpecPage(eq(restClient), anyString(), eq(100), eq(151));
+        // and each page should have been printed
+        PowerMockito.verifyStatic(times(2));
+        ClientUtilities.buildSpecListFromEntities(anyList(), eq(providerFactory), any(ServerEntitiesWrapper.class));
     }
 
     @Test
@@ -238,4 +228,12 @@ public class ListCommandTest extends BaseCommandTest {
         // Then the name should be "list"
         assertThat(commandName, is("list"));
     }
+
+    private List<RESTTextContentSpecV1> createContentSpecs(final int size) {
+        final List<RESTTextContentSpecV1> contentSpecs = new ArrayList<RESTTextContentSpecV1>();
+        for (int i = 0; i < size; i++) {
+            contentSpecs.add(contentSpec);
+        }
+        return contentSpecs;
+    }
 }
\ No newline at end of file
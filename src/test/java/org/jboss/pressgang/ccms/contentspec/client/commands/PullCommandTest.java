@@ -31,7 +31,9 @@ import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
@@ -43,7 +45,7 @@ import org.apache.commons.io.FileUtils;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.TestUtil;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
-import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
+import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
 import org.jboss.pressgang.ccms.wrapper.TopicWrapper;
 import org.jboss.pressgang.ccms.wrapper.base.BaseContentSpecWrapper;
 import org.junit.Before;
@@ -67,7 +69,7 @@ public class PullCommandTest extends BaseCommandTest {
     @Arbitrary Integer revision;
     @Arbitrary String randomString;
 
-    @Mock ContentSpecWrapper contentSpecWrapper;
+    @Mock TextContentSpecWrapper contentSpecWrapper;
     @Mock TopicWrapper topicWrapper;
 
     PullCommand command;
@@ -107,7 +109,7 @@ public class PullCommandTest extends BaseCommandTest {
         // Given a command called without an ID
         command.setIds(new ArrayList<Integer>());
         // And no matching content spec
-        given(contentSpecProvider.getContentSpec(id, null)).willReturn(null);
+        given(textContentSpecProvider.getTextContentSpec(id, null)).willReturn(null);
 
         // When it is processed
         try {
@@ -129,7 +131,7 @@ public class PullCommandTest extends BaseCommandTest {
         // and the revision is set
         command.setRevision(revision);
         // And no matching content spec
-        given(contentSpecProvider.getContentSpec(id, revision)).willReturn(null);
+        given(textContentSpecProvider.getTextContentSpec(id, revision)).willReturn(null);
 
         // When it is processed
         try {
@@ -172,8 +174,8 @@ public class PullCommandTest extends BaseCommandTest {
         // Given a command called with an ID
         command.setIds(Arrays.asList(id));
         // And a matching content spec
-        given(contentSpecProvider.getContentSpec(id, null)).willReturn(contentSpecWrapper);
-        given(contentSpecProvider.getContentSpecAsString(id, null)).willReturn(randomString);
+        given(textContentSpecProvider.getTextContentSpec(id, null)).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn(randomString);
         // and the content spec title/id is set
         given(contentSpecWrapper.getTitle()).willReturn(CONTENTSPEC_TITLE);
         given(contentSpecWrapper.getId()).willReturn(id);
@@ -183,7 +185,7 @@ public class PullCommandTest extends BaseCommandTest {
         PowerMockito.doNothing().when(ClientUtilities.class);
         ClientUtilities.saveOutputFile(eq(command), anyString(), anyString(), anyString());
         // and the helper method to get the content spec works
-        TestUtil.setUpContentSpecHelper(contentSpecProvider);
+        TestUtil.setUpTextContentSpecHelper(textContentSpecProvider);
         when(ClientUtilities.getEscapedContentSpecTitle(eq(providerFactory), any(BaseContentSpecWrapper.class))).thenCallRealMethod();
 
         // When processing the command
@@ -198,6 +200,37 @@ public class PullCommandTest extends BaseCommandTest {
         assertThat(outputPath.getValue(), is(rootTestDirectory.getAbsolutePath()));
     }
 
+    @Test
+    public void shouldFetchContentSpecAndTextInOneRequest() {
+        PowerMockito.mockStatic(ClientUtilities.class);
+        // Given a command called with an ID
+        command.setIds(Arrays.asList(id));
+        // And a matching content spec with some text
+        given(textContentSpecProvider.getTextContentSpec(id, null)).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn(randomString);
+        given(contentSpecWrapper.getTitle()).willReturn(CONTENTSPEC_TITLE);
+        given(contentSpecWrapper.getId()).willReturn(id);
+        // and a output file is specified
+        command.setOutputPath(rootTestDirectory.getAbsolutePath());
+        // And we don't actually want to save anything
+        PowerMockito.doNothing().when(ClientUtilities.class);
+        ClientUtilities.saveOutputFile(eq(command), anyString(), anyString(), anyString());
+        // and the helper method to get the content spec works
+        TestUtil.setUpTextContentSpecHelper(textContentSpecProvider);
+        when(ClientUtilities.getEscapedContentSpecTitle(eq(providerFactory), any(BaseContentSpecWrapper.class))).thenCallRealMethod();
+
+        // When processing the command
+        command.process();
+
+        // Then the content spec and its text should have been fetched in one request
+        verify(textContentSpecProvider, times(1)).getTextContentSpec(id, null);
+        verify(contentSpecProvider, never()).getContentSpec(anyInt(), anyInt());
+        verify(contentSpecProvider, never()).getContentSpecAsString(anyInt(), anyInt());
+        // and the text should have been saved
+        PowerMockito.verifyStatic(times(1));
+        ClientUtilities.saveOutputFile(eq(command), anyString(), anyString(), eq(randomString));
+    }
+
     @Test
     public void shouldGenerateRightFilenameAndPathForContentSpecPullingFromConfig() {
         PowerMockito.mockStatic(ClientUtilities.class);
@@ -206,8 +239,8 @@ public class PullCommandTest extends BaseCommandTest {
         // and the cspconfig has an id
         given(cspConfig.getContentSpecId()).willReturn(id);
         // And a matching content spec
-        given(contentSpecProvider.getContentSpec(id, null)).willReturn(contentSpecWrapper);
-        given(contentSpecProvider.getContentSpecAsString(id, null)).willReturn(randomString);
+        given(textContentSpecProvider.getTextContentSpec(id, null)).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn(randomString);
         // and the content spec title/id is set
         given(contentSpecWrapper.getTitle()).willReturn(CONTENTSPEC_TITLE);
         given(contentSpecWrapper.getId()).willReturn(id);
@@ -220,7 +253,7 @@ public class PullCommandTest extends BaseCommandTest {
         when(ClientUtilities.getOutputRootDirectory(eq(providerFactory), eq(cspConfig), eq(contentSpecWrapper))).thenCallRealMethod();
         when(ClientUtilities.getOutputRootDirectoryFromEscapedTitle(eq(cspConfig), anyString())).thenCallRealMethod();
         // and the helper method to get the content spec works
-        TestUtil.setUpContentSpecHelper(contentSpecProvider);
+        TestUtil.setUpTextContentSpecHelper(textContentSpecProvider);
         when(ClientUtilities.getEscapedContentSpecTitle(eq(providerFactory), any(BaseContentSpecWrapper.class))).thenCallRealMethod();
 
         // When processing the command
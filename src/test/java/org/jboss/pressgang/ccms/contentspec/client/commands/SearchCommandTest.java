@@ -120,6 +120,23 @@ public class SearchCommandTest extends BaseCommandTest {
         assertThat(getStdOutLogs(), containsString(queryResult));
     }
 
+    @Test
+    public void shouldSearchServerWhenLocalCacheIsDisabled() {
+        // Given a local search was requested
+        command.setQueries(Arrays.asList(query1));
+        command.setLocal(true);
+        // and the local cache has been disabled
+        given(clientConfig.getCacheSize()).willReturn(0);
+
+        // When the SearchCommand is processed
+        command.process();
+
+        // Then a message should say the server will be searched
+        assertThat(getStdOutLogs(), containsString("The local cache has been disabled, so the server will be searched instead."));
+        // and the server should be searched
+        verify(textContentSpecProvider).getTextContentSpecsWithQuery(anyString());
+    }
+
     @Test
     public void shouldReturnRightCommandName() {
         // Given
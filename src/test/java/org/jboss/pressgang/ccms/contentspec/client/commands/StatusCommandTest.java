@@ -42,7 +42,7 @@ import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
 import org.jboss.pressgang.ccms.provider.RESTProviderFactory;
 import org.jboss.pressgang.ccms.utils.common.DocBookUtilities;
 import org.jboss.pressgang.ccms.utils.common.HashUtilities;
-import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
+import org.jboss.pressgang.ccms.wrapper.TextContentSpecWrapper;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -62,7 +62,7 @@ public class StatusCommandTest extends BaseCommandTest {
     @Arbitrary String randomString;
     @Arbitrary Integer randomNumber;
 
-    @Mock ContentSpecWrapper contentSpecWrapper;
+    @Mock TextContentSpecWrapper contentSpecWrapper;
     @Mock ContentSpec contentSpec;
 
     StatusCommand command;
@@ -78,7 +78,7 @@ public class StatusCommandTest extends BaseCommandTest {
         // Given a valid csprocessor.cfg
         given(cspConfig.getContentSpecId()).willReturn(id);
         // but the content spec doesn't exist
-        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(null);
+        given(textContentSpecProvider.getTextContentSpec(anyInt(), anyInt())).willReturn(null);
 
         // When processing the command
         try {
@@ -114,8 +114,8 @@ public class StatusCommandTest extends BaseCommandTest {
         // Given a valid csprocessor.cfg
         given(cspConfig.getContentSpecId()).willReturn(id);
         // and a valid id
-        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
-        given(contentSpecProvider.getContentSpecAsString(anyInt(), anyInt())).willReturn("");
+        given(textContentSpecProvider.getTextContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn("");
         // and some file that won't exist
         given(contentSpecWrapper.getTitle()).willReturn(randomString);
 
@@ -141,8 +141,8 @@ public class StatusCommandTest extends BaseCommandTest {
         // Given a valid csprocessor.cfg
         given(cspConfig.getContentSpecId()).willReturn(id);
         // and a valid id
-        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
-        given(contentSpecProvider.getContentSpecAsString(anyInt(), anyInt())).willReturn("");
+        given(textContentSpecProvider.getTextContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn("");
         // and the file it should find is inn the resources folder
         given(contentSpecWrapper.getTitle()).willReturn("");
         // Note: this is a bypass since the command works on the current directory, however the actual file might be in a different
@@ -174,8 +174,8 @@ public class StatusCommandTest extends BaseCommandTest {
         // Given a valid csprocessor.cfg
         given(cspConfig.getContentSpecId()).willReturn(id);
         // and a valid id
-        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
-        given(contentSpecProvider.getContentSpecAsString(anyInt(), anyInt())).willReturn("CHECKSUM=" + randomNumber + "\n");
+        given(textContentSpecProvider.getTextContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn("CHECKSUM=" + randomNumber + "\n");
         // and the file it should find is inn the resources folder
         given(contentSpecWrapper.getTitle()).willReturn("");
         // Note: this is a bypass since the command works on the current directory, however the actual file might be in a different
@@ -206,8 +206,8 @@ public class StatusCommandTest extends BaseCommandTest {
         // Given a valid csprocessor.cfg
         given(cspConfig.getContentSpecId()).willReturn(id);
         // and a valid id
-        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
-        given(contentSpecProvider.getContentSpecAsString(anyInt(), anyInt())).willReturn("CHECKSUM=" + randomNumber + "\n");
+        given(textContentSpecProvider.getTextContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn("CHECKSUM=" + randomNumber + "\n");
         // and the file it should find is inn the resources folder
         given(contentSpecWrapper.getTitle()).willReturn("");
         // Note: this is a bypass since the command works on the current directory, however the actual file might be in a different
@@ -242,8 +242,8 @@ public class StatusCommandTest extends BaseCommandTest {
         // Given a valid csprocessor.cfg
         given(cspConfig.getContentSpecId()).willReturn(id);
         // and a valid id
-        given(contentSpecProvider.getContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
-        given(contentSpecProvider.getContentSpecAsString(anyInt(), anyInt())).willReturn("CHECKSUM=" + randomNumber + "\n");
+        given(textContentSpecProvider.getTextContentSpec(anyInt(), anyInt())).willReturn(contentSpecWrapper);
+        given(contentSpecWrapper.getText()).willReturn("CHECKSUM=" + randomNumber + "\n");
         // and the file it should find is inn the resources folder
         given(contentSpecWrapper.getTitle()).willReturn("");
         // Note: this is a bypass since the command works on the current directory, however the actual file might be in a different
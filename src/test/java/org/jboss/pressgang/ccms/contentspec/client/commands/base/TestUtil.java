@@ -38,6 +38,7 @@ import org.jboss.pressgang.ccms.contentspec.Level;
 import org.jboss.pressgang.ccms.contentspec.client.utils.ClientUtilities;
 import org.jboss.pressgang.ccms.contentspec.enums.LevelType;
 import org.jboss.pressgang.ccms.provider.ContentSpecProvider;
+import org.jboss.pressgang.ccms.provider.TextContentSpecProvider;
 import org.jboss.pressgang.ccms.provider.UserProvider;
 import org.jboss.pressgang.ccms.utils.common.HashUtilities;
 import org.jboss.pressgang.ccms.wrapper.CSNodeWrapper;
@@ -165,6 +166,10 @@ public class TestUtil {
         when(ClientUtilities.getContentSpecAsString(eq(contentSpecProvider), anyInt(), anyInt())).thenCallRealMethod();
     }
 
+    public static void setUpTextContentSpecHelper(final TextContentSpecProvider textContentSpecProvider) {
+        when(ClientUtilities.getTextContentSpecEntity(eq(textContentSpecProvider), anyInt(), anyInt())).thenCallRealMethod();
+    }
+
     public static void setUpServerSettings(final ServerSettingsWrapper serverSettings, final ServerEntitiesWrapper serverEntities) {
         when(serverSettings.getDefaultLocale()).thenReturn(new LocaleWrapperMock(DEFAULT_LOCALE, DEFAULT_LOCALE, DEFAULT_LOCALE));
         when(serverEntities.getCspIdPropertyTagId()).thenReturn(CSP_PROPERTY_ID);
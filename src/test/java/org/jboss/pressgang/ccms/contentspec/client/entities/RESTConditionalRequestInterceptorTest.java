@@ -0,0 +1,269 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.entities;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.jboss.pressgang.ccms.contentspec.client.utils.DiskEntityCache;
+import org.jboss.resteasy.client.ClientRequest;
+import org.jboss.resteasy.client.ClientResponse;
+import org.jboss.resteasy.client.core.BaseClientResponse;
+import org.jboss.resteasy.specimpl.MultivaluedMapImpl;
+import org.jboss.resteasy.spi.interception.ClientExecutionContext;
+import org.jboss.resteasy.util.CaseInsensitiveMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+public class RESTConditionalRequestInterceptorTest extends BaseUnitTest {
+    private static final String URI = "http://localhost:8080/pressgang-ccms/rest/1/topic/get/json/1";
+    private static final String CACHE_KEY = "conditional-" + URI;
+    private static final String JSON_TYPE = "application/json";
+    private static final String ETAG = "\"abc123\"";
+    private static final byte[] CONTENT = "{\"id\":1,\"title\":\"Test\"}".getBytes();
+
+    @Mock ClientExecutionContext ctx;
+    @Mock ClientRequest request;
+
+    File cacheDirectory;
+    DiskEntityCache cache;
+    MultivaluedMap<String, Object> requestHeaders;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheDirectory = new File(FileUtils.toFile(ClassLoader.getSystemResource("")), "conditional-cache");
+        FileUtils.deleteDirectory(cacheDirectory);
+        cache = new DiskEntityCache(cacheDirectory, 1024);
+
+        requestHeaders = new MultivaluedMapImpl<String, Object>();
+        given(ctx.getRequest()).willReturn(request);
+        given(request.getHttpMethod()).willReturn("GET");
+        given(request.getUri()).willReturn(URI);
+        given(request.getHeadersAsObjects()).willReturn(requestHeaders);
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(cacheDirectory);
+    }
+
+    @Test
+    public void shouldReturnCachedEntityWhenNotModified() throws Exception {
+        // Given an entity that has been cached with an ETag
+        final Map<String, String> headers = new HashMap<String, String>();
+        headers.put(HttpHeaders.CONTENT_TYPE, JSON_TYPE);
+        headers.put(HttpHeaders.ETAG, ETAG);
+        cache.put(CACHE_KEY, CONTENT, headers);
+        // and the server says the entity hasn't been modified
+        given(ctx.proceed()).willReturn(createResponse(304, new byte[0], new CaseInsensitiveMap<String>()));
+        final RESTConditionalRequestInterceptor interceptor = new RESTConditionalRequestInterceptor(cache);
+
+        // When executing the request
+        final ClientResponse response = interceptor.execute(ctx);
+
+        // Then the request should have been sent with the ETag
+        assertThat((String) requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH), is(ETAG));
+        // and the cached entity should be returned
+        assertThat(response.getStatus(), is(200));
+        assertArrayEquals(CONTENT, readContent(response));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE), is(JSON_TYPE));
+    }
+
+    @Test
+    public void shouldDecompressResponseAndRemoveEncodingHeaders() throws Exception {
+        // Given a compressed response
+        final byte[] compressed = gzip(CONTENT);
+        final MultivaluedMap<String, String> headers = new CaseInsensitiveMap<String>();
+        headers.add(HttpHeaders.CONTENT_TYPE, JSON_TYPE);
+        headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        headers.add(HttpHeaders.CONTENT_LENGTH, Integer.toString(compressed.length));
+        given(ctx.proceed()).willReturn(createResponse(200, compressed, headers));
+        final RESTConditionalRequestInterceptor interceptor = new RESTConditionalRequestInterceptor(cache);
+
+        // When executing the request
+        final ClientResponse response = interceptor.execute(ctx);
+
+        // Then compression should have been requested
+        assertThat((String) requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING), is("gzip"));
+        // and the content should have been decompressed
+        assertArrayEquals(CONTENT, readContent(response));
+        // and the encoding headers should have been removed
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), nullValue());
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH), nullValue());
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE), is(JSON_TYPE));
+    }
+
+    @Test
+    public void shouldCacheResponseWithValidators() throws Exception {
+        // Given a response with an ETag
+        final MultivaluedMap<String, String> headers = new CaseInsensitiveMap<String>();
+        headers.add(HttpHeaders.CONTENT_TYPE, JSON_TYPE);
+        headers.add(HttpHeaders.ETAG, ETAG);
+        final ClientResponse serverResponse = createResponse(200, CONTENT, headers);
+        given(ctx.proceed()).willReturn(serverResponse);
+        final RESTConditionalRequestInterceptor interceptor = new RESTConditionalRequestInterceptor(cache);
+
+        // When executing the request
+        final ClientResponse response = interceptor.execute(ctx);
+
+        // Then the server response should be returned with its content
+        assertThat(response, sameInstance(serverResponse));
+        assertArrayEquals(CONTENT, readContent(response));
+        // and the content and validator should have been cached
+        final DiskEntityCache.Entry entry = cache.get(CACHE_KEY);
+        assertThat(entry, notNullValue());
+        assertArrayEquals(CONTENT, entry.getContent());
+        assertThat(entry.getHeaders().get(HttpHeaders.ETAG), is(ETAG));
+    }
+
+    @Test
+    public void shouldNotCacheResponseWithoutValidators() throws Exception {
+        // Given a response without an ETag or Last-Modified header
+        final MultivaluedMap<String, String> headers = new CaseInsensitiveMap<String>();
+        headers.add(HttpHeaders.CONTENT_TYPE, JSON_TYPE);
+        final ClientResponse serverResponse = createResponse(200, CONTENT, headers);
+        given(ctx.proceed()).willReturn(serverResponse);
+        final RESTConditionalRequestInterceptor interceptor = new RESTConditionalRequestInterceptor(cache);
+
+        // When executing the request
+        final ClientResponse response = interceptor.execute(ctx);
+
+        // Then the server response should be returned untouched
+        assertThat(response, sameInstance(serverResponse));
+        assertArrayEquals(CONTENT, readContent(response));
+        // and nothing should have been cached
+        assertThat(cache.get(CACHE_KEY), nullValue());
+    }
+
+    @Test
+    public void shouldOnlyDecompressResponseWhenThereIsNoCache() throws Exception {
+        // Given a compressed response with an ETag
+        final MultivaluedMap<String, String> headers = new CaseInsensitiveMap<String>();
+        headers.add(HttpHeaders.CONTENT_TYPE, JSON_TYPE);
+        headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        headers.add(HttpHeaders.ETAG, ETAG);
+        given(ctx.proceed()).willReturn(createResponse(200, gzip(CONTENT), headers));
+        // and an interceptor without a cache
+        final RESTConditionalRequestInterceptor interceptor = new RESTConditionalRequestInterceptor(null);
+
+        // When executing the request
+        final ClientResponse response = interceptor.execute(ctx);
+
+        // Then the request shouldn't have been sent with any validators
+        assertThat(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH), nullValue());
+        assertThat(requestHeaders.getFirst(HttpHeaders.IF_MODIFIED_SINCE), nullValue());
+        // and the content should still have been decompressed
+        assertArrayEquals(CONTENT, readContent(response));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), nullValue());
+    }
+
+    @Test
+    public void shouldReturnServerResponseWhenNotModifiedButNotCached() throws Exception {
+        // Given the server says the entity hasn't been modified, but the entity isn't cached
+        final ClientResponse serverResponse = createResponse(304, new byte[0], new CaseInsensitiveMap<String>());
+        given(ctx.proceed()).willReturn(serverResponse);
+        final RESTConditionalRequestInterceptor interceptor = new RESTConditionalRequestInterceptor(cache);
+
+        // When executing the request
+        final ClientResponse response = interceptor.execute(ctx);
+
+        // Then the server response should be returned
+        assertThat(response, sameInstance(serverResponse));
+        assertThat(response.getStatus(), is(304));
+    }
+
+    @Test
+    public void shouldDecompressErrorResponseWithoutCachingIt() throws Exception {
+        // Given a compressed error response with an ETag
+        final byte[] error = "Topic 1 doesn't exist".getBytes();
+        final MultivaluedMap<String, String> headers = new CaseInsensitiveMap<String>();
+        headers.add(HttpHeaders.CONTENT_TYPE, "text/plain");
+        headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        headers.add(HttpHeaders.ETAG, ETAG);
+        given(ctx.proceed()).willReturn(createResponse(404, gzip(error), headers));
+        final RESTConditionalRequestInterceptor interceptor = new RESTConditionalRequestInterceptor(cache);
+
+        // When executing the request
+        final ClientResponse response = interceptor.execute(ctx);
+
+        // Then the error status should be kept
+        assertThat(response.getStatus(), is(404));
+        // and the error message should have been decompressed
+        assertArrayEquals(error, readContent(response));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), nullValue());
+        // and nothing should have been cached
+        assertThat(cache.get(CACHE_KEY), nullValue());
+    }
+
+    @Test
+    public void shouldIgnoreEncodingWhenResponseHasNoContent() throws Exception {
+        // Given a response without any content, but with a compressed encoding
+        final MultivaluedMap<String, String> headers = new CaseInsensitiveMap<String>();
+        headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        given(ctx.proceed()).willReturn(createResponse(204, new byte[0], headers));
+        final RESTConditionalRequestInterceptor interceptor = new RESTConditionalRequestInterceptor(cache);
+
+        // When executing the request
+        final ClientResponse response = interceptor.execute(ctx);
+
+        // Then the response should be returned without any content
+        assertThat(response.getStatus(), is(204));
+        assertThat(readContent(response).length, is(0));
+    }
+
+    private static ClientResponse createResponse(final int status, final byte[] content, final MultivaluedMap<String, String> headers) {
+        final BaseClientResponse response = new BaseClientResponse(new RESTRevisionCacheInterceptor.CachedStreamFactory(content), null);
+        response.setStatus(status);
+        response.setHeaders(headers);
+        return response;
+    }
+
+    private static byte[] readContent(final ClientResponse response) throws IOException {
+        return IOUtils.toByteArray(((BaseClientResponse) response).getStreamFactory().getInputStream());
+    }
+
+    private static byte[] gzip(final byte[] content) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final GZIPOutputStream gos = new GZIPOutputStream(bos);
+        gos.write(content);
+        gos.close();
+        return bos.toByteArray();
+    }
+}
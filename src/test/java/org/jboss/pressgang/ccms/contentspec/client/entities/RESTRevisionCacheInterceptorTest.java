@@ -0,0 +1,137 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.entities;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.jboss.pressgang.ccms.contentspec.client.utils.DiskEntityCache;
+import org.jboss.resteasy.client.ClientRequest;
+import org.jboss.resteasy.client.ClientResponse;
+import org.jboss.resteasy.client.core.BaseClientResponse;
+import org.jboss.resteasy.spi.interception.ClientExecutionContext;
+import org.jboss.resteasy.util.CaseInsensitiveMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+public class RESTRevisionCacheInterceptorTest extends BaseUnitTest {
+    private static final String TOPIC_PATH = "/pressgang-ccms/rest/1/topic/get/json/1/r/10";
+    private static final String TEXT_PATH = "/pressgang-ccms/rest/1/contentspec/get/text/1/r/10";
+    private static final byte[] CONTENT = "{\"id\":1,\"revision\":10}".getBytes();
+
+    @Mock ClientExecutionContext ctx;
+    @Mock ClientRequest request;
+
+    File cacheDirectory;
+    DiskEntityCache cache;
+    RESTRevisionCacheInterceptor interceptor;
+
+    @Before
+    public void setUp() throws Exception {
+        cacheDirectory = new File(FileUtils.toFile(ClassLoader.getSystemResource("")), "revision-cache");
+        FileUtils.deleteDirectory(cacheDirectory);
+        cache = new DiskEntityCache(cacheDirectory, 1024);
+        interceptor = new RESTRevisionCacheInterceptor(cache);
+
+        given(ctx.getRequest()).willReturn(request);
+        given(request.getHttpMethod()).willReturn("GET");
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(cacheDirectory);
+    }
+
+    @Test
+    public void shouldServeRevisionFromCacheForSameServer() throws Exception {
+        // Given a topic revision that has been downloaded from a server
+        given(request.getUri()).willReturn("http://server1:8080" + TOPIC_PATH);
+        given(ctx.proceed()).willReturn(createResponse(CONTENT));
+        interceptor.execute(ctx);
+
+        // When requesting the same revision from the same server
+        final ClientResponse response = interceptor.execute(ctx);
+
+        // Then the revision should be served from the cache without another request
+        verify(ctx, times(1)).proceed();
+        assertArrayEquals(CONTENT, readContent(response));
+    }
+
+    @Test
+    public void shouldNotServeRevisionCachedForAnotherServer() throws Exception {
+        // Given a topic revision that has been downloaded from one server
+        given(request.getUri()).willReturn("http://server1:8080" + TOPIC_PATH);
+        given(ctx.proceed()).willReturn(createResponse(CONTENT));
+        interceptor.execute(ctx);
+
+        // When requesting the same topic revision from a different server
+        given(request.getUri()).willReturn("http://server2:8080" + TOPIC_PATH);
+        final ClientResponse serverResponse = createResponse(CONTENT);
+        given(ctx.proceed()).willReturn(serverResponse);
+        final ClientResponse response = interceptor.execute(ctx);
+
+        // Then the request should be sent to the other server
+        verify(ctx, times(2)).proceed();
+        assertThat(response, sameInstance(serverResponse));
+    }
+
+    @Test
+    public void shouldNotCacheTextRevisions() throws Exception {
+        // Given a content spec text revision that has been downloaded
+        given(request.getUri()).willReturn("http://server1:8080" + TEXT_PATH);
+        given(ctx.proceed()).willReturn(createResponse("Title = Test".getBytes()));
+        interceptor.execute(ctx);
+
+        // When requesting the same revision again
+        interceptor.execute(ctx);
+
+        // Then the request should be sent to the server again, as the text doesn't say which revision it is
+        verify(ctx, times(2)).proceed();
+    }
+
+    private static ClientResponse createResponse(final byte[] content) {
+        final BaseClientResponse response = new BaseClientResponse(new RESTRevisionCacheInterceptor.CachedStreamFactory(content), null);
+        final MultivaluedMap<String, String> headers = new CaseInsensitiveMap<String>();
+        headers.add(HttpHeaders.CONTENT_TYPE, "application/json");
+        response.setStatus(200);
+        response.setHeaders(headers);
+        return response;
+    }
+
+    private static byte[] readContent(final ClientResponse response) throws IOException {
+        return IOUtils.toByteArray(((BaseClientResponse) response).getStreamFactory().getInputStream());
+    }
+}
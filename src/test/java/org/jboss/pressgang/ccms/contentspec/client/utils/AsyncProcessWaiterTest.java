@@ -0,0 +1,173 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.jboss.pressgang.ccms.rest.v1.elements.RESTProcessInformationV1;
+import org.jboss.pressgang.ccms.rest.v1.elements.enums.RESTProcessStatusV1;
+import org.jboss.pressgang.ccms.rest.v1.jaxrsinterfaces.RESTInterfaceV1;
+import org.junit.Test;
+import org.mockito.Mock;
+
+public class AsyncProcessWaiterTest extends BaseUnitTest {
+    private static final String PROCESS_ID = "6bc2f0a4-4d1c-4fd8-9c2e-1a2b3c4d5e6f";
+    private static final String OTHER_PROCESS_ID = "0f1e2d3c-4b5a-6978-8a9b-0c1d2e3f4a5b";
+
+    @Mock RESTInterfaceV1 restClient;
+    @Mock RESTProcessInformationV1 startedProcess;
+    @Mock RESTProcessInformationV1 runningProcess;
+    @Mock RESTProcessInformationV1 completedProcess;
+    @Mock RESTProcessInformationV1 otherStartedProcess;
+    @Mock RESTProcessInformationV1 otherCompletedProcess;
+
+    @Test
+    public void shouldPassOnOnlyNewLogsUntilProcessFinishes() throws InterruptedException {
+        // Given a process that logs a line and then completes (a process that is still running has no final status)
+        mockProcess(startedProcess, PROCESS_ID, null, null);
+        mockProcess(runningProcess, PROCESS_ID, null, "First line\n");
+        mockProcess(completedProcess, PROCESS_ID, RESTProcessStatusV1.COMPLETED, "First line\nSecond line\n");
+        when(restClient.getJSONProcess(eq(PROCESS_ID), anyString())).thenReturn(runningProcess, completedProcess);
+        // and a listener to record the logs
+        final RecordingListener listener = new RecordingListener();
+
+        // When waiting for the process
+        final RESTProcessInformationV1 result = new AsyncProcessWaiter(restClient, 1, 10).waitFor(startedProcess, listener);
+
+        // Then the completed process should be returned
+        assertThat(result, is(completedProcess));
+        // and each log message should only have been passed on once
+        assertThat(listener.logs, is(Arrays.asList("First line\n", "Second line\n")));
+    }
+
+    @Test
+    public void shouldWaitForAllProcesses() throws InterruptedException {
+        // Given two processes that finish at different times
+        mockProcess(startedProcess, PROCESS_ID, null, null);
+        mockProcess(runningProcess, PROCESS_ID, null, null);
+        mockProcess(completedProcess, PROCESS_ID, RESTProcessStatusV1.COMPLETED, null);
+        mockProcess(otherStartedProcess, OTHER_PROCESS_ID, null, null);
+        mockProcess(otherCompletedProcess, OTHER_PROCESS_ID, RESTProcessStatusV1.FAILED, null);
+        when(restClient.getJSONProcess(eq(PROCESS_ID), anyString())).thenReturn(runningProcess, runningProcess, completedProcess);
+        when(restClient.getJSONProcess(eq(OTHER_PROCESS_ID), anyString())).thenReturn(otherCompletedProcess);
+
+        // When waiting for both processes
+        final Map<String, RESTProcessInformationV1> results = new AsyncProcessWaiter(restClient, 1, 10).waitForAll(
+                Arrays.asList(startedProcess, otherStartedProcess), null);
+
+        // Then the final state of each process should be returned
+        assertThat(results.get(PROCESS_ID), is(completedProcess));
+        assertThat(results.get(OTHER_PROCESS_ID), is(otherCompletedProcess));
+        // and a finished process shouldn't be checked again
+        verify(restClient, times(3)).getJSONProcess(eq(PROCESS_ID), anyString());
+        verify(restClient, times(1)).getJSONProcess(eq(OTHER_PROCESS_ID), anyString());
+    }
+
+    @Test
+    public void shouldNotStartMoreProcessesThanAllowed() throws InterruptedException {
+        // Given two processes that finish after being checked once
+        mockProcess(startedProcess, PROCESS_ID, null, null);
+        mockProcess(completedProcess, PROCESS_ID, RESTProcessStatusV1.COMPLETED, null);
+        mockProcess(otherStartedProcess, OTHER_PROCESS_ID, null, null);
+        mockProcess(otherCompletedProcess, OTHER_PROCESS_ID, RESTProcessStatusV1.COMPLETED, null);
+        when(restClient.getJSONProcess(eq(PROCESS_ID), anyString())).thenReturn(completedProcess);
+        when(restClient.getJSONProcess(eq(OTHER_PROCESS_ID), anyString())).thenReturn(otherCompletedProcess);
+        // and starters that record if the first process had finished when the second was started
+        final List<Boolean> firstFinishedWhenStarting = new ArrayList<Boolean>();
+        final List<AsyncProcessWaiter.ProcessStarter> starters = Arrays.asList(new AsyncProcessWaiter.ProcessStarter() {
+            @Override
+            public RESTProcessInformationV1 start() {
+                return startedProcess;
+            }
+        }, new AsyncProcessWaiter.ProcessStarter() {
+            @Override
+            public RESTProcessInformationV1 start() {
+                firstFinishedWhenStarting.add(firstProcessWasChecked());
+                return otherStartedProcess;
+            }
+        });
+
+        // When running the processes one at a time
+        final List<RESTProcessInformationV1> results = new AsyncProcessWaiter(restClient, 1, 10).runAll(starters, 1, null);
+
+        // Then the final state of each process should be returned in order
+        assertThat(results, is(Arrays.asList(completedProcess, otherCompletedProcess)));
+        // and the second process should only have been started once the first had finished
+        assertThat(firstFinishedWhenStarting, is(Arrays.asList(true)));
+    }
+
+    @Test
+    public void shouldOnlyReturnLogsThatHaveNotBeenSeen() {
+        // Given some logs that have already been seen
+        final String previousLogs = "First line\n";
+
+        // When getting the new logs
+        final String unchanged = AsyncProcessWaiter.getNewLogs(previousLogs, previousLogs);
+        final String added = AsyncProcessWaiter.getNewLogs(previousLogs, previousLogs + "Second line\n");
+
+        // Then only the new log messages should be returned
+        assertThat(unchanged, is(""));
+        assertThat(added, is("Second line\n"));
+        assertThat(AsyncProcessWaiter.getNewLogs(previousLogs, null), nullValue());
+    }
+
+    private boolean firstProcessWasChecked() {
+        try {
+            verify(restClient).getJSONProcess(eq(PROCESS_ID), anyString());
+            return true;
+        } catch (AssertionError e) {
+            return false;
+        }
+    }
+
+    private void mockProcess(final RESTProcessInformationV1 process, final String id, final RESTProcessStatusV1 status,
+            final String logs) {
+        when(process.getId()).thenReturn(id);
+        when(process.getStatus()).thenReturn(status);
+        when(process.getLogs()).thenReturn(logs);
+    }
+
+    private static class RecordingListener implements AsyncProcessWaiter.ProcessListener {
+        private final List<String> logs = new ArrayList<String>();
+
+        @Override
+        public void onLogs(RESTProcessInformationV1 processInformation, String newLogs) {
+            logs.add(newLogs);
+        }
+
+        @Override
+        public void onWaiting(List<RESTProcessInformationV1> runningProcesses) {
+        }
+    }
+}
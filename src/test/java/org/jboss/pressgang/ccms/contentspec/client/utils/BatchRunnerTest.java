@@ -0,0 +1,112 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.internal.Console;
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.junit.Test;
+
+public class BatchRunnerTest extends BaseUnitTest {
+    @Test
+    public void shouldReturnExitStatusesInIdOrder() {
+        // Given a runner that runs tasks in parallel
+        final BatchRunner runner = new BatchRunner(3);
+        // and some ids
+        final List<String> ids = Arrays.asList("1", "2", "3", "4");
+
+        // When running a task that returns the id as the exit status
+        final List<Integer> exitStatuses = runner.runAll(ids, new BatchRunner.BatchTask() {
+            @Override
+            public int run(final String id) {
+                return Integer.parseInt(id);
+            }
+        });
+
+        // Then the exit statuses should be in the same order as the ids
+        assertThat(exitStatuses, is(Arrays.asList(1, 2, 3, 4)));
+    }
+
+    @Test
+    public void shouldContinueRunningWhenATaskExits() {
+        // Given a runner that runs tasks sequentially
+        final BatchRunner runner = new BatchRunner(1);
+        // and some ids
+        final List<String> ids = Arrays.asList("1", "2", "3");
+
+        // When running a task that exits for the second id
+        final List<Integer> exitStatuses = runner.runAll(ids, new BatchRunner.BatchTask() {
+            @Override
+            public int run(final String id) {
+                if (id.equals("2")) {
+                    ExitHandler.exit(Constants.EXIT_TOPIC_INVALID);
+                }
+                return Constants.EXIT_SUCCESS;
+            }
+        });
+
+        // Then the exit status should be recorded for the second id
+        assertThat(exitStatuses.get(1), is(Constants.EXIT_TOPIC_INVALID));
+        // and the other tasks should have still succeeded
+        assertThat(exitStatuses.get(0), is(Constants.EXIT_SUCCESS));
+        assertThat(exitStatuses.get(2), is(Constants.EXIT_SUCCESS));
+        // and exiting should no longer be trapped
+        assertThat(ExitHandler.isTrapped(), is(false));
+    }
+
+    @Test
+    public void shouldPrintEachTasksConsoleOutputTogetherWhenRunningInParallel() {
+        // Given a runner that runs tasks in parallel
+        final BatchRunner runner = new BatchRunner(2);
+        // and a console to print to
+        final Console console = mock(Console.class);
+        final Console originalConsole = StreamConsole.setConsole(console);
+        try {
+            // When running a task that prints two lines to the console
+            runner.runAll(Arrays.asList("1", "2"), new BatchRunner.BatchTask() {
+                @Override
+                public int run(final String id) {
+                    JCommander.getConsole().println("Starting " + id);
+                    JCommander.getConsole().println("Finished " + id);
+                    return Constants.EXIT_SUCCESS;
+                }
+            });
+
+            // Then the lines for each task should be printed together
+            final String lineSeparator = System.getProperty("line.separator");
+            verify(console).print("Starting 1" + lineSeparator + "Finished 1" + lineSeparator);
+            verify(console).print("Starting 2" + lineSeparator + "Finished 2" + lineSeparator);
+            // and the console should have been restored
+            assertThat(JCommander.getConsole(), is(console));
+        } finally {
+            StreamConsole.setConsole(originalConsole);
+        }
+    }
+}
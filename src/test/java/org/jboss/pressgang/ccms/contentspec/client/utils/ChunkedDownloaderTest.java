@@ -0,0 +1,139 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.junit.Test;
+
+public class ChunkedDownloaderTest extends BaseUnitTest {
+    private static final String HOST = "localhost:8080";
+
+    @Test
+    public void shouldDownloadEveryItemOnce() {
+        // Given a downloader that sends chunks of 10 items
+        final ChunkedDownloader<Integer> downloader = new ChunkedDownloader<Integer>(new ParallelFetcher(4, 4), 10, 10, 10, 1000, 1);
+        // and some items to download
+        final List<Integer> items = createItems(95);
+        final List<Integer> downloaded = Collections.synchronizedList(new ArrayList<Integer>());
+
+        // When downloading the items
+        downloader.downloadAll(HOST, items, new ChunkedDownloader.ChunkRequest<Integer>() {
+            @Override
+            public void download(List<Integer> chunk) {
+                assertThat(chunk.size() <= 10, is(true));
+                downloaded.addAll(chunk);
+            }
+        });
+
+        // Then every item should have been downloaded once
+        Collections.sort(downloaded);
+        assertThat(downloaded, is(items));
+    }
+
+    @Test
+    public void shouldShrinkChunksThatAreSlowToDownload() {
+        // Given a downloader that aims for chunks to take 10ms
+        final ChunkedDownloader<Integer> downloader = new ChunkedDownloader<Integer>(new ParallelFetcher(2, 2), 100, 1, 100, 10, 1);
+
+        // When downloading items that each take about 1ms
+        downloader.downloadAll(HOST, createItems(200), new ChunkedDownloader.ChunkRequest<Integer>() {
+            @Override
+            public void download(List<Integer> chunk) {
+                sleep(chunk.size());
+            }
+        });
+
+        // Then the chunk size should have been reduced
+        assertThat(downloader.getChunkSize(), lessThan(100));
+    }
+
+    @Test
+    public void shouldOnlyRetryTheFailedChunk() {
+        // Given a downloader that sends chunks of 10 items
+        final ChunkedDownloader<Integer> downloader = new ChunkedDownloader<Integer>(new ParallelFetcher(1, 1), 10, 10, 10, 1000, 2);
+        // and a request that fails the first time it sees item 15
+        final AtomicInteger downloadedCount = new AtomicInteger(0);
+        final AtomicInteger failures = new AtomicInteger(0);
+
+        // When downloading the items
+        downloader.downloadAll(HOST, createItems(30), new ChunkedDownloader.ChunkRequest<Integer>() {
+            @Override
+            public void download(List<Integer> chunk) {
+                if (chunk.contains(15) && failures.getAndIncrement() == 0) {
+                    throw new IllegalStateException("Failed");
+                }
+                downloadedCount.addAndGet(chunk.size());
+            }
+        });
+
+        // Then only the failed chunk should have been downloaded again
+        assertThat(failures.get(), is(2));
+        assertThat(downloadedCount.get(), is(30));
+    }
+
+    @Test
+    public void shouldGiveUpAfterTheMaximumNumberOfAttempts() {
+        // Given a downloader that tries each item twice
+        final ChunkedDownloader<Integer> downloader = new ChunkedDownloader<Integer>(new ParallelFetcher(1, 1), 10, 1, 10, 1000, 2);
+
+        // When downloading items where one always fails
+        try {
+            downloader.downloadAll(HOST, createItems(10), new ChunkedDownloader.ChunkRequest<Integer>() {
+                @Override
+                public void download(List<Integer> chunk) {
+                    if (chunk.contains(5)) {
+                        throw new IllegalStateException("Failed");
+                    }
+                }
+            });
+
+            // Then an exception should have been thrown
+            fail("The exception from the failed chunk was not thrown");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("Failed"));
+        }
+    }
+
+    private static List<Integer> createItems(final int count) {
+        final List<Integer> items = new ArrayList<Integer>();
+        for (int i = 0; i < count; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -23,21 +23,29 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import javax.ws.rs.core.PathSegment;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
@@ -46,6 +54,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import com.beust.jcommander.JCommander;
 import net.sf.ipsedixit.annotation.Arbitrary;
@@ -53,20 +63,36 @@ import net.sf.ipsedixit.annotation.ArbitraryNumber;
 import net.sf.ipsedixit.annotation.ArbitraryString;
 import net.sf.ipsedixit.core.StringType;
 import org.apache.commons.io.FileUtils;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
 import org.jboss.pressgang.ccms.contentspec.ContentSpec;
+import org.jboss.pressgang.ccms.contentspec.SpecTopic;
 import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.BaseCommandImpl;
 import org.jboss.pressgang.ccms.contentspec.client.commands.base.TestUtil;
 import org.jboss.pressgang.ccms.contentspec.client.config.ClientConfiguration;
 import org.jboss.pressgang.ccms.contentspec.client.config.ContentSpecConfiguration;
+import org.jboss.pressgang.ccms.contentspec.client.constants.Constants;
+import org.jboss.pressgang.ccms.contentspec.client.exception.ClientExitException;
 import org.jboss.pressgang.ccms.contentspec.entities.Spec;
 import org.jboss.pressgang.ccms.contentspec.entities.SpecList;
 import org.jboss.pressgang.ccms.contentspec.utils.CSTransformer;
 import org.jboss.pressgang.ccms.contentspec.utils.logging.ErrorLoggerManager;
+import org.jboss.pressgang.ccms.provider.DataProviderFactory;
 import org.jboss.pressgang.ccms.provider.RESTProviderFactory;
 import org.jboss.pressgang.ccms.provider.ServerSettingsProvider;
+import org.jboss.pressgang.ccms.provider.TopicProvider;
 import org.jboss.pressgang.ccms.provider.UserProvider;
+import org.jboss.pressgang.ccms.rest.v1.collections.RESTTopicCollectionV1;
+import org.jboss.pressgang.ccms.rest.v1.entities.RESTTopicV1;
 import org.jboss.pressgang.ccms.utils.common.FileUtilities;
+import org.jboss.pressgang.ccms.utils.structures.Pair;
 import org.jboss.pressgang.ccms.wrapper.ContentSpecWrapper;
 import org.jboss.pressgang.ccms.wrapper.PropertyTagInContentSpecWrapper;
 import org.jboss.pressgang.ccms.wrapper.ServerEntitiesWrapper;
@@ -81,9 +107,12 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.rule.PowerMockRule;
+import org.powermock.reflect.Whitebox;
 
 @PrepareForTest(FileUtilities.class)
 public class ClientUtilitiesTest extends BaseUnitTest {
@@ -333,6 +362,51 @@ public class ClientUtilitiesTest extends BaseUnitTest {
         assertTrue(retValue);
     }
 
+    @Test
+    public void shouldOnlyUpdateChangedFilesWhenUnzippingIncrementally() throws IOException {
+        // Given an assembly directory from a previous build
+        final File assemblyDir = new File(bookDir, "assembly");
+        final File unchangedFile = new File(assemblyDir, "unchanged.xml");
+        final File changedFile = new File(assemblyDir, "changed.xml");
+        final File removedFile = new File(assemblyDir, "removed.xml");
+        final File tmpFile = new File(assemblyDir, "tmp" + File.separator + "en-US" + File.separator + "cached.xml");
+        FileUtils.writeStringToFile(unchangedFile, "unchanged");
+        FileUtils.writeStringToFile(changedFile, "original");
+        FileUtils.writeStringToFile(removedFile, "removed");
+        FileUtils.writeStringToFile(tmpFile, "cached");
+        final long lastModified = (System.currentTimeMillis() - 60000) / 1000 * 1000;
+        unchangedFile.setLastModified(lastModified);
+        // and a new build with one file changed and one file removed
+        final byte[] archive = createZip("unchanged.xml", "unchanged", "changed.xml", "updated");
+
+        // When the archive is unzipped incrementally
+        final boolean result = ClientUtilities.unzipIntoDirectoryIncrementally(archive, assemblyDir, Arrays.asList("tmp"));
+
+        // Then the archive should have been extracted successfully
+        assertTrue(result);
+        // and the unchanged file should not have been rewritten
+        assertThat(unchangedFile.lastModified(), is(lastModified));
+        // and the changed file should have the new content
+        assertThat(FileUtils.readFileToString(changedFile), is("updated"));
+        // and the removed file should have been deleted
+        assertFalse(removedFile.exists());
+        // and the publican tmp directory should have been kept
+        assertTrue(tmpFile.exists());
+    }
+
+    @Test
+    public void shouldReadBatchIdsIgnoringBlankLinesAndComments() throws IOException {
+        // Given a file of ids with comments and blank lines
+        final File idsFile = new File(bookDir, "ids.txt");
+        FileUtils.writeStringToFile(idsFile, "# Nightly books\n" + id + "\n\n  " + secondId + "  \nbook.contentspec\n");
+
+        // When reading the ids
+        final List<String> ids = ClientUtilities.readBatchIds(idsFile);
+
+        // Then only the ids should be returned, in order
+        assertThat(ids, is(Arrays.asList(id.toString(), secondId.toString(), "book.contentspec")));
+    }
+
     @Test
     public void shouldSaveSpecAndConfig() throws IOException {
         // Given the title of the book and an id
@@ -725,4 +799,275 @@ public class ClientUtilitiesTest extends BaseUnitTest {
         assertThat(spec.getLastModified(), is(now));
         assertThat(spec.getCreator(), is(username));
     }
+
+    @Test
+    public void shouldOnlyLookupEachCreatorOnceWhenBuildingSpecList() {
+        final PropertyTagInContentSpecWrapper propTag = mock(PropertyTagInContentSpecWrapper.class);
+        final CollectionWrapper<UserWrapper> users = mock(CollectionWrapper.class);
+        // Given a list of content specs that were created by the same user
+        List<TextContentSpecWrapper> contentSpecs = Arrays.asList(textContentSpecWrapper, textContentSpecWrapper, textContentSpecWrapper);
+        given(textContentSpecWrapper.getId()).willReturn(id);
+        given(textContentSpecWrapper.getProperty(anyInt())).willReturn(propTag);
+        given(propTag.getValue()).willReturn(username);
+        // and the provider factory will return a user provider
+        given(providerFactory.getProvider(UserProvider.class)).willReturn(userProvider);
+        // and the user provider finds a valid user
+        given(userProvider.getUsersByName(anyString())).willReturn(users);
+        given(users.size()).willReturn(1);
+        given(users.getItems()).willReturn(Arrays.asList(user));
+        given(user.getUsername()).willReturn(username);
+
+        // When building the spec list twice
+        ClientUtilities.buildSpecList(contentSpecs, providerFactory, serverEntities);
+        final SpecList list = ClientUtilities.buildSpecList(contentSpecs, providerFactory, serverEntities);
+
+        // Then every spec should have the creator
+        assertThat(list.getCount(), is(3L));
+        for (final Spec spec : list.getSpecs()) {
+            assertThat(spec.getCreator(), is(username));
+        }
+        // and the user should only have been looked up once
+        verify(userProvider, times(1)).getUsersByName(username);
+    }
+
+    @Test
+    public void shouldStopCommandWhenWaitingForShutdownWhileExitsAreTrapped() {
+        // Given exits are being trapped, like in the daemon
+        ExitHandler.setTrapped(true);
+
+        // When waiting for the application to shut down
+        try {
+            ClientUtilities.waitForShutdown(command);
+            fail("The command should have been stopped");
+        } catch (ClientExitException e) {
+            // Then the command should be stopped instead of waiting forever
+            assertThat(e.getExitStatus(), is(Constants.EXIT_SHUTDOWN_REQUEST));
+            // and the command should be marked as shutdown
+            verify(command).setShutdown(true);
+        } finally {
+            ExitHandler.setTrapped(false);
+        }
+    }
+
+    @Test
+    public void shouldNeverPoolFewerConnectionsPerHostThanParallelDownloads() {
+        // Given a configuration that allows more parallel downloads than http connections to a host
+        final ClientConfiguration clientConfig = createHttpConfig(2, 20, 8);
+
+        // When creating the http client
+        final HttpClient httpClient = ClientUtilities.createPooledHttpClient(clientConfig);
+
+        // Then each host should allow as many connections as there are parallel downloads
+        final ThreadSafeClientConnManager connectionManager = (ThreadSafeClientConnManager) httpClient.getConnectionManager();
+        assertThat(connectionManager.getDefaultMaxPerRoute(), is(8));
+        // and the total number of connections should still be from the configuration
+        assertThat(connectionManager.getMaxTotal(), is(20));
+        // and waiting for a connection should time out
+        assertThat(ConnManagerParams.getTimeout(httpClient.getParams()), is(60000L));
+    }
+
+    @Test
+    public void shouldNeverPoolFewerConnectionsInTotalThanPerHost() {
+        // Given a configuration that allows more connections to a host than in total
+        final ClientConfiguration clientConfig = createHttpConfig(10, 4, 2);
+
+        // When creating the http client
+        final HttpClient httpClient = ClientUtilities.createPooledHttpClient(clientConfig);
+
+        // Then the total number of connections should be raised to the number of connections per host
+        final ThreadSafeClientConnManager connectionManager = (ThreadSafeClientConnManager) httpClient.getConnectionManager();
+        assertThat(connectionManager.getDefaultMaxPerRoute(), is(10));
+        assertThat(connectionManager.getMaxTotal(), is(10));
+    }
+
+    @Test
+    public void shouldUseConfiguredKeepAliveWhenServerDoesNotSendOne() {
+        // Given a http client with a 30 second keep alive
+        final DefaultHttpClient httpClient = (DefaultHttpClient) ClientUtilities.createPooledHttpClient(createHttpConfig(2, 20, 8));
+        // and a response without a keep alive header
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+
+        // When getting how long to keep the connection alive
+        final long duration = httpClient.getConnectionKeepAliveStrategy().getKeepAliveDuration(response, new BasicHttpContext());
+
+        // Then the configured keep alive should be used
+        assertThat(duration, is(30000L));
+    }
+
+    @Test
+    public void shouldUseServerKeepAliveWhenServerSendsOne() {
+        // Given a http client with a 30 second keep alive
+        final DefaultHttpClient httpClient = (DefaultHttpClient) ClientUtilities.createPooledHttpClient(createHttpConfig(2, 20, 8));
+        // and a response with a 5 second keep alive header
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.addHeader("Keep-Alive", "timeout=5");
+
+        // When getting how long to keep the connection alive
+        final long duration = httpClient.getConnectionKeepAliveStrategy().getKeepAliveDuration(response, new BasicHttpContext());
+
+        // Then the servers keep alive should be used
+        assertThat(duration, is(5000L));
+    }
+
+    @Test
+    public void shouldKeepTopicDownloaderWhenDownloadSettingsAreUnchanged() {
+        // Given downloads that have already been configured
+        given(clientConfig.getDownloadThreads()).willReturn(3);
+        given(clientConfig.getDownloadConnectionsPerHost()).willReturn(2);
+        ClientUtilities.configureDownloads(clientConfig, "http://localhost:8080/pressgang-ccms/rest/");
+        final Object topicDownloader = Whitebox.getInternalState(ClientUtilities.class, "topicDownloader");
+
+        // When configuring the downloads again with the same settings
+        ClientUtilities.configureDownloads(clientConfig, "http://localhost:8080/pressgang-ccms/rest/");
+
+        // Then the same downloader should be used, so its learned chunk size is kept
+        assertSame(topicDownloader, Whitebox.getInternalState(ClientUtilities.class, "topicDownloader"));
+    }
+
+    @Test
+    public void shouldReplaceTopicDownloaderWhenDownloadSettingsChange() {
+        // Given downloads that have already been configured
+        given(clientConfig.getDownloadThreads()).willReturn(3);
+        given(clientConfig.getDownloadConnectionsPerHost()).willReturn(2);
+        ClientUtilities.configureDownloads(clientConfig, "http://localhost:8080/pressgang-ccms/rest/");
+        final Object topicDownloader = Whitebox.getInternalState(ClientUtilities.class, "topicDownloader");
+
+        // When configuring the downloads again with more threads
+        given(clientConfig.getDownloadThreads()).willReturn(5);
+        ClientUtilities.configureDownloads(clientConfig, "http://localhost:8080/pressgang-ccms/rest/");
+
+        // Then a new downloader should be used
+        assertNotSame(topicDownloader, Whitebox.getInternalState(ClientUtilities.class, "topicDownloader"));
+    }
+
+    @Test
+    public void shouldDownloadLatestTopicsInParallelAndCacheThemFromCallingThread() {
+        // Given topics downloads that can run in parallel
+        given(clientConfig.getDownloadThreads()).willReturn(4);
+        given(clientConfig.getDownloadConnectionsPerHost()).willReturn(4);
+        ClientUtilities.configureDownloads(clientConfig, "http://localhost:8080/pressgang-ccms/rest/");
+        // and a REST client that returns the latest topics
+        final RESTProviderFactory restProviderFactory = mock(RESTProviderFactory.class, RETURNS_DEEP_STUBS);
+        final RESTTopicV1 topic = mock(RESTTopicV1.class);
+        final RESTTopicCollectionV1 topics = mock(RESTTopicCollectionV1.class);
+        given(topics.returnItems()).willReturn(Arrays.asList(topic));
+        given(restProviderFactory.getRESTManager().getRESTClient().getJSONTopicsWithQuery(any(PathSegment.class), anyString()))
+                .willReturn(topics);
+        // and the threads that add topics to the entity cache are recorded
+        final List<Thread> cachingThreads = Collections.synchronizedList(new ArrayList<Thread>());
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                cachingThreads.add(Thread.currentThread());
+                return null;
+            }
+        }).when(restProviderFactory.getRESTManager().getRESTEntityCache()).add(topic);
+        // and a content spec that uses the latest revision of a topic
+        final SpecTopic specTopic = mock(SpecTopic.class);
+        given(specTopic.getDBId()).willReturn(1);
+        given(contentSpec.getSpecTopics()).willReturn(Arrays.asList(specTopic));
+
+        // When downloading the topics
+        ClientUtilities.downloadAllTopics(restProviderFactory, contentSpec, null);
+
+        // Then the topic should have been added to the cache from the calling thread
+        assertThat(cachingThreads, is(Arrays.asList(Thread.currentThread())));
+    }
+
+    @Test
+    public void shouldDownloadRevisionTopicsInParallelAndCacheThemFromCallingThread() {
+        // Given topics downloads that can run in parallel
+        given(clientConfig.getDownloadThreads()).willReturn(4);
+        given(clientConfig.getDownloadConnectionsPerHost()).willReturn(4);
+        ClientUtilities.configureDownloads(clientConfig, "http://localhost:8080/pressgang-ccms/rest/");
+        // and a REST client that returns some topic revisions
+        final RESTProviderFactory restProviderFactory = mock(RESTProviderFactory.class, RETURNS_DEEP_STUBS);
+        final RESTTopicV1 topic1 = mock(RESTTopicV1.class);
+        final RESTTopicV1 topic2 = mock(RESTTopicV1.class);
+        given(restProviderFactory.getRESTManager().getRESTClient().getJSONTopicRevision(1, 10, "")).willReturn(topic1);
+        given(restProviderFactory.getRESTManager().getRESTClient().getJSONTopicRevision(2, 20, "")).willReturn(topic2);
+        // and the threads that add topics to the entity cache are recorded
+        final List<Thread> cachingThreads = Collections.synchronizedList(new ArrayList<Thread>());
+        final Answer<Void> recordThread = new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                cachingThreads.add(Thread.currentThread());
+                return null;
+            }
+        };
+        doAnswer(recordThread).when(restProviderFactory.getRESTManager().getRESTEntityCache()).add(topic1, 10);
+        doAnswer(recordThread).when(restProviderFactory.getRESTManager().getRESTEntityCache()).add(topic2, 20);
+
+        // When downloading the topic revisions
+        ClientUtilities.downloadRevisionTopics(restProviderFactory,
+                Arrays.asList(new Pair<Integer, Integer>(1, 10), new Pair<Integer, Integer>(2, 20)));
+
+        // Then each topic should be added to the cache under the revision that was requested
+        verify(restProviderFactory.getRESTManager().getRESTEntityCache()).add(topic1, 10);
+        verify(restProviderFactory.getRESTManager().getRESTEntityCache()).add(topic2, 20);
+        // and the cache should only have been updated from the calling thread
+        assertThat(cachingThreads, is(Arrays.asList(Thread.currentThread(), Thread.currentThread())));
+    }
+
+    @Test
+    public void shouldOnlyCacheTopicsDownloadedInBackgroundWhenAddedToCache() {
+        // Given a REST client that returns a topic revision
+        final RESTProviderFactory restProviderFactory = mock(RESTProviderFactory.class, RETURNS_DEEP_STUBS);
+        final RESTTopicV1 topic = mock(RESTTopicV1.class);
+        given(restProviderFactory.getRESTManager().getRESTClient().getJSONTopicRevision(1, 10, "")).willReturn(topic);
+        // and a content spec that uses that revision of the topic
+        final SpecTopic specTopic = mock(SpecTopic.class);
+        given(specTopic.getDBId()).willReturn(1);
+        given(specTopic.getRevision()).willReturn(10);
+        given(contentSpec.getSpecTopics()).willReturn(Arrays.asList(specTopic));
+
+        // When downloading the topics in the background
+        final DownloadedTopics downloadedTopics = ClientUtilities.startDownloadingAllTopics(restProviderFactory, contentSpec, null)
+                .waitFor();
+
+        // Then the topic shouldn't have been added to the cache by the download
+        verify(restProviderFactory.getRESTManager().getRESTEntityCache(), never()).add(topic, 10);
+        // and adding the downloaded topics should cache the topic
+        downloadedTopics.addToCache(restProviderFactory);
+        verify(restProviderFactory.getRESTManager().getRESTEntityCache()).add(topic, 10);
+    }
+
+    @Test
+    public void shouldDownloadRevisionTopicsThroughProviderWhenNotUsingREST() {
+        // Given a provider factory that doesn't use REST
+        final DataProviderFactory dataProviderFactory = mock(DataProviderFactory.class);
+        final TopicProvider topicProvider = mock(TopicProvider.class);
+        given(dataProviderFactory.getProvider(TopicProvider.class)).willReturn(topicProvider);
+
+        // When downloading the topic revisions
+        ClientUtilities.downloadRevisionTopics(dataProviderFactory,
+                Arrays.asList(new Pair<Integer, Integer>(1, 10), new Pair<Integer, Integer>(2, 20)));
+
+        // Then each topic should be downloaded through the topic provider
+        verify(topicProvider).getTopic(1, 10);
+        verify(topicProvider).getTopic(2, 20);
+    }
+
+    protected ClientConfiguration createHttpConfig(final int connectionsPerHost, final int connections, final int downloadConnectionsPerHost) {
+        final ClientConfiguration clientConfig = new ClientConfiguration();
+        clientConfig.setHttpConnectionsPerHost(connectionsPerHost);
+        clientConfig.setHttpConnections(connections);
+        clientConfig.setDownloadConnectionsPerHost(downloadConnectionsPerHost);
+        clientConfig.setHttpKeepAlive(30);
+        clientConfig.setHttpConnectTimeout(10);
+        clientConfig.setHttpSocketTimeout(60);
+        return clientConfig;
+    }
+
+    protected byte[] createZip(final String... entryNamesAndContent) throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final ZipOutputStream zos = new ZipOutputStream(bos);
+        for (int i = 0; i < entryNamesAndContent.length; i += 2) {
+            zos.putNextEntry(new ZipEntry(entryNamesAndContent[i]));
+            zos.write(entryNamesAndContent[i + 1].getBytes("UTF-8"));
+            zos.closeEntry();
+        }
+        zos.close();
+        return bos.toByteArray();
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DiskEntityCacheTest extends BaseUnitTest {
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String JSON_TYPE = "application/json";
+
+    File cacheDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDirectory = new File(FileUtils.toFile(ClassLoader.getSystemResource("")), "entity-cache");
+        FileUtils.deleteDirectory(cacheDirectory);
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(cacheDirectory);
+    }
+
+    @Test
+    public void shouldReturnNullForUncachedEntity() {
+        // Given an empty cache
+        final DiskEntityCache cache = new DiskEntityCache(cacheDirectory, 1024);
+
+        // When getting an entity
+        final DiskEntityCache.Entry entry = cache.get("topic-1-1-json");
+
+        // Then nothing should be returned
+        assertThat(entry, nullValue());
+    }
+
+    @Test
+    public void shouldReturnCachedEntityAndHeaders() {
+        // Given a cache
+        final DiskEntityCache cache = new DiskEntityCache(cacheDirectory, 1024);
+        // and an entity that has been added
+        final byte[] content = "{\"id\":1,\"revision\":1}".getBytes();
+        final Map<String, String> headers = new HashMap<String, String>();
+        headers.put(CONTENT_TYPE, JSON_TYPE);
+        cache.put("topic-1-1-json", content, headers);
+
+        // When getting the entity
+        final DiskEntityCache.Entry entry = cache.get("topic-1-1-json");
+
+        // Then the content and headers should match what was added
+        assertThat(entry, notNullValue());
+        assertArrayEquals(content, entry.getContent());
+        assertThat(entry.getHeaders().get(CONTENT_TYPE), is(JSON_TYPE));
+    }
+
+    @Test
+    public void shouldOnlyStoreIdenticalContentOnce() {
+        // Given a cache
+        final DiskEntityCache cache = new DiskEntityCache(cacheDirectory, 1024);
+        // and two entities with the same content
+        final byte[] content = "Title = Test".getBytes();
+
+        // When adding the entities
+        cache.put("contentspec-1-1-text", content, null);
+        cache.put("contentspec-1-2-text", content, null);
+
+        // Then both entities should be able to be retrieved
+        assertThat(cache.get("contentspec-1-1-text"), notNullValue());
+        assertThat(cache.get("contentspec-1-2-text"), notNullValue());
+        // and the content should only be stored once
+        assertThat(new File(cacheDirectory, "objects").listFiles().length, is(1));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedContentWhenFull() {
+        // Given a cache that can only hold two entities
+        final DiskEntityCache cache = new DiskEntityCache(cacheDirectory, 20);
+        cache.put("topic-1-1-json", "0123456789".getBytes(), null);
+        new File(cacheDirectory, "objects").listFiles()[0].setLastModified(System.currentTimeMillis() - 60000);
+        cache.put("topic-2-1-json", "abcdefghij".getBytes(), null);
+
+        // When adding a third entity
+        cache.put("topic-3-1-json", "ABCDEFGHIJ".getBytes(), null);
+
+        // Then the least recently used entity should have been evicted
+        assertThat(cache.get("topic-1-1-json"), nullValue());
+        assertThat(cache.get("topic-2-1-json"), notNullValue());
+        assertThat(cache.get("topic-3-1-json"), notNullValue());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.junit.Test;
+
+public class LongRunningRequestTest extends BaseUnitTest {
+    @Test
+    public void shouldReturnResultAndElapsedTimeWhenRequestCompletes() throws Exception {
+        // Given a request that takes a little while
+        final FutureTask<String> task = new FutureTask<String>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                Thread.sleep(20);
+                return "Saved";
+            }
+        });
+
+        // When running the request
+        final LongRunningRequest<String> request = LongRunningRequest.submit(task);
+
+        // Then the result should be available once it completes
+        assertThat(request.get(5, TimeUnit.SECONDS), is("Saved"));
+        assertThat(request.isDone(), is(true));
+        // and the elapsed time should cover the time the request took
+        assertThat(request.getElapsedTime(), greaterThanOrEqualTo(20L));
+    }
+
+    @Test
+    public void shouldPassOnFailureWhenWaitingForRequest() throws Exception {
+        // Given a request that fails
+        final IllegalStateException failure = new IllegalStateException();
+        final FutureTask<String> task = new FutureTask<String>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw failure;
+            }
+        });
+        final LongRunningRequest<String> request = LongRunningRequest.submit(task);
+
+        // When waiting for the request
+        try {
+            request.waitFor();
+            fail("The request should have failed");
+        } catch (IllegalStateException e) {
+            // Then the failure from the request should be thrown
+            assertThat(e, is(failure));
+        }
+    }
+
+    @Test
+    public void shouldReleaseWaitersWhenCancelled() throws Exception {
+        // Given a request that won't complete by itself
+        final CountDownLatch started = new CountDownLatch(1);
+        final FutureTask<String> task = new FutureTask<String>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                started.countDown();
+                Thread.sleep(60000);
+                return "Saved";
+            }
+        });
+        final LongRunningRequest<String> request = LongRunningRequest.submit(task);
+        started.await(5, TimeUnit.SECONDS);
+
+        // When all requests are cancelled
+        LongRunningRequest.cancelAll();
+
+        // Then anything waiting on the request should be released
+        try {
+            request.get(5, TimeUnit.SECONDS);
+            fail("The request should have been cancelled");
+        } catch (CancellationException e) {
+            assertThat(request.isDone(), is(true));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.junit.Test;
+
+public class ParallelFetcherTest extends BaseUnitTest {
+    private static final String HOST = "localhost:8080";
+
+    @Test
+    public void shouldReturnResultsInRequestOrder() {
+        // Given a fetcher that runs requests in parallel
+        final ParallelFetcher fetcher = new ParallelFetcher(4, 4);
+        // and some requests that finish in reverse order
+        final List<Callable<Integer>> requests = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(new SleepingRequest(i, (8 - i) * 5));
+        }
+
+        // When fetching the requests
+        final List<Integer> results = fetcher.fetchAll(HOST, requests, null);
+
+        // Then the results should be in the same order as the requests
+        for (int i = 0; i < 8; i++) {
+            assertThat(results.get(i), is(i));
+        }
+    }
+
+    @Test
+    public void shouldNotifyListenerForEachCompletedRequest() {
+        // Given a fetcher that runs requests in parallel
+        final ParallelFetcher fetcher = new ParallelFetcher(3, 3);
+        // and some requests
+        final List<Callable<Integer>> requests = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(new SleepingRequest(i, 1));
+        }
+        // and a listener to count the notifications
+        final AtomicInteger notifications = new AtomicInteger(0);
+        final AtomicInteger lastCompleted = new AtomicInteger(0);
+
+        // When fetching the requests
+        fetcher.fetchAll(HOST, requests, new ParallelFetcher.FetchListener<Integer>() {
+            @Override
+            public void onFetched(Integer result, int completed, int total) {
+                notifications.incrementAndGet();
+                lastCompleted.set(completed);
+                assertThat(total, is(10));
+            }
+        });
+
+        // Then the listener should have been notified for every request
+        assertThat(notifications.get(), is(10));
+        assertThat(lastCompleted.get(), is(10));
+    }
+
+    @Test
+    public void shouldNotExceedTheConnectionsPerHostLimit() {
+        // Given a fetcher with more threads than connections allowed per host
+        final ParallelFetcher fetcher = new ParallelFetcher(8, 2);
+        // and some requests that track how many are running at once
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final List<Callable<Integer>> requests = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < 16; i++) {
+            requests.add(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    final int current = running.incrementAndGet();
+                    synchronized (maxRunning) {
+                        maxRunning.set(Math.max(maxRunning.get(), current));
+                    }
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return current;
+                }
+            });
+        }
+
+        // When fetching the requests
+        fetcher.fetchAll(HOST, requests, null);
+
+        // Then no more than two requests should have been running at the same time
+        assertThat(maxRunning.get(), lessThanOrEqualTo(2));
+    }
+
+    @Test
+    public void shouldRethrowRuntimeExceptionsFromRequests() {
+        // Given a fetcher that runs requests in parallel
+        final ParallelFetcher fetcher = new ParallelFetcher(2, 2);
+        // and a request that will fail
+        final List<Callable<Integer>> requests = new ArrayList<Callable<Integer>>();
+        requests.add(new SleepingRequest(0, 1));
+        requests.add(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                throw new IllegalStateException("Failed");
+            }
+        });
+
+        // When fetching the requests
+        try {
+            fetcher.fetchAll(HOST, requests, null);
+
+            // Then an exception should have been thrown
+            fail("The exception from the failed request was not thrown");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("Failed"));
+        }
+    }
+
+    private static class SleepingRequest implements Callable<Integer> {
+        private final int value;
+        private final long sleep;
+
+        private SleepingRequest(final int value, final long sleep) {
+            this.value = value;
+            this.sleep = sleep;
+        }
+
+        @Override
+        public Integer call() throws Exception {
+            Thread.sleep(sleep);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProfilerTest extends BaseUnitTest {
+    private static final long MILLIS = 1000000L;
+
+    @Before
+    public void setUp() {
+        Profiler.reset();
+        Profiler.setEnabled(true);
+    }
+
+    @After
+    public void cleanUp() {
+        Profiler.setEnabled(false);
+        Profiler.reset();
+    }
+
+    @Test
+    public void shouldNotRecordAnythingWhenDisabled() {
+        // Given profiling isn't enabled
+        Profiler.setEnabled(false);
+
+        // When timing a phase
+        Profiler.start(Profiler.BUILD).stop();
+
+        // Then nothing should have been recorded
+        assertThat(Profiler.getPhases().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldCombineRunsOfTheSamePhase() {
+        // Given a phase that is run a number of times
+        Profiler.record(Profiler.TOPIC_DOWNLOAD_REQUEST, 10 * MILLIS, 100, 1000);
+        Profiler.record(Profiler.TOPIC_DOWNLOAD_REQUEST, 30 * MILLIS, 50, 500);
+
+        // When getting the recorded phases
+        final List<Profiler.Phase> phases = Profiler.getPhases();
+
+        // Then the runs should have been combined
+        assertThat(phases.size(), is(1));
+        final Profiler.Phase phase = phases.get(0);
+        assertThat(phase.getCount(), is(2));
+        assertThat(phase.getTotalTime(), is(40 * MILLIS));
+        assertThat(phase.getItems(), is(150L));
+        assertThat(phase.getBytes(), is(1500L));
+        assertThat(phase.getMinTime(), is(10 * MILLIS));
+        assertThat(phase.getMaxTime(), is(30 * MILLIS));
+    }
+
+    @Test
+    public void shouldReturnPhasesInTheOrderTheyWereFirstRun() {
+        // Given some phases that have been run
+        Profiler.record(Profiler.CONFIG_LOAD, MILLIS, 0, 0);
+        Profiler.record(Profiler.BUILD, MILLIS, 0, 0);
+        Profiler.record(Profiler.CONFIG_LOAD, MILLIS, 0, 0);
+
+        // When getting the recorded phases
+        final List<Profiler.Phase> phases = Profiler.getPhases();
+
+        // Then they should be in the order they were first run
+        assertThat(phases.size(), is(2));
+        assertThat(phases.get(0).getName(), is(Profiler.CONFIG_LOAD));
+        assertThat(phases.get(1).getName(), is(Profiler.BUILD));
+    }
+
+    @Test
+    public void shouldCalculatePercentilesUsingTheNearestRank() {
+        // Given a phase that has been run 100 times, taking 1ms to 100ms
+        for (int i = 100; i >= 1; i--) {
+            Profiler.record(Profiler.TOPIC_DOWNLOAD_REQUEST, i * MILLIS, 1, 0);
+        }
+
+        // When getting the percentiles
+        final Profiler.Phase phase = Profiler.getPhases().get(0);
+
+        // Then the nearest rank should be used
+        assertThat(phase.getPercentile(50), is(50 * MILLIS));
+        assertThat(phase.getPercentile(90), is(90 * MILLIS));
+        assertThat(phase.getPercentile(99), is(99 * MILLIS));
+        assertThat(phase.getPercentile(100), is(100 * MILLIS));
+    }
+
+    @Test
+    public void shouldOnlyProfileOneCommandAtATime() {
+        // Given a command is already being profiled
+        assertThat(Profiler.begin(true), is(true));
+        try {
+            Profiler.record(Profiler.BUILD, MILLIS, 0, 0);
+
+            // When another command starts profiling
+            final boolean started = Profiler.begin(true);
+
+            // Then it shouldn't be started
+            assertThat(started, is(false));
+            // and the first commands recording should be kept
+            assertThat(Profiler.getPhases().size(), is(1));
+        } finally {
+            Profiler.end();
+        }
+
+        // and another command can be profiled once the first has finished
+        assertThat(Profiler.begin(true), is(true));
+        Profiler.end();
+    }
+
+    @Test
+    public void shouldRecordTimersThatAreStillRunningWhenStopped() {
+        // Given a phase that is still being timed
+        final Profiler.Timer timer = Profiler.start(Profiler.COMMAND);
+
+        // When stopping the running timers, and then the timer itself
+        Profiler.stopRunningTimers();
+        timer.stop();
+
+        // Then the phase should have been recorded once
+        final List<Profiler.Phase> phases = Profiler.getPhases();
+        assertThat(phases.size(), is(1));
+        assertThat(phases.get(0).getName(), is(Profiler.COMMAND));
+        assertThat(phases.get(0).getCount(), is(1));
+    }
+
+    @Test
+    public void shouldIncludeEachPhaseInTheTable() {
+        // Given some phases that have been run
+        Profiler.record(Profiler.VERSION_CHECK, 5 * MILLIS, 0, 0);
+        Profiler.record(Profiler.ZIP_WRITE, 7 * MILLIS, 0, 2048);
+
+        // When formatting the table
+        final String table = Profiler.formatTable();
+
+        // Then each phase should be included
+        assertThat(table, containsString(Profiler.VERSION_CHECK));
+        assertThat(table, containsString(Profiler.ZIP_WRITE));
+        assertThat(table, containsString("2048"));
+    }
+
+    @Test
+    public void shouldWriteThePhasesAsJSON() throws IOException {
+        // Given a phase that has been run
+        Profiler.record(Profiler.BUILD, 1500 * MILLIS, 0, 0);
+        // and a file to write to
+        final File file = new File(FileUtils.toFile(ClassLoader.getSystemResource("")), "profile.json");
+
+        try {
+            // When writing the phases as JSON
+            Profiler.writeJSON(file);
+
+            // Then the file should contain the phase
+            final String json = FileUtils.readFileToString(file);
+            assertThat(json, containsString("\"name\":\"" + Profiler.BUILD + "\""));
+            assertThat(json, containsString("\"totalMs\":1500"));
+        } finally {
+            file.delete();
+        }
+    }
+}
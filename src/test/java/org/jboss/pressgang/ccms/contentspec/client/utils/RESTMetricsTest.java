@@ -0,0 +1,112 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.junit.Test;
+
+public class RESTMetricsTest extends BaseUnitTest {
+    private static final String TOPIC_PATH = "/pressgang-ccms/rest/1/topic/get/json/";
+
+    @Test
+    public void shouldReplaceIdsAndRemoveParametersInPathTemplates() {
+        // Given some request paths
+        final String revisionPath = TOPIC_PATH + "1234/r/5678";
+        final String queryPath = "/pressgang-ccms/rest/1/topics/get/json/query;topicIds=1,2,3?expand=%7B%7D";
+
+        // When getting the path templates
+        final String revisionTemplate = RESTMetrics.getPathTemplate(revisionPath);
+        final String queryTemplate = RESTMetrics.getPathTemplate(queryPath);
+
+        // Then the ids and parameters should have been removed
+        assertThat(revisionTemplate, is(TOPIC_PATH + "{id}/r/{id}"));
+        assertThat(queryTemplate, is("/pressgang-ccms/rest/1/topics/get/json/query"));
+    }
+
+    @Test
+    public void shouldGroupCallsForTheSameEndpoint() {
+        // Given a metrics instance
+        final RESTMetrics metrics = new RESTMetrics();
+
+        // When recording calls for different entities from the same endpoint
+        metrics.record("GET", TOPIC_PATH + "1", 200, 100, 20);
+        metrics.record("GET", TOPIC_PATH + "2", 200, 150, 30);
+        metrics.record("GET", TOPIC_PATH + "3", 404, -1, 10);
+        metrics.record("PUT", TOPIC_PATH + "3", 200, 10, 10);
+
+        // Then the calls should be grouped by method and endpoint, with the most called first
+        final List<RESTMetrics.Endpoint> endpoints = metrics.getEndpoints();
+        assertThat(endpoints.size(), is(2));
+        final RESTMetrics.Endpoint endpoint = endpoints.get(0);
+        assertThat(endpoint.getMethod(), is("GET"));
+        assertThat(endpoint.getPath(), is(TOPIC_PATH + "{id}"));
+        assertThat(endpoint.getCount(), is(3L));
+        assertThat(endpoint.getErrorCount(), is(1L));
+        assertThat(endpoint.getBytes(), is(250L));
+        assertThat(endpoint.getTotalTime(), is(60L));
+    }
+
+    @Test
+    public void shouldEstimatePercentilesFromTheHistogramBuckets() {
+        // Given a metrics instance with 100 calls, 90 of which are fast and 10 of which are slow
+        final RESTMetrics metrics = new RESTMetrics();
+        for (int i = 0; i < 90; i++) {
+            metrics.record("GET", TOPIC_PATH + i, 200, 0, 7);
+        }
+        for (int i = 0; i < 10; i++) {
+            metrics.record("GET", TOPIC_PATH + i, 200, 0, 700);
+        }
+
+        // When getting the percentiles
+        final RESTMetrics.Endpoint endpoint = metrics.getEndpoints().get(0);
+
+        // Then they should be the upper bound of the matching bucket
+        assertThat(endpoint.getPercentile(50), is(10L));
+        assertThat(endpoint.getPercentile(90), is(10L));
+        assertThat(endpoint.getPercentile(99), is(1000L));
+    }
+
+    @Test
+    public void shouldExportCumulativeHistogramsInPrometheusFormat() {
+        // Given a metrics instance with some calls
+        final RESTMetrics metrics = new RESTMetrics();
+        metrics.record("GET", TOPIC_PATH + "1", 200, 100, 3);
+        metrics.record("GET", TOPIC_PATH + "2", 200, 100, 70000);
+
+        // When exporting the metrics
+        final String text = metrics.toPrometheusText();
+
+        // Then the counters and cumulative histogram buckets should be included
+        final String labels = "method=\"GET\",path=\"" + TOPIC_PATH + "{id}\"";
+        assertThat(text, containsString("csprocessor_rest_requests_total{" + labels + ",status=\"200\"} 2\n"));
+        assertThat(text, containsString("csprocessor_rest_response_bytes_total{" + labels + "} 200\n"));
+        assertThat(text, containsString("csprocessor_rest_request_duration_seconds_bucket{" + labels + ",le=\"0.005\"} 1\n"));
+        assertThat(text, containsString("csprocessor_rest_request_duration_seconds_bucket{" + labels + ",le=\"60.0\"} 1\n"));
+        assertThat(text, containsString("csprocessor_rest_request_duration_seconds_bucket{" + labels + ",le=\"+Inf\"} 2\n"));
+        assertThat(text, containsString("csprocessor_rest_request_duration_seconds_count{" + labels + "} 2\n"));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ServerVerificationCacheTest extends BaseUnitTest {
+    private static final long MAX_AGE = 60000L;
+    private static final String SERVER_URL = "http://localhost:8080/pressgang-ccms/rest/";
+    private static final String VERSION = "1.9.5";
+
+    File cacheFile;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheFile = new File(FileUtils.toFile(ClassLoader.getSystemResource("")), "servers-test.properties");
+        FileUtils.deleteQuietly(cacheFile);
+    }
+
+    @After
+    public void cleanUp() {
+        FileUtils.deleteQuietly(cacheFile);
+    }
+
+    @Test
+    public void shouldPersistVerifiedServersBetweenRuns() {
+        // Given a server that has been verified
+        new ServerVerificationCache(cacheFile, MAX_AGE).setVerified(SERVER_URL, VERSION);
+
+        // When checking the server using a new cache with the same file
+        final boolean verified = new ServerVerificationCache(cacheFile, MAX_AGE).isVerified(SERVER_URL, VERSION);
+
+        // Then the server should still be verified
+        assertThat(verified, is(true));
+    }
+
+    @Test
+    public void shouldNotBeVerifiedForADifferentClientVersion() {
+        // Given a server that has been verified
+        final ServerVerificationCache cache = new ServerVerificationCache(cacheFile, MAX_AGE);
+        cache.setVerified(SERVER_URL, VERSION);
+
+        // When checking the server for a different version of the client
+        final boolean verified = cache.isVerified(SERVER_URL, "1.9.6");
+
+        // Then the server should not be verified
+        assertThat(verified, is(false));
+    }
+
+    @Test
+    public void shouldNotBeVerifiedOnceExpired() throws InterruptedException {
+        // Given a cache where verifications expire almost immediately
+        final ServerVerificationCache cache = new ServerVerificationCache(cacheFile, 1L);
+        // and a server that has been verified
+        cache.setVerified(SERVER_URL, VERSION);
+        Thread.sleep(5);
+
+        // When checking the server
+        final boolean verified = cache.isVerified(SERVER_URL, VERSION);
+
+        // Then the server should not be verified
+        assertThat(verified, is(false));
+    }
+
+    @Test
+    public void shouldNotBeVerifiedOnceInvalidated() {
+        // Given a server that has been verified
+        new ServerVerificationCache(cacheFile, MAX_AGE).setVerified(SERVER_URL, VERSION);
+
+        // When the verification is invalidated
+        new ServerVerificationCache(cacheFile, MAX_AGE).invalidate(SERVER_URL);
+
+        // Then the server should not be verified by the next run
+        assertThat(new ServerVerificationCache(cacheFile, MAX_AGE).isVerified(SERVER_URL, VERSION), is(false));
+    }
+}
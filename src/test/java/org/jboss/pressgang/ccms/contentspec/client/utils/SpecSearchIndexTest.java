@@ -0,0 +1,160 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpecSearchIndexTest extends BaseUnitTest {
+    File indexFile;
+
+    @Before
+    public void setUp() {
+        indexFile = new File(FileUtils.toFile(ClassLoader.getSystemResource("")), "search-index-test.properties");
+        FileUtils.deleteQuietly(indexFile);
+    }
+
+    @After
+    public void cleanUp() {
+        FileUtils.deleteQuietly(indexFile);
+    }
+
+    @Test
+    public void shouldMatchWordsByPrefixAndRankTitleMatchesFirst() {
+        // Given an index with some content specs
+        final SpecSearchIndex searchIndex = createIndex(null);
+
+        // When searching for the start of a word
+        final List<SpecSearchIndex.Entry> results = searchIndex.search("Enterp");
+
+        // Then the content spec with the word in the title should be ranked first
+        assertThat(getIds(results), is(Arrays.asList(2, 1)));
+    }
+
+    @Test
+    public void shouldOnlyReturnContentSpecsThatMatchAllWords() {
+        // Given an index with some content specs
+        final SpecSearchIndex searchIndex = createIndex(null);
+
+        // When searching for multiple words
+        final List<SpecSearchIndex.Entry> results = searchIndex.search("installation 6.2");
+
+        // Then only the content spec that has both words should be returned
+        assertThat(getIds(results), is(Arrays.asList(1)));
+    }
+
+    @Test
+    public void shouldReplaceOldMetadataWhenUpdated() {
+        // Given an index with some content specs
+        final SpecSearchIndex searchIndex = createIndex(null);
+
+        // When a content spec is updated with a new title
+        searchIndex.update(new SpecSearchIndex.Entry(1, "Upgrade Guide", "JBoss Enterprise Application Platform", "6.2", "jsmith",
+                new Date()));
+
+        // Then the old title should no longer match
+        assertTrue(searchIndex.search("installation").isEmpty());
+        assertThat(getIds(searchIndex.search("upgrade")), is(Arrays.asList(1)));
+    }
+
+    @Test
+    public void shouldLoadSavedIndex() {
+        // Given an index that has been saved
+        final SpecSearchIndex searchIndex = createIndex(indexFile);
+        searchIndex.setLastRefresh(1000L);
+        searchIndex.save();
+
+        // When loading the index from the file
+        final SpecSearchIndex loadedIndex = new SpecSearchIndex(indexFile);
+        final boolean loaded = loadedIndex.load();
+
+        // Then the index should have the same content specs and refresh time
+        assertTrue(loaded);
+        assertThat(loadedIndex.size(), is(3));
+        assertThat(loadedIndex.getLastRefresh(), is(1000L));
+        assertThat(getIds(loadedIndex.search("jdoe")), is(Arrays.asList(3)));
+    }
+
+    @Test
+    public void shouldLoadSavedIndexWithSpecialCharacters() {
+        // Given an index with a content spec that has tabs and new lines in its metadata
+        final SpecSearchIndex searchIndex = new SpecSearchIndex(indexFile);
+        searchIndex.update(new SpecSearchIndex.Entry(1, "Installation\tGuide", "Fedora\nDocs", "20", "jsmith", null));
+        searchIndex.save();
+
+        // When loading the index from the file
+        final SpecSearchIndex loadedIndex = new SpecSearchIndex(indexFile);
+        final boolean loaded = loadedIndex.load();
+
+        // Then the metadata should be the same as what was saved
+        assertTrue(loaded);
+        final SpecSearchIndex.Entry entry = loadedIndex.search("installation").get(0);
+        assertThat(entry.getTitle(), is("Installation\tGuide"));
+        assertThat(entry.getProduct(), is("Fedora\nDocs"));
+        assertThat(entry.getLastModified(), nullValue());
+    }
+
+    @Test
+    public void shouldNotLoadIndexSavedInAnOlderFormat() throws IOException {
+        // Given an index file that was saved in an older format
+        FileUtils.writeStringToFile(indexFile, "lastRefresh=1000\nlastFullRefresh=1000\nspec.1=Installation Guide\\tFedora\\t20\\tjsmith\\t\n");
+
+        // When loading the index from the file
+        final SpecSearchIndex loadedIndex = new SpecSearchIndex(indexFile);
+        final boolean loaded = loadedIndex.load();
+
+        // Then the index shouldn't be loaded, so that it will be rebuilt
+        assertFalse(loaded);
+        assertThat(loadedIndex.size(), is(0));
+    }
+
+    private static SpecSearchIndex createIndex(final File file) {
+        final SpecSearchIndex searchIndex = new SpecSearchIndex(file);
+        searchIndex.update(new SpecSearchIndex.Entry(1, "Installation Guide", "JBoss Enterprise Application Platform", "6.2", "jsmith",
+                new Date()));
+        searchIndex.update(new SpecSearchIndex.Entry(2, "Enterprise Deployment Guide", "Fedora", "20", "jsmith", new Date()));
+        searchIndex.update(new SpecSearchIndex.Entry(3, "Release Notes", "Fedora", "20", "jdoe", null));
+        return searchIndex;
+    }
+
+    private static List<Integer> getIds(final List<SpecSearchIndex.Entry> entries) {
+        final List<Integer> ids = new ArrayList<Integer>();
+        for (final SpecSearchIndex.Entry entry : entries) {
+            ids.add(entry.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import com.beust.jcommander.internal.Console;
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+public class StreamPumpTest extends BaseUnitTest {
+    @Mock Console console;
+
+    @Test
+    public void shouldPrintCompleteLinesToConsole() {
+        // Given a stream with multiple lines of output
+        final ByteArrayInputStream stream = new ByteArrayInputStream("First line\r\nSecond line\nPrompt: ".getBytes());
+        // and a pump to print the output
+        final StreamPump pump = new StreamPump(stream, console);
+
+        // When pumping the stream
+        pump.run();
+
+        // Then each line should be printed in order
+        final InOrder order = inOrder(console);
+        order.verify(console).println("First line");
+        order.verify(console).println("Second line");
+        // and the partial line at the end should be printed without a new line
+        order.verify(console).print("Prompt: ");
+    }
+
+    @Test
+    public void shouldPrintLongLinesInParts() {
+        // Given a stream with a line that is longer than the maximum line length
+        final StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < StreamPump.MAX_LINE_LENGTH + 10; i++) {
+            longLine.append("a");
+        }
+        final ByteArrayInputStream stream = new ByteArrayInputStream((longLine + "\n").getBytes());
+        // and a pump to print the output
+        final StreamPump pump = new StreamPump(stream, console);
+
+        // When pumping the stream
+        pump.run();
+
+        // Then the start of the line should be printed once the buffer is full
+        verify(console).print(longLine.substring(0, StreamPump.BUFFER_SIZE));
+        // and the rest of the line should be printed when the line ends
+        verify(console).println(longLine.substring(StreamPump.BUFFER_SIZE));
+    }
+
+    @Test
+    public void shouldCopyAvailableDataToOutputStream() throws InterruptedException {
+        // Given a stream with some data
+        final byte[] data = "some input\n".getBytes();
+        final ByteArrayInputStream stream = new ByteArrayInputStream(data);
+        // and a pump to copy the data to an output stream
+        final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+        final StreamPump pump = new StreamPump(stream, outStream);
+
+        // When pumping the stream
+        pump.start();
+        while (outStream.size() < data.length) {
+            Thread.sleep(StreamPump.MIN_POLL_INTERVAL);
+        }
+        pump.shutdown();
+        pump.join();
+
+        // Then the data should have been copied
+        assertThat(outStream.toString(), is("some input\n"));
+        // and the pump should have shutdown
+        assertThat(pump.isShutdown(), is(true));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2011-2014 Red Hat, Inc.
+ *
+ * This file is part of PressGang CCMS.
+ *
+ * PressGang CCMS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PressGang CCMS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with PressGang CCMS. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.jboss.pressgang.ccms.contentspec.client.utils;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.jboss.pressgang.ccms.contentspec.client.BaseUnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UserCacheTest extends BaseUnitTest {
+    private static final long MAX_AGE = 60000L;
+
+    File cacheFile;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheFile = new File(FileUtils.toFile(ClassLoader.getSystemResource("")), "users-test.properties");
+        FileUtils.deleteQuietly(cacheFile);
+    }
+
+    @After
+    public void cleanUp() {
+        FileUtils.deleteQuietly(cacheFile);
+    }
+
+    @Test
+    public void shouldPersistUsernamesBetweenRuns() {
+        // Given a cache that has had a username added
+        final UserCache cache = new UserCache(cacheFile, MAX_AGE, 10);
+        cache.putAll(createUsernames("John Smith", "jsmith"));
+
+        // When getting the username from a new cache using the same file
+        final String username = new UserCache(cacheFile, MAX_AGE, 10).get("John Smith");
+
+        // Then the username should be returned
+        assertThat(username, is("jsmith"));
+    }
+
+    @Test
+    public void shouldNotReturnExpiredUsernames() throws InterruptedException {
+        // Given a cache where usernames expire almost immediately
+        final UserCache cache = new UserCache(cacheFile, 1L, 10);
+        // and a username that has been added
+        cache.putAll(createUsernames("John Smith", "jsmith"));
+        Thread.sleep(5);
+
+        // When getting the username
+        final String username = cache.get("John Smith");
+
+        // Then nothing should be returned
+        assertThat(username, nullValue());
+    }
+
+    @Test
+    public void shouldEvictOldestUsernamesWhenFull() throws InterruptedException {
+        // Given a cache that can only hold one username
+        final UserCache cache = new UserCache(null, MAX_AGE, 1);
+        cache.putAll(createUsernames("John Smith", "jsmith"));
+        Thread.sleep(5);
+
+        // When adding another username
+        cache.putAll(createUsernames("Jane Doe", "jdoe"));
+
+        // Then only the newest username should be returned
+        assertThat(cache.get("John Smith"), nullValue());
+        assertThat(cache.get("Jane Doe"), is("jdoe"));
+    }
+
+    private static Map<String, String> createUsernames(final String name, final String username) {
+        final Map<String, String> usernames = new HashMap<String, String>();
+        usernames.put(name, username);
+        return usernames;
+    }
+}